@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.benchmark;
+
+import java.nio.LongBuffer;
+import java.time.ZoneId;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.liara.selection.bitmap.CompressedBitmap;
+import org.liara.selection.column.ColumnScanner;
+import org.liara.selection.index.CalendarBucketIndex;
+import org.liara.test.selection.datetime.DateTimeCondition;
+import org.liara.test.selection.datetime.DateTimeSelectionToConditionCompiler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compare the evaluation of partial datetime selections over 1M instants with a calendar bucket
+ * index and with a scan.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalendarBucketIndexBenchmark {
+
+  private static final int ROWS = 1_000_000;
+
+  @Param({
+      "format:(HH)(08):(10)",
+      "locale:(en)format:(EEEE)(Monday)",
+      "format:(MM)(12),not:format:(HH)(00):(06)"
+  })
+  public String selection;
+
+  @MonotonicNonNull
+  private LongBuffer _column;
+
+  @MonotonicNonNull
+  private CalendarBucketIndex _index;
+
+  @MonotonicNonNull
+  private DateTimeCondition _condition;
+
+  @Setup
+  public void setup() {
+    @NonNull final Random random = new Random(ROWS);
+    @NonNull final long[] column = new long[ROWS];
+
+    for (@NonNegative int row = 0; row < ROWS; ++row) {
+      column[row] = 1514764800000L + (long) (random.nextDouble() * 3L * 365L * 86400000L);
+    }
+
+    _column = LongBuffer.wrap(column);
+    _index = CalendarBucketIndex.of(
+        column, ZoneId.systemDefault(), CalendarBucketIndex.DEFAULT_FIELDS
+    );
+    _condition = new DateTimeSelectionToConditionCompiler().compile(selection);
+  }
+
+  @Benchmark
+  public @NonNull CompressedBitmap scan() {
+    return ColumnScanner.scan(_condition, _column);
+  }
+
+  @Benchmark
+  public @NonNull CompressedBitmap index() {
+    return _index.select(_condition);
+  }
+}
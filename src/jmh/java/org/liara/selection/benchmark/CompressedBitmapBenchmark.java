@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.liara.selection.bitmap.CompressedBitmap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compare the combination of the results of two selections over 100M rows as compressed bitmaps
+ * and as plain bitsets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class CompressedBitmapBenchmark {
+
+  private static final int ROWS = 100_000_000;
+
+  /**
+   * Fraction of the rows accepted by each selection.
+   */
+  @Param({"0.001", "0.5"})
+  public double density;
+
+  @MonotonicNonNull
+  private long[] _leftBitset;
+
+  @MonotonicNonNull
+  private long[] _rightBitset;
+
+  @MonotonicNonNull
+  private CompressedBitmap _leftBitmap;
+
+  @MonotonicNonNull
+  private CompressedBitmap _rightBitmap;
+
+  @Setup
+  public void setup() {
+    @NonNull final Random random = new Random(ROWS);
+
+    _leftBitset = generate(random);
+    _rightBitset = generate(random);
+    _leftBitmap = CompressedBitmap.fromBitset(_leftBitset);
+    _rightBitmap = CompressedBitmap.fromBitset(_rightBitset);
+  }
+
+  private @NonNull long[] generate(@NonNull final Random random) {
+    @NonNull final long[] result = new long[(ROWS + 63) >>> 6];
+
+    if (density >= 0.5) {
+      for (@NonNegative int word = 0; word < result.length; ++word) {
+        result[word] = random.nextLong();
+      }
+    } else {
+      final int gap = (int) (2 / density);
+
+      for (int row = random.nextInt(gap); row < ROWS; row += 1 + random.nextInt(gap)) {
+        result[row >>> 6] |= 1L << row;
+      }
+    }
+
+    return result;
+  }
+
+  @Benchmark
+  public @NonNull long[] bitsetAnd() {
+    @NonNull final long[] result = new long[_leftBitset.length];
+
+    for (@NonNegative int word = 0; word < result.length; ++word) {
+      result[word] = _leftBitset[word] & _rightBitset[word];
+    }
+
+    return result;
+  }
+
+  @Benchmark
+  public @NonNull long[] bitsetOr() {
+    @NonNull final long[] result = new long[_leftBitset.length];
+
+    for (@NonNegative int word = 0; word < result.length; ++word) {
+      result[word] = _leftBitset[word] | _rightBitset[word];
+    }
+
+    return result;
+  }
+
+  @Benchmark
+  public @NonNull CompressedBitmap bitmapAnd() {
+    return _leftBitmap.and(_rightBitmap);
+  }
+
+  @Benchmark
+  public @NonNull CompressedBitmap bitmapOr() {
+    return _leftBitmap.or(_rightBitmap);
+  }
+
+  @Benchmark
+  public long bitmapAndCardinality() {
+    return _leftBitmap.and(_rightBitmap).getCardinality();
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.benchmark;
+
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.liara.selection.subscription.DateTimeSubscriptionIndex;
+import org.liara.test.selection.datetime.DateTimeCondition;
+import org.liara.test.selection.datetime.DateTimeSelectionToConditionCompiler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compare the matching of an incoming instant against stored scheduled rules with a linear
+ * evaluation of each rule.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateTimeSubscriptionIndexBenchmark {
+
+  @Param({"10000", "100000"})
+  public int subscriptions;
+
+  @MonotonicNonNull
+  private DateTimeCondition[] _conditions;
+
+  @MonotonicNonNull
+  private DateTimeSubscriptionIndex<Integer> _index;
+
+  @MonotonicNonNull
+  private long[] _instants;
+
+  @NonNegative
+  private int _next;
+
+  @Setup
+  public void setup() {
+    TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+
+    @NonNull final Random random = new Random(subscriptions);
+    @NonNull final DateTimeSelectionToConditionCompiler compiler = (
+        new DateTimeSelectionToConditionCompiler()
+    );
+    @NonNull final String[] days = {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday"};
+
+    _conditions = new DateTimeCondition[subscriptions];
+    _index = new DateTimeSubscriptionIndex<>();
+    _instants = new long[1024];
+
+    for (@NonNegative int index = 0; index < subscriptions; ++index) {
+      final int hour = random.nextInt(20);
+
+      _conditions[index] = compiler.compile(
+          String.format(
+              "format:(HH)(%02d):(%02d),locale:(en)format:(EEEE)(%s):(Friday),format:(MM)(%02d)",
+              hour, hour + 2, days[random.nextInt(days.length)], random.nextInt(12) + 1
+          )
+      );
+      _index.add(index, _conditions[index]);
+    }
+
+    for (@NonNegative int index = 0; index < _instants.length; ++index) {
+      _instants[index] = 1546300800000L + (long) (random.nextDouble() * 365 * 86400000L);
+    }
+  }
+
+  @Benchmark
+  public void linear(@NonNull final Blackhole blackhole) {
+    final long instant = _instants[_next++ & 1023];
+
+    for (@NonNegative int index = 0; index < _conditions.length; ++index) {
+      if (_conditions[index].test(instant)) {
+        blackhole.consume(index);
+      }
+    }
+  }
+
+  @Benchmark
+  public void index(@NonNull final Blackhole blackhole) {
+    _index.match(_instants[_next++ & 1023], blackhole::consume);
+  }
+}
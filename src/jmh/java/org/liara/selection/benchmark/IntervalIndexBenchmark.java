@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.liara.selection.index.IntervalIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compare the search of the activities that contain an instant or overlap a range among 50M
+ * activities with an interval index and with a full scan of their bounds.
+ *
+ * Activities follow each other every ten seconds on average and last up to a minute, one of each
+ * hundred lasting up to a day.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class IntervalIndexBenchmark {
+
+  private static final int ACTIVITIES = 50_000_000;
+
+  private static final long DAY = 86_400_000L;
+
+  /**
+   * Duration of the searched range, 0 for an equality.
+   */
+  @Param({"0", "3600000", "86400000"})
+  public long duration;
+
+  @MonotonicNonNull
+  private long[] _starts;
+
+  @MonotonicNonNull
+  private long[] _ends;
+
+  @MonotonicNonNull
+  private IntervalIndex _index;
+
+  private long _lower;
+
+  private long _upper;
+
+  @Setup
+  public void setup() {
+    @NonNull final Random random = new Random(ACTIVITIES);
+
+    _starts = new long[ACTIVITIES];
+    _ends = new long[ACTIVITIES];
+
+    for (@NonNegative int activity = 0; activity < ACTIVITIES; ++activity) {
+      _starts[activity] = activity * 10_000L + random.nextInt(10_000);
+      _ends[activity] = _starts[activity] + (
+          random.nextInt(100) == 0 ? (long) (random.nextDouble() * DAY) : random.nextInt(60_000)
+      );
+    }
+
+    _index = IntervalIndex.of(_starts, _ends);
+    _lower = ACTIVITIES / 2 * 10_000L;
+    _upper = _lower + duration;
+  }
+
+  @Benchmark
+  public long scan() {
+    long result = 0;
+
+    for (@NonNegative int activity = 0; activity < ACTIVITIES; ++activity) {
+      if (_starts[activity] <= _upper && _ends[activity] >= _lower) {
+        result += 1;
+      }
+    }
+
+    return result;
+  }
+
+  @Benchmark
+  public @NonNull int[] index() {
+    return _index.search(_lower, _upper);
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.liara.selection.processor.Processor;
+import org.liara.selection.processor.ProcessorCall;
+import org.liara.selection.processor.ProcessorExecutor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compare the dispatch of calls by an executor graph and by the trie compiled from it.
+ *
+ * The deep graph binds identifiers like sensors.kitchen.temperature.mean, with 16 rooms, 8
+ * quantities and 8 aggregates, each level being an all executor of field executors as written by
+ * hand. The wide graph is an all executor of 512 field executors.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProcessorDispatchBenchmark {
+
+  private static final int CALLS = 256;
+
+  @Param({"deep", "wide"})
+  public String shape;
+
+  @MonotonicNonNull
+  private ProcessorExecutor<Integer> _graph;
+
+  @MonotonicNonNull
+  private ProcessorExecutor<Integer> _trie;
+
+  @MonotonicNonNull
+  private ProcessorCall[] _calls;
+
+  @Setup
+  public void setup() {
+    @NonNull final Random random = new Random(CALLS);
+    @NonNull final Processor<Integer> processor = (parameters) -> parameters.size();
+
+    _calls = new ProcessorCall[CALLS];
+
+    if ("deep".equals(shape)) {
+      _graph = level(new int[]{16, 8, 8}, 0, processor);
+      _graph = ProcessorExecutor.field("sensors", _graph);
+
+      for (@NonNegative int call = 0; call < CALLS; ++call) {
+        _calls[call] = new ProcessorCall(
+            "sensors.room" + random.nextInt(16) + ".quantity" + random.nextInt(8) +
+                ".aggregate" + random.nextInt(8),
+            Collections.emptyList(),
+            Collections.singletonList(1L)
+        );
+      }
+    } else {
+      @NonNull final List<@NonNull ProcessorExecutor<Integer>> bindings = new ArrayList<>();
+
+      for (@NonNegative int binding = 0; binding < 512; ++binding) {
+        bindings.add(ProcessorExecutor.field("binding" + binding, ProcessorExecutor.execute(
+            processor
+        )));
+      }
+
+      _graph = ProcessorExecutor.all(bindings);
+
+      for (@NonNegative int call = 0; call < CALLS; ++call) {
+        _calls[call] = new ProcessorCall(
+            "binding" + random.nextInt(512),
+            Collections.emptyList(),
+            Collections.singletonList(1L)
+        );
+      }
+    }
+
+    _trie = ProcessorExecutor.compile(_graph);
+  }
+
+  private static @NonNull ProcessorExecutor<Integer> level(
+      @NonNull final int[] widths,
+      @NonNegative final int depth,
+      @NonNull final Processor<Integer> processor
+  ) {
+    @NonNull final String[] names = {"room", "quantity", "aggregate"};
+    @NonNull final List<@NonNull ProcessorExecutor<Integer>> bindings = new ArrayList<>();
+
+    for (@NonNegative int index = 0; index < widths[depth]; ++index) {
+      bindings.add(
+          ProcessorExecutor.field(
+              names[depth] + index,
+              depth + 1 == widths.length ? ProcessorExecutor.execute(processor)
+                  : level(widths, depth + 1, processor)
+          )
+      );
+    }
+
+    return ProcessorExecutor.all(bindings);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(CALLS)
+  public int graph() {
+    int result = 0;
+
+    for (@NonNull final ProcessorCall call : _calls) {
+      result += _graph.execute(call).get();
+    }
+
+    return result;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(CALLS)
+  public int trie() {
+    int result = 0;
+
+    for (@NonNull final ProcessorCall call : _calls) {
+      result += _trie.execute(call).get();
+    }
+
+    return result;
+  }
+}
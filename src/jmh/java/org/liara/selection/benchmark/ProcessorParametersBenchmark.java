@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.liara.selection.processor.Processor;
+import org.liara.selection.processor.ProcessorCall;
+import org.liara.selection.processor.ProcessorParameters;
+import org.liara.selection.processor.ProcessorParametersBuilder;
+import org.liara.selection.processor.TypedProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compare a processor that sums boxed parameters read from a list with a typed processor that sums
+ * the same parameters read from a vector, half of the parameters being integers and half doubles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProcessorParametersBenchmark {
+
+  @Param({"4", "64"})
+  public int parameters;
+
+  @MonotonicNonNull
+  private ProcessorCall _boxedCall;
+
+  @MonotonicNonNull
+  private ProcessorCall _typedCall;
+
+  @NonNull
+  private final Processor<Double> _boxed = new Processor<Double>() {
+    @Override
+    public @NonNull Double execute(@NonNull final List<@NonNull Object> parameters) {
+      double result = 0;
+
+      for (@NonNegative int index = 0, size = parameters.size(); index < size; ++index) {
+        result += ((Number) parameters.get(index)).doubleValue();
+      }
+
+      return result;
+    }
+  };
+
+  @NonNull
+  private final TypedProcessor<Double> _typed = (@NonNull final ProcessorParameters vector) -> {
+    double result = 0;
+
+    for (@NonNegative int index = 0, size = vector.size(); index < size; ++index) {
+      result += vector.getDouble(index);
+    }
+
+    return result;
+  };
+
+  @Setup
+  public void setup() {
+    @NonNull final List<@NonNull Object> boxed = new ArrayList<>(parameters);
+    @NonNull final ProcessorParametersBuilder typed = new ProcessorParametersBuilder();
+
+    for (@NonNegative int index = 0; index < parameters; ++index) {
+      if (index % 2 == 0) {
+        boxed.add(1000L + index);
+        typed.addLong(1000L + index);
+      } else {
+        boxed.add(index + 0.5d);
+        typed.addDouble(index + 0.5d);
+      }
+    }
+
+    _boxedCall = new ProcessorCall("sum", Collections.emptyList(), boxed);
+    _typedCall = new ProcessorCall("sum", ProcessorParameters.EMPTY, typed.build());
+  }
+
+  @Benchmark
+  public double boxed() {
+    return _boxedCall.call(_boxed);
+  }
+
+  @Benchmark
+  public double typed() {
+    return _typedCall.call(_typed);
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.benchmark;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.liara.selection.processor.Processor;
+import org.liara.selection.processor.ProcessorCall;
+import org.liara.selection.processor.ProcessorExecutor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compare the execution of calls by a factory executor, that creates and configures a processor
+ * for each call, and by a pooling executor, that reuses the processors of equal configurations.
+ *
+ * Processors allocate an accumulator of 4096 doubles when configured, and calls use 4 distinct
+ * configurations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProcessorPoolingBenchmark {
+
+  private static final int CALLS = 256;
+
+  @MonotonicNonNull
+  private ProcessorExecutor<Double> _factory;
+
+  @MonotonicNonNull
+  private ProcessorExecutor<Double> _pool;
+
+  @MonotonicNonNull
+  private ProcessorCall[] _calls;
+
+  @Setup
+  public void setup() {
+    _factory = ProcessorExecutor.factory(() -> ProcessorExecutor.execute(new Histogram()));
+    _pool = ProcessorExecutor.pool(Histogram::new, 8);
+    _calls = new ProcessorCall[CALLS];
+
+    for (@NonNegative int call = 0; call < CALLS; ++call) {
+      _calls[call] = new ProcessorCall(
+          "histogram",
+          Collections.singletonList((long) (call % 4)),
+          Arrays.asList(1L, 2L, 3L, (long) call)
+      );
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(CALLS)
+  public double factory() {
+    double result = 0;
+
+    for (@NonNull final ProcessorCall call : _calls) {
+      result += _factory.execute(call).get();
+    }
+
+    return result;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(CALLS)
+  public double pool() {
+    double result = 0;
+
+    for (@NonNull final ProcessorCall call : _calls) {
+      result += _pool.execute(call).get();
+    }
+
+    return result;
+  }
+
+  /**
+   * A processor that accumulates its parameters into the buckets of a histogram.
+   */
+  private static final class Histogram
+      implements Processor<Double> {
+
+    @MonotonicNonNull
+    private double[] _buckets;
+
+    private long _offset;
+
+    @Override
+    public void configure(@NonNull final List<@NonNull Object> parameters) {
+      _buckets = new double[4096];
+      _offset = (Long) parameters.get(0);
+    }
+
+    @Override
+    public void reset() {
+      Arrays.fill(_buckets, 0d);
+    }
+
+    @Override
+    public @NonNull Double execute(@NonNull final List<@NonNull Object> parameters) {
+      double result = 0;
+
+      for (@NonNegative int index = 0, size = parameters.size(); index < size; ++index) {
+        final int bucket = (int) (((Long) parameters.get(index) + _offset) & 4095);
+        _buckets[bucket] += 1d;
+        result += _buckets[bucket];
+      }
+
+      return result;
+    }
+  }
+}
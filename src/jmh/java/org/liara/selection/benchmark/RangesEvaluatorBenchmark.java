@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.benchmark;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.liara.selection.range.DoubleRanges;
+import org.liara.selection.range.LongRanges;
+import org.liara.selection.range.RangesEvaluator;
+import org.liara.selection.range.RangesEvaluators;
+import org.liara.selection.vector.VectorRangesEvaluator;
+import org.liara.test.selection.natural.DoubleSelectionToRangesCompiler;
+import org.liara.test.selection.natural.LongSelectionToRangesCompiler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compare the scalar ranges evaluator with the vector one at several vector widths.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class RangesEvaluatorBenchmark {
+
+  @Param({"scalar", "64", "128", "256", "512"})
+  public String engine;
+
+  @Param({"1048576"})
+  public int rows;
+
+  @Param({"0:10;gt:100,lt:200;near:50+-3"})
+  public String selection;
+
+  @MonotonicNonNull
+  private RangesEvaluator _evaluator;
+
+  @MonotonicNonNull
+  private LongRanges _longRanges;
+
+  @MonotonicNonNull
+  private DoubleRanges _doubleRanges;
+
+  @MonotonicNonNull
+  private long[] _longs;
+
+  @MonotonicNonNull
+  private int[] _integers;
+
+  @MonotonicNonNull
+  private double[] _doubles;
+
+  @MonotonicNonNull
+  private long[] _result;
+
+  @Setup
+  public void setup() {
+    @NonNull final Random random = new Random(rows);
+
+    _evaluator = "scalar".equals(engine) ? RangesEvaluators.createScalarEvaluator()
+        : new VectorRangesEvaluator(Integer.parseInt(engine));
+    _longRanges = new LongSelectionToRangesCompiler().compile(selection);
+    _doubleRanges = new DoubleSelectionToRangesCompiler().compile(selection);
+    _longs = new long[rows];
+    _integers = new int[rows];
+    _doubles = new double[rows];
+    _result = new long[(rows + 63) >>> 6];
+
+    for (@NonNegative int index = 0; index < rows; ++index) {
+      _integers[index] = random.nextInt(300);
+      _longs[index] = _integers[index];
+      _doubles[index] = _integers[index] + random.nextDouble();
+    }
+  }
+
+  @Benchmark
+  public @NonNull long[] longColumn() {
+    Arrays.fill(_result, 0L);
+    _evaluator.evaluate(_longRanges, _longs, 0, rows, _result);
+    return _result;
+  }
+
+  @Benchmark
+  public @NonNull long[] intColumn() {
+    Arrays.fill(_result, 0L);
+    _evaluator.evaluate(_longRanges, _integers, 0, rows, _result);
+    return _result;
+  }
+
+  @Benchmark
+  public @NonNull long[] doubleColumn() {
+    Arrays.fill(_result, 0L);
+    _evaluator.evaluate(_doubleRanges, _doubles, 0, rows, _result);
+    return _result;
+  }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.selection.stream.RecordClause;
+import org.liara.selection.stream.RecordFilter;
+import org.liara.test.selection.bool.BooleanSelectionToConditionCompiler;
+import org.liara.test.selection.datetime.DateTimeSelectionToConditionCompiler;
+import org.liara.test.selection.natural.LongSelectionToRangesCompiler;
+import org.liara.test.selection.string.StringSelectionToConditionCompiler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measure the scaling of a parallel record filtering from 1 to N cores.
+ *
+ * Each parallelism level runs the stream in a dedicated fork-join pool of that size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class RecordFilterBenchmark {
+
+  private static final @NonNull String[] NAMES = {"walk", "run", "sleep", "eat", "read"};
+
+  @Param({"1", "2", "4", "8"})
+  public int parallelism;
+
+  @Param({"4000000"})
+  public int rows;
+
+  @MonotonicNonNull
+  private List<@NonNull Activity> _activities;
+
+  @MonotonicNonNull
+  private RecordFilter<@NonNull Activity> _filter;
+
+  @MonotonicNonNull
+  private ForkJoinPool _pool;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    @NonNull final Random random = new Random(rows);
+
+    _activities = new ArrayList<>(rows);
+
+    for (@NonNegative int index = 0; index < rows; ++index) {
+      _activities.add(
+          new Activity(
+              1546300800000L + (long) (random.nextDouble() * 31536000000L),
+              random.nextInt(7200),
+              NAMES[random.nextInt(NAMES.length)],
+              random.nextInt(3) == 0 ? null : random.nextBoolean()
+          )
+      );
+    }
+
+    _filter = RecordFilter.all(
+        RecordClause.datetimes(
+            Activity::getStart,
+            new DateTimeSelectionToConditionCompiler().compile("format:(HH)(08):(18)")
+        ),
+        RecordClause.longs(
+            Activity::getDuration,
+            new LongSelectionToRangesCompiler().compile("gt:60,lt:3600")
+        ),
+        RecordClause.strings(
+            Activity::getName,
+            new StringSelectionToConditionCompiler().compile("walk;/^r(u|e)/")
+        ),
+        RecordClause.booleans(
+            Activity::getValidated,
+            new BooleanSelectionToConditionCompiler().compile("true;null")
+        )
+    );
+
+    _pool = new ForkJoinPool(parallelism);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    _pool.shutdown();
+  }
+
+  @Benchmark
+  public long filter() throws ExecutionException, InterruptedException {
+    return _pool.submit(() -> _filter.parallelStream(_activities).count()).get();
+  }
+
+  public static final class Activity {
+
+    private final long _start;
+
+    private final long _duration;
+
+    @NonNull
+    private final String _name;
+
+    @Nullable
+    private final Boolean _validated;
+
+    public Activity(
+        final long start,
+        final long duration,
+        @NonNull final String name,
+        @Nullable final Boolean validated
+    ) {
+      _start = start;
+      _duration = duration;
+      _name = name;
+      _validated = validated;
+    }
+
+    public long getStart() {
+      return _start;
+    }
+
+    public long getDuration() {
+      return _duration;
+    }
+
+    public @NonNull String getName() {
+      return _name;
+    }
+
+    public @Nullable Boolean getValidated() {
+      return _validated;
+    }
+  }
+}
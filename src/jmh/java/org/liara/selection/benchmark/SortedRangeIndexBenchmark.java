@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.liara.selection.index.SortedRangeIndex;
+import org.liara.selection.range.LongRanges;
+import org.liara.selection.range.RangesEvaluator;
+import org.liara.selection.range.RangesEvaluators;
+import org.liara.test.selection.natural.LongSelectionToRangesCompiler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compare the evaluation of point and range selections over a static column of 10M rows with a
+ * sorted range index and with a full scan.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class SortedRangeIndexBenchmark {
+
+  private static final int ROWS = 10_000_000;
+
+  @Param({"5000000", "5000000:5001000", "5000000:5100000"})
+  public String selection;
+
+  @MonotonicNonNull
+  private long[] _column;
+
+  @MonotonicNonNull
+  private SortedRangeIndex _index;
+
+  @MonotonicNonNull
+  private RangesEvaluator _evaluator;
+
+  @MonotonicNonNull
+  private LongRanges _ranges;
+
+  @Setup
+  public void setup() {
+    @NonNull final Random random = new Random(ROWS);
+
+    _column = new long[ROWS];
+
+    for (@NonNegative int row = 0; row < ROWS; ++row) {
+      _column[row] = random.nextInt(ROWS);
+    }
+
+    _index = SortedRangeIndex.of(_column);
+    _evaluator = RangesEvaluators.createScalarEvaluator();
+    _ranges = new LongSelectionToRangesCompiler().compile(selection);
+  }
+
+  @Benchmark
+  public @NonNull long[] scan() {
+    return _evaluator.evaluate(_ranges, _column);
+  }
+
+  @Benchmark
+  public @NonNull int[] index() {
+    return _index.search(_ranges);
+  }
+
+  @Benchmark
+  public long count() {
+    return _index.count(_ranges);
+  }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.liara.selection.subscription.StringSubscriptionIndex;
+import org.liara.selection.subscription.StringSubscriptionIndexBuilder;
+import org.liara.test.selection.string.StringCondition;
+import org.liara.test.selection.string.StringSelectionToConditionCompiler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compare the number of documents per second matched against stored string selections by an index
+ * and by a linear evaluation of each selection.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringSubscriptionIndexBenchmark {
+
+  @Param({"10000", "50000"})
+  public int subscriptions;
+
+  @MonotonicNonNull
+  private StringCondition[] _selections;
+
+  @MonotonicNonNull
+  private StringSubscriptionIndex<Integer> _index;
+
+  @MonotonicNonNull
+  private String[] _documents;
+
+  @NonNegative
+  private int _next;
+
+  @Setup
+  public void setup() {
+    @NonNull final Random random = new Random(subscriptions);
+    @NonNull final StringSelectionToConditionCompiler compiler = (
+        new StringSelectionToConditionCompiler()
+    );
+    @NonNull final StringSubscriptionIndexBuilder<Integer> builder = (
+        new StringSubscriptionIndexBuilder<>()
+    );
+    @NonNull final String[] words = new String[20000];
+
+    for (@NonNegative int index = 0; index < words.length; ++index) {
+      words[index] = word(random, 4 + random.nextInt(6));
+    }
+
+    _selections = new StringCondition[subscriptions];
+
+    for (@NonNegative int index = 0; index < subscriptions; ++index) {
+      @NonNull final String first = words[random.nextInt(words.length)];
+      @NonNull final String second = words[random.nextInt(words.length)];
+      @NonNull final String selection;
+
+      switch (random.nextInt(4)) {
+        case 0:
+          selection = first + "," + second;
+          break;
+        case 1:
+          selection = "eq:" + first + ";" + second;
+          break;
+        case 2:
+          selection = "/" + first + "s?\\b/,not:" + second;
+          break;
+        default:
+          selection = "\"" + first + " " + second + "\"";
+      }
+
+      _selections[index] = compiler.compile(selection);
+      builder.add(index, _selections[index]);
+    }
+
+    _index = builder.build();
+    _documents = new String[1024];
+
+    for (@NonNegative int index = 0; index < _documents.length; ++index) {
+      @NonNull final StringBuilder document = new StringBuilder();
+
+      while (document.length() < 120) {
+        document.append(words[random.nextInt(words.length)]).append(' ');
+      }
+
+      _documents[index] = document.toString();
+    }
+  }
+
+  private static @NonNull String word(@NonNull final Random random, final int length) {
+    @NonNull final char[] result = new char[length];
+
+    for (@NonNegative int index = 0; index < length; ++index) {
+      result[index] = (char) ('a' + random.nextInt(26));
+    }
+
+    return new String(result);
+  }
+
+  @Benchmark
+  public void linear(@NonNull final Blackhole blackhole) {
+    @NonNull final String document = _documents[_next++ & 1023];
+
+    for (@NonNegative int index = 0; index < _selections.length; ++index) {
+      if (_selections[index].test(document)) {
+        blackhole.consume(index);
+      }
+    }
+  }
+
+  @Benchmark
+  public void index(@NonNull final Blackhole blackhole) {
+    _index.match(_documents[_next++ & 1023], blackhole::consume);
+  }
+}
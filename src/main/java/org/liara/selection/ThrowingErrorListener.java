@@ -26,6 +26,7 @@ import org.antlr.v4.runtime.BaseErrorListener;
 import org.antlr.v4.runtime.RecognitionException;
 import org.antlr.v4.runtime.Recognizer;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 public class ThrowingErrorListener
     extends BaseErrorListener {
@@ -40,10 +41,13 @@ public class ThrowingErrorListener
       final int line,
       final int charPositionInLine,
       @NonNull final String message,
-      @NonNull final RecognitionException exception
+      @Nullable final RecognitionException exception
   )
       throws CompilationException {
-    exception.printStackTrace();
+    if (exception != null) {
+      exception.printStackTrace();
+    }
+
     throw new CompilationException(line, charPositionInLine, message);
   }
 }
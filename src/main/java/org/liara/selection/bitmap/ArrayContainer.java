@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.bitmap;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A container of at most MAXIMUM_ARRAY_CARDINALITY values stored as a sorted array.
+ */
+final class ArrayContainer
+    extends Container {
+
+  @NonNull
+  final char[] values;
+
+  @NonNegative
+  final int cardinality;
+
+  /**
+   * @param values Sorted and distinct values, only the first cardinality ones being used.
+   * @param cardinality Number of values, at least one.
+   */
+  ArrayContainer(@NonNull final char[] values, @NonNegative final int cardinality) {
+    this.values = values;
+    this.cardinality = cardinality;
+  }
+
+  /**
+   * @see Container#getCardinality()
+   */
+  @Override
+  @NonNegative int getCardinality() {
+    return cardinality;
+  }
+
+  /**
+   * @see Container#contains(char)
+   */
+  @Override
+  boolean contains(final char value) {
+    return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+  }
+
+  /**
+   * @see Container#fill(long[], int)
+   */
+  @Override
+  void fill(@NonNull final long[] words, @NonNegative final int offset) {
+    for (@NonNegative int index = 0; index < cardinality; ++index) {
+      words[offset + (values[index] >>> 6)] |= 1L << values[index];
+    }
+  }
+
+  /**
+   * @see Container#iterator(int)
+   */
+  @Override
+  PrimitiveIterator.@NonNull OfInt iterator(final int high) {
+    return new PrimitiveIterator.OfInt() {
+      @NonNegative
+      private int _next = 0;
+
+      @Override
+      public boolean hasNext() {
+        return _next < cardinality;
+      }
+
+      @Override
+      public int nextInt() {
+        if (_next >= cardinality) {
+          throw new NoSuchElementException();
+        }
+
+        return (high << 16) | values[_next++];
+      }
+    };
+  }
+
+  /**
+   * @see Container#getSizeInBytes()
+   */
+  @Override
+  @NonNegative long getSizeInBytes() {
+    return 16L + 2L * values.length;
+  }
+
+  @Nullable ArrayContainer and(@NonNull final ArrayContainer other) {
+    @NonNull final char[] result = new char[Math.min(cardinality, other.cardinality)];
+    int size = 0;
+    int left = 0;
+    int right = 0;
+
+    while (left < cardinality && right < other.cardinality) {
+      if (values[left] < other.values[right]) {
+        left += 1;
+      } else if (values[left] > other.values[right]) {
+        right += 1;
+      } else {
+        result[size++] = values[left];
+        left += 1;
+        right += 1;
+      }
+    }
+
+    return size == 0 ? null : new ArrayContainer(result, size);
+  }
+
+  @NonNull Container or(@NonNull final ArrayContainer other) {
+    if (cardinality + other.cardinality > MAXIMUM_ARRAY_CARDINALITY) {
+      @NonNull final long[] words = new long[WORDS];
+      fill(words, 0);
+      other.fill(words, 0);
+      return BitmapContainer.of(words);
+    }
+
+    @NonNull final char[] result = new char[cardinality + other.cardinality];
+    int size = 0;
+    int left = 0;
+    int right = 0;
+
+    while (left < cardinality || right < other.cardinality) {
+      if (
+          right >= other.cardinality ||
+              (left < cardinality && values[left] < other.values[right])
+      ) {
+        result[size++] = values[left++];
+      } else if (left >= cardinality || values[left] > other.values[right]) {
+        result[size++] = other.values[right++];
+      } else {
+        result[size++] = values[left];
+        left += 1;
+        right += 1;
+      }
+    }
+
+    return new ArrayContainer(result, size);
+  }
+
+  @Nullable ArrayContainer andNot(@NonNull final ArrayContainer other) {
+    @NonNull final char[] result = new char[cardinality];
+    int size = 0;
+    int right = 0;
+
+    for (@NonNegative int left = 0; left < cardinality; ++left) {
+      while (right < other.cardinality && other.values[right] < values[left]) {
+        right += 1;
+      }
+
+      if (right >= other.cardinality || other.values[right] != values[left]) {
+        result[size++] = values[left];
+      }
+    }
+
+    return size == 0 ? null : new ArrayContainer(result, size);
+  }
+
+  /**
+   * @param bitmap A bitmap container.
+   * @param kept True to keep the values of the bitmap, false to remove them.
+   * @return The values of this container that are, or are not, in the given bitmap, null if none.
+   */
+  @Nullable ArrayContainer filter(@NonNull final BitmapContainer bitmap, final boolean kept) {
+    @NonNull final char[] result = new char[cardinality];
+    int size = 0;
+
+    for (@NonNegative int index = 0; index < cardinality; ++index) {
+      if (bitmap.contains(values[index]) == kept) {
+        result[size++] = values[index];
+      }
+    }
+
+    return size == 0 ? null : new ArrayContainer(result, size);
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.bitmap;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A container of more than MAXIMUM_ARRAY_CARDINALITY values stored as a bitmap of 1024 words.
+ */
+final class BitmapContainer
+    extends Container {
+
+  static final int AND = 0;
+
+  static final int AND_NOT = 1;
+
+  @NonNull
+  final long[] words;
+
+  @NonNegative
+  final int cardinality;
+
+  private BitmapContainer(@NonNull final long[] words, @NonNegative final int cardinality) {
+    this.words = words;
+    this.cardinality = cardinality;
+  }
+
+  /**
+   * @param words A bitmap of WORDS words, owned by the returned container.
+   * @return The smallest container of the values of the given bitmap, null if it is empty.
+   */
+  static @Nullable Container of(@NonNull final long[] words) {
+    int cardinality = 0;
+
+    for (final long word : words) {
+      cardinality += Long.bitCount(word);
+    }
+
+    if (cardinality == 0) {
+      return null;
+    }
+
+    if (cardinality > MAXIMUM_ARRAY_CARDINALITY) {
+      return new BitmapContainer(words, cardinality);
+    }
+
+    @NonNull final char[] values = new char[cardinality];
+    int size = 0;
+
+    for (@NonNegative int word = 0; word < words.length; ++word) {
+      long bits = words[word];
+
+      while (bits != 0L) {
+        values[size++] = (char) ((word << 6) + Long.numberOfTrailingZeros(bits));
+        bits &= bits - 1L;
+      }
+    }
+
+    return new ArrayContainer(values, cardinality);
+  }
+
+  /**
+   * @see Container#getCardinality()
+   */
+  @Override
+  @NonNegative int getCardinality() {
+    return cardinality;
+  }
+
+  /**
+   * @see Container#contains(char)
+   */
+  @Override
+  boolean contains(final char value) {
+    return (words[value >>> 6] & (1L << value)) != 0L;
+  }
+
+  /**
+   * @see Container#fill(long[], int)
+   */
+  @Override
+  void fill(@NonNull final long[] words, @NonNegative final int offset) {
+    for (@NonNegative int word = 0; word < WORDS; ++word) {
+      words[offset + word] |= this.words[word];
+    }
+  }
+
+  /**
+   * @see Container#iterator(int)
+   */
+  @Override
+  PrimitiveIterator.@NonNull OfInt iterator(final int high) {
+    return new PrimitiveIterator.OfInt() {
+      @NonNegative
+      private int _word = 0;
+
+      private long _bits = words[0];
+
+      @Override
+      public boolean hasNext() {
+        while (_bits == 0L && _word < WORDS - 1) {
+          _bits = words[++_word];
+        }
+
+        return _bits != 0L;
+      }
+
+      @Override
+      public int nextInt() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+
+        final int result = (high << 16) | (_word << 6) | Long.numberOfTrailingZeros(_bits);
+        _bits &= _bits - 1L;
+        return result;
+      }
+    };
+  }
+
+  /**
+   * @see Container#getSizeInBytes()
+   */
+  @Override
+  @NonNegative long getSizeInBytes() {
+    return 16L + 8L * WORDS;
+  }
+
+  @NonNull long[] copyWords() {
+    return Arrays.copyOf(words, WORDS);
+  }
+
+  /**
+   * @param other Another bitmap container.
+   * @param operation AND or AND_NOT.
+   * @return The result of the operation, null if it is empty.
+   */
+  @Nullable Container combine(@NonNull final BitmapContainer other, final int operation) {
+    @NonNull final long[] result = new long[WORDS];
+
+    if (operation == AND) {
+      for (@NonNegative int word = 0; word < WORDS; ++word) {
+        result[word] = words[word] & other.words[word];
+      }
+    } else {
+      for (@NonNegative int word = 0; word < WORDS; ++word) {
+        result[word] = words[word] & ~other.words[word];
+      }
+    }
+
+    return of(result);
+  }
+}
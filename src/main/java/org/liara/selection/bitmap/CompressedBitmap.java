@@ -0,0 +1,488 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.bitmap;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * An immutable compressed set of rows, in the manner of Roaring bitmaps.
+ *
+ * Rows are non-negative integers partitioned by their 16 high bits. The 16 low bits of the rows of
+ * each partition are stored in a container, a sorted array for partitions of at most 4096 rows and
+ * a bitmap of 1024 words otherwise, so a sparse set costs about two bytes per row and a dense set
+ * about one bit per row. Combining two sets only visits the partitions of both, and combines their
+ * containers with merges, lookups or word operations depending on their forms.
+ *
+ * Bitmaps are the common result type of in-memory evaluations : each evaluator returns them from its
+ * select methods, or from the scans of the ColumnScanner. The word level evaluate methods that
+ * write into plain bitsets are kept on purpose as the primitives of these entry points, so that a
+ * column can be evaluated chunk by chunk and appended to a CompressedBitmapBuilder without ever
+ * holding a whole bitset in memory.
+ */
+public final class CompressedBitmap {
+
+  @NonNull
+  private static final CompressedBitmap EMPTY = new CompressedBitmap(
+      new char[0], new Container[0]
+  );
+
+  /**
+   * 16 high bits of each partition, in ascending order.
+   */
+  @NonNull
+  private final char[] _keys;
+
+  @NonNull
+  private final Container[] _containers;
+
+  CompressedBitmap(@NonNull final char[] keys, @NonNull final Container[] containers) {
+    _keys = keys;
+    _containers = containers;
+  }
+
+  /**
+   * @return An empty bitmap.
+   */
+  public static @NonNull CompressedBitmap empty() {
+    return EMPTY;
+  }
+
+  /**
+   * @param rows Non-negative rows, in any order.
+   * @return A bitmap of the given rows.
+   */
+  public static @NonNull CompressedBitmap of(@NonNull final int... rows) {
+    @NonNull final int[] sorted = Arrays.copyOf(rows, rows.length);
+    Arrays.sort(sorted);
+
+    @NonNull final CompressedBitmapBuilder builder = new CompressedBitmapBuilder();
+
+    for (final int row : sorted) {
+      builder.add(row);
+    }
+
+    return builder.build();
+  }
+
+  /**
+   * @param from First row of the range, included.
+   * @param to Last row of the range, excluded.
+   * @return A bitmap of the rows in [from, to[.
+   */
+  public static @NonNull CompressedBitmap range(
+      @NonNegative final int from,
+      @NonNegative final int to
+  ) {
+    return new CompressedBitmapBuilder().addRange(from, to).build();
+  }
+
+  /**
+   * @param bitset A bitset of 64 bits words, the bit i of the word i / 64 standing for the row i.
+   * @return A bitmap of the rows of the given bitset.
+   */
+  public static @NonNull CompressedBitmap fromBitset(@NonNull final long[] bitset) {
+    return new CompressedBitmapBuilder().addBitset(0, bitset, 0, bitset.length).build();
+  }
+
+  /**
+   * Merge many bitmaps at once, partition by partition, by combining the containers of all bitmaps
+   * that share a partition instead of merging the bitmaps one by one.
+   *
+   * @param bitmaps Bitmaps to merge.
+   * @return The rows of any of the given bitmaps.
+   */
+  public static @NonNull CompressedBitmap union(
+      @NonNull final Collection<@NonNull CompressedBitmap> bitmaps
+  ) {
+    if (bitmaps.size() < 2) {
+      return bitmaps.isEmpty() ? EMPTY : bitmaps.iterator().next();
+    }
+
+    @NonNull final CompressedBitmap[] sources = bitmaps.toArray(new CompressedBitmap[0]);
+    @NonNull final long[] present = new long[(Character.MAX_VALUE + 1) >>> 6];
+
+    for (@NonNull final CompressedBitmap source : sources) {
+      for (final char key : source._keys) {
+        present[key >>> 6] |= 1L << key;
+      }
+    }
+
+    int capacity = 0;
+
+    for (final long word : present) {
+      capacity += Long.bitCount(word);
+    }
+
+    @NonNull final char[] keys = new char[capacity];
+    @NonNull final Container[] containers = new Container[capacity];
+    @NonNull final int[] cursors = new int[sources.length];
+    @Nullable long[] words = null;
+    int size = 0;
+
+    for (@NonNegative int word = 0; word < present.length; ++word) {
+      for (long bits = present[word]; bits != 0L; bits &= bits - 1) {
+        final char key = (char) ((word << 6) + Long.numberOfTrailingZeros(bits));
+        @Nullable Container container = null;
+        boolean filled = false;
+
+        for (@NonNegative int source = 0; source < sources.length; ++source) {
+          @NonNull final CompressedBitmap bitmap = sources[source];
+          final int cursor = cursors[source];
+
+          if (cursor >= bitmap._keys.length || bitmap._keys[cursor] != key) {
+            continue;
+          }
+
+          cursors[source] = cursor + 1;
+
+          if (container == null) {
+            container = bitmap._containers[cursor];
+            continue;
+          }
+
+          if (!filled) {
+            words = words == null ? new long[Container.WORDS] : words;
+            container.fill(words, 0);
+            filled = true;
+          }
+
+          bitmap._containers[cursor].fill(words, 0);
+        }
+
+        if (filled) {
+          container = BitmapContainer.of(words);
+
+          if (container instanceof BitmapContainer) {
+            words = null;
+          } else {
+            Arrays.fill(words, 0L);
+          }
+        }
+
+        keys[size] = key;
+        containers[size++] = container;
+      }
+    }
+
+    return create(keys, containers, size);
+  }
+
+  /**
+   * @param other Another bitmap.
+   * @return The rows of both bitmaps.
+   */
+  public @NonNull CompressedBitmap and(@NonNull final CompressedBitmap other) {
+    final int capacity = Math.min(_keys.length, other._keys.length);
+    @NonNull final char[] keys = new char[capacity];
+    @NonNull final Container[] containers = new Container[capacity];
+    int size = 0;
+    int left = 0;
+    int right = 0;
+
+    while (left < _keys.length && right < other._keys.length) {
+      if (_keys[left] < other._keys[right]) {
+        left += 1;
+      } else if (_keys[left] > other._keys[right]) {
+        right += 1;
+      } else {
+        @Nullable final Container container = Container.and(
+            _containers[left], other._containers[right]
+        );
+
+        if (container != null) {
+          keys[size] = _keys[left];
+          containers[size++] = container;
+        }
+
+        left += 1;
+        right += 1;
+      }
+    }
+
+    return create(keys, containers, size);
+  }
+
+  /**
+   * @param other Another bitmap.
+   * @return The rows of any of both bitmaps.
+   */
+  public @NonNull CompressedBitmap or(@NonNull final CompressedBitmap other) {
+    final int capacity = _keys.length + other._keys.length;
+    @NonNull final char[] keys = new char[capacity];
+    @NonNull final Container[] containers = new Container[capacity];
+    int size = 0;
+    int left = 0;
+    int right = 0;
+
+    while (left < _keys.length || right < other._keys.length) {
+      if (right >= other._keys.length || (
+          left < _keys.length && _keys[left] < other._keys[right]
+      )) {
+        keys[size] = _keys[left];
+        containers[size++] = _containers[left++];
+      } else if (left >= _keys.length || _keys[left] > other._keys[right]) {
+        keys[size] = other._keys[right];
+        containers[size++] = other._containers[right++];
+      } else {
+        keys[size] = _keys[left];
+        containers[size++] = Container.or(_containers[left], other._containers[right]);
+        left += 1;
+        right += 1;
+      }
+    }
+
+    return create(keys, containers, size);
+  }
+
+  /**
+   * @param other Another bitmap.
+   * @return The rows of this bitmap that are not in the other one.
+   */
+  public @NonNull CompressedBitmap andNot(@NonNull final CompressedBitmap other) {
+    @NonNull final char[] keys = new char[_keys.length];
+    @NonNull final Container[] containers = new Container[_keys.length];
+    int size = 0;
+    int right = 0;
+
+    for (@NonNegative int left = 0; left < _keys.length; ++left) {
+      while (right < other._keys.length && other._keys[right] < _keys[left]) {
+        right += 1;
+      }
+
+      @Nullable final Container container = (
+          right < other._keys.length && other._keys[right] == _keys[left]
+      ) ? Container.andNot(_containers[left], other._containers[right]) : _containers[left];
+
+      if (container != null) {
+        keys[size] = _keys[left];
+        containers[size++] = container;
+      }
+    }
+
+    return create(keys, containers, size);
+  }
+
+  /**
+   * @param size Number of rows of the evaluated columns.
+   * @return The rows in [0, size[ that are not in this bitmap.
+   */
+  public @NonNull CompressedBitmap complement(@NonNegative final int size) {
+    return range(0, size).andNot(this);
+  }
+
+  private static @NonNull CompressedBitmap create(
+      @NonNull final char[] keys,
+      @NonNull final Container[] containers,
+      @NonNegative final int size
+  ) {
+    if (size == 0) {
+      return EMPTY;
+    }
+
+    return new CompressedBitmap(
+        size == keys.length ? keys : Arrays.copyOf(keys, size),
+        size == containers.length ? containers : Arrays.copyOf(containers, size)
+    );
+  }
+
+  /**
+   * @return The number of rows of this bitmap.
+   */
+  public @NonNegative long getCardinality() {
+    long result = 0;
+
+    for (@NonNull final Container container : _containers) {
+      result += container.getCardinality();
+    }
+
+    return result;
+  }
+
+  /**
+   * @return True if this bitmap does not contain any row.
+   */
+  public boolean isEmpty() {
+    return _keys.length == 0;
+  }
+
+  /**
+   * @param row A row.
+   * @return True if this bitmap contains the given row.
+   */
+  public boolean contains(final int row) {
+    if (row < 0) {
+      return false;
+    }
+
+    final int index = Arrays.binarySearch(_keys, (char) (row >>> 16));
+    return index >= 0 && _containers[index].contains((char) row);
+  }
+
+  /**
+   * @param action Action called with each row of this bitmap, in ascending order.
+   */
+  public void forEach(@NonNull final IntConsumer action) {
+    final PrimitiveIterator.@NonNull OfInt iterator = iterator();
+
+    while (iterator.hasNext()) {
+      action.accept(iterator.nextInt());
+    }
+  }
+
+  /**
+   * @return An iterator over the rows of this bitmap, in ascending order.
+   */
+  public PrimitiveIterator.@NonNull OfInt iterator() {
+    return new PrimitiveIterator.OfInt() {
+      @NonNegative
+      private int _container = 0;
+
+      private PrimitiveIterator.@Nullable OfInt _current = null;
+
+      @Override
+      public boolean hasNext() {
+        while (_current == null || !_current.hasNext()) {
+          if (_container >= _containers.length) {
+            return false;
+          }
+
+          _current = _containers[_container].iterator(_keys[_container]);
+          _container += 1;
+        }
+
+        return true;
+      }
+
+      @Override
+      public int nextInt() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+
+        return _current.nextInt();
+      }
+    };
+  }
+
+  /**
+   * @return The rows of this bitmap, in ascending order.
+   */
+  public @NonNull int[] toArray() {
+    @NonNull final int[] result = new int[Math.toIntExact(getCardinality())];
+    final PrimitiveIterator.@NonNull OfInt iterator = iterator();
+
+    for (@NonNegative int index = 0; index < result.length; ++index) {
+      result[index] = iterator.nextInt();
+    }
+
+    return result;
+  }
+
+  /**
+   * @return A bitset of the rows of this bitmap, of (last row + 64) / 64 words.
+   */
+  public @NonNull long[] toBitset() {
+    if (_keys.length == 0) {
+      return new long[0];
+    }
+
+    @NonNull final long[] result = new long[(_keys[_keys.length - 1] + 1) * Container.WORDS];
+
+    for (@NonNegative int index = 0; index < _keys.length; ++index) {
+      _containers[index].fill(result, _keys[index] * Container.WORDS);
+    }
+
+    int length = result.length;
+
+    while (result[length - 1] == 0L) {
+      length -= 1;
+    }
+
+    return Arrays.copyOf(result, length);
+  }
+
+  /**
+   * @return An estimation of the memory used by this bitmap, in bytes.
+   */
+  public @NonNegative long getSizeInBytes() {
+    long result = 32L + 6L * _keys.length;
+
+    for (@NonNull final Container container : _containers) {
+      result += container.getSizeInBytes();
+    }
+
+    return result;
+  }
+
+  @Override
+  public int hashCode() {
+    int result = 1;
+    final PrimitiveIterator.@NonNull OfInt iterator = iterator();
+
+    while (iterator.hasNext()) {
+      result = 31 * result + iterator.nextInt();
+    }
+
+    return result;
+  }
+
+  @Override
+  public boolean equals(@Nullable final Object object) {
+    if (object == this) {
+      return true;
+    }
+
+    if (!(object instanceof CompressedBitmap)) {
+      return false;
+    }
+
+    @NonNull final CompressedBitmap other = (CompressedBitmap) object;
+
+    if (!Arrays.equals(_keys, other._keys) || getCardinality() != other.getCardinality()) {
+      return false;
+    }
+
+    final PrimitiveIterator.@NonNull OfInt left = iterator();
+    final PrimitiveIterator.@NonNull OfInt right = other.iterator();
+
+    while (left.hasNext()) {
+      if (left.nextInt() != right.nextInt()) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  @Override
+  public @NonNull String toString() {
+    return "CompressedBitmap " + getCardinality() + " rows in " + _keys.length + " containers";
+  }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.bitmap;
+
+import java.util.Arrays;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A builder of compressed bitmaps.
+ *
+ * Rows are added by ascending partitions of 65536 rows : rows of the same partition can be added in
+ * any order, but a row can't be added once a row of a following partition was added. Rows of the
+ * current partition are accumulated in a bitmap of 1024 words, so building a bitmap of any size
+ * only needs the memory of its compressed form and of one partition.
+ */
+public final class CompressedBitmapBuilder {
+
+  @NonNull
+  private char[] _keys;
+
+  @NonNull
+  private Container[] _containers;
+
+  @NonNegative
+  private int _size;
+
+  @NonNull
+  private long[] _words;
+
+  /**
+   * 16 high bits of the current partition, -1 if no row was added.
+   */
+  private int _key;
+
+  public CompressedBitmapBuilder() {
+    _keys = new char[16];
+    _containers = new Container[16];
+    _size = 0;
+    _words = new long[Container.WORDS];
+    _key = -1;
+  }
+
+  /**
+   * @param row A non-negative row.
+   * @return This builder instance for chaining purposes.
+   */
+  public @NonNull CompressedBitmapBuilder add(@NonNegative final int row) {
+    if (row < 0) {
+      throw new IllegalArgumentException("Invalid row : " + row);
+    }
+
+    move(row >>> 16);
+    _words[(row & 0xFFFF) >>> 6] |= 1L << row;
+    return this;
+  }
+
+  /**
+   * @param from First row to add, included.
+   * @param to Last row to add, excluded.
+   * @return This builder instance for chaining purposes.
+   */
+  public @NonNull CompressedBitmapBuilder addRange(
+      @NonNegative final int from,
+      @NonNegative final int to
+  ) {
+    if (from < 0) {
+      throw new IllegalArgumentException("Invalid row : " + from);
+    }
+
+    if (from >= to) {
+      return this;
+    }
+
+    final int first = from >>> 6;
+    final int last = (to - 1) >>> 6;
+
+    for (int word = first; word <= last; ++word) {
+      long mask = -1L;
+
+      if (word == first) {
+        mask &= -1L << from;
+      }
+
+      if (word == last) {
+        mask &= -1L >>> -to;
+      }
+
+      move(word >>> 10);
+      _words[word & (Container.WORDS - 1)] |= mask;
+    }
+
+    return this;
+  }
+
+  /**
+   * Add the rows of a part of a bitset.
+   *
+   * @param offset Row of the first bit of the word bitset[from], a multiple of 64.
+   * @param bitset A bitset of 64 bits words.
+   * @param from First word to add, included.
+   * @param to Last word to add, excluded.
+   * @return This builder instance for chaining purposes.
+   */
+  public @NonNull CompressedBitmapBuilder addBitset(
+      @NonNegative final int offset,
+      @NonNull final long[] bitset,
+      @NonNegative final int from,
+      @NonNegative final int to
+  ) {
+    if (offset < 0 || (offset & 63) != 0) {
+      throw new IllegalArgumentException("Invalid offset : " + offset);
+    }
+
+    for (@NonNegative int index = from; index < to; ++index) {
+      if (bitset[index] != 0L) {
+        final int word = (offset >>> 6) + index - from;
+
+        move(word >>> 10);
+        _words[word & (Container.WORDS - 1)] |= bitset[index];
+      }
+    }
+
+    return this;
+  }
+
+  private void move(final int key) {
+    if (key == _key) {
+      return;
+    }
+
+    if (key < _key) {
+      throw new IllegalArgumentException(
+          "Unable to add a row of partition " + key + " after a row of partition " + _key + "."
+      );
+    }
+
+    flush();
+    _key = key;
+  }
+
+  private void flush() {
+    if (_key < 0) {
+      return;
+    }
+
+    @Nullable final Container container = BitmapContainer.of(_words);
+
+    if (container instanceof BitmapContainer) {
+      _words = new long[Container.WORDS];
+    } else {
+      Arrays.fill(_words, 0L);
+    }
+
+    if (container == null) {
+      return;
+    }
+
+    if (_size == _keys.length) {
+      _keys = Arrays.copyOf(_keys, _size * 2);
+      _containers = Arrays.copyOf(_containers, _size * 2);
+    }
+
+    _keys[_size] = (char) _key;
+    _containers[_size++] = container;
+  }
+
+  /**
+   * Return a bitmap of the rows added so far, rows of the following partitions can still be added
+   * afterwards.
+   *
+   * @return A bitmap of the added rows.
+   */
+  public @NonNull CompressedBitmap build() {
+    flush();
+    _key = _key < 0 ? -1 : _key + 1;
+
+    return _size == 0 ? CompressedBitmap.empty() : new CompressedBitmap(
+        Arrays.copyOf(_keys, _size), Arrays.copyOf(_containers, _size)
+    );
+  }
+}
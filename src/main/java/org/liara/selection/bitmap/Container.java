@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.bitmap;
+
+import java.util.PrimitiveIterator;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * An immutable set of the 16 low bits of the values of a compressed bitmap that share the same 16
+ * high bits.
+ *
+ * Sets of at most MAXIMUM_ARRAY_CARDINALITY values are stored as sorted arrays, larger sets as
+ * bitmaps of 1024 words. Operations always return the smallest of both forms.
+ */
+abstract class Container {
+
+  static final int MAXIMUM_ARRAY_CARDINALITY = 4096;
+
+  static final int WORDS = 1024;
+
+  /**
+   * @return The number of values of this container, in [1, 65536].
+   */
+  abstract @NonNegative int getCardinality();
+
+  /**
+   * @param value 16 low bits of a value.
+   * @return True if this container contains the given value.
+   */
+  abstract boolean contains(final char value);
+
+  /**
+   * Set the bits of the values of this container in a bitset.
+   *
+   * @param words A bitset.
+   * @param offset Index of the word of the first value of this container.
+   */
+  abstract void fill(@NonNull final long[] words, @NonNegative final int offset);
+
+  /**
+   * @param high 16 high bits of the values of this container.
+   * @return An iterator over the values of this container, in ascending order.
+   */
+  abstract PrimitiveIterator.@NonNull OfInt iterator(final int high);
+
+  /**
+   * @return An estimation of the memory used by this container, in bytes.
+   */
+  abstract @NonNegative long getSizeInBytes();
+
+  /**
+   * @return The values of both containers, null if none.
+   */
+  static @Nullable Container and(@NonNull final Container left, @NonNull final Container right) {
+    if (left instanceof ArrayContainer) {
+      return right instanceof ArrayContainer
+          ? ((ArrayContainer) left).and((ArrayContainer) right)
+          : ((ArrayContainer) left).filter((BitmapContainer) right, true);
+    }
+
+    return right instanceof ArrayContainer
+        ? ((ArrayContainer) right).filter((BitmapContainer) left, true)
+        : ((BitmapContainer) left).combine((BitmapContainer) right, BitmapContainer.AND);
+  }
+
+  /**
+   * @return The values of any of both containers.
+   */
+  static @NonNull Container or(@NonNull final Container left, @NonNull final Container right) {
+    if (left instanceof ArrayContainer && right instanceof ArrayContainer) {
+      return ((ArrayContainer) left).or((ArrayContainer) right);
+    }
+
+    @NonNull final long[] words = new long[WORDS];
+    left.fill(words, 0);
+    right.fill(words, 0);
+    return BitmapContainer.of(words);
+  }
+
+  /**
+   * @return The values of the left container that are not in the right one, null if none.
+   */
+  static @Nullable Container andNot(
+      @NonNull final Container left,
+      @NonNull final Container right
+  ) {
+    if (left instanceof ArrayContainer) {
+      return right instanceof ArrayContainer
+          ? ((ArrayContainer) left).andNot((ArrayContainer) right)
+          : ((ArrayContainer) left).filter((BitmapContainer) right, false);
+    }
+
+    if (right instanceof BitmapContainer) {
+      return ((BitmapContainer) left).combine((BitmapContainer) right, BitmapContainer.AND_NOT);
+    }
+
+    @NonNull final long[] words = ((BitmapContainer) left).copyWords();
+    @NonNull final ArrayContainer removed = (ArrayContainer) right;
+
+    for (@NonNegative int index = 0; index < removed.cardinality; ++index) {
+      words[removed.values[index] >>> 6] &= ~(1L << removed.values[index]);
+    }
+
+    return BitmapContainer.of(words);
+  }
+}
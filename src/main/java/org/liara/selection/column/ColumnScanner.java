@@ -0,0 +1,460 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.column;
+
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.List;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.liara.selection.bitmap.CompressedBitmap;
+import org.liara.selection.bitmap.CompressedBitmapBuilder;
+import org.liara.selection.range.DoubleRanges;
+import org.liara.selection.range.LongRanges;
+import org.liara.test.selection.bool.BooleanCondition;
+import org.liara.test.selection.datetime.DateTimeCondition;
+import org.liara.test.selection.string.StringCondition;
+
+/**
+ * A scan engine that evaluates compiled selections directly over the mapped columns of a store.
+ *
+ * Rows are read with absolute gets from the buffers, nothing is copied or allocated per row.
+ * String selections are evaluated once per entry of the dictionary of a column, each row then
+ * costing one lookup of its code.
+ *
+ * Scans of a part of a column write into bitsets of 64 bits words, the bit i of the word i / 64
+ * standing for the i-th row, and only set the bits of matching rows. Scans of a whole column of a
+ * store return compressed bitmaps, built partition by partition so that no bitset of the size of
+ * the column is ever allocated.
+ */
+public final class ColumnScanner {
+
+  private static final int CHUNK = 1 << 16;
+
+  /**
+   * Mark each row in [from, to[ whose value is in the given set.
+   *
+   * @param ranges Set of values to search for.
+   * @param column Column to evaluate.
+   * @param from First row to evaluate, included.
+   * @param to Last row to evaluate, excluded.
+   * @param result Bitset to update, of at least (to + 63) / 64 words.
+   */
+  public static void scan(
+      @NonNull final LongRanges ranges,
+      @NonNull final LongBuffer column,
+      @NonNegative final int from,
+      @NonNegative final int to,
+      @NonNull final long[] result
+  ) {
+    @NonNegative final int size = ranges.size();
+    @NonNull final long[] lowers = new long[size];
+    @NonNull final long[] uppers = new long[size];
+
+    for (@NonNegative int range = 0; range < size; ++range) {
+      lowers[range] = ranges.getLower(range);
+      uppers[range] = ranges.getUpper(range);
+    }
+
+    for (@NonNegative int index = from; index < to; ++index) {
+      final long value = column.get(index);
+
+      for (@NonNegative int range = 0; range < size; ++range) {
+        if (value >= lowers[range] && value <= uppers[range]) {
+          result[index >>> 6] |= 1L << index;
+          break;
+        }
+      }
+    }
+  }
+
+  /**
+   * @see #scan(LongRanges, LongBuffer, int, int, long[])
+   */
+  public static void scan(
+      @NonNull final LongRanges ranges,
+      @NonNull final IntBuffer column,
+      @NonNegative final int from,
+      @NonNegative final int to,
+      @NonNull final long[] result
+  ) {
+    @NonNull final LongRanges clamped = ranges.intersection(
+        LongRanges.closed(Integer.MIN_VALUE, Integer.MAX_VALUE)
+    );
+    @NonNegative final int size = clamped.size();
+    @NonNull final int[] lowers = new int[size];
+    @NonNull final int[] uppers = new int[size];
+
+    for (@NonNegative int range = 0; range < size; ++range) {
+      lowers[range] = (int) clamped.getLower(range);
+      uppers[range] = (int) clamped.getUpper(range);
+    }
+
+    for (@NonNegative int index = from; index < to; ++index) {
+      final int value = column.get(index);
+
+      for (@NonNegative int range = 0; range < size; ++range) {
+        if (value >= lowers[range] && value <= uppers[range]) {
+          result[index >>> 6] |= 1L << index;
+          break;
+        }
+      }
+    }
+  }
+
+  /**
+   * @see #scan(LongRanges, LongBuffer, int, int, long[])
+   */
+  public static void scan(
+      @NonNull final DoubleRanges ranges,
+      @NonNull final DoubleBuffer column,
+      @NonNegative final int from,
+      @NonNegative final int to,
+      @NonNull final long[] result
+  ) {
+    @NonNegative final int size = ranges.size();
+    @NonNull final double[] lowers = new double[size];
+    @NonNull final double[] uppers = new double[size];
+
+    for (@NonNegative int range = 0; range < size; ++range) {
+      lowers[range] = ranges.getLower(range);
+      uppers[range] = ranges.getUpper(range);
+    }
+
+    for (@NonNegative int index = from; index < to; ++index) {
+      final double value = column.get(index);
+
+      for (@NonNegative int range = 0; range < size; ++range) {
+        if (value >= lowers[range] && value <= uppers[range]) {
+          result[index >>> 6] |= 1L << index;
+          break;
+        }
+      }
+    }
+  }
+
+  /**
+   * Mark each row in [from, to[ that satisfies a datetime selection.
+   *
+   * @param condition A compiled datetime selection.
+   * @param column A column of epoch milliseconds.
+   * @see #scan(LongRanges, LongBuffer, int, int, long[])
+   */
+  public static void scan(
+      @NonNull final DateTimeCondition condition,
+      @NonNull final LongBuffer column,
+      @NonNegative final int from,
+      @NonNegative final int to,
+      @NonNull final long[] result
+  ) {
+    for (@NonNegative int index = from; index < to; ++index) {
+      if (condition.test(column.get(index))) {
+        result[index >>> 6] |= 1L << index;
+      }
+    }
+  }
+
+  /**
+   * Mark each row in [from, to[ that satisfies a boolean selection, 64 rows at a time.
+   *
+   * @param condition A compiled boolean selection.
+   * @param values Value bitmap of the column.
+   * @param nulls Null bitmap of the column.
+   * @see #scan(LongRanges, LongBuffer, int, int, long[])
+   */
+  public static void scan(
+      @NonNull final BooleanCondition condition,
+      @NonNull final LongBuffer values,
+      @NonNull final LongBuffer nulls,
+      @NonNegative final int from,
+      @NonNegative final int to,
+      @NonNull final long[] result
+  ) {
+    if (from >= to) {
+      return;
+    }
+
+    final int first = from >>> 6;
+    final int last = (to - 1) >>> 6;
+
+    for (int word = first; word <= last; ++word) {
+      long mask = -1L;
+
+      if (word == first) {
+        mask &= -1L << from;
+      }
+
+      if (word == last) {
+        mask &= -1L >>> -to;
+      }
+
+      result[word] |= condition.evaluate(values.get(word), nulls.get(word)) & mask;
+    }
+  }
+
+  /**
+   * Mark each row in [from, to[ that satisfies a string selection.
+   *
+   * @param condition A compiled string selection.
+   * @param dictionary Dictionary of the column.
+   * @param codes Codes of the column.
+   * @see #scan(LongRanges, LongBuffer, int, int, long[])
+   */
+  public static void scan(
+      @NonNull final StringCondition condition,
+      @NonNull final List<@NonNull String> dictionary,
+      @NonNull final IntBuffer codes,
+      @NonNegative final int from,
+      @NonNegative final int to,
+      @NonNull final long[] result
+  ) {
+    scan(accept(condition, dictionary), condition.test(null), codes, from, to, result);
+  }
+
+  /**
+   * @return True for each code of the dictionary whose value satisfies the given condition.
+   */
+  private static @NonNull boolean[] accept(
+      @NonNull final StringCondition condition,
+      @NonNull final List<@NonNull String> dictionary
+  ) {
+    @NonNull final boolean[] result = new boolean[dictionary.size()];
+
+    for (@NonNegative int code = 0; code < result.length; ++code) {
+      result[code] = condition.test(dictionary.get(code));
+    }
+
+    return result;
+  }
+
+  private static void scan(
+      @NonNull final boolean[] accepted,
+      final boolean acceptsNull,
+      @NonNull final IntBuffer codes,
+      @NonNegative final int from,
+      @NonNegative final int to,
+      @NonNull final long[] result
+  ) {
+    for (@NonNegative int index = from; index < to; ++index) {
+      final int code = codes.get(index);
+
+      if (code == ColumnStore.NULL_CODE ? acceptsNull : accepted[code]) {
+        result[index >>> 6] |= 1L << index;
+      }
+    }
+  }
+
+  /**
+   * Evaluate a number selection over a LONG or INT column of a store.
+   *
+   * @param store A store.
+   * @param column Name of the column to evaluate.
+   * @param ranges Set of values to search for.
+   * @return A bitmap of the matching rows.
+   */
+  public static @NonNull CompressedBitmap scan(
+      @NonNull final ColumnStore store,
+      @NonNull final String column,
+      @NonNull final LongRanges ranges
+  ) {
+    if (store.getType(column) == ColumnStore.INT) {
+      @NonNull final IntBuffer values = store.getInts(column);
+
+      return scan(store.getRowCount(), (final int from, final int to, final long[] result) -> scan(
+          ranges, slice(values, from, to), 0, to - from, result
+      ));
+    }
+
+    @NonNull final LongBuffer values = store.getLongs(column);
+
+    return scan(store.getRowCount(), (final int from, final int to, final long[] result) -> scan(
+        ranges, slice(values, from, to), 0, to - from, result
+    ));
+  }
+
+  /**
+   * @see #scan(ColumnStore, String, LongRanges)
+   */
+  public static @NonNull CompressedBitmap scan(
+      @NonNull final ColumnStore store,
+      @NonNull final String column,
+      @NonNull final DoubleRanges ranges
+  ) {
+    @NonNull final DoubleBuffer values = store.getDoubles(column);
+
+    return scan(store.getRowCount(), (final int from, final int to, final long[] result) -> scan(
+        ranges, slice(values, from, to), 0, to - from, result
+    ));
+  }
+
+  /**
+   * @see #scan(ColumnStore, String, LongRanges)
+   */
+  public static @NonNull CompressedBitmap scan(
+      @NonNull final ColumnStore store,
+      @NonNull final String column,
+      @NonNull final DateTimeCondition condition
+  ) {
+    return scan(condition, store.getLongs(column));
+  }
+
+  /**
+   * Evaluate a datetime selection over a whole column of epoch milliseconds.
+   *
+   * @param condition A compiled datetime selection.
+   * @param column A column of epoch milliseconds, of limit() rows.
+   * @return A bitmap of the matching rows.
+   */
+  public static @NonNull CompressedBitmap scan(
+      @NonNull final DateTimeCondition condition,
+      @NonNull final LongBuffer column
+  ) {
+    return scan(column.limit(), (final int from, final int to, final long[] result) -> scan(
+        condition, slice(column, from, to), 0, to - from, result
+    ));
+  }
+
+  /**
+   * @see #scan(ColumnStore, String, LongRanges)
+   */
+  public static @NonNull CompressedBitmap scan(
+      @NonNull final ColumnStore store,
+      @NonNull final String column,
+      @NonNull final BooleanCondition condition
+  ) {
+    @NonNull final LongBuffer values = store.getBooleanValues(column);
+    @NonNull final LongBuffer nulls = store.getBooleanNulls(column);
+
+    return scan(store.getRowCount(), (final int from, final int to, final long[] result) -> scan(
+        condition,
+        slice(values, from >>> 6, (to + 63) >>> 6),
+        slice(nulls, from >>> 6, (to + 63) >>> 6),
+        0,
+        to - from,
+        result
+    ));
+  }
+
+  /**
+   * @see #scan(ColumnStore, String, LongRanges)
+   */
+  public static @NonNull CompressedBitmap scan(
+      @NonNull final ColumnStore store,
+      @NonNull final String column,
+      @NonNull final StringCondition condition
+  ) {
+    @NonNull final IntBuffer codes = store.getCodes(column);
+    @NonNull final boolean[] accepted = accept(condition, store.getDictionary(column));
+    final boolean acceptsNull = condition.test(null);
+
+    return scan(store.getRowCount(), (final int from, final int to, final long[] result) -> scan(
+        accepted, acceptsNull, slice(codes, from, to), 0, to - from, result
+    ));
+  }
+
+  /**
+   * Scan a column by partitions of CHUNK rows.
+   */
+  private static @NonNull CompressedBitmap scan(
+      @NonNegative final int rows,
+      @NonNull final ChunkScan scan
+  ) {
+    @NonNull final CompressedBitmapBuilder builder = new CompressedBitmapBuilder();
+    @NonNull final long[] words = new long[CHUNK >>> 6];
+
+    for (@NonNegative int from = 0; from < rows; from += CHUNK) {
+      final int to = Math.min(rows, from + CHUNK);
+
+      Arrays.fill(words, 0L);
+      scan.scan(from, to, words);
+      builder.addBitset(from, words, 0, (to - from + 63) >>> 6);
+    }
+
+    return builder.build();
+  }
+
+  private static @NonNull LongBuffer slice(
+      @NonNull final LongBuffer buffer,
+      @NonNegative final int from,
+      @NonNegative final int to
+  ) {
+    return buffer.duplicate().limit(to).position(from).slice();
+  }
+
+  private static @NonNull IntBuffer slice(
+      @NonNull final IntBuffer buffer,
+      @NonNegative final int from,
+      @NonNegative final int to
+  ) {
+    return buffer.duplicate().limit(to).position(from).slice();
+  }
+
+  private static @NonNull DoubleBuffer slice(
+      @NonNull final DoubleBuffer buffer,
+      @NonNegative final int from,
+      @NonNegative final int to
+  ) {
+    return buffer.duplicate().limit(to).position(from).slice();
+  }
+
+  /**
+   * @param bitset A bitset of rows.
+   * @return The rows of the given bitset, in ascending order.
+   */
+  public static @NonNull int[] getRowIds(@NonNull final long[] bitset) {
+    int count = 0;
+
+    for (final long word : bitset) {
+      count += Long.bitCount(word);
+    }
+
+    @NonNull final int[] result = new int[count];
+    int next = 0;
+
+    for (@NonNegative int word = 0; word < bitset.length; ++word) {
+      long bits = bitset[word];
+
+      while (bits != 0L) {
+        result[next++] = (word << 6) + Long.numberOfTrailingZeros(bits);
+        bits &= bits - 1L;
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * A scan of the rows in [from, to[ of a column, into a bitset whose first bit is the row from.
+   */
+  @FunctionalInterface
+  private interface ChunkScan {
+
+    void scan(
+        @NonNegative final int from,
+        @NonNegative final int to,
+        @NonNull final long[] result
+    );
+  }
+}
@@ -0,0 +1,381 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.column;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A read-only columnar store mapped in memory.
+ *
+ * A store is a file written by a ColumnStoreWriter : a sequence of regions aligned on 8 bytes,
+ * followed by a footer that describes each column and by a trailer of TRAILER_SIZE bytes that
+ * locates the footer. Each region is mapped separately, so a store can be larger than the heap and
+ * than the 2GB limit of a mapped buffer, as long as each region fits in one buffer. All values are
+ * little-endian.
+ *
+ * Long, int and double columns are made of one region of values. Boolean columns are made of a
+ * value bitmap and of a null bitmap of 64 bits words. String columns are made of a region of codes,
+ * NULL_CODE for null values, and of a dictionary of the distinct values, decoded on its first
+ * access.
+ *
+ * Buffers returned by a store are independent views of the mapped regions, they stay readable after
+ * the store is closed, until they are garbage collected.
+ */
+public final class ColumnStore
+    implements Closeable {
+
+  public static final int LONG = 0;
+
+  public static final int INT = 1;
+
+  public static final int DOUBLE = 2;
+
+  public static final int BOOLEAN = 3;
+
+  public static final int STRING = 4;
+
+  public static final int NULL_CODE = -1;
+
+  static final int MAGIC = 0x4C435331;
+
+  static final int TRAILER_SIZE = 16;
+
+  @NonNull
+  private final FileChannel _channel;
+
+  @NonNegative
+  private final int _rows;
+
+  @NonNull
+  private final Map<@NonNull String, @NonNull Column> _columns;
+
+  private ColumnStore(
+      @NonNull final FileChannel channel,
+      @NonNegative final int rows,
+      @NonNull final Map<@NonNull String, @NonNull Column> columns
+  ) {
+    _channel = channel;
+    _rows = rows;
+    _columns = columns;
+  }
+
+  /**
+   * Open and map a store.
+   *
+   * @param path Path of a file written by a ColumnStoreWriter.
+   * @return The opened store.
+   * @throws IOException If the file can't be read or is not a valid store.
+   */
+  public static @NonNull ColumnStore open(@NonNull final Path path) throws IOException {
+    @NonNull final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+
+    try {
+      return read(channel);
+    } catch (@NonNull final IOException | RuntimeException exception) {
+      channel.close();
+      throw exception;
+    }
+  }
+
+  private static @NonNull ColumnStore read(@NonNull final FileChannel channel) throws IOException {
+    final long size = channel.size();
+
+    if (size < TRAILER_SIZE) {
+      throw new IOException("Not a column store : the file is too small.");
+    }
+
+    @NonNull final ByteBuffer trailer = map(channel, size - TRAILER_SIZE, TRAILER_SIZE);
+    final long footerOffset = trailer.getLong();
+    final int rows = trailer.getInt();
+
+    if (trailer.getInt() != MAGIC) {
+      throw new IOException("Not a column store : invalid magic number.");
+    }
+
+    if (rows < 0 || footerOffset < 0 || footerOffset > size - TRAILER_SIZE) {
+      throw new IOException("Corrupted column store : invalid trailer.");
+    }
+
+    @NonNull final ByteBuffer footer = map(
+        channel, footerOffset, size - TRAILER_SIZE - footerOffset
+    );
+    @NonNull final Map<@NonNull String, @NonNull Column> columns = new LinkedHashMap<>();
+
+    try {
+      final int count = footer.getInt();
+
+      for (@NonNegative int column = 0; column < count; ++column) {
+        @NonNull final String name = readString(footer);
+        final int type = footer.getInt();
+        @NonNull final ByteBuffer[] regions = new ByteBuffer[footer.getInt()];
+
+        for (@NonNegative int region = 0; region < regions.length; ++region) {
+          final long offset = footer.getLong();
+          final long length = footer.getLong();
+
+          if (offset < 0 || length < 0 || offset + length > footerOffset) {
+            throw new IOException("Corrupted column store : invalid region of " + name + ".");
+          }
+
+          regions[region] = map(channel, offset, length);
+        }
+
+        columns.put(name, new Column(type, regions, rows));
+      }
+    } catch (@NonNull final RuntimeException exception) {
+      throw new IOException("Corrupted column store : invalid footer.", exception);
+    }
+
+    return new ColumnStore(channel, rows, columns);
+  }
+
+  private static @NonNull ByteBuffer map(
+      @NonNull final FileChannel channel,
+      final long offset,
+      final long length
+  ) throws IOException {
+    if (length > Integer.MAX_VALUE) {
+      throw new IOException("Unable to map a region of " + length + " bytes.");
+    }
+
+    return channel.map(MapMode.READ_ONLY, offset, length).order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  static @NonNull String readString(@NonNull final ByteBuffer buffer) {
+    @NonNull final byte[] bytes = new byte[buffer.getInt()];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * @return The number of rows of each column of this store.
+   */
+  public @NonNegative int getRowCount() {
+    return _rows;
+  }
+
+  /**
+   * @return The names of the columns of this store, in writing order.
+   */
+  public @NonNull List<@NonNull String> getColumnNames() {
+    return Collections.unmodifiableList(new ArrayList<>(_columns.keySet()));
+  }
+
+  /**
+   * @param name Name of a column.
+   * @return True if this store contains a column with the given name.
+   */
+  public boolean contains(@NonNull final String name) {
+    return _columns.containsKey(name);
+  }
+
+  /**
+   * @param name Name of a column.
+   * @return LONG, INT, DOUBLE, BOOLEAN or STRING.
+   */
+  public int getType(@NonNull final String name) {
+    return getColumn(name).type;
+  }
+
+  /**
+   * @param name Name of a LONG column.
+   * @return A view of the values of the column.
+   */
+  public @NonNull LongBuffer getLongs(@NonNull final String name) {
+    return getColumn(name, LONG).regions[0].duplicate().order(ByteOrder.LITTLE_ENDIAN)
+        .asLongBuffer();
+  }
+
+  /**
+   * @param name Name of an INT column.
+   * @return A view of the values of the column.
+   */
+  public @NonNull IntBuffer getInts(@NonNull final String name) {
+    return getColumn(name, INT).regions[0].duplicate().order(ByteOrder.LITTLE_ENDIAN)
+        .asIntBuffer();
+  }
+
+  /**
+   * @param name Name of a DOUBLE column.
+   * @return A view of the values of the column.
+   */
+  public @NonNull DoubleBuffer getDoubles(@NonNull final String name) {
+    return getColumn(name, DOUBLE).regions[0].duplicate().order(ByteOrder.LITTLE_ENDIAN)
+        .asDoubleBuffer();
+  }
+
+  /**
+   * @param name Name of a BOOLEAN column.
+   * @return A view of the value bitmap of the column, the bits of null rows being unset.
+   */
+  public @NonNull LongBuffer getBooleanValues(@NonNull final String name) {
+    return getColumn(name, BOOLEAN).regions[0].duplicate().order(ByteOrder.LITTLE_ENDIAN)
+        .asLongBuffer();
+  }
+
+  /**
+   * @param name Name of a BOOLEAN column.
+   * @return A view of the null bitmap of the column.
+   */
+  public @NonNull LongBuffer getBooleanNulls(@NonNull final String name) {
+    return getColumn(name, BOOLEAN).regions[1].duplicate().order(ByteOrder.LITTLE_ENDIAN)
+        .asLongBuffer();
+  }
+
+  /**
+   * @param name Name of a STRING column.
+   * @return A view of the codes of the column, each code being an index in the dictionary of the
+   * column or NULL_CODE.
+   */
+  public @NonNull IntBuffer getCodes(@NonNull final String name) {
+    return getColumn(name, STRING).regions[0].duplicate().order(ByteOrder.LITTLE_ENDIAN)
+        .asIntBuffer();
+  }
+
+  /**
+   * @param name Name of a STRING column.
+   * @return The distinct non-null values of the column, indexed by code.
+   */
+  public @NonNull List<@NonNull String> getDictionary(@NonNull final String name) {
+    return getColumn(name, STRING).getDictionary();
+  }
+
+  private @NonNull Column getColumn(@NonNull final String name) {
+    @Nullable final Column result = _columns.get(name);
+
+    if (result == null) {
+      throw new IllegalArgumentException("No column named " + name + ".");
+    }
+
+    return result;
+  }
+
+  private @NonNull Column getColumn(@NonNull final String name, final int type) {
+    @NonNull final Column result = getColumn(name);
+
+    if (result.type != type) {
+      throw new IllegalArgumentException(
+          "The column " + name + " is of type " + result.type + " instead of " + type + "."
+      );
+    }
+
+    return result;
+  }
+
+  /**
+   * Close the file of this store.
+   *
+   * @see Closeable#close()
+   */
+  @Override
+  public void close() throws IOException {
+    _channel.close();
+  }
+
+  /**
+   * The mapped regions of a column.
+   */
+  private static final class Column {
+
+    final int type;
+
+    @NonNull
+    final ByteBuffer[] regions;
+
+    @Nullable
+    private List<@NonNull String> _dictionary;
+
+    Column(
+        final int type,
+        @NonNull final ByteBuffer[] regions,
+        @NonNegative final int rows
+    ) throws IOException {
+      if (type < LONG || type > STRING) {
+        throw new IOException("Corrupted column store : invalid column type " + type + ".");
+      }
+
+      final long expected = getExpectedLength(type, rows);
+
+      final int count = type == BOOLEAN || type == STRING ? 2 : 1;
+
+      if (
+          regions.length != count ||
+              regions[0].capacity() != expected ||
+              (type == BOOLEAN && regions[1].capacity() != expected)
+      ) {
+        throw new IOException("Corrupted column store : invalid regions.");
+      }
+
+      this.type = type;
+      this.regions = regions;
+      _dictionary = null;
+    }
+
+    private static long getExpectedLength(final int type, @NonNegative final int rows) {
+      switch (type) {
+        case LONG:
+        case DOUBLE:
+          return 8L * rows;
+        case BOOLEAN:
+          return 8L * ((rows + 63L) >>> 6);
+        default:
+          return 4L * rows;
+      }
+    }
+
+    synchronized @NonNull List<@NonNull String> getDictionary() {
+      if (_dictionary == null) {
+        @NonNull final ByteBuffer buffer = regions[1].duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        @NonNull final String[] values = new String[buffer.getInt()];
+
+        for (@NonNegative int index = 0; index < values.length; ++index) {
+          values[index] = readString(buffer);
+        }
+
+        _dictionary = Collections.unmodifiableList(Arrays.asList(values));
+      }
+
+      return _dictionary;
+    }
+  }
+}
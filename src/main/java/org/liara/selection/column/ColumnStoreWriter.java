@@ -0,0 +1,356 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.column;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntToLongFunction;
+import java.util.function.IntUnaryOperator;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A writer of column stores.
+ *
+ * Columns are written one after the other, the value of each row being requested from a function
+ * and streamed to the file, so a store larger than the heap can be written as long as the
+ * dictionaries of its string columns fit in memory. The footer of the store is written when the
+ * writer is closed.
+ */
+public final class ColumnStoreWriter
+    implements Closeable {
+
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  @NonNull
+  private final FileChannel _channel;
+
+  @NonNull
+  private final ByteBuffer _buffer;
+
+  @NonNegative
+  private final int _rows;
+
+  @NonNull
+  private final Set<@NonNull String> _names;
+
+  @NonNull
+  private ByteBuffer _footer;
+
+  @NonNegative
+  private long _position;
+
+  @NonNegative
+  private int _columns;
+
+  private boolean _closed;
+
+  /**
+   * Create a store, replacing any existing file.
+   *
+   * @param path Path of the store to write.
+   * @param rows Number of rows of each column of the store.
+   * @throws IOException If the file can't be created.
+   */
+  public ColumnStoreWriter(
+      @NonNull final Path path,
+      @NonNegative final int rows
+  ) throws IOException {
+    if (rows < 0) {
+      throw new IllegalArgumentException("Invalid number of rows : " + rows);
+    }
+
+    _channel = FileChannel.open(
+        path,
+        StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING,
+        StandardOpenOption.WRITE
+    );
+    _buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    _rows = rows;
+    _names = new HashSet<>();
+    _footer = ByteBuffer.allocate(256).order(ByteOrder.LITTLE_ENDIAN);
+    _position = 0;
+    _columns = 0;
+    _closed = false;
+  }
+
+  /**
+   * @param name Name of the column.
+   * @param values Value of each row.
+   * @return This writer instance for chaining purposes.
+   * @throws IOException If the column can't be written.
+   */
+  public @NonNull ColumnStoreWriter writeLongs(
+      @NonNull final String name,
+      @NonNull final IntToLongFunction values
+  ) throws IOException {
+    start(name, ColumnStore.LONG, 1);
+    final long offset = _position;
+
+    for (@NonNegative int row = 0; row < _rows; ++row) {
+      ensure(Long.BYTES).putLong(values.applyAsLong(row));
+    }
+
+    endRegion(offset);
+    return this;
+  }
+
+  /**
+   * @see #writeLongs(String, IntToLongFunction)
+   */
+  public @NonNull ColumnStoreWriter writeInts(
+      @NonNull final String name,
+      @NonNull final IntUnaryOperator values
+  ) throws IOException {
+    start(name, ColumnStore.INT, 1);
+    final long offset = _position;
+
+    for (@NonNegative int row = 0; row < _rows; ++row) {
+      ensure(Integer.BYTES).putInt(values.applyAsInt(row));
+    }
+
+    endRegion(offset);
+    return this;
+  }
+
+  /**
+   * @see #writeLongs(String, IntToLongFunction)
+   */
+  public @NonNull ColumnStoreWriter writeDoubles(
+      @NonNull final String name,
+      @NonNull final IntToDoubleFunction values
+  ) throws IOException {
+    start(name, ColumnStore.DOUBLE, 1);
+    final long offset = _position;
+
+    for (@NonNegative int row = 0; row < _rows; ++row) {
+      ensure(Double.BYTES).putDouble(values.applyAsDouble(row));
+    }
+
+    endRegion(offset);
+    return this;
+  }
+
+  /**
+   * Write a boolean column, the given function is called twice for each row.
+   *
+   * @see #writeLongs(String, IntToLongFunction)
+   */
+  public @NonNull ColumnStoreWriter writeBooleans(
+      @NonNull final String name,
+      @NonNull final IntFunction<@Nullable Boolean> values
+  ) throws IOException {
+    start(name, ColumnStore.BOOLEAN, 2);
+
+    for (@NonNegative int region = 0; region < 2; ++region) {
+      final long offset = _position;
+
+      for (@NonNegative int word = 0; word < (_rows + 63) >>> 6; ++word) {
+        long bits = 0L;
+
+        for (int row = word << 6, end = Math.min(row + 64, _rows); row < end; ++row) {
+          @Nullable final Boolean value = values.apply(row);
+
+          if (region == 0 ? Boolean.TRUE.equals(value) : value == null) {
+            bits |= 1L << row;
+          }
+        }
+
+        ensure(Long.BYTES).putLong(bits);
+      }
+
+      endRegion(offset);
+    }
+
+    return this;
+  }
+
+  /**
+   * Write a dictionary-encoded string column.
+   *
+   * @see #writeLongs(String, IntToLongFunction)
+   */
+  public @NonNull ColumnStoreWriter writeStrings(
+      @NonNull final String name,
+      @NonNull final IntFunction<@Nullable String> values
+  ) throws IOException {
+    start(name, ColumnStore.STRING, 2);
+
+    @NonNull final Map<@NonNull String, @NonNull Integer> codes = new HashMap<>();
+    @NonNull final List<@NonNull String> dictionary = new ArrayList<>();
+    long offset = _position;
+
+    for (@NonNegative int row = 0; row < _rows; ++row) {
+      @Nullable final String value = values.apply(row);
+      final int code;
+
+      if (value == null) {
+        code = ColumnStore.NULL_CODE;
+      } else {
+        code = codes.computeIfAbsent(value, (final String key) -> {
+          dictionary.add(key);
+          return dictionary.size() - 1;
+        });
+      }
+
+      ensure(Integer.BYTES).putInt(code);
+    }
+
+    endRegion(offset);
+    offset = _position;
+    ensure(Integer.BYTES).putInt(dictionary.size());
+
+    for (@NonNull final String value : dictionary) {
+      @NonNull final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      ensure(Integer.BYTES).putInt(bytes.length);
+
+      for (@NonNegative int index = 0; index < bytes.length; index += BUFFER_SIZE) {
+        final int length = Math.min(BUFFER_SIZE, bytes.length - index);
+        ensure(length).put(bytes, index, length);
+      }
+    }
+
+    endRegion(offset);
+    return this;
+  }
+
+  private void start(
+      @NonNull final String name,
+      final int type,
+      @NonNegative final int regions
+  ) {
+    if (_closed) {
+      throw new IllegalStateException("Unable to write a column : the writer is closed.");
+    }
+
+    if (!_names.add(name)) {
+      throw new IllegalArgumentException("Duplicated column : " + name);
+    }
+
+    @NonNull final byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+
+    footer(bytes.length + 12).putInt(bytes.length).put(bytes).putInt(type).putInt(regions);
+    _columns += 1;
+  }
+
+  /**
+   * Flush a region and record it in the footer, the next region starting on 8 bytes.
+   */
+  private void endRegion(final long offset) throws IOException {
+    final long length = _position - offset;
+
+    while ((_position & 7L) != 0L) {
+      ensure(1).put((byte) 0);
+    }
+
+    footer(16).putLong(offset).putLong(length);
+  }
+
+  /**
+   * @return The buffer of the file, with at least the given number of bytes remaining.
+   */
+  private @NonNull ByteBuffer ensure(@NonNegative final int bytes) throws IOException {
+    if (_buffer.remaining() < bytes) {
+      flush();
+    }
+
+    _position += bytes;
+    return _buffer;
+  }
+
+  private void flush() throws IOException {
+    _buffer.flip();
+
+    while (_buffer.hasRemaining()) {
+      _channel.write(_buffer);
+    }
+
+    _buffer.clear();
+  }
+
+  private @NonNull ByteBuffer footer(@NonNegative final int bytes) {
+    if (_footer.remaining() < bytes) {
+      @NonNull final ByteBuffer grown = ByteBuffer.allocate(
+          Math.max(_footer.capacity() * 2, _footer.position() + bytes)
+      ).order(ByteOrder.LITTLE_ENDIAN);
+
+      _footer.flip();
+      grown.put(_footer);
+      _footer = grown;
+    }
+
+    return _footer;
+  }
+
+  /**
+   * Write the footer of the store and close its file.
+   *
+   * @see Closeable#close()
+   */
+  @Override
+  public void close() throws IOException {
+    if (_closed) {
+      return;
+    }
+
+    _closed = true;
+
+    try {
+      final long footerOffset = _position;
+      ensure(Integer.BYTES).putInt(_columns);
+
+      _footer.flip();
+
+      while (_footer.hasRemaining()) {
+        final int length = Math.min(BUFFER_SIZE, _footer.remaining());
+        @NonNull final ByteBuffer slice = _footer.duplicate();
+        slice.limit(slice.position() + length);
+        ensure(length).put(slice);
+        _footer.position(_footer.position() + length);
+      }
+
+      ensure(ColumnStore.TRAILER_SIZE).putLong(footerOffset).putInt(_rows).putInt(
+          ColumnStore.MAGIC
+      );
+      flush();
+    } finally {
+      _channel.close();
+    }
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.estimation;
+
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * An approximate number of rows, with the bounds that the real number lies in.
+ */
+public final class ApproximateCount {
+
+  @NonNegative
+  private final long _estimate;
+
+  @NonNegative
+  private final long _lowerBound;
+
+  @NonNegative
+  private final long _upperBound;
+
+  /**
+   * Create a new approximate count.
+   *
+   * @param estimate The estimated number of rows.
+   * @param lowerBound The smallest possible number of rows.
+   * @param upperBound The greatest possible number of rows.
+   */
+  public ApproximateCount(
+      @NonNegative final long estimate,
+      @NonNegative final long lowerBound,
+      @NonNegative final long upperBound
+  ) {
+    if (lowerBound > estimate || estimate > upperBound) {
+      throw new IllegalArgumentException(
+          "Invalid approximate count : " + estimate + " not in [" + lowerBound + ", " + upperBound +
+              "]"
+      );
+    }
+
+    _estimate = estimate;
+    _lowerBound = lowerBound;
+    _upperBound = upperBound;
+  }
+
+  /**
+   * @return The estimated number of rows.
+   */
+  public @NonNegative long getEstimate() {
+    return _estimate;
+  }
+
+  /**
+   * @return The smallest possible number of rows.
+   */
+  public @NonNegative long getLowerBound() {
+    return _lowerBound;
+  }
+
+  /**
+   * @return The greatest possible number of rows.
+   */
+  public @NonNegative long getUpperBound() {
+    return _upperBound;
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(_estimate) * 31 * 31 + Long.hashCode(_lowerBound) * 31 +
+        Long.hashCode(_upperBound);
+  }
+
+  @Override
+  public boolean equals(@Nullable final Object other) {
+    if (other == this) {
+      return true;
+    }
+
+    if (other instanceof ApproximateCount) {
+      @NonNull final ApproximateCount otherCount = (ApproximateCount) other;
+
+      return _estimate == otherCount._estimate &&
+          _lowerBound == otherCount._lowerBound &&
+          _upperBound == otherCount._upperBound;
+    }
+
+    return false;
+  }
+
+  @Override
+  public @NonNull String toString() {
+    return "ApproximateCount { " + _estimate + " in [" + _lowerBound + ", " + _upperBound + "] }";
+  }
+}
@@ -0,0 +1,306 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.estimation;
+
+import java.util.Arrays;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * An equi-depth histogram of the values of a column.
+ *
+ * Each bucket holds about the same number of values and covers the closed interval between the
+ * smallest and the greatest of its values, buckets never share a value. A value that fills a bucket
+ * gets a bucket of its own, so that frequent values are estimated from their own count. Values are
+ * assumed to be uniformly distributed inside each bucket.
+ */
+public final class EquiDepthHistogram
+    implements ValueDistribution {
+
+  @NonNull
+  private final double[] _lowers;
+
+  @NonNull
+  private final double[] _uppers;
+
+  /**
+   * Fraction of the non-null values of each bucket.
+   */
+  @NonNull
+  private final double[] _fractions;
+
+  @NonNull
+  private final long[] _distincts;
+
+  private final double _nullFraction;
+
+  private final boolean _integral;
+
+  private EquiDepthHistogram(
+      @NonNull final double[] lowers,
+      @NonNull final double[] uppers,
+      @NonNull final double[] fractions,
+      @NonNull final long[] distincts,
+      final double nullFraction,
+      final boolean integral
+  ) {
+    _lowers = lowers;
+    _uppers = uppers;
+    _fractions = fractions;
+    _distincts = distincts;
+    _nullFraction = nullFraction;
+    _integral = integral;
+  }
+
+  /**
+   * Build a histogram from a sample of integral values.
+   *
+   * @param sample Sampled non-null values, the array is not modified.
+   * @param nulls Number of sampled null values.
+   * @param buckets Expected number of buckets, frequent values may add a few buckets.
+   * @return A histogram of the given sample.
+   */
+  public static @NonNull EquiDepthHistogram fromSample(
+      @NonNull final long[] sample,
+      @NonNegative final long nulls,
+      @NonNegative final int buckets
+  ) {
+    @NonNull final double[] values = new double[sample.length];
+
+    for (@NonNegative int index = 0; index < sample.length; ++index) {
+      values[index] = sample[index];
+    }
+
+    return build(values, nulls, buckets, true);
+  }
+
+  /**
+   * Build a histogram from a sample of real values.
+   *
+   * @param sample Sampled non-null values, NaN being ignored, the array is not modified.
+   * @param nulls Number of sampled null values.
+   * @param buckets Expected number of buckets, frequent values may add a few buckets.
+   * @return A histogram of the given sample.
+   */
+  public static @NonNull EquiDepthHistogram fromSample(
+      @NonNull final double[] sample,
+      @NonNegative final long nulls,
+      @NonNegative final int buckets
+  ) {
+    return build(
+        Arrays.stream(sample).filter((final double value) -> !Double.isNaN(value)).toArray(),
+        nulls,
+        buckets,
+        false
+    );
+  }
+
+  /**
+   * Build a histogram from the quantiles of a column.
+   *
+   * @param quantiles Values at ranks 0, 1 / buckets, ..., 1 of the non-null values of a column.
+   * @param nullFraction Fraction of null values of the column.
+   * @param integral True if the column only contains integral values.
+   * @return A histogram of buckets bounded by the given quantiles.
+   */
+  public static @NonNull EquiDepthHistogram fromQuantiles(
+      @NonNull final double[] quantiles,
+      final double nullFraction,
+      final boolean integral
+  ) {
+    final int buckets = Math.max(0, quantiles.length - 1);
+    @NonNull final double[] fractions = new double[buckets];
+    @NonNull final long[] distincts = new long[buckets];
+
+    Arrays.fill(fractions, 1.0 / buckets);
+    Arrays.fill(distincts, Long.MAX_VALUE);
+
+    return new EquiDepthHistogram(
+        Arrays.copyOfRange(quantiles, 0, buckets),
+        Arrays.copyOfRange(quantiles, Math.min(1, quantiles.length), quantiles.length),
+        fractions,
+        distincts,
+        nullFraction,
+        integral
+    );
+  }
+
+  private static @NonNull EquiDepthHistogram build(
+      @NonNull final double[] values,
+      @NonNegative final long nulls,
+      @NonNegative final int buckets,
+      final boolean integral
+  ) {
+    if (buckets <= 0) {
+      throw new IllegalArgumentException("A histogram requires at least one bucket.");
+    }
+
+    Arrays.sort(values);
+
+    final int depth = Math.max(1, (values.length + buckets - 1) / buckets);
+    @NonNull final double[] lowers = new double[Math.min(2 * buckets + 1, values.length)];
+    @NonNull final double[] uppers = new double[lowers.length];
+    @NonNull final double[] fractions = new double[lowers.length];
+    @NonNull final long[] distincts = new long[lowers.length];
+    @NonNegative int size = 0;
+    @NonNegative int start = 0;
+
+    while (start < values.length) {
+      @NonNegative int end = Math.min(values.length, start + depth);
+
+      if (end < values.length && values[end] == values[end - 1]) {
+        @NonNegative int run = end - 1;
+
+        while (run > start && values[run - 1] == values[run]) {
+          run -= 1;
+        }
+
+        if (run > start) {
+          end = run;
+        } else {
+          while (end < values.length && values[end] == values[end - 1]) {
+            end += 1;
+          }
+        }
+      }
+
+      @NonNegative long distinct = 1;
+
+      for (@NonNegative int index = start + 1; index < end; ++index) {
+        if (values[index] != values[index - 1]) {
+          distinct += 1;
+        }
+      }
+
+      lowers[size] = values[start];
+      uppers[size] = values[end - 1];
+      fractions[size] = (double) (end - start) / values.length;
+      distincts[size] = distinct;
+      size += 1;
+      start = end;
+    }
+
+    return new EquiDepthHistogram(
+        Arrays.copyOf(lowers, size),
+        Arrays.copyOf(uppers, size),
+        Arrays.copyOf(fractions, size),
+        Arrays.copyOf(distincts, size),
+        values.length + nulls == 0 ? 0 : (double) nulls / (values.length + nulls),
+        integral
+    );
+  }
+
+  /**
+   * @see ValueDistribution#estimate(double, double)
+   */
+  @Override
+  public double estimate(final double lower, final double upper) {
+    double result = 0;
+
+    for (@NonNegative int bucket = 0; bucket < _lowers.length; ++bucket) {
+      final double bucketLower = _lowers[bucket];
+      final double bucketUpper = _uppers[bucket];
+
+      if (upper < bucketLower || lower > bucketUpper) {
+        continue;
+      }
+
+      if (lower <= bucketLower && upper >= bucketUpper) {
+        result += _fractions[bucket];
+      } else if (lower == upper) {
+        result += _fractions[bucket] / Math.min(_distincts[bucket], getWidth(bucket));
+      } else {
+        final double from = Math.max(lower, bucketLower);
+        final double to = Math.min(upper, bucketUpper);
+
+        result += _fractions[bucket] * (
+            _integral ? (to - from + 1) / (bucketUpper - bucketLower + 1)
+                : (to - from) / (bucketUpper - bucketLower)
+        );
+      }
+    }
+
+    return Math.min(1, result);
+  }
+
+  /**
+   * @return The number of values that a bucket may contain, infinite for real values.
+   */
+  private double getWidth(@NonNegative final int bucket) {
+    return _integral ? _uppers[bucket] - _lowers[bucket] + 1 : Double.POSITIVE_INFINITY;
+  }
+
+  /**
+   * @return The number of buckets of this histogram.
+   */
+  public @NonNegative int getBuckets() {
+    return _lowers.length;
+  }
+
+  /**
+   * @param bucket Index of a bucket.
+   * @return The smallest value of the bucket.
+   */
+  public double getLower(@NonNegative final int bucket) {
+    return _lowers[bucket];
+  }
+
+  /**
+   * @param bucket Index of a bucket.
+   * @return The greatest value of the bucket.
+   */
+  public double getUpper(@NonNegative final int bucket) {
+    return _uppers[bucket];
+  }
+
+  /**
+   * @param bucket Index of a bucket.
+   * @return The fraction of the non-null values of the column that are in the bucket.
+   */
+  public double getFraction(@NonNegative final int bucket) {
+    return _fractions[bucket];
+  }
+
+  /**
+   * @param bucket Index of a bucket.
+   * @return The number of distinct values of the bucket, Long.MAX_VALUE if unknown.
+   */
+  public long getDistinct(@NonNegative final int bucket) {
+    return _distincts[bucket];
+  }
+
+  /**
+   * @see ValueDistribution#getNullFraction()
+   */
+  @Override
+  public double getNullFraction() {
+    return _nullFraction;
+  }
+
+  /**
+   * @return True if the column only contains integral values.
+   */
+  public boolean isIntegral() {
+    return _integral;
+  }
+}
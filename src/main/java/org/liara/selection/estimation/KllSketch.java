@@ -0,0 +1,486 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.estimation;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A mergeable quantile sketch of the values of a column, as described by Karnin, Lang and Liberty.
+ *
+ * The sketch retains a few thousands of values in levels, a value of level h standing for 2^h
+ * values of the column. When a level is full, its values are sorted and one value out of two,
+ * starting at a random offset, is promoted to the next level. The number of values in an interval
+ * is then known up to getRankError() * getCount() values, with a probability of about 99%.
+ *
+ * A sketch is updated one value at a time, can be built from a stream with
+ * stream.collect(KllSketch::new, KllSketch::update, KllSketch::merge), and can be serialized in
+ * order to be merged with the sketches of other nodes. A sketch is not thread-safe.
+ */
+public final class KllSketch
+    implements ValueDistribution {
+
+  public static final int DEFAULT_SIZE = 200;
+
+  public static final int MINIMUM_SIZE = 8;
+
+  private static final int VERSION = 1;
+
+  private static final double LEVEL_RATIO = 2.0 / 3.0;
+
+  @NonNegative
+  private final int _size;
+
+  @NonNull
+  private double[][] _levels;
+
+  @NonNull
+  private int[] _lengths;
+
+  @NonNegative
+  private long _count;
+
+  @NonNegative
+  private long _nulls;
+
+  private double _minimum;
+
+  private double _maximum;
+
+  @NonNull
+  private final SplittableRandom _random;
+
+  /**
+   * Create an empty sketch of the default size.
+   */
+  public KllSketch() {
+    this(DEFAULT_SIZE);
+  }
+
+  /**
+   * Create an empty sketch.
+   *
+   * @param size Number of values retained by the top level, the greater the more accurate.
+   */
+  public KllSketch(@NonNegative final int size) {
+    if (size < MINIMUM_SIZE) {
+      throw new IllegalArgumentException(
+          "A sketch requires a size of at least " + MINIMUM_SIZE + " : " + size
+      );
+    }
+
+    _size = size;
+    _levels = new double[][]{new double[size]};
+    _lengths = new int[1];
+    _count = 0;
+    _nulls = 0;
+    _minimum = Double.NaN;
+    _maximum = Double.NaN;
+    _random = new SplittableRandom();
+  }
+
+  /**
+   * Add a non-null value to the sketch, NaN values are ignored.
+   *
+   * @param value A value of the column.
+   */
+  public void update(final double value) {
+    if (Double.isNaN(value)) {
+      return;
+    }
+
+    append(0, value);
+
+    _minimum = _count == 0 ? value : Math.min(_minimum, value);
+    _maximum = _count == 0 ? value : Math.max(_maximum, value);
+    _count += 1;
+
+    compress();
+  }
+
+  /**
+   * Add a null value to the sketch.
+   */
+  public void updateNull() {
+    _nulls += 1;
+  }
+
+  /**
+   * Add the values summarized by another sketch of the same size to this sketch.
+   *
+   * @param other A sketch to merge into this one, it is not modified.
+   */
+  public void merge(@NonNull final KllSketch other) {
+    if (other._size != _size) {
+      throw new IllegalArgumentException(
+          "Unable to merge a sketch of size " + other._size + " into a sketch of size " + _size
+      );
+    }
+
+    for (@NonNegative int level = 0; level < other._levels.length; ++level) {
+      for (@NonNegative int index = 0; index < other._lengths[level]; ++index) {
+        append(level, other._levels[level][index]);
+      }
+    }
+
+    if (other._count > 0) {
+      _minimum = _count == 0 ? other._minimum : Math.min(_minimum, other._minimum);
+      _maximum = _count == 0 ? other._maximum : Math.max(_maximum, other._maximum);
+    }
+
+    _count += other._count;
+    _nulls += other._nulls;
+
+    compress();
+  }
+
+  private void append(@NonNegative final int level, final double value) {
+    if (level >= _levels.length) {
+      grow(level + 1);
+    }
+
+    if (_lengths[level] == _levels[level].length) {
+      _levels[level] = Arrays.copyOf(_levels[level], _levels[level].length * 2);
+    }
+
+    _levels[level][_lengths[level]] = value;
+    _lengths[level] += 1;
+  }
+
+  private void grow(@NonNegative final int levels) {
+    final int from = _levels.length;
+
+    _levels = Arrays.copyOf(_levels, levels);
+    _lengths = Arrays.copyOf(_lengths, levels);
+
+    for (@NonNegative int level = from; level < levels; ++level) {
+      _levels[level] = new double[MINIMUM_SIZE];
+    }
+  }
+
+  /**
+   * Compact full levels until the sketch retains no more values than its capacity.
+   */
+  private void compress() {
+    while (getRetained() > getCapacity()) {
+      for (@NonNegative int level = 0; level < _levels.length; ++level) {
+        if (_lengths[level] >= getCapacity(level)) {
+          compact(level);
+          break;
+        }
+      }
+    }
+  }
+
+  /**
+   * Promote one value out of two of a level to the next one. If the level holds an odd number of
+   * values, its smallest value stays in it.
+   */
+  private void compact(@NonNegative final int level) {
+    final int length = _lengths[level];
+    @NonNull final double[] values = _levels[level];
+
+    Arrays.sort(values, 0, length);
+
+    final int kept = length % 2;
+
+    for (int index = kept + (_random.nextBoolean() ? 1 : 0); index < length; index += 2) {
+      append(level + 1, values[index]);
+    }
+
+    _lengths[level] = kept;
+  }
+
+  private @NonNegative int getCapacity(@NonNegative final int level) {
+    final int depth = _levels.length - level - 1;
+
+    return Math.max(MINIMUM_SIZE, (int) Math.ceil(_size * Math.pow(LEVEL_RATIO, depth)));
+  }
+
+  private @NonNegative int getCapacity() {
+    int result = 0;
+
+    for (@NonNegative int level = 0; level < _levels.length; ++level) {
+      result += getCapacity(level);
+    }
+
+    return result;
+  }
+
+  /**
+   * @return The number of values retained by this sketch.
+   */
+  public @NonNegative int getRetained() {
+    int result = 0;
+
+    for (final int length : _lengths) {
+      result += length;
+    }
+
+    return result;
+  }
+
+  /**
+   * Return the number of summarized values in a closed interval.
+   *
+   * @param lower Lower bound of the interval, included.
+   * @param upper Upper bound of the interval, included.
+   * @return The approximate number of non-null values in the interval.
+   */
+  public @NonNegative long getCount(final double lower, final double upper) {
+    long result = 0;
+
+    if (lower > upper) {
+      return result;
+    }
+
+    for (@NonNegative int level = 0; level < _levels.length; ++level) {
+      @NonNull final double[] values = _levels[level];
+
+      for (@NonNegative int index = 0, length = _lengths[level]; index < length; ++index) {
+        if (values[index] >= lower && values[index] <= upper) {
+          result += 1L << level;
+        }
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * @param fraction A fraction of the values, in [0, 1].
+   * @return The approximate smallest value greater than or equal to the given fraction of the
+   * summarized values, the exact minimum and maximum for 0 and 1, NaN if the sketch is empty.
+   */
+  public double getQuantile(final double fraction) {
+    if (fraction < 0 || fraction > 1) {
+      throw new IllegalArgumentException("Invalid fraction : " + fraction);
+    }
+
+    if (_count == 0) {
+      return Double.NaN;
+    } else if (fraction == 0) {
+      return _minimum;
+    } else if (fraction == 1) {
+      return _maximum;
+    }
+
+    @NonNull final double[] values = new double[getRetained()];
+    @NonNull final long[] weights = new long[values.length];
+    @NonNegative int size = 0;
+
+    for (@NonNegative int level = 0; level < _levels.length; ++level) {
+      System.arraycopy(_levels[level], 0, values, size, _lengths[level]);
+      Arrays.fill(weights, size, size + _lengths[level], 1L << level);
+      size += _lengths[level];
+    }
+
+    sort(values, weights);
+
+    final double target = fraction * _count;
+    long rank = 0;
+
+    for (@NonNegative int index = 0; index < size; ++index) {
+      rank += weights[index];
+
+      if (rank >= target) {
+        return values[index];
+      }
+    }
+
+    return _maximum;
+  }
+
+  /**
+   * Sort values in ascending order, with their weights.
+   */
+  private static void sort(@NonNull final double[] values, @NonNull final long[] weights) {
+    @NonNull final double[] sortedValues = values.clone();
+    @NonNull final long[] sortedWeights = new long[weights.length];
+    @NonNull final Integer[] indices = new Integer[values.length];
+
+    for (@NonNegative int index = 0; index < indices.length; ++index) {
+      indices[index] = index;
+    }
+
+    Arrays.sort(indices, (left, right) -> Double.compare(values[left], values[right]));
+
+    for (@NonNegative int index = 0; index < indices.length; ++index) {
+      sortedValues[index] = values[indices[index]];
+      sortedWeights[index] = weights[indices[index]];
+    }
+
+    System.arraycopy(sortedValues, 0, values, 0, values.length);
+    System.arraycopy(sortedWeights, 0, weights, 0, weights.length);
+  }
+
+  /**
+   * @see ValueDistribution#estimate(double, double)
+   */
+  @Override
+  public double estimate(final double lower, final double upper) {
+    return _count == 0 ? 0 : (double) getCount(lower, upper) / _count;
+  }
+
+  /**
+   * @see ValueDistribution#getNullFraction()
+   */
+  @Override
+  public double getNullFraction() {
+    return _count + _nulls == 0 ? 0 : (double) _nulls / (_count + _nulls);
+  }
+
+  /**
+   * Return the error of the number of values in an interval, as a fraction of the number of
+   * summarized values. The constants are the empirical ones of the reference implementation of the
+   * sketch, for a confidence of 99%.
+   *
+   * @return The normalized error of getCount.
+   */
+  public double getRankError() {
+    return 2.446 / Math.pow(_size, 0.9433);
+  }
+
+  /**
+   * @return The number of values retained by the top level of this sketch.
+   */
+  public @NonNegative int getSize() {
+    return _size;
+  }
+
+  /**
+   * @return The number of non-null values summarized by this sketch.
+   */
+  public @NonNegative long getCount() {
+    return _count;
+  }
+
+  /**
+   * @return The number of null values summarized by this sketch.
+   */
+  public @NonNegative long getNullCount() {
+    return _nulls;
+  }
+
+  /**
+   * @return The smallest summarized value, NaN if the sketch is empty.
+   */
+  public double getMinimum() {
+    return _minimum;
+  }
+
+  /**
+   * @return The greatest summarized value, NaN if the sketch is empty.
+   */
+  public double getMaximum() {
+    return _maximum;
+  }
+
+  /**
+   * @return A binary representation of this sketch.
+   */
+  public @NonNull byte[] toByteArray() {
+    @NonNull final ByteBuffer buffer = ByteBuffer.allocate(
+        4 * 3 + 8 * 4 + 4 * _levels.length + 8 * getRetained()
+    );
+
+    buffer.putInt(VERSION);
+    buffer.putInt(_size);
+    buffer.putLong(_count);
+    buffer.putLong(_nulls);
+    buffer.putDouble(_minimum);
+    buffer.putDouble(_maximum);
+    buffer.putInt(_levels.length);
+
+    for (@NonNegative int level = 0; level < _levels.length; ++level) {
+      buffer.putInt(_lengths[level]);
+
+      for (@NonNegative int index = 0; index < _lengths[level]; ++index) {
+        buffer.putDouble(_levels[level][index]);
+      }
+    }
+
+    return buffer.array();
+  }
+
+  /**
+   * @param bytes A binary representation of a sketch, as returned by toByteArray.
+   * @return The described sketch.
+   */
+  public static @NonNull KllSketch fromByteArray(@NonNull final byte[] bytes) {
+    @NonNull final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+
+    try {
+      final int version = buffer.getInt();
+
+      if (version != VERSION) {
+        throw new IllegalArgumentException("Unsupported sketch version : " + version);
+      }
+
+      @NonNull final KllSketch result = new KllSketch(buffer.getInt());
+
+      result._count = buffer.getLong();
+      result._nulls = buffer.getLong();
+      result._minimum = buffer.getDouble();
+      result._maximum = buffer.getDouble();
+
+      final int levels = buffer.getInt();
+
+      if (levels <= 0 || levels >= Long.SIZE || result._count < 0 || result._nulls < 0) {
+        throw new IllegalArgumentException("Invalid sketch header.");
+      }
+
+      result.grow(levels);
+
+      long weight = 0;
+
+      for (@NonNegative int level = 0; level < levels; ++level) {
+        final int length = buffer.getInt();
+
+        if (length < 0 || length > buffer.remaining() / 8) {
+          throw new IllegalArgumentException("Invalid sketch level length : " + length);
+        }
+
+        for (@NonNegative int index = 0; index < length; ++index) {
+          result.append(level, buffer.getDouble());
+        }
+
+        weight += (long) length << level;
+      }
+
+      if (weight != result._count || buffer.hasRemaining()) {
+        throw new IllegalArgumentException(
+            "The retained values of the sketch do not describe " + result._count + " values."
+        );
+      }
+
+      return result;
+    } catch (@NonNull final BufferUnderflowException exception) {
+      throw new IllegalArgumentException("Truncated sketch.", exception);
+    }
+  }
+}
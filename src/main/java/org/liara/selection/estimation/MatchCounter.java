@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.estimation;
+
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.liara.selection.range.DoubleRanges;
+import org.liara.selection.range.LongRanges;
+import org.liara.test.selection.datetime.DateTimeCondition;
+import org.liara.test.selection.datetime.LocalDateTimeComparison;
+
+/**
+ * Count the rows of a column that are accepted by a compiled selection, from a sketch of the
+ * column alone.
+ *
+ * The count of a set of ranges is the sum of the counts of its intervals, each of them being off
+ * by at most getRankError() * getCount() rows. The count of a datetime condition is bounded in
+ * the same way if the condition compares instants only, and is an estimate of the
+ * SelectivityEstimator without any guaranteed bound otherwise.
+ */
+public final class MatchCounter {
+
+  /**
+   * @param sketch Sketch of a column of integral values, or of durations in milliseconds.
+   * @param ranges A compiled number or duration selection.
+   * @return The approximate number of rows of the column accepted by the selection.
+   */
+  public static @NonNull ApproximateCount count(
+      @NonNull final KllSketch sketch,
+      @NonNull final LongRanges ranges
+  ) {
+    long result = 0;
+
+    for (@NonNegative int index = 0, size = ranges.size(); index < size; ++index) {
+      result += sketch.getCount(ranges.getLower(index), ranges.getUpper(index));
+    }
+
+    return bound(sketch, result, ranges.size());
+  }
+
+  /**
+   * @param sketch Sketch of a column of real values.
+   * @param ranges A compiled number selection.
+   * @return The approximate number of rows of the column accepted by the selection.
+   */
+  public static @NonNull ApproximateCount count(
+      @NonNull final KllSketch sketch,
+      @NonNull final DoubleRanges ranges
+  ) {
+    long result = 0;
+
+    for (@NonNegative int index = 0, size = ranges.size(); index < size; ++index) {
+      result += sketch.getCount(ranges.getLower(index), ranges.getUpper(index));
+    }
+
+    return bound(sketch, result, ranges.size());
+  }
+
+  /**
+   * @param sketch Sketch of a column of epoch milliseconds.
+   * @param condition A compiled datetime selection.
+   * @return The approximate number of rows of the column accepted by the selection.
+   */
+  public static @NonNull ApproximateCount count(
+      @NonNull final KllSketch sketch,
+      @NonNull final DateTimeCondition condition
+  ) {
+    final long rows = sketch.getCount() + sketch.getNullCount();
+    final long estimate = Math.round(SelectivityEstimator.estimate(sketch, condition) * rows);
+
+    if (condition instanceof LocalDateTimeComparison) {
+      return bound(
+          sketch, estimate, ((LocalDateTimeComparison) condition).getAccepted().size()
+      );
+    }
+
+    return new ApproximateCount(Math.min(estimate, sketch.getCount()), 0, sketch.getCount());
+  }
+
+  /**
+   * @param sketch The sketch that a count was computed from.
+   * @param count The count of a union of intervals.
+   * @param intervals The number of counted intervals.
+   * @return The given count and its bounds.
+   */
+  private static @NonNull ApproximateCount bound(
+      @NonNull final KllSketch sketch,
+      @NonNegative final long count,
+      @NonNegative final int intervals
+  ) {
+    final long total = sketch.getCount();
+    final long estimate = Math.min(count, total);
+    final long error = (long) Math.ceil(
+        Math.min(1, intervals * sketch.getRankError()) * total
+    );
+
+    return new ApproximateCount(
+        estimate, Math.max(0, estimate - error), Math.min(total, estimate + error)
+    );
+  }
+}
@@ -0,0 +1,361 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.estimation;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoField;
+import java.time.temporal.ValueRange;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.liara.selection.range.DoubleRanges;
+import org.liara.selection.range.LongRanges;
+import org.liara.test.selection.bool.BooleanCondition;
+import org.liara.test.selection.datetime.DateTimeCondition;
+import org.liara.test.selection.datetime.DateTimeConditionVisitor;
+import org.liara.test.selection.datetime.DateTimeConjunction;
+import org.liara.test.selection.datetime.DateTimeDisjunction;
+import org.liara.test.selection.datetime.DateTimeFieldComparison;
+import org.liara.test.selection.datetime.DateTimeNegation;
+import org.liara.test.selection.datetime.EpochCalendar;
+import org.liara.test.selection.datetime.LocalDateTimeComparison;
+import org.liara.test.selection.datetime.ZoneOffsetTable;
+
+/**
+ * Estimate the fraction of the rows of a column that are accepted by a compiled selection.
+ *
+ * Estimates are computed over the normalized form of a selection : the intervals of a set of
+ * ranges, or the comparisons of a datetime condition, against a histogram or a sketch of the
+ * column. Comparisons of a datetime condition are assumed to be independent. Comparisons of epoch
+ * days, years and proleptic months are estimated as the time intervals that they describe, while
+ * comparisons of other calendar fields are assumed to be uniformly distributed over the range of
+ * the field. Null values are never accepted, excepted by boolean conditions that accept them.
+ */
+public final class SelectivityEstimator {
+
+  /**
+   * @param distribution Distribution of a column of integral values, or of durations in
+   * milliseconds.
+   * @param ranges A compiled number or duration selection.
+   * @return The estimated fraction of the rows of the column accepted by the selection.
+   */
+  public static double estimate(
+      @NonNull final ValueDistribution distribution,
+      @NonNull final LongRanges ranges
+  ) {
+    return (1 - distribution.getNullFraction()) * estimateNonNull(distribution, ranges);
+  }
+
+  /**
+   * @param distribution Distribution of a column of real values.
+   * @param ranges A compiled number selection.
+   * @return The estimated fraction of the rows of the column accepted by the selection.
+   */
+  public static double estimate(
+      @NonNull final ValueDistribution distribution,
+      @NonNull final DoubleRanges ranges
+  ) {
+    double result = 0;
+
+    for (@NonNegative int index = 0, size = ranges.size(); index < size; ++index) {
+      result += distribution.estimate(ranges.getLower(index), ranges.getUpper(index));
+    }
+
+    return (1 - distribution.getNullFraction()) * Math.min(1, result);
+  }
+
+  /**
+   * @param distribution Distribution of a boolean column, false being 0 and true being 1.
+   * @param condition A compiled boolean selection.
+   * @return The estimated fraction of the rows of the column accepted by the selection.
+   */
+  public static double estimate(
+      @NonNull final ValueDistribution distribution,
+      @NonNull final BooleanCondition condition
+  ) {
+    double result = 0;
+
+    if (condition.test(Boolean.TRUE)) {
+      result += distribution.estimate(1, 1);
+    }
+
+    if (condition.test(Boolean.FALSE)) {
+      result += distribution.estimate(0, 0);
+    }
+
+    result *= 1 - distribution.getNullFraction();
+
+    if (condition.test(null)) {
+      result += distribution.getNullFraction();
+    }
+
+    return Math.min(1, result);
+  }
+
+  /**
+   * @param distribution Distribution of a column of epoch milliseconds.
+   * @param condition A compiled datetime selection.
+   * @return The estimated fraction of the rows of the column accepted by the selection.
+   */
+  public static double estimate(
+      @NonNull final ValueDistribution distribution,
+      @NonNull final DateTimeCondition condition
+  ) {
+    return (1 - distribution.getNullFraction()) * condition.accept(
+        new DateTimeSelectivity(distribution)
+    );
+  }
+
+  private static double estimateNonNull(
+      @NonNull final ValueDistribution distribution,
+      @NonNull final LongRanges ranges
+  ) {
+    double result = 0;
+
+    for (@NonNegative int index = 0, size = ranges.size(); index < size; ++index) {
+      result += distribution.estimate(ranges.getLower(index), ranges.getUpper(index));
+    }
+
+    return Math.min(1, result);
+  }
+
+  /**
+   * Estimate the fraction of the non-null values of a column that satisfy a datetime condition.
+   */
+  private static final class DateTimeSelectivity
+      implements DateTimeConditionVisitor<@NonNull Double> {
+
+    private static final long MAXIMUM_DAY = Long.MAX_VALUE / EpochCalendar.MILLIS_PER_DAY - 1;
+
+    @NonNull
+    private final ValueDistribution _distribution;
+
+    DateTimeSelectivity(@NonNull final ValueDistribution distribution) {
+      _distribution = distribution;
+    }
+
+    @Override
+    public @NonNull Double visitLocalDateTimeComparison(
+        @NonNull final LocalDateTimeComparison comparison
+    ) {
+      return estimateNonNull(
+          _distribution, toEpochMillis(comparison.getZone(), comparison.getAccepted())
+      );
+    }
+
+    @Override
+    public @NonNull Double visitFieldComparison(@NonNull final DateTimeFieldComparison comparison) {
+      @NonNull final LongRanges accepted = comparison.getAccepted();
+
+      switch (comparison.getField()) {
+        case EPOCH_DAY:
+          return estimateNonNull(
+              _distribution, toEpochMillis(comparison.getZone(), toLocalMillis(accepted))
+          );
+        case INSTANT_SECONDS:
+          return estimateNonNull(_distribution, toMillis(accepted));
+        case YEAR:
+        case YEAR_OF_ERA:
+        case PROLEPTIC_MONTH:
+          return estimateNonNull(
+              _distribution,
+              toEpochMillis(
+                  comparison.getZone(), toLocalMillis(toEpochDays(comparison.getField(), accepted))
+              )
+          );
+        default:
+          return estimateUniform(comparison.getField(), accepted);
+      }
+    }
+
+    @Override
+    public @NonNull Double visitConjunction(@NonNull final DateTimeConjunction conjunction) {
+      double result = 1;
+
+      for (@NonNull final DateTimeCondition operand : conjunction.getOperands()) {
+        result *= operand.accept(this);
+      }
+
+      return result;
+    }
+
+    @Override
+    public @NonNull Double visitDisjunction(@NonNull final DateTimeDisjunction disjunction) {
+      double rejected = 1;
+
+      for (@NonNull final DateTimeCondition operand : disjunction.getOperands()) {
+        rejected *= 1 - operand.accept(this);
+      }
+
+      return 1 - rejected;
+    }
+
+    @Override
+    public @NonNull Double visitNegation(@NonNull final DateTimeNegation negation) {
+      return 1 - negation.getOperand().accept(this);
+    }
+
+    /**
+     * Return the fraction of the range of a field that is accepted.
+     */
+    private static double estimateUniform(
+        @NonNull final ChronoField field,
+        @NonNull final LongRanges accepted
+    ) {
+      @NonNull final ValueRange range = field.range();
+      final long minimum = range.getMinimum();
+      final long maximum = range.getMaximum();
+      double count = 0;
+
+      for (@NonNegative int index = 0, size = accepted.size(); index < size; ++index) {
+        final long lower = Math.max(minimum, accepted.getLower(index));
+        final long upper = Math.min(maximum, accepted.getUpper(index));
+
+        if (lower <= upper) {
+          count += (double) upper - lower + 1;
+        }
+      }
+
+      return Math.min(1, count / ((double) maximum - minimum + 1));
+    }
+
+    /**
+     * Transform ranges of years, or of proleptic months, into ranges of epoch days. Years of era
+     * are assumed to be years of the current era.
+     */
+    private static @NonNull LongRanges toEpochDays(
+        @NonNull final ChronoField field,
+        @NonNull final LongRanges accepted
+    ) {
+      @NonNull final ValueRange range = field.range();
+      @NonNull LongRanges result = LongRanges.empty();
+
+      for (@NonNegative int index = 0, size = accepted.size(); index < size; ++index) {
+        final long lower = accepted.getLower(index);
+        final long upper = accepted.getUpper(index);
+
+        if (upper < range.getMinimum() || lower > range.getMaximum()) {
+          continue;
+        }
+
+        result = result.union(
+            LongRanges.closed(
+                lower <= range.getMinimum() ? Long.MIN_VALUE : toEpochDay(field, lower),
+                upper >= range.getMaximum() ? Long.MAX_VALUE : toEpochDay(field, upper + 1) - 1
+            )
+        );
+      }
+
+      return result;
+    }
+
+    private static long toEpochDay(@NonNull final ChronoField field, final long value) {
+      if (field == ChronoField.PROLEPTIC_MONTH) {
+        return LocalDate.of(
+            (int) Math.floorDiv(value, 12), Math.floorMod(value, 12) + 1, 1
+        ).toEpochDay();
+      } else {
+        return LocalDate.of((int) value, 1, 1).toEpochDay();
+      }
+    }
+
+    /**
+     * Transform ranges of epoch days into ranges of local milliseconds.
+     */
+    private static @NonNull LongRanges toLocalMillis(@NonNull final LongRanges days) {
+      @NonNull LongRanges result = LongRanges.empty();
+
+      for (@NonNegative int index = 0, size = days.size(); index < size; ++index) {
+        final long lower = Math.max(-MAXIMUM_DAY, days.getLower(index));
+        final long upper = Math.min(MAXIMUM_DAY, days.getUpper(index));
+
+        result = result.union(
+            LongRanges.closed(
+                days.getLower(index) == Long.MIN_VALUE ? Long.MIN_VALUE
+                    : lower * EpochCalendar.MILLIS_PER_DAY,
+                days.getUpper(index) == Long.MAX_VALUE ? Long.MAX_VALUE
+                    : (upper + 1) * EpochCalendar.MILLIS_PER_DAY - 1
+            )
+        );
+      }
+
+      return result;
+    }
+
+    /**
+     * Transform ranges of epoch seconds into ranges of epoch milliseconds.
+     */
+    private static @NonNull LongRanges toMillis(@NonNull final LongRanges seconds) {
+      @NonNull LongRanges result = LongRanges.empty();
+      final long maximum = Long.MAX_VALUE / 1000L - 1;
+
+      for (@NonNegative int index = 0, size = seconds.size(); index < size; ++index) {
+        final long lower = seconds.getLower(index);
+        final long upper = seconds.getUpper(index);
+
+        result = result.union(
+            LongRanges.closed(
+                lower < -maximum ? Long.MIN_VALUE : lower * 1000L,
+                upper > maximum ? Long.MAX_VALUE : upper * 1000L + 999L
+            )
+        );
+      }
+
+      return result;
+    }
+
+    /**
+     * Transform ranges of local milliseconds into the ranges of instants that they describe, the
+     * offset at each bound being used for the whole range.
+     */
+    private static @NonNull LongRanges toEpochMillis(
+        @NonNull final ZoneOffsetTable zone,
+        @NonNull final LongRanges local
+    ) {
+      @NonNull LongRanges result = LongRanges.empty();
+
+      for (@NonNegative int index = 0, size = local.size(); index < size; ++index) {
+        final long lower = local.getLower(index);
+        final long upper = local.getUpper(index);
+
+        result = result.union(
+            LongRanges.closed(
+                lower == Long.MIN_VALUE ? lower : toEpochMillis(zone, lower),
+                upper == Long.MAX_VALUE ? upper : toEpochMillis(zone, upper)
+            )
+        );
+      }
+
+      return result;
+    }
+
+    private static long toEpochMillis(@NonNull final ZoneOffsetTable zone, final long local) {
+      try {
+        return Math.subtractExact(
+            local, zone.getOffset(Math.subtractExact(local, zone.getOffset(local)))
+        );
+      } catch (@NonNull final ArithmeticException exception) {
+        return local;
+      }
+    }
+  }
+}
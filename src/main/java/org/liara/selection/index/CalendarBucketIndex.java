@@ -0,0 +1,357 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.index;
+
+import java.nio.LongBuffer;
+import java.time.ZoneId;
+import java.time.temporal.ChronoField;
+import java.time.temporal.ValueRange;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.selection.bitmap.CompressedBitmap;
+import org.liara.selection.bitmap.CompressedBitmapBuilder;
+import org.liara.selection.column.ColumnScanner;
+import org.liara.selection.column.ColumnStore;
+import org.liara.selection.range.LongRanges;
+import org.liara.test.selection.datetime.DateTimeCondition;
+import org.liara.test.selection.datetime.DateTimeConditionVisitor;
+import org.liara.test.selection.datetime.DateTimeConjunction;
+import org.liara.test.selection.datetime.DateTimeDisjunction;
+import org.liara.test.selection.datetime.DateTimeFieldComparison;
+import org.liara.test.selection.datetime.DateTimeNegation;
+import org.liara.test.selection.datetime.EpochCalendar;
+import org.liara.test.selection.datetime.LocalDateTimeComparison;
+import org.liara.test.selection.datetime.ZoneOffsetTable;
+
+/**
+ * A read-only index of the calendar fields of a column of epoch milliseconds in a zone.
+ *
+ * The rows of each value of each indexed field are stored as a compressed bitmap, so partial
+ * comparisons such as "hours 8 to 10", "Mondays" or "December" are answered by the union of the
+ * bitmaps of their accepted values, and combinations of comparisons by unions, intersections and
+ * complements of bitmaps. Comparisons that can't be answered by the index, because they compare a
+ * field in another zone, a field that is not indexed or a whole local datetime, are evaluated by a
+ * scan of the column.
+ */
+public final class CalendarBucketIndex {
+
+  /**
+   * Hour of day, day of week, day of month, month and week of year.
+   */
+  @NonNull
+  public static final List<@NonNull ChronoField> DEFAULT_FIELDS = Collections.unmodifiableList(
+      Arrays.asList(
+          ChronoField.HOUR_OF_DAY,
+          ChronoField.DAY_OF_WEEK,
+          ChronoField.DAY_OF_MONTH,
+          ChronoField.MONTH_OF_YEAR,
+          ChronoField.ALIGNED_WEEK_OF_YEAR
+      )
+  );
+
+  /**
+   * Largest number of values of an indexed field, the number of minutes of a day.
+   */
+  public static final int MAXIMUM_BUCKETS = 1440;
+
+  @NonNull
+  private final ZoneOffsetTable _zone;
+
+  @NonNull
+  private final LongBuffer _column;
+
+  @NonNull
+  private final Map<@NonNull ChronoField, @NonNull Buckets> _fields;
+
+  @NonNull
+  private final Evaluator _evaluator;
+
+  private CalendarBucketIndex(
+      @NonNull final ZoneOffsetTable zone,
+      @NonNull final LongBuffer column,
+      @NonNull final Map<@NonNull ChronoField, @NonNull Buckets> fields
+  ) {
+    _zone = zone;
+    _column = column;
+    _fields = fields;
+    _evaluator = new Evaluator();
+  }
+
+  /**
+   * @param column A column of epoch milliseconds, kept by the index for the comparisons it can't
+   * answer.
+   * @param zone Zone in which fields are computed.
+   * @param fields Fields to index, of at most MAXIMUM_BUCKETS values each.
+   * @return An index of the given column.
+   */
+  public static @NonNull CalendarBucketIndex of(
+      @NonNull final long[] column,
+      @NonNull final ZoneId zone,
+      @NonNull final List<@NonNull ChronoField> fields
+  ) {
+    return of(LongBuffer.wrap(column), zone, fields);
+  }
+
+  /**
+   * @param store A column store.
+   * @param column Name of a LONG column of epoch milliseconds.
+   * @param zone Zone in which fields are computed.
+   * @param fields Fields to index, of at most MAXIMUM_BUCKETS values each.
+   * @return An index of the given column.
+   */
+  public static @NonNull CalendarBucketIndex of(
+      @NonNull final ColumnStore store,
+      @NonNull final String column,
+      @NonNull final ZoneId zone,
+      @NonNull final List<@NonNull ChronoField> fields
+  ) {
+    return of(store.getLongs(column), zone, fields);
+  }
+
+  private static @NonNull CalendarBucketIndex of(
+      @NonNull final LongBuffer column,
+      @NonNull final ZoneId zone,
+      @NonNull final List<@NonNull ChronoField> fields
+  ) {
+    @NonNull final ZoneOffsetTable offsets = ZoneOffsetTable.of(zone);
+    @NonNull final ChronoField[] indexed = fields.stream().distinct().toArray(ChronoField[]::new);
+    @NonNull final long[] minimums = new long[indexed.length];
+    @NonNull final CompressedBitmapBuilder[][] builders = new CompressedBitmapBuilder[
+        indexed.length
+    ][];
+
+    for (@NonNegative int field = 0; field < indexed.length; ++field) {
+      @NonNull final ValueRange range = indexed[field].range();
+      final long buckets = range.getMaximum() - range.getMinimum() + 1;
+
+      if (!EpochCalendar.isSupported(indexed[field]) || buckets > MAXIMUM_BUCKETS) {
+        throw new IllegalArgumentException("Unable to index the field " + indexed[field] + ".");
+      }
+
+      minimums[field] = range.getMinimum();
+      builders[field] = new CompressedBitmapBuilder[(int) buckets];
+
+      for (@NonNegative int bucket = 0; bucket < buckets; ++bucket) {
+        builders[field][bucket] = new CompressedBitmapBuilder();
+      }
+    }
+
+    for (@NonNegative int row = 0, rows = column.limit(); row < rows; ++row) {
+      final long epochMillis = column.get(row);
+      final long localMillis = offsets.toLocalMillis(epochMillis);
+
+      for (@NonNegative int field = 0; field < indexed.length; ++field) {
+        final long value = EpochCalendar.get(indexed[field], epochMillis, localMillis);
+        builders[field][(int) (value - minimums[field])].add(row);
+      }
+    }
+
+    @NonNull final Map<@NonNull ChronoField, @NonNull Buckets> result = new EnumMap<>(
+        ChronoField.class
+    );
+
+    for (@NonNegative int field = 0; field < indexed.length; ++field) {
+      @NonNull final CompressedBitmap[] bitmaps = new CompressedBitmap[builders[field].length];
+
+      for (@NonNegative int bucket = 0; bucket < bitmaps.length; ++bucket) {
+        bitmaps[bucket] = builders[field][bucket].build();
+      }
+
+      result.put(indexed[field], new Buckets(minimums[field], bitmaps));
+    }
+
+    return new CalendarBucketIndex(offsets, column, result);
+  }
+
+  /**
+   * @param condition A compiled datetime selection.
+   * @return A bitmap of the rows that satisfy the given selection.
+   */
+  public @NonNull CompressedBitmap select(@NonNull final DateTimeCondition condition) {
+    return condition.accept(_evaluator);
+  }
+
+  /**
+   * @param field An indexed field.
+   * @param value A value of the field.
+   * @return A bitmap of the rows whose field is equal to the given value.
+   */
+  public @NonNull CompressedBitmap get(@NonNull final ChronoField field, final long value) {
+    @Nullable final Buckets buckets = _fields.get(field);
+
+    if (buckets == null) {
+      throw new IllegalArgumentException("The field " + field + " is not indexed.");
+    }
+
+    return buckets.get(LongRanges.equalTo(value));
+  }
+
+  /**
+   * @param comparison A comparison of a field.
+   * @return True if the given comparison is answered by this index without scanning the column.
+   */
+  public boolean isIndexed(@NonNull final DateTimeFieldComparison comparison) {
+    return _fields.containsKey(comparison.getField()) &&
+        comparison.getZone().getZone().equals(_zone.getZone());
+  }
+
+  /**
+   * @return The zone in which fields are computed.
+   */
+  public @NonNull ZoneId getZone() {
+    return _zone.getZone();
+  }
+
+  /**
+   * @return The indexed fields.
+   */
+  public @NonNull Set<@NonNull ChronoField> getFields() {
+    return Collections.unmodifiableSet(_fields.keySet());
+  }
+
+  /**
+   * @return The number of indexed rows.
+   */
+  public @NonNegative int getRowCount() {
+    return _column.limit();
+  }
+
+  /**
+   * The bitmaps of the values of an indexed field.
+   */
+  private static final class Buckets {
+
+    final long minimum;
+
+    @NonNull
+    final CompressedBitmap[] bitmaps;
+
+    Buckets(final long minimum, @NonNull final CompressedBitmap[] bitmaps) {
+      this.minimum = minimum;
+      this.bitmaps = bitmaps;
+    }
+
+    /**
+     * @return The union of the bitmaps of the given values.
+     */
+    @NonNull CompressedBitmap get(@NonNull final LongRanges values) {
+      @NonNull final List<@NonNull CompressedBitmap> selected = new ArrayList<>();
+      final long maximum = minimum + bitmaps.length - 1;
+
+      for (@NonNegative int range = 0; range < values.size(); ++range) {
+        final long lower = Math.max(minimum, values.getLower(range));
+        final long upper = Math.min(maximum, values.getUpper(range));
+
+        for (long value = lower; value <= upper; ++value) {
+          selected.add(bitmaps[(int) (value - minimum)]);
+        }
+      }
+
+      return CompressedBitmap.union(selected);
+    }
+  }
+
+  /**
+   * Evaluate a condition from bitmaps, scanning the column for the comparisons that are not
+   * indexed.
+   */
+  private final class Evaluator
+      implements DateTimeConditionVisitor<@NonNull CompressedBitmap> {
+
+    /**
+     * @see DateTimeConditionVisitor#visitLocalDateTimeComparison(LocalDateTimeComparison)
+     */
+    @Override
+    public @NonNull CompressedBitmap visitLocalDateTimeComparison(
+        @NonNull final LocalDateTimeComparison comparison
+    ) {
+      return ColumnScanner.scan(comparison, _column);
+    }
+
+    /**
+     * @see DateTimeConditionVisitor#visitFieldComparison(DateTimeFieldComparison)
+     */
+    @Override
+    public @NonNull CompressedBitmap visitFieldComparison(
+        @NonNull final DateTimeFieldComparison comparison
+    ) {
+      if (isIndexed(comparison)) {
+        return _fields.get(comparison.getField()).get(comparison.getAccepted());
+      }
+
+      return ColumnScanner.scan(comparison, _column);
+    }
+
+    /**
+     * @see DateTimeConditionVisitor#visitConjunction(DateTimeConjunction)
+     */
+    @Override
+    public @NonNull CompressedBitmap visitConjunction(
+        @NonNull final DateTimeConjunction conjunction
+    ) {
+      @Nullable CompressedBitmap result = null;
+
+      for (@NonNull final DateTimeCondition operand : conjunction.getOperands()) {
+        result = result == null ? operand.accept(this) : result.and(operand.accept(this));
+
+        if (result.isEmpty()) {
+          return result;
+        }
+      }
+
+      return result == null ? CompressedBitmap.range(0, getRowCount()) : result;
+    }
+
+    /**
+     * @see DateTimeConditionVisitor#visitDisjunction(DateTimeDisjunction)
+     */
+    @Override
+    public @NonNull CompressedBitmap visitDisjunction(
+        @NonNull final DateTimeDisjunction disjunction
+    ) {
+      @NonNull CompressedBitmap result = CompressedBitmap.empty();
+
+      for (@NonNull final DateTimeCondition operand : disjunction.getOperands()) {
+        result = result.or(operand.accept(this));
+      }
+
+      return result;
+    }
+
+    /**
+     * @see DateTimeConditionVisitor#visitNegation(DateTimeNegation)
+     */
+    @Override
+    public @NonNull CompressedBitmap visitNegation(@NonNull final DateTimeNegation negation) {
+      return negation.getOperand().accept(this).complement(getRowCount());
+    }
+  }
+}
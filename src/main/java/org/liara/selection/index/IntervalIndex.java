@@ -0,0 +1,540 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.index;
+
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.liara.selection.bitmap.CompressedBitmap;
+import org.liara.selection.bitmap.CompressedBitmapBuilder;
+import org.liara.selection.column.ColumnStore;
+
+/**
+ * A read-only index of closed intervals of epoch milliseconds, as the (start, end) columns of
+ * activities, that returns the intervals which overlap a closed range of instants.
+ *
+ * All clauses of a datetime selection over intervals, as compiled by the in-range compiler, are
+ * overlaps with a range of instants :
+ *
+ * <ul>
+ *   <li>eq:d, the interval contains d : [d, d]</li>
+ *   <li>gt:d and gte:d, the interval ends after d : [d + 1, MAX] and [d, MAX]</li>
+ *   <li>lt:d and lte:d, the interval starts before d : [MIN, d - 1] and [MIN, d]</li>
+ *   <li>a:b, the interval overlaps the range : [min(a, b), max(a, b)]</li>
+ * </ul>
+ *
+ * Intervals are stored in a centered interval tree flattened in primitive arrays. Each node holds
+ * the intervals that contain its center, sorted by start and copied sorted by end, the intervals
+ * that end before its center being in its left subtree and the intervals that start after its
+ * center being in its right subtree. Intervals are laid out in the order of the tree, those of a
+ * subtree being contiguous, and subtrees of at most LEAF_SIZE intervals are scanned as leaves.
+ * Centers are the starts of the median intervals, so that the height of the tree is in O(log n)
+ * and finding the k intervals that overlap a range costs O(log n + k).
+ */
+public final class IntervalIndex {
+
+  public static final int LEAF_SIZE = 64;
+
+  private static final int NONE = -1;
+
+  private static final int ROOT = 0;
+
+  /**
+   * Starts, ends and rows of the intervals, in order of node and then of start.
+   */
+  @NonNull
+  private final long[] _starts;
+
+  @NonNull
+  private final long[] _ends;
+
+  @NonNull
+  private final int[] _rows;
+
+  /**
+   * Ends and rows of the intervals of the inner nodes, in order of node and then of end.
+   */
+  @NonNull
+  private final long[] _sortedEnds;
+
+  @NonNull
+  private final int[] _sortedRows;
+
+  @NonNull
+  private final long[] _centers;
+
+  /**
+   * Intervals of node n are intervals _firsts[n] to _lasts[n] - 1, and sorted ends
+   * _sortedFirsts[n] to _sortedFirsts[n] + _lasts[n] - _firsts[n] - 1, NONE for leaves.
+   */
+  @NonNull
+  private final int[] _firsts;
+
+  @NonNull
+  private final int[] _lasts;
+
+  @NonNull
+  private final int[] _sortedFirsts;
+
+  @NonNull
+  private final int[] _lefts;
+
+  @NonNull
+  private final int[] _rights;
+
+  @NonNegative
+  private final int _height;
+
+  private IntervalIndex(@NonNull final Builder builder) {
+    _starts = builder.starts;
+    _ends = builder.ends;
+    _rows = builder.rows;
+    _sortedEnds = builder.sortedEnds;
+    _sortedRows = builder.sortedRows;
+    _centers = Arrays.copyOf(builder.centers, builder.nodes);
+    _firsts = Arrays.copyOf(builder.firsts, builder.nodes);
+    _lasts = Arrays.copyOf(builder.lasts, builder.nodes);
+    _sortedFirsts = Arrays.copyOf(builder.sortedFirsts, builder.nodes);
+    _lefts = Arrays.copyOf(builder.lefts, builder.nodes);
+    _rights = Arrays.copyOf(builder.rights, builder.nodes);
+    _height = builder.height;
+  }
+
+  /**
+   * @param starts Starts of the intervals, the index of each interval being its row.
+   * @param ends Ends of the intervals, each of them being greater than or equal to its start.
+   * @return An index of the given intervals.
+   */
+  public static @NonNull IntervalIndex of(
+      @NonNull final long[] starts,
+      @NonNull final long[] ends
+  ) {
+    return of(LongBuffer.wrap(starts), LongBuffer.wrap(ends));
+  }
+
+  /**
+   * @param store A column store.
+   * @param starts Name of a LONG column of the starts of the intervals.
+   * @param ends Name of a LONG column of the ends of the intervals.
+   * @return An index of the intervals of the given columns.
+   */
+  public static @NonNull IntervalIndex of(
+      @NonNull final ColumnStore store,
+      @NonNull final String starts,
+      @NonNull final String ends
+  ) {
+    return of(store.getLongs(starts), store.getLongs(ends));
+  }
+
+  private static @NonNull IntervalIndex of(
+      @NonNull final LongBuffer starts,
+      @NonNull final LongBuffer ends
+  ) {
+    if (starts.limit() != ends.limit()) {
+      throw new IllegalArgumentException(
+          "Unable to index " + starts.limit() + " starts with " + ends.limit() + " ends."
+      );
+    }
+
+    @NonNull final Builder builder = new Builder(starts, ends);
+
+    if (builder.starts.length > 0) {
+      builder.build(0, builder.starts.length, 1);
+      builder.sortEnds();
+    }
+
+    return new IntervalIndex(builder);
+  }
+
+  /**
+   * Call an action with each interval that overlaps a range of instants.
+   *
+   * @param lower Lower bound of the range, inclusive.
+   * @param upper Upper bound of the range, inclusive, a range whose upper bound is lower than its
+   * lower bound being empty.
+   * @param action Action called once with the row of each matching interval, in no specific order.
+   */
+  public void search(final long lower, final long upper, @NonNull final IntConsumer action) {
+    if (lower <= upper && _centers.length > 0) {
+      search(ROOT, lower, upper, action);
+    }
+  }
+
+  private void search(
+      @NonNegative final int node,
+      final long lower,
+      final long upper,
+      @NonNull final IntConsumer action
+  ) {
+    final int first = _firsts[node];
+    final int last = _lasts[node];
+    final long center = _centers[node];
+
+    if (_sortedFirsts[node] == NONE) {
+      for (int index = first; index < last && _starts[index] <= upper; ++index) {
+        if (_ends[index] >= lower) {
+          action.accept(_rows[index]);
+        }
+      }
+    } else if (upper < center) {
+      for (int index = first; index < last && _starts[index] <= upper; ++index) {
+        action.accept(_rows[index]);
+      }
+
+      if (_lefts[node] != NONE) {
+        search(_lefts[node], lower, upper, action);
+      }
+    } else if (lower > center) {
+      final int sortedFirst = _sortedFirsts[node];
+
+      for (
+          int index = sortedFirst + last - first - 1;
+          index >= sortedFirst && _sortedEnds[index] >= lower;
+          --index
+      ) {
+        action.accept(_sortedRows[index]);
+      }
+
+      if (_rights[node] != NONE) {
+        search(_rights[node], lower, upper, action);
+      }
+    } else {
+      for (int index = first; index < last; ++index) {
+        action.accept(_rows[index]);
+      }
+
+      if (_lefts[node] != NONE) {
+        search(_lefts[node], lower, upper, action);
+      }
+
+      if (_rights[node] != NONE) {
+        search(_rights[node], lower, upper, action);
+      }
+    }
+  }
+
+  /**
+   * @param lower Lower bound of a range of instants, inclusive.
+   * @param upper Upper bound of a range of instants, inclusive.
+   * @return The rows of the intervals that overlap the given range, in no specific order.
+   */
+  public @NonNull int[] search(final long lower, final long upper) {
+    @NonNull final Rows result = new Rows();
+    search(lower, upper, result);
+    return Arrays.copyOf(result.values, result.size);
+  }
+
+  /**
+   * @param lower Lower bound of a range of instants, inclusive.
+   * @param upper Upper bound of a range of instants, inclusive.
+   * @return A bitmap of the rows of the intervals that overlap the given range.
+   */
+  public @NonNull CompressedBitmap select(final long lower, final long upper) {
+    @NonNull final int[] rows = search(lower, upper);
+    Arrays.sort(rows);
+
+    @NonNull final CompressedBitmapBuilder builder = new CompressedBitmapBuilder();
+
+    for (final int row : rows) {
+      builder.add(row);
+    }
+
+    return builder.build();
+  }
+
+  /**
+   * @return The number of indexed intervals.
+   */
+  public @NonNegative int size() {
+    return _rows.length;
+  }
+
+  /**
+   * @return The number of nodes of the longest path from the root of the tree to a leaf.
+   */
+  public @NonNegative int getHeight() {
+    return _height;
+  }
+
+  /**
+   * The rows found by a search.
+   */
+  private static final class Rows
+      implements IntConsumer {
+
+    @NonNull
+    int[] values = new int[16];
+
+    @NonNegative
+    int size = 0;
+
+    @Override
+    public void accept(final int row) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+
+      values[size++] = row;
+    }
+  }
+
+  /**
+   * The arrays of an index being built.
+   */
+  private static final class Builder {
+
+    @NonNull
+    final long[] starts;
+
+    @NonNull
+    final long[] ends;
+
+    @NonNull
+    final int[] rows;
+
+    @NonNull
+    long[] sortedEnds = new long[0];
+
+    @NonNull
+    int[] sortedRows = new int[0];
+
+    @NonNull
+    long[] centers = new long[16];
+
+    @NonNull
+    int[] firsts = new int[16];
+
+    @NonNull
+    int[] lasts = new int[16];
+
+    @NonNull
+    int[] sortedFirsts = new int[16];
+
+    @NonNull
+    int[] lefts = new int[16];
+
+    @NonNull
+    int[] rights = new int[16];
+
+    @NonNegative
+    int nodes = 0;
+
+    @NonNegative
+    int height = 0;
+
+    /**
+     * Intervals of the node being partitioned that contain its center.
+     */
+    @NonNull
+    long[] containedStarts = new long[16];
+
+    @NonNull
+    long[] containedEnds = new long[16];
+
+    @NonNull
+    int[] containedRows = new int[16];
+
+    /**
+     * Sort the intervals by start.
+     */
+    Builder(@NonNull final LongBuffer starts, @NonNull final LongBuffer ends) {
+      final int size = starts.limit();
+
+      this.starts = new long[size];
+      this.ends = new long[size];
+      this.rows = new int[size];
+
+      starts.duplicate().get(this.starts);
+
+      for (@NonNegative int row = 0; row < size; ++row) {
+        if (ends.get(row) < this.starts[row]) {
+          throw new IllegalArgumentException(
+              "Unable to index the interval of row " + row + " : its end " + ends.get(row) +
+                  " is before its start " + this.starts[row] + "."
+          );
+        }
+
+        this.rows[row] = row;
+      }
+
+      RadixSort.sort(this.starts, this.rows);
+
+      for (@NonNegative int index = 0; index < size; ++index) {
+        this.ends[index] = ends.get(this.rows[index]);
+      }
+    }
+
+    /**
+     * Build the subtree of the intervals from to to - 1, sorted by start, and lay them out in
+     * order.
+     *
+     * @return The identifier of the root of the subtree.
+     */
+    @NonNegative int build(
+        @NonNegative final int from,
+        @NonNegative final int to,
+        @NonNegative final int depth
+    ) {
+      final int node = allocate();
+      height = Math.max(height, depth);
+
+      if (to - from <= LEAF_SIZE) {
+        centers[node] = starts[from];
+        firsts[node] = from;
+        lasts[node] = to;
+        sortedFirsts[node] = NONE;
+        lefts[node] = NONE;
+        rights[node] = NONE;
+        return node;
+      }
+
+      final long center = starts[from + (to - from) / 2];
+      final int right = after(center, from + (to - from) / 2, to);
+      int left = from;
+      int contained = 0;
+
+      for (@NonNegative int index = from; index < right; ++index) {
+        if (ends[index] < center) {
+          starts[left] = starts[index];
+          ends[left] = ends[index];
+          rows[left] = rows[index];
+          left += 1;
+        } else {
+          contain(contained++, index);
+        }
+      }
+
+      System.arraycopy(containedStarts, 0, starts, left, contained);
+      System.arraycopy(containedEnds, 0, ends, left, contained);
+      System.arraycopy(containedRows, 0, rows, left, contained);
+
+      final int leftChild = left > from ? build(from, left, depth + 1) : NONE;
+      final int rightChild = to > right ? build(right, to, depth + 1) : NONE;
+
+      centers[node] = center;
+      firsts[node] = left;
+      lasts[node] = right;
+      sortedFirsts[node] = node;
+      lefts[node] = leftChild;
+      rights[node] = rightChild;
+
+      return node;
+    }
+
+    /**
+     * @return The index of the first interval that starts after the given instant.
+     */
+    private @NonNegative int after(
+        final long instant,
+        @NonNegative final int from,
+        @NonNegative final int to
+    ) {
+      int low = from;
+      int high = to;
+
+      while (low < high) {
+        final int middle = (low + high) >>> 1;
+
+        if (starts[middle] <= instant) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+
+      return low;
+    }
+
+    private void contain(@NonNegative final int contained, @NonNegative final int index) {
+      if (contained == containedRows.length) {
+        containedStarts = Arrays.copyOf(containedStarts, contained * 2);
+        containedEnds = Arrays.copyOf(containedEnds, contained * 2);
+        containedRows = Arrays.copyOf(containedRows, contained * 2);
+      }
+
+      containedStarts[contained] = starts[index];
+      containedEnds[contained] = ends[index];
+      containedRows[contained] = rows[index];
+    }
+
+    private @NonNegative int allocate() {
+      if (nodes == centers.length) {
+        centers = Arrays.copyOf(centers, nodes * 2);
+        firsts = Arrays.copyOf(firsts, nodes * 2);
+        lasts = Arrays.copyOf(lasts, nodes * 2);
+        sortedFirsts = Arrays.copyOf(sortedFirsts, nodes * 2);
+        lefts = Arrays.copyOf(lefts, nodes * 2);
+        rights = Arrays.copyOf(rights, nodes * 2);
+      }
+
+      return nodes++;
+    }
+
+    /**
+     * Copy the intervals of the inner nodes sorted by end, with one sort of all of them by end
+     * that is then distributed to each node.
+     */
+    void sortEnds() {
+      int size = 0;
+
+      for (@NonNegative int node = 0; node < nodes; ++node) {
+        if (sortedFirsts[node] != NONE) {
+          sortedFirsts[node] = size;
+          size += lasts[node] - firsts[node];
+        }
+      }
+
+      @NonNull final long[] keys = new long[size];
+      @NonNull final int[] indices = new int[size];
+      @NonNull final int[] owners = new int[size];
+      @NonNull final int[] sources = new int[size];
+      @NonNull final int[] cursors = Arrays.copyOf(sortedFirsts, nodes);
+      int next = 0;
+
+      for (@NonNegative int node = 0; node < nodes; ++node) {
+        if (sortedFirsts[node] != NONE) {
+          for (@NonNegative int index = firsts[node]; index < lasts[node]; ++index) {
+            keys[next] = ends[index];
+            indices[next] = next;
+            owners[next] = node;
+            sources[next] = rows[index];
+            next += 1;
+          }
+        }
+      }
+
+      RadixSort.sort(keys, indices);
+
+      sortedEnds = new long[size];
+      sortedRows = new int[size];
+
+      for (@NonNegative int index = 0; index < size; ++index) {
+        final int target = cursors[owners[indices[index]]]++;
+        sortedEnds[target] = keys[index];
+        sortedRows[target] = sources[indices[index]];
+      }
+    }
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.index;
+
+import java.util.Arrays;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A stable least significant digit radix sort of (long key, int value) pairs, in digits of 16 bits.
+ */
+final class RadixSort {
+
+  /**
+   * Sort pairs by key, pairs of equal keys keeping their order, and skip the digits shared by all
+   * keys.
+   *
+   * @param keys Keys of the pairs, sorted in place.
+   * @param values Values of the pairs, of the same length as the keys, moved with their keys.
+   */
+  static void sort(@NonNull final long[] keys, @NonNull final int[] values) {
+    final int size = keys.length;
+    long[] currentKeys = keys;
+    int[] currentValues = values;
+    long[] nextKeys = null;
+    int[] nextValues = null;
+    @NonNull final int[] counts = new int[(1 << 16) + 1];
+
+    for (@NonNegative int shift = 0; shift < Long.SIZE; shift += 16) {
+      Arrays.fill(counts, 0);
+
+      for (@NonNegative int index = 0; index < size; ++index) {
+        counts[digit(currentKeys[index], shift) + 1] += 1;
+      }
+
+      if (size == 0 || counts[digit(currentKeys[0], shift) + 1] == size) {
+        continue;
+      }
+
+      for (@NonNegative int digit = 1; digit < counts.length; ++digit) {
+        counts[digit] += counts[digit - 1];
+      }
+
+      if (nextKeys == null) {
+        nextKeys = new long[size];
+        nextValues = new int[size];
+      }
+
+      for (@NonNegative int index = 0; index < size; ++index) {
+        final int target = counts[digit(currentKeys[index], shift)]++;
+        nextKeys[target] = currentKeys[index];
+        nextValues[target] = currentValues[index];
+      }
+
+      @NonNull final long[] swappedKeys = currentKeys;
+      @NonNull final int[] swappedValues = currentValues;
+      currentKeys = nextKeys;
+      currentValues = nextValues;
+      nextKeys = swappedKeys;
+      nextValues = swappedValues;
+    }
+
+    if (currentKeys != keys) {
+      System.arraycopy(currentKeys, 0, keys, 0, size);
+      System.arraycopy(currentValues, 0, values, 0, size);
+    }
+  }
+
+  private static int digit(final long key, @NonNegative final int shift) {
+    return (int) (((key ^ Long.MIN_VALUE) >>> shift) & 0xFFFF);
+  }
+}
@@ -0,0 +1,455 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.index;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.liara.selection.bitmap.CompressedBitmap;
+import org.liara.selection.bitmap.CompressedBitmapBuilder;
+import org.liara.selection.column.ColumnStore;
+import org.liara.selection.range.DoubleRanges;
+import org.liara.selection.range.LongRanges;
+
+/**
+ * A read-only index of a number or duration column, made of the (value, row) pairs of the column
+ * sorted by value and then by row.
+ *
+ * A compiled selection is decomposed into its disjoint intervals, both bounds of each interval are
+ * binary searched and the rows in between are emitted, so a selection of i intervals that matches k
+ * rows costs O(i log n + k) instead of the O(n) of a scan. Double values are stored as sortable
+ * longs, -0.0 being stored as 0.0 and NaN after positive infinity, so that both types share the
+ * same search.
+ *
+ * Pairs are stored in heap arrays or in a file mapped in memory, the latter being limited to
+ * MAXIMUM_MAPPED_SIZE rows by the 2GB limit of a mapped buffer.
+ */
+public final class SortedRangeIndex {
+
+  public static final int LONG = 0;
+
+  public static final int DOUBLE = 1;
+
+  /**
+   * Maximum number of rows of an index written into a file, 2^28 - 1, as its keys are mapped in a
+   * single buffer.
+   */
+  public static final int MAXIMUM_MAPPED_SIZE = Integer.MAX_VALUE / Long.BYTES;
+
+  private static final int MAGIC = 0x4C535249;
+
+  private static final int HEADER_SIZE = 16;
+
+  private final int _type;
+
+  @NonNull
+  private final LongBuffer _keys;
+
+  @NonNull
+  private final IntBuffer _rows;
+
+  private SortedRangeIndex(
+      final int type,
+      @NonNull final LongBuffer keys,
+      @NonNull final IntBuffer rows
+  ) {
+    _type = type;
+    _keys = keys;
+    _rows = rows;
+  }
+
+  /**
+   * @param column A column of values, the index of each value being its row.
+   * @return An index of the given column.
+   */
+  public static @NonNull SortedRangeIndex of(@NonNull final long[] column) {
+    return sort(LONG, Arrays.copyOf(column, column.length));
+  }
+
+  /**
+   * @see #of(long[])
+   */
+  public static @NonNull SortedRangeIndex of(@NonNull final double[] column) {
+    @NonNull final long[] keys = new long[column.length];
+
+    for (@NonNegative int row = 0; row < column.length; ++row) {
+      keys[row] = toKey(column[row]);
+    }
+
+    return sort(DOUBLE, keys);
+  }
+
+  /**
+   * @param store A column store.
+   * @param column Name of a LONG, INT or DOUBLE column of the store.
+   * @return An index of the given column.
+   */
+  public static @NonNull SortedRangeIndex of(
+      @NonNull final ColumnStore store,
+      @NonNull final String column
+  ) {
+    @NonNull final long[] keys = new long[store.getRowCount()];
+
+    switch (store.getType(column)) {
+      case ColumnStore.DOUBLE:
+        @NonNull final DoubleBuffer doubles = store.getDoubles(column);
+
+        for (@NonNegative int row = 0; row < keys.length; ++row) {
+          keys[row] = toKey(doubles.get(row));
+        }
+
+        return sort(DOUBLE, keys);
+      case ColumnStore.INT:
+        @NonNull final IntBuffer ints = store.getInts(column);
+
+        for (@NonNegative int row = 0; row < keys.length; ++row) {
+          keys[row] = ints.get(row);
+        }
+
+        return sort(LONG, keys);
+      default:
+        store.getLongs(column).get(keys);
+        return sort(LONG, keys);
+    }
+  }
+
+  /**
+   * Sort keys and rows by key and then by row.
+   */
+  private static @NonNull SortedRangeIndex sort(final int type, @NonNull final long[] keys) {
+    @NonNull final int[] rows = new int[keys.length];
+
+    for (@NonNegative int row = 0; row < rows.length; ++row) {
+      rows[row] = row;
+    }
+
+    RadixSort.sort(keys, rows);
+
+    return new SortedRangeIndex(type, LongBuffer.wrap(keys), IntBuffer.wrap(rows));
+  }
+
+  /**
+   * @return A long that compares to the keys of other doubles as the given double does.
+   */
+  private static long toKey(final double value) {
+    final long bits = Double.doubleToLongBits(value == 0.0 ? 0.0 : value);
+    return bits < 0 ? bits ^ Long.MAX_VALUE : bits;
+  }
+
+  /**
+   * Open an index written by write, without reading it in memory.
+   *
+   * @param path Path of an index file.
+   * @return The mapped index.
+   * @throws IOException If the file can't be read or is not a valid index.
+   */
+  public static @NonNull SortedRangeIndex open(@NonNull final Path path) throws IOException {
+    try (@NonNull final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (channel.size() < HEADER_SIZE) {
+        throw new IOException("Not a range index : the file is too small.");
+      }
+
+      @NonNull final ByteBuffer header = channel.map(MapMode.READ_ONLY, 0, HEADER_SIZE)
+          .order(ByteOrder.LITTLE_ENDIAN);
+
+      if (header.getInt() != MAGIC) {
+        throw new IOException("Not a range index : invalid magic number.");
+      }
+
+      final int type = header.getInt();
+      final int size = header.getInt();
+
+      if ((type != LONG && type != DOUBLE) || size < 0) {
+        throw new IOException("Corrupted range index : invalid header.");
+      }
+
+      assertMappable(size);
+
+      if (channel.size() != HEADER_SIZE + 12L * size) {
+        throw new IOException("Corrupted range index : invalid file size.");
+      }
+
+      return new SortedRangeIndex(
+          type,
+          channel.map(MapMode.READ_ONLY, HEADER_SIZE, 8L * size)
+              .order(ByteOrder.LITTLE_ENDIAN).asLongBuffer(),
+          channel.map(MapMode.READ_ONLY, HEADER_SIZE + 8L * size, 4L * size)
+              .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer()
+      );
+    }
+  }
+
+  /**
+   * Write this index into a file, replacing any existing one.
+   *
+   * @param path Path of the file to write.
+   * @throws IOException If the file can't be written.
+   */
+  public void write(@NonNull final Path path) throws IOException {
+    final int size = size();
+
+    assertMappable(size);
+
+    try (
+        @NonNull final FileChannel channel = FileChannel.open(
+            path,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE
+        )
+    ) {
+      channel.map(MapMode.READ_WRITE, 0, HEADER_SIZE)
+          .order(ByteOrder.LITTLE_ENDIAN)
+          .putInt(MAGIC).putInt(_type).putInt(size).putInt(0);
+      channel.map(MapMode.READ_WRITE, HEADER_SIZE, 8L * size)
+          .order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().put(_keys.duplicate());
+      channel.map(MapMode.READ_WRITE, HEADER_SIZE + 8L * size, 4L * size)
+          .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().put(_rows.duplicate());
+    }
+  }
+
+  /**
+   * @param size Number of rows of an index file.
+   * @throws IOException If the keys of the given number of rows can't be mapped in a buffer.
+   */
+  private static void assertMappable(@NonNegative final int size) throws IOException {
+    if (size > MAXIMUM_MAPPED_SIZE) {
+      throw new IOException(
+          "Unable to map a range index of " + size + " rows, a range index file is limited to " +
+              MAXIMUM_MAPPED_SIZE + " rows."
+      );
+    }
+  }
+
+  /**
+   * Call an action with each row whose value is in the given set.
+   *
+   * @param ranges A compiled number or duration selection.
+   * @param action Action called with each matching row, in order of value and then of row.
+   */
+  public void search(@NonNull final LongRanges ranges, @NonNull final IntConsumer action) {
+    assertType(LONG);
+
+    for (@NonNegative int range = 0; range < ranges.size(); ++range) {
+      emit(ranges.getLower(range), ranges.getUpper(range), action);
+    }
+  }
+
+  /**
+   * @see #search(LongRanges, IntConsumer)
+   */
+  public void search(@NonNull final DoubleRanges ranges, @NonNull final IntConsumer action) {
+    assertType(DOUBLE);
+
+    for (@NonNegative int range = 0; range < ranges.size(); ++range) {
+      emit(toKey(ranges.getLower(range)), toKey(ranges.getUpper(range)), action);
+    }
+  }
+
+  /**
+   * @param ranges A compiled number or duration selection.
+   * @return The matching rows, in order of value and then of row.
+   */
+  public @NonNull int[] search(@NonNull final LongRanges ranges) {
+    assertType(LONG);
+    @NonNull final int[] result = new int[Math.toIntExact(count(ranges))];
+    int size = 0;
+
+    for (@NonNegative int range = 0; range < ranges.size(); ++range) {
+      size = copy(ranges.getLower(range), ranges.getUpper(range), result, size);
+    }
+
+    return result;
+  }
+
+  /**
+   * @see #search(LongRanges)
+   */
+  public @NonNull int[] search(@NonNull final DoubleRanges ranges) {
+    assertType(DOUBLE);
+    @NonNull final int[] result = new int[Math.toIntExact(count(ranges))];
+    int size = 0;
+
+    for (@NonNegative int range = 0; range < ranges.size(); ++range) {
+      size = copy(toKey(ranges.getLower(range)), toKey(ranges.getUpper(range)), result, size);
+    }
+
+    return result;
+  }
+
+  /**
+   * @param ranges A compiled number or duration selection.
+   * @return A bitmap of the matching rows.
+   */
+  public @NonNull CompressedBitmap select(@NonNull final LongRanges ranges) {
+    return toBitmap(search(ranges));
+  }
+
+  /**
+   * @see #select(LongRanges)
+   */
+  public @NonNull CompressedBitmap select(@NonNull final DoubleRanges ranges) {
+    return toBitmap(search(ranges));
+  }
+
+  private static @NonNull CompressedBitmap toBitmap(@NonNull final int[] rows) {
+    Arrays.sort(rows);
+
+    @NonNull final CompressedBitmapBuilder builder = new CompressedBitmapBuilder();
+
+    for (final int row : rows) {
+      builder.add(row);
+    }
+
+    return builder.build();
+  }
+
+  /**
+   * @param ranges A compiled number or duration selection.
+   * @return The number of matching rows, in O(i log n) for a selection of i intervals.
+   */
+  public @NonNegative long count(@NonNull final LongRanges ranges) {
+    assertType(LONG);
+    long result = 0;
+
+    for (@NonNegative int range = 0; range < ranges.size(); ++range) {
+      result += end(ranges.getUpper(range)) - start(ranges.getLower(range));
+    }
+
+    return result;
+  }
+
+  /**
+   * @see #count(LongRanges)
+   */
+  public @NonNegative long count(@NonNull final DoubleRanges ranges) {
+    assertType(DOUBLE);
+    long result = 0;
+
+    for (@NonNegative int range = 0; range < ranges.size(); ++range) {
+      result += end(toKey(ranges.getUpper(range))) - start(toKey(ranges.getLower(range)));
+    }
+
+    return result;
+  }
+
+  private void emit(final long lower, final long upper, @NonNull final IntConsumer action) {
+    for (int index = start(lower), end = end(upper); index < end; ++index) {
+      action.accept(_rows.get(index));
+    }
+  }
+
+  private @NonNegative int copy(
+      final long lower,
+      final long upper,
+      @NonNull final int[] result,
+      @NonNegative final int offset
+  ) {
+    final int start = start(lower);
+    final int length = end(upper) - start;
+
+    if (length > 0) {
+      @NonNull final IntBuffer rows = _rows.duplicate();
+      rows.position(start);
+      rows.get(result, offset, length);
+      return offset + length;
+    }
+
+    return offset;
+  }
+
+  /**
+   * @return The index of the first key greater than or equal to the given bound.
+   */
+  private @NonNegative int start(final long lower) {
+    int low = 0;
+    int high = _keys.limit();
+
+    while (low < high) {
+      final int middle = (low + high) >>> 1;
+
+      if (_keys.get(middle) < lower) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+
+    return low;
+  }
+
+  /**
+   * @return The index of the first key greater than the given bound.
+   */
+  private @NonNegative int end(final long upper) {
+    int low = 0;
+    int high = _keys.limit();
+
+    while (low < high) {
+      final int middle = (low + high) >>> 1;
+
+      if (_keys.get(middle) <= upper) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+
+    return low;
+  }
+
+  private void assertType(final int type) {
+    if (_type != type) {
+      throw new IllegalArgumentException(
+          "Unable to search " + (type == LONG ? "long" : "double") + " ranges in an index of " +
+              (_type == LONG ? "long" : "double") + " values."
+      );
+    }
+  }
+
+  /**
+   * @return LONG or DOUBLE.
+   */
+  public int getType() {
+    return _type;
+  }
+
+  /**
+   * @return The number of indexed rows.
+   */
+  public @NonNegative int size() {
+    return _keys.limit();
+  }
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.processor;
+
+import com.google.common.collect.Iterators;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * The asynchronous counterpart of a ProcessorExecutor, for processors that wait for I/O.
+ *
+ * Cancelling a returned future, or its timeout, is propagated to the futures it depends on and
+ * interrupts the processors that are still computing them.
+ *
+ * @param <Result> Type of the results of the executor.
+ */
+@FunctionalInterface
+public interface AsyncProcessorExecutor<Result> {
+
+  static <Result> @NonNull AsyncProcessorExecutor<Result> execute(
+      @NonNull final Processor<Result> processor,
+      @NonNull final Executor executor
+  ) {
+    return (@NonNull final ProcessorCall call) -> Futures.submit(
+        () -> Optional.of(call.call(processor)), executor
+    );
+  }
+
+  /**
+   * @param processor A synchronous executor.
+   * @param executor Executor of the blocking calls of the synchronous executor.
+   * @param <Result> Type of the results of the executor.
+   * @return An asynchronous executor that runs the given one on the given executor.
+   */
+  static <Result> @NonNull AsyncProcessorExecutor<Result> from(
+      @NonNull final ProcessorExecutor<Result> processor,
+      @NonNull final Executor executor
+  ) {
+    return (@NonNull final ProcessorCall call) -> Futures.submit(
+        () -> processor.execute(call), executor
+    );
+  }
+
+  static <Result> @NonNull AsyncProcessorExecutor<Result> executeIf(
+      @NonNull final AsyncProcessorExecutor<Result> processor,
+      @NonNull final Function<@NonNull ProcessorCall, @NonNull Boolean> condition
+  ) {
+    return (@NonNull final ProcessorCall call) -> {
+      if (condition.apply(call)) {
+        return processor.execute(call);
+      }
+
+      return CompletableFuture.completedFuture(Optional.empty());
+    };
+  }
+
+  static <Result> @NonNull AsyncProcessorExecutor<Result> factory(
+      @NonNull final Supplier<AsyncProcessorExecutor<Result>> supplier
+  ) {
+    return (@NonNull final ProcessorCall call) -> supplier.get().execute(call);
+  }
+
+  static <Result> @NonNull AsyncProcessorExecutor<Result> field(
+      @NonNull final String field, @NonNull final AsyncProcessorExecutor<Result> processor
+  ) {
+    return (@NonNull final ProcessorCall call) -> {
+      if (field.equals(call.getIdentifier(0))) {
+        return processor.execute(call.next());
+      }
+
+      return CompletableFuture.completedFuture(Optional.empty());
+    };
+  }
+
+  static <Result> @NonNull AsyncProcessorExecutor<Result> fields(
+      @NonNull final Map<@NonNull String, @NonNull AsyncProcessorExecutor<Result>> bindings
+  ) {
+    @NonNull final Map<@NonNull String, @NonNull AsyncProcessorExecutor<Result>> copy = (
+        new HashMap<>(bindings)
+    );
+
+    return (@NonNull final ProcessorCall call) -> {
+      @Nullable final AsyncProcessorExecutor<Result> processor = copy.get(call.getIdentifier(0));
+
+      if (processor != null) {
+        return processor.execute(call.next());
+      }
+
+      return CompletableFuture.completedFuture(Optional.empty());
+    };
+  }
+
+  /**
+   * @param processors Executors to try in order, each of them being called once the previous one
+   * completed without result.
+   * @param <Result> Type of the results of the executors.
+   * @return An executor that returns the first result of the given executors.
+   */
+  @SafeVarargs
+  static <Result> @NonNull AsyncProcessorExecutor<Result> all(
+      @NonNull final AsyncProcessorExecutor<Result>... processors
+  ) {
+    @NonNull final List<@NonNull AsyncProcessorExecutor<Result>> list = new ArrayList<>(
+        processors.length
+    );
+
+    for (@NonNull final AsyncProcessorExecutor<Result> processor : processors) {
+      list.add(processor);
+    }
+
+    return all(list);
+  }
+
+  /**
+   * @see #all(AsyncProcessorExecutor[])
+   */
+  static <Result> @NonNull AsyncProcessorExecutor<Result> all(
+      @NonNull final List<@NonNull AsyncProcessorExecutor<Result>> processors
+  ) {
+    @NonNull final List<@NonNull AsyncProcessorExecutor<Result>> copy = new ArrayList<>(
+        processors
+    );
+
+    return (@NonNull final ProcessorCall call) -> Futures.firstPresent(copy, call);
+  }
+
+  /**
+   * @see #all(AsyncProcessorExecutor[])
+   */
+  static <Result> @NonNull AsyncProcessorExecutor<Result> all(
+      @NonNull final Iterable<@NonNull AsyncProcessorExecutor<Result>> processors
+  ) {
+    @NonNull final List<@NonNull AsyncProcessorExecutor<Result>> copy = new ArrayList<>(
+        Iterators.size(processors.iterator())
+    );
+    processors.iterator().forEachRemaining(copy::add);
+
+    return (@NonNull final ProcessorCall call) -> Futures.firstPresent(copy, call);
+  }
+
+  default <Next> @NonNull AsyncProcessorExecutor<Next> mapNonNull(
+      @NonNull final Function<Result, Next> mapper
+  ) {
+    return (@NonNull final ProcessorCall call) -> {
+      @NonNull final CompletableFuture<Optional<Result>> source = execute(call);
+      @NonNull final CompletableFuture<Optional<Next>> result = source.thenApply(
+          (@NonNull final Optional<Result> value) -> value.isPresent()
+              ? Optional.of(mapper.apply(value.get())) : Optional.empty()
+      );
+
+      Futures.propagateCancellation(result, source);
+
+      return result;
+    };
+  }
+
+  /**
+   * @param timeout Maximum duration of each call.
+   * @param unit Unit of the duration.
+   * @return An executor whose futures fail with a TimeoutException when a call lasts longer than
+   * the given duration, the call being then cancelled.
+   */
+  default @NonNull AsyncProcessorExecutor<Result> withTimeout(
+      final long timeout,
+      @NonNull final TimeUnit unit
+  ) {
+    return (@NonNull final ProcessorCall call) -> {
+      @NonNull final CompletableFuture<Optional<Result>> source = execute(call);
+      @NonNull final CompletableFuture<Optional<Result>> result = source.copy().orTimeout(
+          timeout, unit
+      );
+
+      Futures.propagateCancellation(result, source);
+
+      return result;
+    };
+  }
+
+  /**
+   * @return A synchronous executor that waits for the futures of this one, the failures of calls
+   * being thrown as is when they are unchecked, and that cancels a call when the waiting thread is
+   * interrupted.
+   */
+  default @NonNull ProcessorExecutor<Result> toSynchronous() {
+    return (@NonNull final ProcessorCall call) -> Futures.join(execute(call), call);
+  }
+
+  /**
+   * Execute calls concurrently.
+   *
+   * @param calls Calls to execute.
+   * @return A future of the results of the calls, in order of call, calls without result being
+   * skipped, that fails if a call fails.
+   */
+  default @NonNull CompletableFuture<List<@NonNull Result>> execute(
+      @NonNull final ProcessorCall... calls
+  ) {
+    return execute(Arrays.asList(calls));
+  }
+
+  /**
+   * @see #execute(ProcessorCall...)
+   */
+  default @NonNull CompletableFuture<List<@NonNull Result>> execute(
+      @NonNull final Iterable<ProcessorCall> calls
+  ) {
+    @NonNull final List<@NonNull CompletableFuture<Optional<Result>>> futures = new ArrayList<>();
+
+    for (@NonNull final ProcessorCall call : calls) {
+      futures.add(execute(call));
+    }
+
+    @NonNull final CompletableFuture<List<@NonNull Result>> result = CompletableFuture.allOf(
+        futures.toArray(new CompletableFuture<?>[0])
+    ).thenApply((@Nullable final Void ignored) -> {
+      @NonNull final List<@NonNull Result> results = new ArrayList<>(futures.size());
+
+      for (@NonNull final CompletableFuture<Optional<Result>> future : futures) {
+        future.join().ifPresent(results::add);
+      }
+
+      return results;
+    });
+
+    for (@NonNull final CompletableFuture<Optional<Result>> future : futures) {
+      Futures.propagateCancellation(result, future);
+    }
+
+    return result;
+  }
+
+  @NonNull CompletableFuture<Optional<Result>> execute(@NonNull final ProcessorCall call);
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.processor;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.util.concurrent.ExecutionException;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.liara.selection.CompilationException;
+import org.liara.selection.ThrowingErrorListener;
+import org.liara.selection.antlr.ProcessorsLexer;
+import org.liara.selection.antlr.ProcessorsParser;
+
+/**
+ * A parser of processor expressions that can be shared by many threads, and that remembers the
+ * calls of the last parsed expressions.
+ *
+ * Calls of valid expressions are kept in a bounded cache, shared by transpile and tryToTranspile,
+ * and each thread reuses its own lexer, parser and listener instead of creating them for each
+ * expression. Calls are immutable and their parameters are immutable vectors, so that each
+ * caller receives its own array of the same cached calls. Invalid expressions are never cached :
+ * transpile parses them again with a lenient parser and tryToTranspile throws their compilation
+ * exception.
+ */
+public final class CachingProcessorParser {
+
+  public static final long DEFAULT_MAXIMUM_SIZE = 1_000L;
+
+  @NonNull
+  private final Cache<@NonNull String, @NonNull ProcessorCall[]> _cache;
+
+  @NonNull
+  private final ThreadLocal<@NonNull PooledParser> _parsers;
+
+  public CachingProcessorParser() {
+    this(DEFAULT_MAXIMUM_SIZE);
+  }
+
+  /**
+   * @param maximumSize Maximum number of remembered expressions.
+   */
+  public CachingProcessorParser(@NonNegative final long maximumSize) {
+    if (maximumSize < 0) {
+      throw new IllegalArgumentException("Invalid maximum size " + maximumSize + ".");
+    }
+
+    _cache = CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build();
+    _parsers = ThreadLocal.withInitial(PooledParser::new);
+  }
+
+  /**
+   * @param expression An expression to parse.
+   * @return The calls of the given expression, errors being reported but ignored as done by
+   * ProcessorParser#transpile.
+   */
+  public @NonNull ProcessorCall[] transpile(@NonNull final CharSequence expression) {
+    try {
+      return tryToTranspile(expression);
+    } catch (@NonNull final CompilationException exception) {
+      return new ProcessorParser().transpile(expression);
+    }
+  }
+
+  /**
+   * @param expression An expression to parse.
+   * @return The calls of the given expression.
+   * @throws CompilationException If any lexical or grammatical exception is spot by the lexer or
+   * the parser.
+   */
+  public @NonNull ProcessorCall[] tryToTranspile(@NonNull final CharSequence expression)
+      throws CompilationException {
+    @NonNull final String key = expression.toString();
+
+    try {
+      return _cache.get(key, () -> parse(key)).clone();
+    } catch (
+        @NonNull final ExecutionException | UncheckedExecutionException | ExecutionError exception
+    ) {
+      @NonNull final Throwable cause = exception.getCause();
+
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      } else {
+        throw new IllegalStateException(cause);
+      }
+    }
+  }
+
+  /**
+   * Parse an expression with the parser of the current thread, the parser being discarded if it
+   * fails as a failure may leave it in any state.
+   *
+   * @param expression An expression to parse.
+   * @return The calls of the given expression.
+   */
+  private @NonNull ProcessorCall[] parse(@NonNull final String expression) {
+    try {
+      return _parsers.get().transpile(expression);
+    } catch (@NonNull final Throwable failure) {
+      _parsers.remove();
+      throw failure;
+    }
+  }
+
+  /**
+   * Parse and remember expressions before they are requested, invalid expressions being ignored.
+   *
+   * @param expressions Expressions expected to be parsed.
+   * @return This parser for chaining purposes.
+   */
+  public @NonNull CachingProcessorParser warmUp(@NonNull final Iterable<?> expressions) {
+    for (@NonNull final Object expression : expressions) {
+      try {
+        tryToTranspile(expression.toString());
+      } catch (@NonNull final CompilationException ignored) {
+        // invalid expressions are parsed again when they are requested
+      }
+    }
+
+    return this;
+  }
+
+  /**
+   * Forget all remembered expressions.
+   */
+  public void invalidateAll() {
+    _cache.invalidateAll();
+  }
+
+  /**
+   * @return The number of remembered expressions.
+   */
+  public @NonNegative long size() {
+    return _cache.size();
+  }
+
+  /**
+   * @return The number of expressions returned from the cache.
+   */
+  public @NonNegative long getHitCount() {
+    return _cache.stats().hitCount();
+  }
+
+  /**
+   * @return The number of expressions parsed.
+   */
+  public @NonNegative long getMissCount() {
+    return _cache.stats().missCount();
+  }
+
+  /**
+   * The lexer, parser and listener of a thread, that throw on any error.
+   */
+  private static final class PooledParser {
+
+    @NonNull
+    private final ProcessorsLexer _lexer;
+
+    @NonNull
+    private final ProcessorsParser _parser;
+
+    @NonNull
+    private final ProcessorParser _listener;
+
+    PooledParser() {
+      _lexer = new ProcessorsLexer(CharStreams.fromString(""));
+      _lexer.addErrorListener(ThrowingErrorListener.INSTANCE);
+      _parser = new ProcessorsParser(new CommonTokenStream(_lexer));
+      _parser.addErrorListener(ThrowingErrorListener.INSTANCE);
+      _listener = new ProcessorParser();
+    }
+
+    @NonNull ProcessorCall[] transpile(@NonNull final String expression) {
+      _lexer.setInputStream(CharStreams.fromString(expression));
+      _parser.setTokenStream(new CommonTokenStream(_lexer));
+
+      return _listener.transpile(_parser);
+    }
+  }
+}
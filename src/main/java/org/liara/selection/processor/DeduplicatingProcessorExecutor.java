@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.processor;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * An executor that executes each distinct call of a batch once, and that counts the calls of the
+ * batches it executed in order to report how many executions were saved.
+ *
+ * Single calls are passed to the decorated executor unchanged and are not counted.
+ *
+ * @param <Result> Type of the results of the calls.
+ * @see ProcessorBatchPlan
+ */
+public final class DeduplicatingProcessorExecutor<Result>
+    implements ProcessorExecutor<Result> {
+
+  @NonNull
+  private final ProcessorExecutor<Result> _executor;
+
+  @NonNull
+  private final LongAdder _calls;
+
+  @NonNull
+  private final LongAdder _distinctCalls;
+
+  /**
+   * @param executor Executor of each distinct call.
+   */
+  public DeduplicatingProcessorExecutor(@NonNull final ProcessorExecutor<Result> executor) {
+    _executor = executor;
+    _calls = new LongAdder();
+    _distinctCalls = new LongAdder();
+  }
+
+  /**
+   * @see ProcessorExecutor#execute(ProcessorCall)
+   */
+  @Override
+  public @NonNull Optional<Result> execute(@NonNull final ProcessorCall call) {
+    return _executor.execute(call);
+  }
+
+  /**
+   * @see ProcessorExecutor#execute(ProcessorCall...)
+   */
+  @Override
+  public @NonNull List<@NonNull Result> execute(@NonNull final ProcessorCall... calls) {
+    return execute(Arrays.asList(calls));
+  }
+
+  /**
+   * @see ProcessorExecutor#execute(Iterable)
+   */
+  @Override
+  public @NonNull List<@NonNull Result> execute(@NonNull final Iterable<ProcessorCall> calls) {
+    @NonNull final ProcessorBatchPlan plan = ProcessorBatchPlan.of(calls);
+
+    _calls.add(plan.getCallCount());
+    _distinctCalls.add(plan.getDistinctCallCount());
+
+    return plan.execute(_executor);
+  }
+
+  /**
+   * @return The number of calls of the batches executed so far.
+   */
+  public @NonNegative long getCallCount() {
+    return _calls.sum();
+  }
+
+  /**
+   * @return The number of distinct calls executed for the batches executed so far.
+   */
+  public @NonNegative long getDistinctCallCount() {
+    return _distinctCalls.sum();
+  }
+
+  /**
+   * @return The fraction of the calls of the batches executed so far that were not executed, 0 if
+   * no batch was executed.
+   * @see ProcessorBatchPlan#getDedupeRatio()
+   */
+  public double getDedupeRatio() {
+    final long distinctCalls = _distinctCalls.sum();
+    final long calls = _calls.sum();
+
+    return calls == 0L ? 0d : 1d - (double) distinctCalls / calls;
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.processor;
+
+import java.util.Map;
+import java.util.Optional;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * An executor that forwards each call to the executor bound to the first segment of its
+ * identifier, without this segment.
+ *
+ * @param <Result> Type of the results of the bound executors.
+ */
+final class FieldsExecutor<Result>
+    implements ProcessorExecutor<Result> {
+
+  @NonNull
+  final Map<@NonNull String, @NonNull ProcessorExecutor<Result>> bindings;
+
+  FieldsExecutor(
+      @NonNull final Map<@NonNull String, @NonNull ProcessorExecutor<Result>> bindings
+  ) {
+    this.bindings = bindings;
+  }
+
+  /**
+   * @see ProcessorExecutor#execute(ProcessorCall)
+   */
+  @Override
+  public @NonNull Optional<Result> execute(@NonNull final ProcessorCall call) {
+    @Nullable final ProcessorExecutor<Result> executor = bindings.get(call.getIdentifier(0));
+
+    if (executor != null) {
+      return executor.execute(call.next());
+    }
+
+    return Optional.empty();
+  }
+}
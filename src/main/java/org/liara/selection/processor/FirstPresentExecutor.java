@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.processor;
+
+import java.util.List;
+import java.util.Optional;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * An executor that returns the first result returned by a list of executors, tried in order.
+ *
+ * @param <Result> Type of the results of the executors.
+ */
+final class FirstPresentExecutor<Result>
+    implements ProcessorExecutor<Result> {
+
+  @NonNull
+  final List<@NonNull ProcessorExecutor<Result>> executors;
+
+  FirstPresentExecutor(@NonNull final List<@NonNull ProcessorExecutor<Result>> executors) {
+    this.executors = executors;
+  }
+
+  /**
+   * @see ProcessorExecutor#execute(ProcessorCall)
+   */
+  @Override
+  public @NonNull Optional<Result> execute(@NonNull final ProcessorCall call) {
+    for (@NonNull final ProcessorExecutor<Result> executor : executors) {
+      @NonNull final Optional<Result> result = executor.execute(call);
+
+      if (result.isPresent()) {
+        return result;
+      }
+    }
+
+    return Optional.empty();
+  }
+}
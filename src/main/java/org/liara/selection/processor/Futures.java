@@ -0,0 +1,292 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.processor;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Futures of asynchronous executors, whose cancellation or timeout is propagated to the futures
+ * they depend on and interrupts the tasks that compute them.
+ */
+final class Futures {
+
+  /**
+   * Run a blocking task on an executor.
+   *
+   * @param task A task that returns the result of a call.
+   * @param executor Executor of the task.
+   * @return A future of the result of the task, whose cancellation or timeout interrupts the task
+   * if it is running.
+   */
+  static <Result> @NonNull CompletableFuture<Optional<Result>> submit(
+      @NonNull final Supplier<@NonNull Optional<Result>> task,
+      @NonNull final Executor executor
+  ) {
+    @NonNull final InterruptibleTask<Result> result = new InterruptibleTask<>(task);
+
+    result.future.whenComplete((@Nullable final Optional<Result> value,
+        @Nullable final Throwable failure) -> {
+      if (isCancellation(failure)) {
+        result.interrupt();
+      }
+    });
+
+    try {
+      executor.execute(result);
+    } catch (@NonNull final RejectedExecutionException exception) {
+      result.future.completeExceptionally(exception);
+    }
+
+    return result.future;
+  }
+
+  /**
+   * Cancel a future when a future that depends on it is cancelled or times out.
+   *
+   * @param dependent A future computed from the other one.
+   * @param source A future the first one depends on.
+   */
+  static void propagateCancellation(
+      @NonNull final CompletableFuture<?> dependent,
+      @NonNull final CompletableFuture<?> source
+  ) {
+    if (dependent == source) {
+      return;
+    }
+
+    dependent.whenComplete((@Nullable final Object value, @Nullable final Throwable failure) -> {
+      if (isCancellation(failure)) {
+        source.completeExceptionally(unwrap(failure));
+      }
+    });
+  }
+
+  /**
+   * Try executors in order until one of them returns a result.
+   *
+   * @param executors Executors to try.
+   * @param call A call to execute.
+   * @return A future of the first result returned by the executors.
+   */
+  static <Result> @NonNull CompletableFuture<Optional<Result>> firstPresent(
+      @NonNull final List<@NonNull AsyncProcessorExecutor<Result>> executors,
+      @NonNull final ProcessorCall call
+  ) {
+    @NonNull final CompletableFuture<Optional<Result>> result = new CompletableFuture<>();
+    tryFrom(executors, 0, call, result);
+    return result;
+  }
+
+  private static <Result> void tryFrom(
+      @NonNull final List<@NonNull AsyncProcessorExecutor<Result>> executors,
+      @NonNegative final int index,
+      @NonNull final ProcessorCall call,
+      @NonNull final CompletableFuture<Optional<Result>> result
+  ) {
+    if (result.isDone()) {
+      return;
+    }
+
+    if (index == executors.size()) {
+      result.complete(Optional.empty());
+      return;
+    }
+
+    @NonNull final CompletableFuture<Optional<Result>> current;
+
+    try {
+      current = executors.get(index).execute(call);
+    } catch (@NonNull final Throwable failure) {
+      result.completeExceptionally(failure);
+      return;
+    }
+
+    propagateCancellation(result, current);
+
+    current.whenComplete((@Nullable final Optional<Result> value,
+        @Nullable final Throwable failure) -> {
+      if (failure != null) {
+        result.completeExceptionally(unwrap(failure));
+      } else if (value.isPresent()) {
+        result.complete(value);
+      } else {
+        tryFrom(executors, index + 1, call, result);
+      }
+    });
+  }
+
+  /**
+   * @return The result of a future, or its failure thrown as is if it is unchecked.
+   */
+  static <Result> @NonNull Optional<Result> join(
+      @NonNull final CompletableFuture<Optional<Result>> future,
+      @NonNull final ProcessorCall call
+  ) {
+    try {
+      return future.get();
+    } catch (@NonNull final InterruptedException exception) {
+      throw interrupted(future, call);
+    } catch (@NonNull final ExecutionException exception) {
+      throw failure(exception);
+    }
+  }
+
+  /**
+   * @return The result of a future, or its failure thrown as is if it is unchecked.
+   * @throws TimeoutException If the future is not completed before the given timeout, the future
+   * being left as is.
+   */
+  static <Result> @NonNull Optional<Result> join(
+      @NonNull final CompletableFuture<Optional<Result>> future,
+      @NonNull final ProcessorCall call,
+      final long timeout,
+      @NonNull final TimeUnit unit
+  ) throws TimeoutException {
+    try {
+      return future.get(timeout, unit);
+    } catch (@NonNull final InterruptedException exception) {
+      throw interrupted(future, call);
+    } catch (@NonNull final ExecutionException exception) {
+      throw failure(exception);
+    }
+  }
+
+  /**
+   * Cancel a future that a thread was waiting for when it was interrupted.
+   */
+  private static @NonNull CancellationException interrupted(
+      @NonNull final CompletableFuture<?> future,
+      @NonNull final ProcessorCall call
+  ) {
+    future.cancel(true);
+    Thread.currentThread().interrupt();
+    return new CancellationException(
+        "Interrupted while waiting for the call of " + call.getFullIdentifier() + "."
+    );
+  }
+
+  /**
+   * @return The cause of the failure of a future to throw, errors being thrown as is.
+   */
+  private static @NonNull RuntimeException failure(@NonNull final ExecutionException exception) {
+    @NonNull final Throwable cause = unwrap(exception);
+
+    if (cause instanceof RuntimeException) {
+      return (RuntimeException) cause;
+    } else if (cause instanceof Error) {
+      throw (Error) cause;
+    } else {
+      return new CompletionException(cause);
+    }
+  }
+
+  static boolean isCancellation(@Nullable final Throwable failure) {
+    @Nullable final Throwable cause = failure == null ? null : unwrap(failure);
+    return cause instanceof CancellationException || cause instanceof TimeoutException;
+  }
+
+  static @NonNull Throwable unwrap(@NonNull final Throwable failure) {
+    @NonNull Throwable result = failure;
+
+    while (
+        (result instanceof CompletionException || result instanceof ExecutionException) &&
+            result.getCause() != null
+    ) {
+      result = result.getCause();
+    }
+
+    return result;
+  }
+
+  /**
+   * A task that remembers the thread that runs it, in order to interrupt it.
+   */
+  private static final class InterruptibleTask<Result>
+      implements Runnable {
+
+    @NonNull
+    final CompletableFuture<Optional<Result>> future;
+
+    @NonNull
+    private final Supplier<@NonNull Optional<Result>> _task;
+
+    @Nullable
+    private Thread _runner;
+
+    private boolean _interrupted;
+
+    InterruptibleTask(@NonNull final Supplier<@NonNull Optional<Result>> task) {
+      future = new CompletableFuture<>();
+      _task = task;
+    }
+
+    @Override
+    public void run() {
+      synchronized (this) {
+        if (future.isDone()) {
+          return;
+        }
+
+        _runner = Thread.currentThread();
+      }
+
+      try {
+        future.complete(_task.get());
+      } catch (@NonNull final Throwable failure) {
+        future.completeExceptionally(failure);
+      } finally {
+        final boolean interrupted;
+
+        synchronized (this) {
+          _runner = null;
+          interrupted = _interrupted;
+        }
+
+        // Clear the interruption of a cancelled task before the thread runs other tasks.
+        if (interrupted) {
+          Thread.interrupted();
+        }
+      }
+    }
+
+    synchronized void interrupt() {
+      if (_runner != null) {
+        _interrupted = true;
+        _runner.interrupt();
+      }
+    }
+  }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.processor;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * An executor that records the number of calls, the number of failures and the latencies of the
+ * calls of each identifier, and that can abandon the calls that exceed a time budget.
+ *
+ * Metrics are recorded with striped and atomic counters, without locking and without allocating
+ * once an identifier was called, each call being counted by its latency. Without time budget,
+ * calls are executed by the calling thread.
+ *
+ * With a time budget, calls are executed by workers : a call that exceeds its budget is cancelled,
+ * which interrupts its worker, is reported to the overrun listener and fails with a
+ * CompletionException caused by a TimeoutException. A processor that ignores interruptions keeps
+ * its worker busy until it returns, its result being ignored.
+ *
+ * @param <Result> Type of the results of the calls.
+ */
+public final class InstrumentingProcessorExecutor<Result>
+    implements ProcessorExecutor<Result> {
+
+  @NonNull
+  private final ProcessorExecutor<Result> _executor;
+
+  @NonNegative
+  private final long _timeBudget;
+
+  @Nullable
+  private final Executor _workers;
+
+  @NonNull
+  private final Consumer<@NonNull ProcessorCall> _overrunListener;
+
+  @NonNull
+  private final Map<@NonNull String, @NonNull Recorder> _recorders;
+
+  /**
+   * @param executor Executor to instrument.
+   */
+  public InstrumentingProcessorExecutor(@NonNull final ProcessorExecutor<Result> executor) {
+    this(executor, 0L, null, (@NonNull final ProcessorCall call) -> { });
+  }
+
+  InstrumentingProcessorExecutor(
+      @NonNull final ProcessorExecutor<Result> executor,
+      @NonNegative final long timeBudget,
+      @Nullable final Executor workers,
+      @NonNull final Consumer<@NonNull ProcessorCall> overrunListener
+  ) {
+    _executor = executor;
+    _timeBudget = timeBudget;
+    _workers = workers;
+    _overrunListener = overrunListener;
+    _recorders = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * @see ProcessorExecutor#execute(ProcessorCall)
+   */
+  @Override
+  public @NonNull Optional<Result> execute(@NonNull final ProcessorCall call) {
+    @NonNull final String identifier = call.getFullIdentifier();
+    @Nullable Recorder recorder = _recorders.get(identifier);
+
+    if (recorder == null) {
+      recorder = _recorders.computeIfAbsent(identifier, Recorder::new);
+    }
+
+    final long start = System.nanoTime();
+
+    try {
+      return _workers == null ? _executor.execute(call) : executeWithinBudget(call, recorder);
+    } catch (@NonNull final RuntimeException | Error failure) {
+      if (!(failure instanceof Overrun)) {
+        recorder.errors.increment();
+      }
+
+      throw failure;
+    } finally {
+      recorder.latency.record(System.nanoTime() - start);
+    }
+  }
+
+  private @NonNull Optional<Result> executeWithinBudget(
+      @NonNull final ProcessorCall call,
+      @NonNull final Recorder recorder
+  ) {
+    @NonNull final CompletableFuture<Optional<Result>> future = Futures.submit(
+        () -> _executor.execute(call), _workers
+    );
+
+    try {
+      return Futures.join(future, call, _timeBudget, TimeUnit.NANOSECONDS);
+    } catch (@NonNull final TimeoutException exception) {
+      future.cancel(true);
+      recorder.overruns.increment();
+      _overrunListener.accept(call);
+
+      throw new Overrun(new TimeoutException(
+          "The call of " + call.getFullIdentifier() + " exceeded its time budget of " +
+              _timeBudget + " nanoseconds."
+      ));
+    }
+  }
+
+  /**
+   * @param identifier Full identifier of calls, relative to this executor.
+   * @return A snapshot of the metrics of the given identifier, if it was called.
+   */
+  public @NonNull Optional<ProcessorMetrics> getMetrics(@NonNull final String identifier) {
+    @Nullable final Recorder recorder = _recorders.get(identifier);
+    return recorder == null ? Optional.empty() : Optional.of(recorder.snapshot(identifier));
+  }
+
+  /**
+   * Copy the metrics of each called identifier, calls that end during the copy being counted or
+   * not.
+   *
+   * @return A snapshot of the metrics of each called identifier, by identifier.
+   */
+  public @NonNull SortedMap<@NonNull String, @NonNull ProcessorMetrics> getMetrics() {
+    @NonNull final SortedMap<@NonNull String, @NonNull ProcessorMetrics> result = new TreeMap<>();
+
+    for (
+        final Map.@NonNull Entry<@NonNull String, @NonNull Recorder> entry :
+        _recorders.entrySet()
+    ) {
+      result.put(entry.getKey(), entry.getValue().snapshot(entry.getKey()));
+    }
+
+    return Collections.unmodifiableSortedMap(result);
+  }
+
+  /**
+   * @return The time budget of each call in nanoseconds, 0 if calls have no budget.
+   */
+  public @NonNegative long getTimeBudget() {
+    return _timeBudget;
+  }
+
+  /**
+   * The failure of a call that exceeded its budget, that is not counted as an error.
+   */
+  private static final class Overrun
+      extends CompletionException {
+
+    private static final long serialVersionUID = 1L;
+
+    Overrun(@NonNull final TimeoutException cause) {
+      super(cause.getMessage(), cause);
+    }
+  }
+
+  /**
+   * The counters of an identifier.
+   */
+  private static final class Recorder {
+
+    @NonNull
+    final LongAdder errors;
+
+    @NonNull
+    final LongAdder overruns;
+
+    @NonNull
+    final LatencyHistogram latency;
+
+    Recorder(@NonNull final String identifier) {
+      errors = new LongAdder();
+      overruns = new LongAdder();
+      latency = new LatencyHistogram();
+    }
+
+    @NonNull ProcessorMetrics snapshot(@NonNull final String identifier) {
+      @NonNull final LatencySnapshot snapshot = latency.snapshot();
+
+      return new ProcessorMetrics(
+          identifier, snapshot.getCount(), errors.sum(), overruns.sum(), snapshot
+      );
+    }
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.processor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A builder of instrumenting executors, that execute calls without time budget by default.
+ *
+ * @param <Result> Type of the results of the executors.
+ */
+public final class InstrumentingProcessorExecutorBuilder<Result> {
+
+  @NonNegative
+  private long _timeBudget;
+
+  @Nullable
+  private Executor _workers;
+
+  @NonNull
+  private Consumer<@NonNull ProcessorCall> _overrunListener;
+
+  public InstrumentingProcessorExecutorBuilder() {
+    _timeBudget = 0L;
+    _workers = null;
+    _overrunListener = (@NonNull final ProcessorCall call) -> { };
+  }
+
+  /**
+   * @param duration Maximum duration of each call, 0 for calls without budget.
+   * @param unit Unit of the duration.
+   * @param workers Executor of the calls with a budget, whose threads are interrupted when a call
+   * exceeds its budget.
+   * @return This builder for chaining purposes.
+   */
+  public @NonNull InstrumentingProcessorExecutorBuilder<Result> setTimeBudget(
+      @NonNegative final long duration,
+      @NonNull final TimeUnit unit,
+      @NonNull final Executor workers
+  ) {
+    if (duration < 0) {
+      throw new IllegalArgumentException("Invalid time budget " + duration + ".");
+    }
+
+    _timeBudget = unit.toNanos(duration);
+    _workers = duration == 0 ? null : workers;
+    return this;
+  }
+
+  /**
+   * @param listener Listener called with each call that exceeds its budget, by the thread that
+   * abandons it.
+   * @return This builder for chaining purposes.
+   */
+  public @NonNull InstrumentingProcessorExecutorBuilder<Result> setOverrunListener(
+      @NonNull final Consumer<@NonNull ProcessorCall> listener
+  ) {
+    _overrunListener = listener;
+    return this;
+  }
+
+  /**
+   * @param executor Executor to instrument.
+   * @return An executor that records the metrics of the calls of the given one.
+   */
+  public @NonNull InstrumentingProcessorExecutor<Result> build(
+      @NonNull final ProcessorExecutor<Result> executor
+  ) {
+    return new InstrumentingProcessorExecutor<>(
+        executor, _timeBudget, _workers, _overrunListener
+    );
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.processor;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A lock-free histogram of durations in nanoseconds, with log-linear buckets as in an HDR
+ * histogram.
+ *
+ * Durations under 128 nanoseconds are counted exactly, longer durations are counted in one of 64
+ * buckets per power of two, so that each bucket is at most 1/64 of its lower bound wide whatever
+ * the magnitude of the duration. Recording a duration increments the atomic counter of its bucket,
+ * adds to the striped count and sum and updates the striped maximum, without allocating.
+ */
+public final class LatencyHistogram {
+
+  /**
+   * Number of bits of the sub-buckets of each power of two.
+   */
+  static final int SUB_BUCKET_BITS = 6;
+
+  static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+  /**
+   * Number of buckets needed to count any non-negative long.
+   */
+  static final int BUCKETS = ((62 - SUB_BUCKET_BITS) << SUB_BUCKET_BITS) + 2 * SUB_BUCKETS;
+
+  @NonNull
+  private final AtomicLongArray _counts;
+
+  @NonNull
+  private final LongAdder _count;
+
+  @NonNull
+  private final LongAdder _sum;
+
+  @NonNull
+  private final LongAccumulator _maximum;
+
+  public LatencyHistogram() {
+    _counts = new AtomicLongArray(BUCKETS);
+    _count = new LongAdder();
+    _sum = new LongAdder();
+    _maximum = new LongAccumulator(Math::max, 0L);
+  }
+
+  /**
+   * @param value A non-negative value.
+   * @return The index of the bucket of the given value.
+   */
+  static @NonNegative int indexOf(@NonNegative final long value) {
+    final int shift = Math.max(0, 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+    return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+  }
+
+  /**
+   * @param index Index of a bucket.
+   * @return The lowest value counted by the given bucket.
+   */
+  static @NonNegative long lowestValueOf(@NonNegative final int index) {
+    if (index < 2 * SUB_BUCKETS) {
+      return index;
+    }
+
+    final int shift = (index >>> SUB_BUCKET_BITS) - 1;
+    return (long) (index - (shift << SUB_BUCKET_BITS)) << shift;
+  }
+
+  /**
+   * @param index Index of a bucket.
+   * @return The highest value counted by the given bucket.
+   */
+  static @NonNegative long highestValueOf(@NonNegative final int index) {
+    return index + 1 == BUCKETS ? Long.MAX_VALUE : lowestValueOf(index + 1) - 1;
+  }
+
+  /**
+   * @param nanoseconds A duration in nanoseconds, negative durations being counted as 0.
+   */
+  public void record(final long nanoseconds) {
+    final long value = Math.max(nanoseconds, 0L);
+
+    _counts.getAndIncrement(indexOf(value));
+    _count.increment();
+    _sum.add(value);
+    _maximum.accumulate(value);
+  }
+
+  /**
+   * @return The number of recorded durations.
+   */
+  public @NonNegative long getCount() {
+    return _count.sum();
+  }
+
+  /**
+   * Copy the counts of this histogram, durations recorded during the copy being copied or not.
+   *
+   * @return An immutable copy of this histogram.
+   */
+  public @NonNull LatencySnapshot snapshot() {
+    @NonNull final long[] counts = new long[BUCKETS];
+    long count = 0L;
+
+    for (@NonNegative int index = 0; index < BUCKETS; ++index) {
+      counts[index] = _counts.get(index);
+      count += counts[index];
+    }
+
+    return new LatencySnapshot(counts, count, _sum.sum(), _maximum.get());
+  }
+}
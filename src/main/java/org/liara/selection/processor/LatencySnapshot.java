@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.processor;
+
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * An immutable copy of a latency histogram, whose quantiles are exact to 1/64 of their value.
+ */
+public final class LatencySnapshot {
+
+  @NonNull
+  private final long[] _counts;
+
+  @NonNegative
+  private final long _count;
+
+  @NonNegative
+  private final long _sum;
+
+  @NonNegative
+  private final long _maximum;
+
+  LatencySnapshot(
+      @NonNull final long[] counts,
+      @NonNegative final long count,
+      @NonNegative final long sum,
+      @NonNegative final long maximum
+  ) {
+    _counts = counts;
+    _count = count;
+    _sum = sum;
+    _maximum = maximum;
+  }
+
+  /**
+   * @return The number of recorded durations.
+   */
+  public @NonNegative long getCount() {
+    return _count;
+  }
+
+  /**
+   * @return The sum of the recorded durations, in nanoseconds.
+   */
+  public @NonNegative long getSum() {
+    return _sum;
+  }
+
+  /**
+   * @return The mean of the recorded durations in nanoseconds, 0 if no duration was recorded.
+   */
+  public double getMean() {
+    return _count == 0L ? 0d : (double) _sum / _count;
+  }
+
+  /**
+   * @return The longest recorded duration, in nanoseconds.
+   */
+  public @NonNegative long getMaximum() {
+    return _maximum;
+  }
+
+  /**
+   * @param quantile A quantile between 0 and 1.
+   * @return The highest duration of the bucket that contains the given quantile of the recorded
+   * durations, at most the longest recorded duration, 0 if no duration was recorded.
+   */
+  public @NonNegative long getValueAtQuantile(final double quantile) {
+    if (quantile < 0d || quantile > 1d) {
+      throw new IllegalArgumentException("Invalid quantile " + quantile + ".");
+    }
+
+    if (_count == 0L) {
+      return 0L;
+    }
+
+    final long rank = Math.max(1L, (long) Math.ceil(quantile * _count));
+    long count = 0L;
+
+    for (@NonNegative int index = 0; index < _counts.length; ++index) {
+      count += _counts[index];
+
+      if (count >= rank) {
+        return Math.min(LatencyHistogram.highestValueOf(index), _maximum);
+      }
+    }
+
+    return _maximum;
+  }
+
+  /**
+   * @param nanoseconds A duration in nanoseconds.
+   * @return The number of recorded durations in the buckets whose highest duration is at most the
+   * given one, as counted by the cumulative buckets of a metrics exporter.
+   */
+  public @NonNegative long getCountAtMost(final long nanoseconds) {
+    if (nanoseconds < 0L) {
+      return 0L;
+    }
+
+    final int last = LatencyHistogram.indexOf(nanoseconds);
+    final int end = LatencyHistogram.highestValueOf(last) == nanoseconds ? last + 1 : last;
+    long count = 0L;
+
+    for (@NonNegative int index = 0; index < end; ++index) {
+      count += _counts[index];
+    }
+
+    return count;
+  }
+
+  /**
+   * @see Object#toString()
+   */
+  @Override
+  public @NonNull String toString() {
+    return "LatencySnapshot{count=" + _count + ", mean=" + getMean() + ", p50=" +
+        getValueAtQuantile(0.5d) + ", p99=" + getValueAtQuantile(0.99d) + ", max=" + _maximum +
+        "}";
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.processor;
+
+import com.google.common.cache.Cache;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * An executor that remembers the results of the calls of some identifiers, by identifier and
+ * parameters, in order to execute identical calls once per time to live.
+ *
+ * Concurrent identical calls are executed once, the other callers waiting for the result of the
+ * first one. Failures are not remembered. Results are evicted when they expire or when the cache
+ * exceeds its maximum size, the least recently used results being evicted first.
+ *
+ * Memoizing executors are built by a MemoizingProcessorExecutorBuilder.
+ *
+ * @param <Result> Type of the results of the executor.
+ */
+public final class MemoizingProcessorExecutor<Result>
+    implements ProcessorExecutor<Result> {
+
+  @NonNull
+  private final ProcessorExecutor<Result> _executor;
+
+  @NonNull
+  private final Cache<@NonNull ProcessorCallKey, @NonNull Optional<Result>> _cache;
+
+  /**
+   * Full identifiers of the memoized calls, null if all calls are memoized.
+   */
+  @Nullable
+  private final Set<@NonNull String> _identifiers;
+
+  MemoizingProcessorExecutor(
+      @NonNull final ProcessorExecutor<Result> executor,
+      @NonNull final Cache<@NonNull ProcessorCallKey, @NonNull Optional<Result>> cache,
+      @Nullable final Set<@NonNull String> identifiers
+  ) {
+    _executor = executor;
+    _cache = cache;
+    _identifiers = identifiers;
+  }
+
+  /**
+   * @see ProcessorExecutor#execute(ProcessorCall)
+   */
+  @Override
+  public @NonNull Optional<Result> execute(@NonNull final ProcessorCall call) {
+    if (!isMemoized(call)) {
+      return _executor.execute(call);
+    }
+
+    try {
+      return _cache.get(ProcessorCallKey.of(call), () -> _executor.execute(call));
+    } catch (
+        @NonNull final ExecutionException | UncheckedExecutionException | ExecutionError exception
+    ) {
+      @NonNull final Throwable cause = exception.getCause();
+
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      } else {
+        throw new CompletionException(cause);
+      }
+    }
+  }
+
+  /**
+   * @param call A call.
+   * @return True if the results of the given call are remembered.
+   */
+  public boolean isMemoized(@NonNull final ProcessorCall call) {
+    return _identifiers == null || _identifiers.contains(call.getFullIdentifier());
+  }
+
+  /**
+   * Forget all remembered results.
+   */
+  public void invalidateAll() {
+    _cache.invalidateAll();
+  }
+
+  /**
+   * @return The approximate number of remembered results.
+   */
+  public @NonNegative long size() {
+    return _cache.size();
+  }
+
+  /**
+   * @return The number of memoized calls that returned a remembered result.
+   */
+  public @NonNegative long getHitCount() {
+    return _cache.stats().hitCount();
+  }
+
+  /**
+   * @return The number of memoized calls that were executed.
+   */
+  public @NonNegative long getMissCount() {
+    return _cache.stats().missCount();
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.processor;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.CacheBuilder;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A builder of memoizing executors, that memoize nothing until identifiers are opted in.
+ *
+ * @param <Result> Type of the results of the executors.
+ */
+public final class MemoizingProcessorExecutorBuilder<Result> {
+
+  public static final long DEFAULT_MAXIMUM_SIZE = 10_000L;
+
+  @NonNull
+  private final Set<@NonNull String> _identifiers;
+
+  private boolean _all;
+
+  @NonNegative
+  private long _maximumSize;
+
+  @NonNegative
+  private long _timeToLive;
+
+  @Nullable
+  private LongSupplier _ticker;
+
+  public MemoizingProcessorExecutorBuilder() {
+    _identifiers = new HashSet<>();
+    _all = false;
+    _maximumSize = DEFAULT_MAXIMUM_SIZE;
+    _timeToLive = 0L;
+    _ticker = null;
+  }
+
+  /**
+   * @param identifier Full identifier of calls to memoize, relative to the memoizing executor.
+   * @return This builder for chaining purposes.
+   */
+  public @NonNull MemoizingProcessorExecutorBuilder<Result> memoize(
+      @NonNull final String identifier
+  ) {
+    _identifiers.add(identifier);
+    return this;
+  }
+
+  /**
+   * Memoize the calls of any identifier.
+   *
+   * @return This builder for chaining purposes.
+   */
+  public @NonNull MemoizingProcessorExecutorBuilder<Result> memoizeAll() {
+    _all = true;
+    return this;
+  }
+
+  /**
+   * @param maximumSize Maximum number of remembered results.
+   * @return This builder for chaining purposes.
+   */
+  public @NonNull MemoizingProcessorExecutorBuilder<Result> setMaximumSize(
+      @NonNegative final long maximumSize
+  ) {
+    if (maximumSize < 0) {
+      throw new IllegalArgumentException("Invalid maximum size " + maximumSize + ".");
+    }
+
+    _maximumSize = maximumSize;
+    return this;
+  }
+
+  /**
+   * @param duration Duration during which a result is remembered after its computation, 0 for
+   * results that never expire.
+   * @param unit Unit of the duration.
+   * @return This builder for chaining purposes.
+   */
+  public @NonNull MemoizingProcessorExecutorBuilder<Result> setTimeToLive(
+      @NonNegative final long duration,
+      @NonNull final TimeUnit unit
+  ) {
+    if (duration < 0) {
+      throw new IllegalArgumentException("Invalid time to live " + duration + ".");
+    }
+
+    _timeToLive = unit.toNanos(duration);
+    return this;
+  }
+
+  /**
+   * @param ticker Source of the current time in nanoseconds, System.nanoTime by default.
+   * @return This builder for chaining purposes.
+   */
+  public @NonNull MemoizingProcessorExecutorBuilder<Result> setTicker(
+      @NonNull final LongSupplier ticker
+  ) {
+    _ticker = ticker;
+    return this;
+  }
+
+  /**
+   * @param executor Executor to memoize.
+   * @return An executor that memoizes the results of the given one.
+   */
+  public @NonNull MemoizingProcessorExecutor<Result> build(
+      @NonNull final ProcessorExecutor<Result> executor
+  ) {
+    @NonNull final CacheBuilder<Object, Object> cache = CacheBuilder.newBuilder()
+        .maximumSize(_maximumSize)
+        .recordStats();
+
+    if (_timeToLive > 0) {
+      cache.expireAfterWrite(_timeToLive, TimeUnit.NANOSECONDS);
+    }
+
+    if (_ticker != null) {
+      @NonNull final LongSupplier ticker = _ticker;
+
+      cache.ticker(new Ticker() {
+        @Override
+        public long read() {
+          return ticker.getAsLong();
+        }
+      });
+    }
+
+    return new MemoizingProcessorExecutor<>(
+        executor,
+        cache.<ProcessorCallKey, Optional<Result>>build(),
+        _all ? null : new HashSet<>(_identifiers)
+    );
+  }
+}
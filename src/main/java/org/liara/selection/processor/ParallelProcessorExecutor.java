@@ -0,0 +1,244 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.processor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * Executes batches of independent calls concurrently, over an executor such as a fork-join pool or
+ * an executor of virtual threads.
+ *
+ * Each batch is run by at most parallelism workers that take the next call of the batch until it
+ * is exhausted, the calling thread being one of them, so that the concurrency of a batch is
+ * bounded whatever the size of the executor and that a batch still completes when the executor is
+ * saturated or rejects the workers. Outcomes are returned in order of call and the failure of a
+ * call is reported by its outcome without stopping the other calls.
+ *
+ * @param <Result> Type of the results of the calls.
+ */
+public final class ParallelProcessorExecutor<Result> {
+
+  @NonNull
+  private final ProcessorExecutor<Result> _executor;
+
+  @NonNull
+  private final Executor _workers;
+
+  @NonNegative
+  private final int _parallelism;
+
+  /**
+   * @param executor Executor of each call, that must be safe to use by many threads.
+   * @param workers Executor of the workers of each batch.
+   * @param parallelism Maximum number of calls of a batch executed at the same time, at least 1.
+   */
+  public ParallelProcessorExecutor(
+      @NonNull final ProcessorExecutor<Result> executor,
+      @NonNull final Executor workers,
+      @NonNegative final int parallelism
+  ) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException(
+          "Unable to execute calls with a parallelism of " + parallelism + "."
+      );
+    }
+
+    _executor = executor;
+    _workers = workers;
+    _parallelism = parallelism;
+  }
+
+  /**
+   * Execute calls concurrently and wait for all of them.
+   *
+   * @param calls Independent calls to execute.
+   * @return The outcome of each call, in order of call.
+   * @throws InterruptedException If the calling thread is interrupted, the calls not started yet
+   * being skipped and the workers stopping after their current call.
+   */
+  public @NonNull List<@NonNull ProcessorOutcome<Result>> execute(
+      @NonNull final ProcessorCall... calls
+  ) throws InterruptedException {
+    return execute(Arrays.asList(calls));
+  }
+
+  /**
+   * @see #execute(ProcessorCall...)
+   */
+  public @NonNull List<@NonNull ProcessorOutcome<Result>> execute(
+      @NonNull final Iterable<@NonNull ProcessorCall> calls
+  ) throws InterruptedException {
+    @NonNull final List<@NonNull ProcessorCall> batch = new ArrayList<>();
+    calls.forEach(batch::add);
+
+    @NonNull final Batch<Result> execution = new Batch<>(_executor, batch);
+    final int workers = Math.min(_parallelism, batch.size());
+    @NonNull final CountDownLatch done = new CountDownLatch(Math.max(workers - 1, 0));
+
+    for (@NonNegative int worker = 1; worker < workers; ++worker) {
+      try {
+        _workers.execute(() -> {
+          try {
+            execution.run();
+          } finally {
+            done.countDown();
+          }
+        });
+      } catch (@NonNull final RejectedExecutionException exception) {
+        done.countDown();
+      }
+    }
+
+    if (!execution.runInterruptibly()) {
+      throw new InterruptedException("Batch interrupted.");
+    }
+
+    try {
+      done.await();
+    } catch (@NonNull final InterruptedException exception) {
+      execution.cancel();
+      throw exception;
+    }
+
+    return Arrays.asList(execution.outcomes);
+  }
+
+  /**
+   * Execute calls concurrently and wait for all of them.
+   *
+   * @param calls Independent calls to execute.
+   * @return The results of the calls, in order of call, calls without result being skipped.
+   * @throws java.util.concurrent.CompletionException If a call failed, caused by the failure of
+   * the first failed call.
+   * @throws InterruptedException If the calling thread is interrupted, the calls not started yet
+   * being skipped.
+   */
+  public @NonNull List<@NonNull Result> getResults(@NonNull final ProcessorCall... calls)
+      throws InterruptedException {
+    @NonNull final List<@NonNull Result> results = new ArrayList<>(calls.length);
+
+    for (@NonNull final ProcessorOutcome<Result> outcome : execute(calls)) {
+      outcome.getResult().ifPresent(results::add);
+    }
+
+    return results;
+  }
+
+  /**
+   * @return The maximum number of calls of a batch executed at the same time.
+   */
+  public @NonNegative int getParallelism() {
+    return _parallelism;
+  }
+
+  /**
+   * The calls of a batch, taken in order by its workers.
+   */
+  private static final class Batch<Result> {
+
+    @NonNull
+    final ProcessorExecutor<Result> executor;
+
+    @NonNull
+    final List<@NonNull ProcessorCall> calls;
+
+    @NonNull
+    final ProcessorOutcome<Result>[] outcomes;
+
+    @NonNull
+    final AtomicInteger next;
+
+    /**
+     * The outcome array is created empty and only receives outcomes of the given executor, so the
+     * unchecked cast of its generic type is safe.
+     */
+    @SuppressWarnings("unchecked")
+    Batch(
+        @NonNull final ProcessorExecutor<Result> executor,
+        @NonNull final List<@NonNull ProcessorCall> calls
+    ) {
+      this.executor = executor;
+      this.calls = calls;
+      this.outcomes = (ProcessorOutcome<Result>[]) new ProcessorOutcome<?>[calls.size()];
+      this.next = new AtomicInteger();
+    }
+
+    void run() {
+      for (int index = next.getAndIncrement(); index < outcomes.length;
+          index = next.getAndIncrement()) {
+        execute(index);
+      }
+    }
+
+    /**
+     * Execute calls as run does, and cancel this batch as soon as the current thread is
+     * interrupted.
+     *
+     * @return False if this batch was cancelled, the interruption of the thread being cleared.
+     */
+    boolean runInterruptibly() {
+      while (!Thread.interrupted()) {
+        final int index = next.getAndIncrement();
+
+        if (index >= outcomes.length) {
+          return true;
+        }
+
+        execute(index);
+      }
+
+      cancel();
+      return false;
+    }
+
+    private void execute(@NonNegative final int index) {
+      @NonNull final ProcessorCall call = calls.get(index);
+
+      try {
+        outcomes[index] = ProcessorOutcome.success(call, executor.execute(call));
+      } catch (@NonNull final Throwable failure) {
+        outcomes[index] = ProcessorOutcome.failure(call, failure);
+
+        if (failure instanceof InterruptedException) {
+          // Restore the interruption consumed by the call.
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+
+    /**
+     * Stop the workers after their current call.
+     */
+    void cancel() {
+      next.set(outcomes.length);
+    }
+  }
+}
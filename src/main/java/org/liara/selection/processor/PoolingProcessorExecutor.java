@@ -0,0 +1,237 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.processor;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * An executor that keeps configured processors in order to reuse them for the next calls of the
+ * same identifier with equal configuration parameters, instead of creating and configuring a new
+ * processor for each call as a factory executor does.
+ *
+ * A processor is configured once, when it is created, and is reset after each of its executions
+ * before returning into the pool. A processor that fails during its execution or its reset is
+ * discarded. Each identifier keeps at most a given number of idle processors, the processors of
+ * the least recently used configurations being discarded first.
+ *
+ * Configurations are looked up by the vector of the configuration parameters of each call, whose
+ * hash is computed over primitive arrays, so that looking up and returning a processor of a known
+ * configuration does not allocate once the vector of a call exists. Configuration parameters must
+ * thus be integers, doubles or strings.
+ *
+ * @param <Result> Type of the results of the processors.
+ */
+public final class PoolingProcessorExecutor<Result>
+    implements ProcessorExecutor<Result> {
+
+  @NonNull
+  private final Supplier<@NonNull Processor<Result>> _factory;
+
+  @NonNegative
+  private final int _maximumIdle;
+
+  @NonNull
+  private final Map<@NonNull String, @NonNull Pool<Result>> _pools;
+
+  @NonNull
+  private final LongAdder _created;
+
+  /**
+   * @param factory Factory of unconfigured processors.
+   * @param maximumIdle Maximum number of idle processors kept for each identifier, at least 1.
+   */
+  public PoolingProcessorExecutor(
+      @NonNull final Supplier<@NonNull Processor<Result>> factory,
+      @NonNegative final int maximumIdle
+  ) {
+    if (maximumIdle < 1) {
+      throw new IllegalArgumentException(
+          "Unable to pool processors with a maximum of " + maximumIdle + " idle processors."
+      );
+    }
+
+    _factory = factory;
+    _maximumIdle = maximumIdle;
+    _pools = new ConcurrentHashMap<>();
+    _created = new LongAdder();
+  }
+
+  /**
+   * @see ProcessorExecutor#execute(ProcessorCall)
+   */
+  @Override
+  public @NonNull Optional<Result> execute(@NonNull final ProcessorCall call) {
+    @NonNull final String identifier = call.getFullIdentifier();
+    @Nullable Pool<Result> pool = _pools.get(identifier);
+
+    if (pool == null) {
+      pool = _pools.computeIfAbsent(identifier, this::createPool);
+    }
+
+    @NonNull final ProcessorParameters configuration = call.getTypedConfigurationParameters();
+    @Nullable Processor<Result> processor = pool.acquire(configuration);
+
+    if (processor == null) {
+      processor = _factory.get();
+      call.configure(processor);
+      _created.increment();
+    }
+
+    @NonNull final Result result = call.execute(processor);
+
+    processor.reset();
+    pool.release(configuration, processor);
+
+    return Optional.of(result);
+  }
+
+  private @NonNull Pool<Result> createPool(@NonNull final String identifier) {
+    return new Pool<>(_maximumIdle);
+  }
+
+  /**
+   * @param identifier Full identifier of calls, relative to this executor.
+   * @return The number of idle processors kept for the given identifier.
+   */
+  public @NonNegative int getIdleCount(@NonNull final String identifier) {
+    @Nullable final Pool<Result> pool = _pools.get(identifier);
+    return pool == null ? 0 : pool.size();
+  }
+
+  /**
+   * @return The number of processors created and configured so far.
+   */
+  public @NonNegative long getCreatedCount() {
+    return _created.sum();
+  }
+
+  /**
+   * @return The maximum number of idle processors kept for each identifier.
+   */
+  public @NonNegative int getMaximumIdle() {
+    return _maximumIdle;
+  }
+
+  /**
+   * Discard all idle processors.
+   */
+  public void clear() {
+    _pools.clear();
+  }
+
+  /**
+   * The idle processors of an identifier, by configuration in order of use.
+   */
+  private static final class Pool<Result> {
+
+    @NonNegative
+    private final int _maximum;
+
+    @NonNull
+    private final LinkedHashMap<
+        @NonNull ProcessorParameters, @NonNull ArrayDeque<Processor<Result>>
+    > _idle;
+
+    @NonNegative
+    private int _size;
+
+    Pool(@NonNegative final int maximum) {
+      _maximum = maximum;
+      _idle = new LinkedHashMap<>(16, 0.75f, true);
+      _size = 0;
+    }
+
+    synchronized @Nullable Processor<Result> acquire(
+        @NonNull final ProcessorParameters configuration
+    ) {
+      @Nullable final ArrayDeque<Processor<Result>> processors = _idle.get(configuration);
+
+      if (processors == null || processors.isEmpty()) {
+        return null;
+      }
+
+      _size -= 1;
+      return processors.pollLast();
+    }
+
+    synchronized void release(
+        @NonNull final ProcessorParameters configuration,
+        @NonNull final Processor<Result> processor
+    ) {
+      @Nullable ArrayDeque<Processor<Result>> processors = _idle.get(configuration);
+
+      if (processors == null) {
+        processors = new ArrayDeque<>();
+        _idle.put(configuration, processors);
+      }
+
+      processors.addLast(processor);
+      _size += 1;
+
+      if (_size > _maximum) {
+        evict();
+      }
+    }
+
+    /**
+     * Discard the oldest processor of the least recently used configuration, and forget the
+     * configurations left without idle processor.
+     */
+    private void evict() {
+      @NonNull final Iterator<@NonNull ArrayDeque<Processor<Result>>> iterator = (
+          _idle.values().iterator()
+      );
+
+      while (iterator.hasNext()) {
+        @NonNull final ArrayDeque<Processor<Result>> processors = iterator.next();
+
+        if (!processors.isEmpty()) {
+          processors.pollFirst();
+          _size -= 1;
+        }
+
+        if (processors.isEmpty()) {
+          iterator.remove();
+        }
+
+        if (_size <= _maximum) {
+          return;
+        }
+      }
+    }
+
+    synchronized @NonNegative int size() {
+      return _size;
+    }
+  }
+}
@@ -31,5 +31,15 @@ public interface Processor<Result> {
 
   }
 
+  /**
+   * Restore the state of this processor after an execution, so that it can be executed again
+   * with the same configuration, as when it is reused by a PoolingProcessorExecutor.
+   *
+   * Configured buffers should be kept and cleared instead of being released.
+   */
+  default void reset() {
+
+  }
+
   @NonNull Result execute(@NonNull final List<@NonNull Object> parameters);
 }
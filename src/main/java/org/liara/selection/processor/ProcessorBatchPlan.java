@@ -0,0 +1,239 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.processor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * An immutable plan of a batch of calls, that groups structurally equal calls in order to execute
+ * each distinct call once and to fan its result back out to each of its positions in the batch.
+ *
+ * Calls are equal if their full identifiers and their parameters are equal, as compared by their
+ * ProcessorCallKey. The first occurrence of each distinct call is the one executed.
+ */
+public final class ProcessorBatchPlan {
+
+  @NonNull
+  private final List<@NonNull ProcessorCall> _calls;
+
+  @NonNull
+  private final List<@NonNull ProcessorCall> _distinctCalls;
+
+  /**
+   * Index of the distinct call of each position of the batch.
+   */
+  @NonNull
+  private final int[] _assignments;
+
+  private ProcessorBatchPlan(
+      @NonNull final List<@NonNull ProcessorCall> calls,
+      @NonNull final List<@NonNull ProcessorCall> distinctCalls,
+      @NonNull final int[] assignments
+  ) {
+    _calls = calls;
+    _distinctCalls = distinctCalls;
+    _assignments = assignments;
+  }
+
+  /**
+   * @param calls A batch of calls.
+   * @return The plan of the given batch.
+   */
+  public static @NonNull ProcessorBatchPlan of(@NonNull final ProcessorCall... calls) {
+    return of(Arrays.asList(calls));
+  }
+
+  /**
+   * @see #of(ProcessorCall...)
+   */
+  public static @NonNull ProcessorBatchPlan of(
+      @NonNull final Iterable<@NonNull ProcessorCall> calls
+  ) {
+    @NonNull final List<@NonNull ProcessorCall> batch = new ArrayList<>();
+    calls.forEach(batch::add);
+
+    @NonNull final Map<@NonNull ProcessorCallKey, @NonNull Integer> indices = new HashMap<>();
+    @NonNull final List<@NonNull ProcessorCall> distinctCalls = new ArrayList<>();
+    @NonNull final int[] assignments = new int[batch.size()];
+
+    for (@NonNegative int index = 0; index < assignments.length; ++index) {
+      @NonNull final ProcessorCall call = batch.get(index);
+      @Nullable final Integer distinct = indices.putIfAbsent(
+          ProcessorCallKey.of(call), distinctCalls.size()
+      );
+
+      if (distinct == null) {
+        assignments[index] = distinctCalls.size();
+        distinctCalls.add(call);
+      } else {
+        assignments[index] = distinct;
+      }
+    }
+
+    return new ProcessorBatchPlan(
+        Collections.unmodifiableList(batch),
+        Collections.unmodifiableList(distinctCalls),
+        assignments
+    );
+  }
+
+  /**
+   * Execute each distinct call of the batch once.
+   *
+   * @param executor Executor of the calls.
+   * @param <Result> Type of the results of the calls.
+   * @return The results of the calls of the batch, in order of call, calls without result being
+   * skipped, as returned by ProcessorExecutor#execute(ProcessorCall...).
+   */
+  public <Result> @NonNull List<@NonNull Result> execute(
+      @NonNull final ProcessorExecutor<Result> executor
+  ) {
+    @NonNull final List<@NonNull Optional<Result>> results = new ArrayList<>(
+        _distinctCalls.size()
+    );
+
+    for (@NonNull final ProcessorCall call : _distinctCalls) {
+      results.add(executor.execute(call));
+    }
+
+    @NonNull final List<@NonNull Result> fanned = new ArrayList<>(_assignments.length);
+
+    for (final int assignment : _assignments) {
+      results.get(assignment).ifPresent(fanned::add);
+    }
+
+    return fanned;
+  }
+
+  /**
+   * Execute each distinct call of the batch once and concurrently.
+   *
+   * @param executor Executor of the calls.
+   * @param <Result> Type of the results of the calls.
+   * @return The outcome of each call of the batch, in order of call.
+   * @throws InterruptedException If the calling thread is interrupted while waiting for the
+   * workers.
+   * @see ParallelProcessorExecutor#execute(Iterable)
+   */
+  public <Result> @NonNull List<@NonNull ProcessorOutcome<Result>> execute(
+      @NonNull final ParallelProcessorExecutor<Result> executor
+  ) throws InterruptedException {
+    @NonNull final List<@NonNull ProcessorOutcome<Result>> outcomes = executor.execute(
+        _distinctCalls
+    );
+    @NonNull final List<@NonNull ProcessorOutcome<Result>> fanned = new ArrayList<>(
+        _assignments.length
+    );
+
+    for (@NonNegative int index = 0; index < _assignments.length; ++index) {
+      @NonNull final ProcessorOutcome<Result> outcome = outcomes.get(_assignments[index]);
+      @NonNull final ProcessorCall call = _calls.get(index);
+
+      if (outcome.getCall() == call) {
+        fanned.add(outcome);
+      } else if (outcome.isFailure()) {
+        fanned.add(ProcessorOutcome.failure(call, outcome.getFailure()));
+      } else {
+        fanned.add(ProcessorOutcome.success(call, outcome.getResult()));
+      }
+    }
+
+    return fanned;
+  }
+
+  /**
+   * @param values A value for each distinct call, in order of distinct call.
+   * @param <Value> Type of the values.
+   * @return The value of the distinct call of each call of the batch, in order of call.
+   */
+  public <Value> @NonNull List<Value> fanOut(@NonNull final List<Value> values) {
+    if (values.size() != _distinctCalls.size()) {
+      throw new IllegalArgumentException(
+          "Unable to fan out " + values.size() + " values over " + _distinctCalls.size() +
+              " distinct calls."
+      );
+    }
+
+    @NonNull final List<Value> fanned = new ArrayList<>(_assignments.length);
+
+    for (final int assignment : _assignments) {
+      fanned.add(values.get(assignment));
+    }
+
+    return fanned;
+  }
+
+  /**
+   * @return The calls of the batch, in order of call.
+   */
+  public @NonNull List<@NonNull ProcessorCall> getCalls() {
+    return _calls;
+  }
+
+  /**
+   * @return The first occurrence of each distinct call of the batch, in order of occurrence.
+   */
+  public @NonNull List<@NonNull ProcessorCall> getDistinctCalls() {
+    return _distinctCalls;
+  }
+
+  /**
+   * @param index Index of a call of the batch.
+   * @return Index of the distinct call executed for the given call.
+   */
+  public @NonNegative int getAssignment(@NonNegative final int index) {
+    return _assignments[index];
+  }
+
+  /**
+   * @return The number of calls of the batch.
+   */
+  public @NonNegative int getCallCount() {
+    return _assignments.length;
+  }
+
+  /**
+   * @return The number of distinct calls of the batch.
+   */
+  public @NonNegative int getDistinctCallCount() {
+    return _distinctCalls.size();
+  }
+
+  /**
+   * @return The fraction of the calls of the batch that are not executed, from 0 for a batch of
+   * distinct calls to almost 1 for a batch of the same call, 0 for an empty batch.
+   */
+  public double getDedupeRatio() {
+    return _assignments.length == 0 ? 0d
+        : 1d - (double) _distinctCalls.size() / _assignments.length;
+  }
+}
@@ -27,26 +27,48 @@ import java.util.Collections;
 import java.util.List;
 import org.checkerframework.checker.index.qual.NonNegative;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 public class ProcessorCall {
 
   @NonNull
-  private final List<@NonNull Object> _configurationParameters;
+  private final Parameters _configurationParameters;
 
   @NonNull
-  private final List<@NonNull Object> _executionParameters;
+  private final Parameters _executionParameters;
 
   @NonNull
   private final String[] _identifier;
 
+  /**
+   * Index of the first segment of the identifier of this call in the shared identifier array.
+   */
+  @NonNegative
+  private final int _offset;
+
   public ProcessorCall(
       @NonNull final String identifier,
       @NonNull final List<@NonNull Object> configurationParameters,
       @NonNull final List<@NonNull Object> executionParameters
   ) {
     _identifier = identifier.split("\\.");
-    _configurationParameters = configurationParameters;
-    _executionParameters = executionParameters;
+    _offset = 0;
+    _configurationParameters = new Parameters(configurationParameters);
+    _executionParameters = new Parameters(executionParameters);
+  }
+
+  /**
+   * A call that shares the given parameter vectors instead of copying them.
+   */
+  public ProcessorCall(
+      @NonNull final String identifier,
+      @NonNull final ProcessorParameters configurationParameters,
+      @NonNull final ProcessorParameters executionParameters
+  ) {
+    _identifier = identifier.split("\\.");
+    _offset = 0;
+    _configurationParameters = new Parameters(configurationParameters);
+    _executionParameters = new Parameters(executionParameters);
   }
 
   public ProcessorCall(
@@ -55,44 +77,178 @@ public class ProcessorCall {
       @NonNull final List<@NonNull Object> executionParameters
   ) {
     _identifier = Arrays.copyOf(identifier, identifier.length);
-    _configurationParameters = configurationParameters;
-    _executionParameters = executionParameters;
+    _offset = 0;
+    _configurationParameters = new Parameters(configurationParameters);
+    _executionParameters = new Parameters(executionParameters);
   }
 
   public ProcessorCall(
       @NonNull final String[] identifier, @NonNull final ProcessorCall toCopy
   ) {
     _identifier = Arrays.copyOf(identifier, identifier.length);
-    _configurationParameters = toCopy.getConfigurationParameters();
-    _executionParameters = toCopy.getExecutionParameters();
+    _offset = 0;
+    _configurationParameters = toCopy._configurationParameters;
+    _executionParameters = toCopy._executionParameters;
+  }
+
+  /**
+   * A view of a call that shares its identifier array and its parameters.
+   */
+  private ProcessorCall(@NonNull final ProcessorCall toView, @NonNegative final int offset) {
+    _identifier = toView._identifier;
+    _offset = offset;
+    _configurationParameters = toView._configurationParameters;
+    _executionParameters = toView._executionParameters;
   }
 
   public <Result> @NonNull Result call(@NonNull final Processor<Result> processor) {
-    processor.configure(_configurationParameters);
-    return processor.execute(_executionParameters);
+    configure(processor);
+    return execute(processor);
+  }
+
+  /**
+   * Configure a processor with the configuration parameters of this call, passed as a vector to
+   * typed processors.
+   *
+   * @param processor A processor to configure.
+   */
+  public void configure(@NonNull final Processor<?> processor) {
+    if (processor instanceof TypedProcessor) {
+      ((TypedProcessor<?>) processor).configure(getTypedConfigurationParameters());
+    } else {
+      processor.configure(_configurationParameters.values);
+    }
+  }
+
+  /**
+   * Execute a configured processor with the execution parameters of this call, passed as a vector
+   * to typed processors.
+   *
+   * @param processor A configured processor.
+   * @param <Result> Type of the result of the processor.
+   * @return The result of the processor.
+   */
+  public <Result> @NonNull Result execute(@NonNull final Processor<Result> processor) {
+    if (processor instanceof TypedProcessor) {
+      return ((TypedProcessor<Result>) processor).execute(getTypedExecutionParameters());
+    }
+
+    return processor.execute(_executionParameters.values);
   }
 
   public @NonNull String[] getIdentifier() {
-    return Arrays.copyOf(_identifier, _identifier.length);
+    return Arrays.copyOfRange(_identifier, _offset, _identifier.length);
   }
 
   public @NonNull String getFullIdentifier() {
-    return String.join(".", _identifier);
+    if (getIdentifierLength() == 1) {
+      return _identifier[_offset];
+    }
+
+    return String.join(".", getIdentifier());
   }
 
   public @NonNull String getIdentifier(@NonNegative final int index) {
-    return _identifier[index];
+    if (index >= getIdentifierLength()) {
+      throw new ArrayIndexOutOfBoundsException(index);
+    }
+
+    return _identifier[_offset + index];
+  }
+
+  /**
+   * @return The number of segments of the identifier of this call.
+   */
+  public @NonNegative int getIdentifierLength() {
+    return _identifier.length - _offset;
   }
 
+  /**
+   * @return This call without the first segment of its identifier, that shares the identifier of
+   * this call instead of copying it.
+   */
   public @NonNull ProcessorCall next() {
-    return new ProcessorCall(Arrays.copyOfRange(_identifier, 1, _identifier.length), this);
+    return next(1);
+  }
+
+  /**
+   * @param segments Number of segments to skip, at most the length of the identifier.
+   * @return This call without the first segments of its identifier, that shares the identifier of
+   * this call instead of copying it.
+   */
+  public @NonNull ProcessorCall next(@NonNegative final int segments) {
+    if (segments == 0) {
+      return this;
+    }
+
+    if (segments < 0 || segments > getIdentifierLength()) {
+      throw new IllegalArgumentException(
+          "Unable to skip " + segments + " segments of an identifier of " +
+              getIdentifierLength() + " segments."
+      );
+    }
+
+    return new ProcessorCall(this, _offset + segments);
   }
 
   public @NonNull List<@NonNull Object> getConfigurationParameters() {
-    return Collections.unmodifiableList(_configurationParameters);
+    return Collections.unmodifiableList(_configurationParameters.values);
   }
 
   public @NonNull List<@NonNull Object> getExecutionParameters() {
-    return Collections.unmodifiableList(_executionParameters);
+    return Collections.unmodifiableList(_executionParameters.values);
+  }
+
+  /**
+   * @return The configuration parameters of this call as a vector, shared with this call if it
+   * was created from vectors and converted once otherwise.
+   */
+  public @NonNull ProcessorParameters getTypedConfigurationParameters() {
+    return _configurationParameters.getTyped();
+  }
+
+  /**
+   * @return The execution parameters of this call as a vector, shared with this call if it was
+   * created from vectors and converted once otherwise.
+   */
+  public @NonNull ProcessorParameters getTypedExecutionParameters() {
+    return _executionParameters.getTyped();
+  }
+
+  /**
+   * Parameters of a call, shared by the call, its copies and its views so that they are converted
+   * into a vector at most once.
+   */
+  private static final class Parameters {
+
+    @NonNull
+    final List<@NonNull Object> values;
+
+    /**
+     * Vector of the values, converted on first use as the values may not be convertible. Vectors
+     * are immutable, so a racy conversion only wastes a copy.
+     */
+    @Nullable
+    private volatile ProcessorParameters _typed;
+
+    Parameters(@NonNull final List<@NonNull Object> values) {
+      this.values = values;
+    }
+
+    Parameters(@NonNull final ProcessorParameters typed) {
+      values = typed.asList();
+      _typed = typed;
+    }
+
+    @NonNull ProcessorParameters getTyped() {
+      @Nullable ProcessorParameters result = _typed;
+
+      if (result == null) {
+        result = ProcessorParameters.of(values);
+        _typed = result;
+      }
+
+      return result;
+    }
   }
 }
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.processor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * An immutable key of a call, made of its full identifier and of a copy of its parameters, that is
+ * equal to the key of any call of the same identifier with equal parameters.
+ */
+public final class ProcessorCallKey {
+
+  @NonNull
+  private final String _identifier;
+
+  @NonNull
+  private final List<@NonNull Object> _configurationParameters;
+
+  @NonNull
+  private final List<@NonNull Object> _executionParameters;
+
+  private final int _hashCode;
+
+  private ProcessorCallKey(
+      @NonNull final String identifier,
+      @NonNull final List<@NonNull Object> configurationParameters,
+      @NonNull final List<@NonNull Object> executionParameters
+  ) {
+    _identifier = identifier;
+    _configurationParameters = configurationParameters;
+    _executionParameters = executionParameters;
+    _hashCode = 31 * (31 * identifier.hashCode() + configurationParameters.hashCode()) +
+        executionParameters.hashCode();
+  }
+
+  /**
+   * @param call A call.
+   * @return The key of the given call.
+   */
+  public static @NonNull ProcessorCallKey of(@NonNull final ProcessorCall call) {
+    return new ProcessorCallKey(
+        call.getFullIdentifier(),
+        Collections.unmodifiableList(new ArrayList<>(call.getConfigurationParameters())),
+        Collections.unmodifiableList(new ArrayList<>(call.getExecutionParameters()))
+    );
+  }
+
+  /**
+   * @return The full identifier of the call.
+   */
+  public @NonNull String getIdentifier() {
+    return _identifier;
+  }
+
+  /**
+   * @return The configuration parameters of the call.
+   */
+  public @NonNull List<@NonNull Object> getConfigurationParameters() {
+    return _configurationParameters;
+  }
+
+  /**
+   * @return The execution parameters of the call.
+   */
+  public @NonNull List<@NonNull Object> getExecutionParameters() {
+    return _executionParameters;
+  }
+
+  /**
+   * @see Object#equals(Object)
+   */
+  @Override
+  public boolean equals(@Nullable final Object other) {
+    if (other == this) {
+      return true;
+    }
+
+    if (!(other instanceof ProcessorCallKey)) {
+      return false;
+    }
+
+    @NonNull final ProcessorCallKey key = (ProcessorCallKey) other;
+
+    return _hashCode == key._hashCode &&
+        _identifier.equals(key._identifier) &&
+        _configurationParameters.equals(key._configurationParameters) &&
+        _executionParameters.equals(key._executionParameters);
+  }
+
+  /**
+   * @see Object#hashCode()
+   */
+  @Override
+  public int hashCode() {
+    return _hashCode;
+  }
+
+  /**
+   * @see Object#toString()
+   */
+  @Override
+  public @NonNull String toString() {
+    return _identifier + ":" + _configurationParameters + _executionParameters;
+  }
+}
@@ -25,12 +25,15 @@ package org.liara.selection.processor;
 import com.google.common.collect.Iterators;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import org.checkerframework.checker.index.qual.NonNegative;
 import org.checkerframework.checker.nullness.qual.NonNull;
 
 @FunctionalInterface
@@ -39,7 +42,7 @@ public interface ProcessorExecutor<Result> {
   static <Result> @NonNull ProcessorExecutor<Result> execute(
       @NonNull final Processor<Result> processor
   ) {
-    return (@NonNull final ProcessorCall call) -> Optional.of(call.call(processor));
+    return new DirectExecutor<>(processor);
   }
 
   static <Result> @NonNull ProcessorExecutor<Result> executeIf(
@@ -61,31 +64,30 @@ public interface ProcessorExecutor<Result> {
     return (@NonNull final ProcessorCall call) -> supplier.get().execute(call);
   }
 
+  /**
+   * @param factory Factory of unconfigured processors.
+   * @param maximumIdle Maximum number of idle processors kept for each identifier, at least 1.
+   * @param <Result> Type of the results of the processors.
+   * @return An executor that reuses the processors it configured for equal configurations.
+   * @see PoolingProcessorExecutor
+   */
+  static <Result> @NonNull ProcessorExecutor<Result> pool(
+      @NonNull final Supplier<@NonNull Processor<Result>> factory,
+      @NonNegative final int maximumIdle
+  ) {
+    return new PoolingProcessorExecutor<>(factory, maximumIdle);
+  }
+
   static <Result> @NonNull ProcessorExecutor<Result> field(
       @NonNull final String field, @NonNull final ProcessorExecutor<Result> processor
   ) {
-    return (@NonNull final ProcessorCall call) -> {
-      if (field.equals(call.getIdentifier(0))) {
-        return processor.execute(call.next());
-      }
-
-      return Optional.empty();
-    };
+    return new FieldsExecutor<>(Collections.singletonMap(field, processor));
   }
 
   static <Result> @NonNull ProcessorExecutor<Result> fields(
       @NonNull final Map<@NonNull String, @NonNull ProcessorExecutor<Result>> bindings
   ) {
-    @NonNull final Map<@NonNull String, @NonNull ProcessorExecutor<Result>> copy = new HashMap<>(
-        bindings);
-
-    return (@NonNull final ProcessorCall call) -> {
-      if (copy.containsKey(call.getIdentifier(0))) {
-        return copy.get(call.getIdentifier(0)).execute(call.next());
-      }
-
-      return Optional.empty();
-    };
+    return new FieldsExecutor<>(new HashMap<>(bindings));
   }
 
   static <Result> @NonNull ProcessorExecutor<Result> all(
@@ -97,19 +99,7 @@ public interface ProcessorExecutor<Result> {
   static <Result> @NonNull ProcessorExecutor<Result> all(
       @NonNull final List<@NonNull ProcessorExecutor<Result>> processors
   ) {
-    @NonNull final List<@NonNull ProcessorExecutor<Result>> copy = new ArrayList<>(processors);
-
-    return (@NonNull final ProcessorCall call) -> {
-      for (@NonNull final ProcessorExecutor<Result> executor : copy) {
-        @NonNull final Optional<Result> result = executor.execute(call);
-
-        if (result.isPresent()) {
-          return result;
-        }
-      }
-
-      return Optional.empty();
-    };
+    return new FirstPresentExecutor<>(new ArrayList<>(processors));
   }
 
   static <Result> @NonNull ProcessorExecutor<Result> all(
@@ -120,17 +110,22 @@ public interface ProcessorExecutor<Result> {
     );
     processors.iterator().forEachRemaining(copy::add);
 
-    return (@NonNull final ProcessorCall call) -> {
-      for (@NonNull final ProcessorExecutor<Result> executor : copy) {
-        @NonNull final Optional<Result> result = executor.execute(call);
-
-        if (result.isPresent()) {
-          return result;
-        }
-      }
+    return new FirstPresentExecutor<>(copy);
+  }
 
-      return Optional.empty();
-    };
+  /**
+   * Compile an executor graph made of execute, field, fields and all executors into a prefix trie
+   * over the segments of identifiers, that dispatches calls without copying them.
+   *
+   * @param executor An executor graph, that is not modified afterwards.
+   * @param <Result> Type of the results of the executors.
+   * @return An executor that returns the same results as the given one.
+   * @see ProcessorTrie
+   */
+  static <Result> @NonNull ProcessorExecutor<Result> compile(
+      @NonNull final ProcessorExecutor<Result> executor
+  ) {
+    return ProcessorTrie.compile(executor);
   }
 
   default <Next> @NonNull ProcessorExecutor<Next> mapNonNull(
@@ -166,5 +161,44 @@ public interface ProcessorExecutor<Result> {
     return results;
   }
 
+  /**
+   * @return An executor that executes each distinct call of a batch once.
+   * @see DeduplicatingProcessorExecutor
+   */
+  default @NonNull DeduplicatingProcessorExecutor<Result> deduplicate() {
+    return new DeduplicatingProcessorExecutor<>(this);
+  }
+
+  /**
+   * @return An executor that records the metrics of the calls of each identifier.
+   * @see InstrumentingProcessorExecutor
+   */
+  default @NonNull InstrumentingProcessorExecutor<Result> instrument() {
+    return new InstrumentingProcessorExecutor<>(this);
+  }
+
+  /**
+   * @param workers Executor of the workers of each batch, as a fork-join pool or an executor of
+   * virtual threads.
+   * @param parallelism Maximum number of calls of a batch executed at the same time, at least 1.
+   * @return An executor of batches of calls that runs them concurrently with this executor.
+   * @see ParallelProcessorExecutor
+   */
+  default @NonNull ParallelProcessorExecutor<Result> parallel(
+      @NonNull final Executor workers,
+      @NonNegative final int parallelism
+  ) {
+    return new ParallelProcessorExecutor<>(this, workers, parallelism);
+  }
+
+  /**
+   * @param workers Executor of the blocking calls of this executor.
+   * @return An asynchronous executor that runs this one on the given executor.
+   * @see AsyncProcessorExecutor#from(ProcessorExecutor, Executor)
+   */
+  default @NonNull AsyncProcessorExecutor<Result> toAsynchronous(@NonNull final Executor workers) {
+    return AsyncProcessorExecutor.from(this, workers);
+  }
+
   @NonNull Optional<Result> execute(@NonNull final ProcessorCall call);
 }
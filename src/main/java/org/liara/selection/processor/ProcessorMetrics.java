@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.processor;
+
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * An immutable snapshot of the metrics of the calls of an identifier, as recorded by an
+ * instrumenting executor.
+ */
+public final class ProcessorMetrics {
+
+  @NonNull
+  private final String _identifier;
+
+  @NonNegative
+  private final long _callCount;
+
+  @NonNegative
+  private final long _errorCount;
+
+  @NonNegative
+  private final long _overrunCount;
+
+  @NonNull
+  private final LatencySnapshot _latency;
+
+  ProcessorMetrics(
+      @NonNull final String identifier,
+      @NonNegative final long callCount,
+      @NonNegative final long errorCount,
+      @NonNegative final long overrunCount,
+      @NonNull final LatencySnapshot latency
+  ) {
+    _identifier = identifier;
+    _callCount = callCount;
+    _errorCount = errorCount;
+    _overrunCount = overrunCount;
+    _latency = latency;
+  }
+
+  /**
+   * @return The full identifier of the calls, relative to the instrumenting executor.
+   */
+  public @NonNull String getIdentifier() {
+    return _identifier;
+  }
+
+  /**
+   * @return The number of calls, including failed and overrunning calls.
+   */
+  public @NonNegative long getCallCount() {
+    return _callCount;
+  }
+
+  /**
+   * @return The number of calls that failed, excluding overrunning calls.
+   */
+  public @NonNegative long getErrorCount() {
+    return _errorCount;
+  }
+
+  /**
+   * @return The number of calls abandoned because they exceeded their time budget.
+   */
+  public @NonNegative long getOverrunCount() {
+    return _overrunCount;
+  }
+
+  /**
+   * @return The latencies of the calls as observed by their callers, in nanoseconds.
+   */
+  public @NonNull LatencySnapshot getLatency() {
+    return _latency;
+  }
+
+  /**
+   * @see Object#toString()
+   */
+  @Override
+  public @NonNull String toString() {
+    return "ProcessorMetrics{identifier=" + _identifier + ", calls=" + _callCount + ", errors=" +
+        _errorCount + ", overruns=" + _overrunCount + ", latency=" + _latency + "}";
+  }
+}
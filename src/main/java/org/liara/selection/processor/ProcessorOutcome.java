@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.processor;
+
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * The outcome of a call executed in a batch : a result, no result, or the failure of the call.
+ *
+ * @param <Result> Type of the result of the call.
+ */
+public final class ProcessorOutcome<Result> {
+
+  @NonNull
+  private final ProcessorCall _call;
+
+  @NonNull
+  private final Optional<Result> _result;
+
+  @Nullable
+  private final Throwable _failure;
+
+  private ProcessorOutcome(
+      @NonNull final ProcessorCall call,
+      @NonNull final Optional<Result> result,
+      @Nullable final Throwable failure
+  ) {
+    _call = call;
+    _result = result;
+    _failure = failure;
+  }
+
+  /**
+   * @param call An executed call.
+   * @param result The result returned by the executor, if any.
+   * @param <Result> Type of the result of the call.
+   * @return The outcome of a call that succeeded.
+   */
+  public static <Result> @NonNull ProcessorOutcome<Result> success(
+      @NonNull final ProcessorCall call,
+      @NonNull final Optional<Result> result
+  ) {
+    return new ProcessorOutcome<>(call, result, null);
+  }
+
+  /**
+   * @param call An executed call.
+   * @param failure The exception thrown by the executor.
+   * @param <Result> Type of the result of the call.
+   * @return The outcome of a call that failed.
+   */
+  public static <Result> @NonNull ProcessorOutcome<Result> failure(
+      @NonNull final ProcessorCall call,
+      @NonNull final Throwable failure
+  ) {
+    return new ProcessorOutcome<>(call, Optional.empty(), failure);
+  }
+
+  /**
+   * @return The executed call.
+   */
+  public @NonNull ProcessorCall getCall() {
+    return _call;
+  }
+
+  /**
+   * @return The result of the call, if any.
+   * @throws CompletionException If the call failed, caused by its failure.
+   */
+  public @NonNull Optional<Result> getResult() {
+    if (_failure != null) {
+      throw new CompletionException(
+          "The call of " + _call.getFullIdentifier() + " failed.", _failure
+      );
+    }
+
+    return _result;
+  }
+
+  /**
+   * @return The exception thrown by the call, null if the call succeeded.
+   */
+  public @Nullable Throwable getFailure() {
+    return _failure;
+  }
+
+  /**
+   * @return True if the call failed.
+   */
+  public boolean isFailure() {
+    return _failure != null;
+  }
+
+  /**
+   * @return True if the call succeeded with a result.
+   */
+  public boolean isPresent() {
+    return _result.isPresent();
+  }
+
+  /**
+   * @see Object#toString()
+   */
+  @Override
+  public @NonNull String toString() {
+    return _call.getFullIdentifier() + " : " + (_failure != null ? "failed with " + _failure
+        : _result.map(String::valueOf).orElse("no result"));
+  }
+}
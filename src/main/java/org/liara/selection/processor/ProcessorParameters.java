@@ -0,0 +1,271 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.processor;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * An immutable vector of parameters of a call, that stores integers and doubles in primitive arrays
+ * and strings and constants in a side array, so that processors can read numeric parameters
+ * without unboxing them.
+ *
+ * The parameters are also exposed as a list of boxed values, equal to the list of parameters
+ * returned by a parser : Long for integers, Double for doubles and String for strings and for
+ * constants.
+ */
+public final class ProcessorParameters {
+
+  /**
+   * An integer parameter.
+   */
+  public static final int LONG = 0;
+
+  /**
+   * A double parameter.
+   */
+  public static final int DOUBLE = 1;
+
+  /**
+   * A string parameter.
+   */
+  public static final int STRING = 2;
+
+  /**
+   * A constant parameter, that is a name in lower case.
+   */
+  public static final int CONSTANT = 3;
+
+  @NonNull
+  public static final ProcessorParameters EMPTY = new ProcessorParameters(
+      new int[0], new long[0], new double[0], new String[0]
+  );
+
+  @NonNull
+  private final int[] _types;
+
+  @NonNull
+  private final long[] _longs;
+
+  @NonNull
+  private final double[] _doubles;
+
+  @NonNull
+  private final @Nullable String[] _strings;
+
+  @NonNull
+  private final List<@NonNull Object> _list;
+
+  /**
+   * Parameters that take ownership of the given arrays, of the same length, each parameter being
+   * stored in the array of its type at its index.
+   */
+  ProcessorParameters(
+      @NonNull final int[] types,
+      @NonNull final long[] longs,
+      @NonNull final double[] doubles,
+      @NonNull final @Nullable String[] strings
+  ) {
+    _types = types;
+    _longs = longs;
+    _doubles = doubles;
+    _strings = strings;
+    _list = new ListView();
+  }
+
+  /**
+   * @param parameters Parameters as returned by a parser, made of integers, doubles and strings.
+   * @return A vector of the given parameters, strings being stored as strings.
+   */
+  public static @NonNull ProcessorParameters of(@NonNull final List<@NonNull Object> parameters) {
+    if (parameters instanceof ListView) {
+      return ((ListView) parameters).getParameters();
+    }
+
+    if (parameters.isEmpty()) {
+      return EMPTY;
+    }
+
+    @NonNull final ProcessorParametersBuilder builder = new ProcessorParametersBuilder();
+
+    for (@NonNull final Object parameter : parameters) {
+      builder.add(parameter);
+    }
+
+    return builder.build();
+  }
+
+  /**
+   * @return The number of parameters.
+   */
+  public @NonNegative int size() {
+    return _types.length;
+  }
+
+  /**
+   * @param index Index of a parameter.
+   * @return LONG, DOUBLE, STRING or CONSTANT.
+   */
+  public @NonNegative int getType(@NonNegative final int index) {
+    return _types[index];
+  }
+
+  /**
+   * @param index Index of a parameter.
+   * @return True if the parameter is an integer or a double.
+   */
+  public boolean isNumber(@NonNegative final int index) {
+    return _types[index] <= DOUBLE;
+  }
+
+  /**
+   * @param index Index of an integer parameter.
+   * @return The value of the parameter.
+   */
+  public long getLong(@NonNegative final int index) {
+    if (_types[index] != LONG) {
+      throw new IllegalArgumentException("The parameter " + index + " is not an integer.");
+    }
+
+    return _longs[index];
+  }
+
+  /**
+   * @param index Index of an integer or a double parameter.
+   * @return The value of the parameter, integers being converted to doubles.
+   */
+  public double getDouble(@NonNegative final int index) {
+    switch (_types[index]) {
+      case LONG:
+        return _longs[index];
+      case DOUBLE:
+        return _doubles[index];
+      default:
+        throw new IllegalArgumentException("The parameter " + index + " is not a number.");
+    }
+  }
+
+  /**
+   * @param index Index of a string or a constant parameter.
+   * @return The value of the parameter.
+   */
+  public @NonNull String getString(@NonNegative final int index) {
+    @Nullable final String result = _strings[index];
+
+    if (result == null) {
+      throw new IllegalArgumentException(
+          "The parameter " + index + " is not a string or a constant."
+      );
+    }
+
+    return result;
+  }
+
+  /**
+   * @param index Index of a parameter.
+   * @return The boxed value of the parameter.
+   */
+  public @NonNull Object get(@NonNegative final int index) {
+    switch (_types[index]) {
+      case LONG:
+        return _longs[index];
+      case DOUBLE:
+        return _doubles[index];
+      default:
+        return _strings[index];
+    }
+  }
+
+  /**
+   * @return An immutable view of the parameters as a list of boxed values, that boxes each value
+   * when it is read.
+   */
+  public @NonNull List<@NonNull Object> asList() {
+    return _list;
+  }
+
+  /**
+   * @see Object#equals(Object)
+   */
+  @Override
+  public boolean equals(@Nullable final Object other) {
+    if (other == this) {
+      return true;
+    }
+
+    if (!(other instanceof ProcessorParameters)) {
+      return false;
+    }
+
+    @NonNull final ProcessorParameters parameters = (ProcessorParameters) other;
+
+    return Arrays.equals(_types, parameters._types) &&
+        Arrays.equals(_longs, parameters._longs) &&
+        Arrays.equals(_doubles, parameters._doubles) &&
+        Arrays.equals(_strings, parameters._strings);
+  }
+
+  /**
+   * @see Object#hashCode()
+   */
+  @Override
+  public int hashCode() {
+    return 31 * (31 * (31 * Arrays.hashCode(_types) + Arrays.hashCode(_longs)) +
+        Arrays.hashCode(_doubles)) + Arrays.hashCode(_strings);
+  }
+
+  /**
+   * @see Object#toString()
+   */
+  @Override
+  public @NonNull String toString() {
+    return _list.toString();
+  }
+
+  /**
+   * The parameters as a list of boxed values.
+   */
+  private final class ListView
+      extends AbstractList<@NonNull Object>
+      implements RandomAccess {
+
+    @Override
+    public @NonNull Object get(@NonNegative final int index) {
+      return ProcessorParameters.this.get(index);
+    }
+
+    @Override
+    public @NonNegative int size() {
+      return _types.length;
+    }
+
+    @NonNull ProcessorParameters getParameters() {
+      return ProcessorParameters.this;
+    }
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.processor;
+
+import java.util.Arrays;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A builder of parameter vectors, that can be reused after each build.
+ */
+public final class ProcessorParametersBuilder {
+
+  @NonNull
+  private int[] _types;
+
+  @NonNull
+  private long[] _longs;
+
+  @NonNull
+  private double[] _doubles;
+
+  @NonNull
+  private @Nullable String[] _strings;
+
+  @NonNegative
+  private int _size;
+
+  public ProcessorParametersBuilder() {
+    _types = new int[4];
+    _longs = new long[4];
+    _doubles = new double[4];
+    _strings = new String[4];
+    _size = 0;
+  }
+
+  /**
+   * @param value An integer parameter to append.
+   * @return This builder for chaining purposes.
+   */
+  public @NonNull ProcessorParametersBuilder addLong(final long value) {
+    final int index = append(ProcessorParameters.LONG);
+    _longs[index] = value;
+    return this;
+  }
+
+  /**
+   * @param value A double parameter to append.
+   * @return This builder for chaining purposes.
+   */
+  public @NonNull ProcessorParametersBuilder addDouble(final double value) {
+    final int index = append(ProcessorParameters.DOUBLE);
+    _doubles[index] = value;
+    return this;
+  }
+
+  /**
+   * @param value A string parameter to append.
+   * @return This builder for chaining purposes.
+   */
+  public @NonNull ProcessorParametersBuilder addString(@NonNull final String value) {
+    final int index = append(ProcessorParameters.STRING);
+    _strings[index] = value;
+    return this;
+  }
+
+  /**
+   * @param value A constant parameter to append, in lower case.
+   * @return This builder for chaining purposes.
+   */
+  public @NonNull ProcessorParametersBuilder addConstant(@NonNull final String value) {
+    final int index = append(ProcessorParameters.CONSTANT);
+    _strings[index] = value;
+    return this;
+  }
+
+  /**
+   * @param value A boxed integer, double or string parameter to append.
+   * @return This builder for chaining purposes.
+   */
+  public @NonNull ProcessorParametersBuilder add(@NonNull final Object value) {
+    if (value instanceof Long || value instanceof Integer || value instanceof Short ||
+        value instanceof Byte) {
+      return addLong(((Number) value).longValue());
+    } else if (value instanceof Double || value instanceof Float) {
+      return addDouble(((Number) value).doubleValue());
+    } else if (value instanceof String) {
+      return addString((String) value);
+    }
+
+    throw new IllegalArgumentException(
+        "Unable to store the parameter " + value + " of type " + value.getClass().getName() +
+            ", only integers, doubles and strings are supported."
+    );
+  }
+
+  private @NonNegative int append(final int type) {
+    if (_size == _types.length) {
+      final int capacity = _size * 2;
+
+      _types = Arrays.copyOf(_types, capacity);
+      _longs = Arrays.copyOf(_longs, capacity);
+      _doubles = Arrays.copyOf(_doubles, capacity);
+      _strings = Arrays.copyOf(_strings, capacity);
+    }
+
+    _types[_size] = type;
+    return _size++;
+  }
+
+  /**
+   * @return The parameters appended since the last build.
+   */
+  public @NonNull ProcessorParameters build() {
+    if (_size == 0) {
+      return ProcessorParameters.EMPTY;
+    }
+
+    @NonNull final ProcessorParameters result = new ProcessorParameters(
+        Arrays.copyOf(_types, _size),
+        Arrays.copyOf(_longs, _size),
+        Arrays.copyOf(_doubles, _size),
+        Arrays.copyOf(_strings, _size)
+    );
+
+    clear();
+
+    return result;
+  }
+
+  /**
+   * Forget the parameters appended since the last build.
+   *
+   * @return This builder for chaining purposes.
+   */
+  public @NonNull ProcessorParametersBuilder clear() {
+    Arrays.fill(_longs, 0, _size, 0L);
+    Arrays.fill(_doubles, 0, _size, 0d);
+    Arrays.fill(_strings, 0, _size, null);
+    _size = 0;
+    return this;
+  }
+}
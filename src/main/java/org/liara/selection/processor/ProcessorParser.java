@@ -26,6 +26,8 @@ import java.util.ArrayList;
 import java.util.List;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
 import org.antlr.v4.runtime.tree.ParseTreeWalker;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
@@ -41,8 +43,12 @@ public class ProcessorParser
   @NonNull
   private final List<ProcessorCall> _result;
 
+  @NonNull
+  private final ProcessorParametersBuilder _parameters;
+
   public ProcessorParser() {
     _result = new ArrayList<>();
+    _parameters = new ProcessorParametersBuilder();
   }
 
   @Override
@@ -52,43 +58,83 @@ public class ProcessorParser
 
   @Override
   public void exitProcessor(final ProcessorsParser.@NonNull ProcessorContext context) {
-    @NonNull final List<Object> configurationParameters = parseParameters(
+    @NonNull final ProcessorParameters configurationParameters = parseParameters(
         context.configurationParameters);
-    @NonNull final List<Object> executionParameters = parseParameters(context.executionParameters);
+    @NonNull final ProcessorParameters executionParameters = parseParameters(
+        context.executionParameters);
 
     _result.add(new ProcessorCall(context.identifier().getText(), configurationParameters,
         executionParameters));
   }
 
-  private @NonNull List<@NonNull Object> parseParameters(
+  private @NonNull ProcessorParameters parseParameters(
       final ProcessorsParser.@Nullable ParametersContext configurationParameters
   ) {
+    // Drop the parameters left by a parse that failed before building its vector.
+    _parameters.clear();
+
     if (configurationParameters == null) {
-      return new ArrayList<>(0);
+      return ProcessorParameters.EMPTY;
     }
 
-    @NonNull final List<ProcessorsParser.@NonNull ParameterContext> contexts = configurationParameters
-        .parameter();
-    @NonNull final List<@NonNull Object> parameters = new ArrayList<>(contexts.size());
-
-    for (final ProcessorsParser.@NonNull ParameterContext context : contexts) {
-      parameters.add(parseParameter(context));
+    for (
+        final ProcessorsParser.@NonNull ParameterContext context :
+        configurationParameters.parameter()
+    ) {
+      parseParameter(context);
     }
 
-    return parameters;
+    return _parameters.build();
   }
 
-  private @NonNull Object parseParameter(final ProcessorsParser.@NonNull ParameterContext context) {
+  private void parseParameter(final ProcessorsParser.@NonNull ParameterContext context) {
     if (context.integerParameter() != null) {
-      return Long.parseLong(context.integerParameter().getText());
+      _parameters.addLong(parseLong(context.integerParameter()));
     } else if (context.doubleParameter() != null) {
-      return Double.parseDouble(context.doubleParameter().getText());
+      _parameters.addDouble(parseDouble(context.doubleParameter()));
     } else if (context.stringParameter() != null) {
       @NonNull final String result = context.stringParameter().getText();
-      return result.substring(1, result.length() - 1);
+      _parameters.addString(result.substring(1, result.length() - 1));
     } else {
-      return context.constantParameter().getText().toLowerCase();
+      _parameters.addConstant(context.constantParameter().getText().toLowerCase());
+    }
+  }
+
+  private static long parseLong(@NonNull final ParserRuleContext context) {
+    try {
+      return Long.parseLong(context.getText());
+    } catch (@NonNull final NumberFormatException exception) {
+      @NonNull final Token token = context.getStart();
+
+      throw new CompilationException(
+          token.getLine(), token.getCharPositionInLine(), invalidNumber(context), exception
+      );
+    }
+  }
+
+  private static double parseDouble(@NonNull final ParserRuleContext context) {
+    @NonNull final Token token = context.getStart();
+    final double result;
+
+    try {
+      result = Double.parseDouble(context.getText());
+    } catch (@NonNull final NumberFormatException exception) {
+      throw new CompilationException(
+          token.getLine(), token.getCharPositionInLine(), invalidNumber(context), exception
+      );
+    }
+
+    if (Double.isInfinite(result)) {
+      throw new CompilationException(
+          token.getLine(), token.getCharPositionInLine(), invalidNumber(context)
+      );
     }
+
+    return result;
+  }
+
+  private static @NonNull String invalidNumber(@NonNull final ParserRuleContext context) {
+    return "Invalid or out of range number : \"" + context.getText() + "\"";
   }
 
   public @NonNull ProcessorCall[] transpile(@NonNull final CharSequence expression) {
@@ -96,6 +142,14 @@ public class ProcessorParser
         CharStreams.fromString(expression.toString()));
     @NonNull final ProcessorsParser parser = new ProcessorsParser(new CommonTokenStream(lexer));
 
+    return transpile(parser);
+  }
+
+  /**
+   * @param parser A parser ready to read an expression.
+   * @return The calls of the expression read by the given parser.
+   */
+  @NonNull ProcessorCall[] transpile(@NonNull final ProcessorsParser parser) {
     ParseTreeWalker.DEFAULT.walk(this, parser.processors());
 
     return _result.toArray(new ProcessorCall[0]);
@@ -109,8 +163,6 @@ public class ProcessorParser
     @NonNull final ProcessorsParser parser = new ProcessorsParser(new CommonTokenStream(lexer));
     parser.addErrorListener(ThrowingErrorListener.INSTANCE);
 
-    ParseTreeWalker.DEFAULT.walk(this, parser.processors());
-
-    return _result.toArray(new ProcessorCall[0]);
+    return transpile(parser);
   }
 }
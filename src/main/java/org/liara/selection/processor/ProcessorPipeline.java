@@ -0,0 +1,312 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.processor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.function.Consumer;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A chain of stream processors resolved from a sequence of calls, as parsed from an expression
+ * like smooth(5);resample(60);mean, each processor consuming the chunks produced by the previous
+ * one.
+ *
+ * Stages are wired as Flow processors with bounded buffers and backpressure, so that the memory
+ * used by a pipeline depends on its chunk size and buffer capacity but not on the length of the
+ * series it transforms. A pipeline transforms one series : it can be subscribed to a publisher of
+ * chunks once, or run over an iterator once.
+ *
+ * Each stage delivers its chunks with a task of the given executor that blocks while the next
+ * stage is busy, the executor must then be able to run a task for each stage at the same time,
+ * as a cached thread pool, a fork-join pool or an executor of virtual threads.
+ *
+ * @param <Input> Type of the values of the input series.
+ * @param <Output> Type of the values of the output series.
+ */
+public final class ProcessorPipeline<Input, Output>
+    implements Flow.Processor<@NonNull List<@NonNull Input>, @NonNull List<@NonNull Output>> {
+
+  @NonNull
+  private final List<@NonNull StreamProcessorStage<Object, Object>> _stages;
+
+  @NonNull
+  private final Executor _executor;
+
+  @NonNegative
+  private final int _bufferCapacity;
+
+  @NonNegative
+  private final int _chunkSize;
+
+  private ProcessorPipeline(
+      @NonNull final List<@NonNull StreamProcessorStage<Object, Object>> stages,
+      @NonNull final Executor executor,
+      @NonNegative final int bufferCapacity,
+      @NonNegative final int chunkSize
+  ) {
+    _stages = stages;
+    _executor = executor;
+    _bufferCapacity = bufferCapacity;
+    _chunkSize = chunkSize;
+  }
+
+  /**
+   * Resolve and wire the stream processors of a sequence of calls.
+   *
+   * @param calls Calls of the processors, in order of application, as returned by a parser.
+   * @param processors Executor that returns a new stream processor for each call, configured with
+   * the parameters of the call, as a fields executor of processors that create stream processors.
+   * @param executor Executor of the stages.
+   * @param bufferCapacity Maximum number of chunks buffered between two stages.
+   * @param chunkSize Maximum number of values of each chunk produced by a stage.
+   * @param <Input> Type of the values of the input series.
+   * @param <Output> Type of the values of the output series.
+   * @return A pipeline of the given calls.
+   * @throws IllegalArgumentException If no stream processor is bound to a call.
+   */
+  @SuppressWarnings("unchecked")
+  public static <Input, Output> @NonNull ProcessorPipeline<Input, Output> of(
+      @NonNull final ProcessorCall[] calls,
+      @NonNull final ProcessorExecutor<? extends StreamProcessor<?, ?>> processors,
+      @NonNull final Executor executor,
+      @NonNegative final int bufferCapacity,
+      @NonNegative final int chunkSize
+  ) {
+    if (calls.length == 0) {
+      throw new IllegalArgumentException("Unable to create a pipeline without any call.");
+    }
+
+    @NonNull final List<@NonNull StreamProcessorStage<Object, Object>> stages = new ArrayList<>(
+        calls.length
+    );
+
+    for (@NonNull final ProcessorCall call : calls) {
+      @NonNull final Optional<? extends StreamProcessor<?, ?>> processor = processors.execute(
+          call
+      );
+
+      if (!processor.isPresent()) {
+        throw new IllegalArgumentException(
+            "No stream processor is bound to " + call.getFullIdentifier() + "."
+        );
+      }
+
+      stages.add(new StreamProcessorStage<>(
+          (StreamProcessor<Object, Object>) processor.get(), executor, bufferCapacity, chunkSize
+      ));
+    }
+
+    for (@NonNegative int index = 1; index < stages.size(); ++index) {
+      stages.get(index - 1).subscribe(stages.get(index));
+    }
+
+    return new ProcessorPipeline<>(
+        Collections.unmodifiableList(stages), executor, bufferCapacity, chunkSize
+    );
+  }
+
+  /**
+   * @see #of(ProcessorCall[], ProcessorExecutor, Executor, int, int)
+   */
+  public static <Input, Output> @NonNull ProcessorPipeline<Input, Output> of(
+      @NonNull final List<@NonNull ProcessorCall> calls,
+      @NonNull final ProcessorExecutor<? extends StreamProcessor<?, ?>> processors,
+      @NonNull final Executor executor,
+      @NonNegative final int bufferCapacity,
+      @NonNegative final int chunkSize
+  ) {
+    return of(
+        calls.toArray(new ProcessorCall[0]), processors, executor, bufferCapacity, chunkSize
+    );
+  }
+
+  /**
+   * Transform a series, reading the series while the first stage has room for its chunks.
+   *
+   * @param series Values of the series to transform.
+   * @param output Receiver of the values of the transformed series, called by one thread at a
+   * time in order of value.
+   * @return A future completed once the last value was received, or completed with the first
+   * failure of a stage.
+   */
+  public @NonNull CompletableFuture<Void> run(
+      @NonNull final Iterator<? extends @NonNull Input> series,
+      @NonNull final Consumer<? super @NonNull Output> output
+  ) {
+    @NonNull final Sink<Output> sink = new Sink<>(output);
+    subscribe(sink);
+
+    @NonNull final SubmissionPublisher<@NonNull List<@NonNull Input>> source = (
+        new SubmissionPublisher<>(_executor, _bufferCapacity)
+    );
+    source.subscribe(this);
+
+    try {
+      while (series.hasNext() && !sink.result.isDone()) {
+        @NonNull final List<@NonNull Input> chunk = new ArrayList<>(_chunkSize);
+
+        while (chunk.size() < _chunkSize && series.hasNext()) {
+          chunk.add(series.next());
+        }
+
+        source.submit(chunk);
+      }
+    } catch (@NonNull final RuntimeException exception) {
+      source.closeExceptionally(exception);
+      return sink.result;
+    }
+
+    source.close();
+
+    return sink.result;
+  }
+
+  /**
+   * @see #run(Iterator, Consumer)
+   */
+  public @NonNull CompletableFuture<Void> run(
+      @NonNull final Iterable<? extends @NonNull Input> series,
+      @NonNull final Consumer<? super @NonNull Output> output
+  ) {
+    return run(series.iterator(), output);
+  }
+
+  /**
+   * @see Flow.Publisher#subscribe(Flow.Subscriber)
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public void subscribe(
+      final Flow.@NonNull Subscriber<? super @NonNull List<@NonNull Output>> subscriber
+  ) {
+    _stages.get(_stages.size() - 1).subscribe(
+        (Flow.Subscriber<? super @NonNull List<@NonNull Object>>) subscriber
+    );
+  }
+
+  /**
+   * @see Flow.Subscriber#onSubscribe(Flow.Subscription)
+   */
+  @Override
+  public void onSubscribe(final Flow.@NonNull Subscription subscription) {
+    _stages.get(0).onSubscribe(subscription);
+  }
+
+  /**
+   * @see Flow.Subscriber#onNext(Object)
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public void onNext(@NonNull final List<@NonNull Input> chunk) {
+    _stages.get(0).onNext((List<@NonNull Object>) chunk);
+  }
+
+  /**
+   * @see Flow.Subscriber#onError(Throwable)
+   */
+  @Override
+  public void onError(@NonNull final Throwable throwable) {
+    _stages.get(0).onError(throwable);
+  }
+
+  /**
+   * @see Flow.Subscriber#onComplete()
+   */
+  @Override
+  public void onComplete() {
+    _stages.get(0).onComplete();
+  }
+
+  /**
+   * @return The number of stages of this pipeline.
+   */
+  public @NonNegative int getStageCount() {
+    return _stages.size();
+  }
+
+  /**
+   * @return The maximum number of values of each chunk produced by a stage.
+   */
+  public @NonNegative int getChunkSize() {
+    return _chunkSize;
+  }
+
+  /**
+   * A subscriber that passes each value of the chunks it receives to a consumer.
+   */
+  private static final class Sink<Output>
+      implements Flow.Subscriber<@NonNull List<@NonNull Output>> {
+
+    @NonNull
+    final Consumer<? super @NonNull Output> output;
+
+    @NonNull
+    final CompletableFuture<Void> result;
+
+    private Flow.@MonotonicNonNull Subscription _subscription;
+
+    Sink(@NonNull final Consumer<? super @NonNull Output> output) {
+      this.output = output;
+      this.result = new CompletableFuture<>();
+    }
+
+    @Override
+    public void onSubscribe(final Flow.@NonNull Subscription subscription) {
+      _subscription = subscription;
+      result.whenComplete((value, failure) -> subscription.cancel());
+      subscription.request(1);
+    }
+
+    @Override
+    public void onNext(@NonNull final List<@NonNull Output> chunk) {
+      try {
+        chunk.forEach(output);
+      } catch (@NonNull final RuntimeException exception) {
+        result.completeExceptionally(exception);
+        return;
+      }
+
+      _subscription.request(1);
+    }
+
+    @Override
+    public void onError(@NonNull final Throwable throwable) {
+      result.completeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+      result.complete(null);
+    }
+  }
+}
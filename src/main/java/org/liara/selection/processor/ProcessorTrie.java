@@ -0,0 +1,255 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.processor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * An immutable executor compiled from an executor graph, as a prefix trie over the segments of
+ * identifiers.
+ *
+ * Each node of the trie holds the alternatives of an all executor, in order. Consecutive field and
+ * fields executors are merged into one table from segments to child nodes, so that dispatching a
+ * call costs one lookup per segment of its identifier instead of one try per binding. Calls are
+ * dispatched with a cursor over their identifier : processors bound by execute are called with
+ * the original call, and other executors are called with one view of the call that skips the
+ * segments read by the trie.
+ *
+ * Unlike a field executor, the trie ignores a call whose identifier has no segment left instead
+ * of failing.
+ *
+ * @param <Result> Type of the results of the compiled executors.
+ */
+public final class ProcessorTrie<Result>
+    implements ProcessorExecutor<Result> {
+
+  private static final int ROUTE = 0;
+
+  private static final int PROCESSOR = 1;
+
+  private static final int EXECUTOR = 2;
+
+  @NonNull
+  private final Node<Result> _root;
+
+  private ProcessorTrie(@NonNull final Node<Result> root) {
+    _root = root;
+  }
+
+  /**
+   * @param executor An executor graph, that is not modified afterwards.
+   * @param <Result> Type of the results of the executors.
+   * @return A trie that returns the same results as the given executor.
+   */
+  public static <Result> @NonNull ProcessorTrie<Result> compile(
+      @NonNull final ProcessorExecutor<Result> executor
+  ) {
+    if (executor instanceof ProcessorTrie) {
+      return (ProcessorTrie<Result>) executor;
+    }
+
+    return new ProcessorTrie<>(Node.of(alternatives(executor)));
+  }
+
+  private static <Result> @NonNull List<@NonNull Alternative<Result>> alternatives(
+      @NonNull final ProcessorExecutor<Result> executor
+  ) {
+    @NonNull final List<@NonNull Alternative<Result>> result = new ArrayList<>();
+
+    if (executor instanceof FirstPresentExecutor) {
+      for (
+          @NonNull final ProcessorExecutor<Result> alternative :
+          ((FirstPresentExecutor<Result>) executor).executors
+      ) {
+        result.addAll(alternatives(alternative));
+      }
+    } else if (executor instanceof FieldsExecutor) {
+      @NonNull final Map<@NonNull String, @NonNull Node<Result>> children = new HashMap<>();
+
+      for (
+          final Map.@NonNull Entry<@NonNull String, @NonNull ProcessorExecutor<Result>> binding :
+          ((FieldsExecutor<Result>) executor).bindings.entrySet()
+      ) {
+        children.put(binding.getKey(), Node.of(alternatives(binding.getValue())));
+      }
+
+      result.add(new Alternative<>(ROUTE, children, null, null));
+    } else if (executor instanceof DirectExecutor) {
+      result.add(
+          new Alternative<>(PROCESSOR, null, ((DirectExecutor<Result>) executor).processor, null)
+      );
+    } else if (executor instanceof ProcessorTrie) {
+      result.addAll(((ProcessorTrie<Result>) executor)._root.alternatives);
+    } else {
+      result.add(new Alternative<>(EXECUTOR, null, null, executor));
+    }
+
+    return result;
+  }
+
+  /**
+   * @see ProcessorExecutor#execute(ProcessorCall)
+   */
+  @Override
+  public @NonNull Optional<Result> execute(@NonNull final ProcessorCall call) {
+    return execute(_root, call, 0);
+  }
+
+  private @NonNull Optional<Result> execute(
+      @NonNull final Node<Result> node,
+      @NonNull final ProcessorCall call,
+      @NonNegative final int cursor
+  ) {
+    @NonNull final List<@NonNull Alternative<Result>> alternatives = node.alternatives;
+
+    for (@NonNegative int index = 0, size = alternatives.size(); index < size; ++index) {
+      @NonNull final Alternative<Result> alternative = alternatives.get(index);
+
+      switch (alternative.kind) {
+        case ROUTE:
+          if (cursor < call.getIdentifierLength()) {
+            @Nullable final Node<Result> child = alternative.children.get(
+                call.getIdentifier(cursor)
+            );
+
+            if (child != null) {
+              @NonNull final Optional<Result> result = execute(child, call, cursor + 1);
+
+              if (result.isPresent()) {
+                return result;
+              }
+            }
+          }
+          break;
+        case PROCESSOR:
+          return Optional.of(call.call(alternative.processor));
+        default:
+          @NonNull final Optional<Result> result = alternative.executor.execute(call.next(cursor));
+
+          if (result.isPresent()) {
+            return result;
+          }
+      }
+    }
+
+    return Optional.empty();
+  }
+
+  /**
+   * The ordered alternatives of a node of the trie.
+   */
+  private static final class Node<Result> {
+
+    @NonNull
+    final List<@NonNull Alternative<Result>> alternatives;
+
+    private Node(@NonNull final List<@NonNull Alternative<Result>> alternatives) {
+      this.alternatives = alternatives;
+    }
+
+    /**
+     * Merge consecutive tables and drop the alternatives that follow a processor, that always
+     * returns a result.
+     */
+    static <Result> @NonNull Node<Result> of(
+        @NonNull final List<@NonNull Alternative<Result>> alternatives
+    ) {
+      @NonNull final List<@NonNull Alternative<Result>> result = new ArrayList<>();
+
+      for (@NonNull final Alternative<Result> alternative : alternatives) {
+        @Nullable final Alternative<Result> previous = result.isEmpty() ? null
+            : result.get(result.size() - 1);
+
+        if (previous != null && previous.kind == PROCESSOR) {
+          break;
+        } else if (previous != null && previous.kind == ROUTE && alternative.kind == ROUTE) {
+          result.set(result.size() - 1, merge(previous, alternative));
+        } else {
+          result.add(alternative);
+        }
+      }
+
+      return new Node<>(result);
+    }
+
+    private static <Result> @NonNull Alternative<Result> merge(
+        @NonNull final Alternative<Result> first,
+        @NonNull final Alternative<Result> second
+    ) {
+      @NonNull final Map<@NonNull String, @NonNull Node<Result>> children = new HashMap<>(
+          first.children
+      );
+
+      for (
+          final Map.@NonNull Entry<@NonNull String, @NonNull Node<Result>> child :
+          second.children.entrySet()
+      ) {
+        children.merge(child.getKey(), child.getValue(), (left, right) -> {
+          @NonNull final List<@NonNull Alternative<Result>> merged = new ArrayList<>(
+              left.alternatives
+          );
+          merged.addAll(right.alternatives);
+          return Node.of(merged);
+        });
+      }
+
+      return new Alternative<>(ROUTE, children, null, null);
+    }
+  }
+
+  /**
+   * A table of child nodes, a processor or an executor tried by a node of the trie.
+   */
+  private static final class Alternative<Result> {
+
+    final int kind;
+
+    @Nullable
+    final Map<@NonNull String, @NonNull Node<Result>> children;
+
+    @Nullable
+    final Processor<Result> processor;
+
+    @Nullable
+    final ProcessorExecutor<Result> executor;
+
+    Alternative(
+        final int kind,
+        @Nullable final Map<@NonNull String, @NonNull Node<Result>> children,
+        @Nullable final Processor<Result> processor,
+        @Nullable final ProcessorExecutor<Result> executor
+    ) {
+      this.kind = kind;
+      this.children = children;
+      this.processor = processor;
+      this.executor = executor;
+    }
+  }
+}
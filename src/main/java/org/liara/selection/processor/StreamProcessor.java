@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.processor;
+
+import java.util.List;
+import java.util.function.Consumer;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A step of a pipeline that transforms a series incrementally, one chunk of the series at a time,
+ * instead of materializing the whole transformed series.
+ *
+ * A stream processor keeps only the state it needs between two chunks, as the last values of a
+ * sliding window or the partial result of an aggregation, and is used by one thread at a time.
+ *
+ * @param <Input> Type of the values of the input series.
+ * @param <Output> Type of the values of the output series.
+ * @see ProcessorPipeline
+ */
+@FunctionalInterface
+public interface StreamProcessor<Input, Output> {
+
+  /**
+   * Transform the next chunk of the input series.
+   *
+   * @param chunk The next values of the input series.
+   * @param output Receiver of the values of the output series that can be computed so far.
+   */
+  void process(
+      @NonNull final List<@NonNull Input> chunk,
+      @NonNull final Consumer<? super @NonNull Output> output
+  );
+
+  /**
+   * Emit the last values of the output series, once the input series is exhausted.
+   *
+   * @param output Receiver of the last values of the output series.
+   */
+  default void complete(@NonNull final Consumer<? super @NonNull Output> output) {
+
+  }
+}
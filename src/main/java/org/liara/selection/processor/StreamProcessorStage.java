@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.processor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.function.Consumer;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A stage of a pipeline, that runs a stream processor over the chunks it receives and publishes the
+ * values of its output in chunks.
+ *
+ * The stage requests one chunk at a time, and publishing its output blocks while the buffer of a
+ * subscriber is full, so that a slow stage slows the stages before it instead of accumulating
+ * chunks.
+ *
+ * @param <Input> Type of the values of the input series.
+ * @param <Output> Type of the values of the output series.
+ */
+public final class StreamProcessorStage<Input, Output>
+    implements Flow.Processor<@NonNull List<@NonNull Input>, @NonNull List<@NonNull Output>> {
+
+  @NonNull
+  private final StreamProcessor<Input, Output> _processor;
+
+  @NonNull
+  private final SubmissionPublisher<@NonNull List<@NonNull Output>> _publisher;
+
+  @NonNull
+  private final Consumer<@NonNull Output> _output;
+
+  @NonNegative
+  private final int _chunkSize;
+
+  @NonNull
+  private List<@NonNull Output> _chunk;
+
+  private Flow.@MonotonicNonNull Subscription _subscription;
+
+  /**
+   * @param processor Processor of the series.
+   * @param executor Executor of the delivery of the output chunks to each subscriber.
+   * @param bufferCapacity Maximum number of output chunks buffered for each subscriber.
+   * @param chunkSize Maximum number of values of each output chunk.
+   */
+  public StreamProcessorStage(
+      @NonNull final StreamProcessor<Input, Output> processor,
+      @NonNull final Executor executor,
+      @NonNegative final int bufferCapacity,
+      @NonNegative final int chunkSize
+  ) {
+    if (chunkSize < 1) {
+      throw new IllegalArgumentException("Invalid chunk size " + chunkSize + ".");
+    }
+
+    _processor = processor;
+    _publisher = new SubmissionPublisher<>(executor, bufferCapacity);
+    _chunkSize = chunkSize;
+    _chunk = new ArrayList<>(chunkSize);
+    _output = this::emit;
+  }
+
+  /**
+   * @see Flow.Publisher#subscribe(Flow.Subscriber)
+   */
+  @Override
+  public void subscribe(
+      final Flow.@NonNull Subscriber<? super @NonNull List<@NonNull Output>> subscriber
+  ) {
+    _publisher.subscribe(subscriber);
+  }
+
+  /**
+   * @see Flow.Subscriber#onSubscribe(Flow.Subscription)
+   */
+  @Override
+  public void onSubscribe(final Flow.@NonNull Subscription subscription) {
+    _subscription = subscription;
+    subscription.request(1);
+  }
+
+  /**
+   * @see Flow.Subscriber#onNext(Object)
+   */
+  @Override
+  public void onNext(@NonNull final List<@NonNull Input> chunk) {
+    try {
+      _processor.process(chunk, _output);
+      flush();
+    } catch (@NonNull final RuntimeException exception) {
+      _subscription.cancel();
+      _publisher.closeExceptionally(exception);
+      return;
+    }
+
+    _subscription.request(1);
+  }
+
+  /**
+   * @see Flow.Subscriber#onError(Throwable)
+   */
+  @Override
+  public void onError(@NonNull final Throwable throwable) {
+    _publisher.closeExceptionally(throwable);
+  }
+
+  /**
+   * @see Flow.Subscriber#onComplete()
+   */
+  @Override
+  public void onComplete() {
+    try {
+      _processor.complete(_output);
+      flush();
+    } catch (@NonNull final RuntimeException exception) {
+      _publisher.closeExceptionally(exception);
+      return;
+    }
+
+    _publisher.close();
+  }
+
+  private void emit(@NonNull final Output value) {
+    _chunk.add(value);
+
+    if (_chunk.size() == _chunkSize) {
+      flush();
+    }
+  }
+
+  /**
+   * Publish the current output chunk, waiting while a subscriber has no room for it.
+   */
+  private void flush() {
+    if (!_chunk.isEmpty()) {
+      @NonNull final List<@NonNull Output> chunk = _chunk;
+      _chunk = new ArrayList<>(_chunkSize);
+      _publisher.submit(chunk);
+    }
+  }
+}
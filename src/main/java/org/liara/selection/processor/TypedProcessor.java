@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.processor;
+
+import java.util.List;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A processor that reads its parameters from parameter vectors instead of lists of boxed values.
+ *
+ * Calls pass their own vectors to typed processors without converting them, lists of parameters
+ * given to the list methods are converted into vectors.
+ *
+ * @param <Result> Type of the results of the processor.
+ */
+@FunctionalInterface
+public interface TypedProcessor<Result>
+    extends Processor<Result> {
+
+  default void configure(@NonNull final ProcessorParameters parameters) {
+
+  }
+
+  @NonNull Result execute(@NonNull final ProcessorParameters parameters);
+
+  /**
+   * @see Processor#configure(List)
+   */
+  @Override
+  default void configure(@NonNull final List<@NonNull Object> parameters) {
+    configure(ProcessorParameters.of(parameters));
+  }
+
+  /**
+   * @see Processor#execute(List)
+   */
+  @Override
+  default @NonNull Result execute(@NonNull final List<@NonNull Object> parameters) {
+    return execute(ProcessorParameters.of(parameters));
+  }
+}
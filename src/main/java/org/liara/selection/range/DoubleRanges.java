@@ -0,0 +1,327 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.range;
+
+import java.util.Arrays;
+import java.util.function.DoublePredicate;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * An immutable set of double values stored as sorted, disjoint and non-adjacent closed intervals.
+ *
+ * Strict bounds are stored as the closest included double, so NaN is never part of a set.
+ */
+public final class DoubleRanges
+    implements Ranges<DoubleRanges>, DoublePredicate {
+
+  @NonNull
+  private static final DoubleRanges EMPTY = new DoubleRanges(new double[0]);
+
+  @NonNull
+  private static final DoubleRanges FULL = new DoubleRanges(
+      new double[]{Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY}
+  );
+
+  /**
+   * Interleaved bounds of each interval : lower bound at 2 * i, upper bound at 2 * i + 1.
+   */
+  @NonNull
+  private final double[] _bounds;
+
+  private DoubleRanges(@NonNull final double[] bounds) {
+    _bounds = bounds;
+  }
+
+  /**
+   * @return An empty set.
+   */
+  public static @NonNull DoubleRanges empty() {
+    return EMPTY;
+  }
+
+  /**
+   * @return A set that contains all double values.
+   */
+  public static @NonNull DoubleRanges full() {
+    return FULL;
+  }
+
+  /**
+   * Return the set of values between two bounds, both included.
+   *
+   * @param lower Lower bound of the interval.
+   * @param upper Upper bound of the interval.
+   * @return The set of values in [lower, upper], empty if lower is greater than upper.
+   */
+  public static @NonNull DoubleRanges closed(final double lower, final double upper) {
+    if (lower > upper) {
+      return EMPTY;
+    } else if (lower == Double.NEGATIVE_INFINITY && upper == Double.POSITIVE_INFINITY) {
+      return FULL;
+    } else {
+      return new DoubleRanges(new double[]{lower, upper});
+    }
+  }
+
+  public static @NonNull DoubleRanges equalTo(final double value) {
+    return closed(value, value);
+  }
+
+  public static @NonNull DoubleRanges greaterThan(final double value) {
+    return value == Double.POSITIVE_INFINITY ? EMPTY
+        : closed(Math.nextUp(value), Double.POSITIVE_INFINITY);
+  }
+
+  public static @NonNull DoubleRanges greaterThanOrEqualTo(final double value) {
+    return closed(value, Double.POSITIVE_INFINITY);
+  }
+
+  public static @NonNull DoubleRanges lessThan(final double value) {
+    return value == Double.NEGATIVE_INFINITY ? EMPTY
+        : closed(Double.NEGATIVE_INFINITY, Math.nextDown(value));
+  }
+
+  public static @NonNull DoubleRanges lessThanOrEqualTo(final double value) {
+    return closed(Double.NEGATIVE_INFINITY, value);
+  }
+
+  /**
+   * @see Ranges#size()
+   */
+  @Override
+  public @NonNegative int size() {
+    return _bounds.length >> 1;
+  }
+
+  /**
+   * @see Ranges#isFull()
+   */
+  @Override
+  public boolean isFull() {
+    return _bounds.length == 2 &&
+        _bounds[0] == Double.NEGATIVE_INFINITY &&
+        _bounds[1] == Double.POSITIVE_INFINITY;
+  }
+
+  /**
+   * @param index Index of an interval of this set.
+   * @return The lower bound, included, of the requested interval.
+   */
+  public double getLower(@NonNegative final int index) {
+    return _bounds[index << 1];
+  }
+
+  /**
+   * @param index Index of an interval of this set.
+   * @return The upper bound, included, of the requested interval.
+   */
+  public double getUpper(@NonNegative final int index) {
+    return _bounds[(index << 1) + 1];
+  }
+
+  /**
+   * @param value A value to search for.
+   * @return True if the given value is in this set, NaN is never contained.
+   */
+  public boolean contains(final double value) {
+    if (value != value) {
+      return false;
+    }
+
+    @NonNegative int lower = 0;
+    int upper = size() - 1;
+
+    while (lower <= upper) {
+      @NonNegative final int middle = (lower + upper) >>> 1;
+
+      if (value < _bounds[middle << 1]) {
+        upper = middle - 1;
+      } else if (value > _bounds[(middle << 1) + 1]) {
+        lower = middle + 1;
+      } else {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * @see DoublePredicate#test(double)
+   */
+  @Override
+  public boolean test(final double value) {
+    return contains(value);
+  }
+
+  /**
+   * @see Ranges#union(Ranges)
+   */
+  @Override
+  public @NonNull DoubleRanges union(@NonNull final DoubleRanges other) {
+    if (isEmpty() || other.isFull()) {
+      return other;
+    } else if (other.isEmpty() || isFull()) {
+      return this;
+    }
+
+    @NonNull final double[] result = new double[_bounds.length + other._bounds.length];
+    @NonNegative int size = 0;
+    @NonNegative int left = 0;
+    @NonNegative int right = 0;
+
+    while (left < _bounds.length || right < other._bounds.length) {
+      final double lower;
+      final double upper;
+
+      if (
+          right >= other._bounds.length ||
+              (left < _bounds.length && _bounds[left] <= other._bounds[right])
+      ) {
+        lower = _bounds[left];
+        upper = _bounds[left + 1];
+        left += 2;
+      } else {
+        lower = other._bounds[right];
+        upper = other._bounds[right + 1];
+        right += 2;
+      }
+
+      if (size > 0 && lower <= Math.nextUp(result[size - 1])) {
+        result[size - 1] = Math.max(result[size - 1], upper);
+      } else {
+        result[size++] = lower;
+        result[size++] = upper;
+      }
+    }
+
+    return new DoubleRanges(Arrays.copyOf(result, size));
+  }
+
+  /**
+   * @see Ranges#intersection(Ranges)
+   */
+  @Override
+  public @NonNull DoubleRanges intersection(@NonNull final DoubleRanges other) {
+    if (isEmpty() || other.isFull()) {
+      return this;
+    } else if (other.isEmpty() || isFull()) {
+      return other;
+    }
+
+    @NonNull final double[] result = new double[_bounds.length + other._bounds.length];
+    @NonNegative int size = 0;
+    @NonNegative int left = 0;
+    @NonNegative int right = 0;
+
+    while (left < _bounds.length && right < other._bounds.length) {
+      final double lower = Math.max(_bounds[left], other._bounds[right]);
+      final double upper = Math.min(_bounds[left + 1], other._bounds[right + 1]);
+
+      if (lower <= upper) {
+        result[size++] = lower;
+        result[size++] = upper;
+      }
+
+      if (_bounds[left + 1] < other._bounds[right + 1]) {
+        left += 2;
+      } else {
+        right += 2;
+      }
+    }
+
+    return size == 0 ? EMPTY : new DoubleRanges(Arrays.copyOf(result, size));
+  }
+
+  /**
+   * @see Ranges#complement()
+   */
+  @Override
+  public @NonNull DoubleRanges complement() {
+    if (isEmpty()) {
+      return FULL;
+    } else if (isFull()) {
+      return EMPTY;
+    }
+
+    @NonNull final double[] result = new double[_bounds.length + 2];
+    @NonNegative int size = 0;
+
+    if (_bounds[0] != Double.NEGATIVE_INFINITY) {
+      result[size++] = Double.NEGATIVE_INFINITY;
+      result[size++] = Math.nextDown(_bounds[0]);
+    }
+
+    for (@NonNegative int index = 1; index < _bounds.length - 1; index += 2) {
+      result[size++] = Math.nextUp(_bounds[index]);
+      result[size++] = Math.nextDown(_bounds[index + 1]);
+    }
+
+    if (_bounds[_bounds.length - 1] != Double.POSITIVE_INFINITY) {
+      result[size++] = Math.nextUp(_bounds[_bounds.length - 1]);
+      result[size++] = Double.POSITIVE_INFINITY;
+    }
+
+    return new DoubleRanges(Arrays.copyOf(result, size));
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(_bounds);
+  }
+
+  @Override
+  public boolean equals(@Nullable final Object object) {
+    if (object == null) {
+      return false;
+    }
+    if (object == this) {
+      return true;
+    }
+
+    if (object instanceof DoubleRanges) {
+      @NonNull final DoubleRanges other = (DoubleRanges) object;
+
+      return Arrays.equals(_bounds, other._bounds);
+    }
+
+    return false;
+  }
+
+  @Override
+  public @NonNull String toString() {
+    @NonNull final StringBuilder result = new StringBuilder("DoubleRanges {");
+
+    for (@NonNegative int index = 0; index < _bounds.length; index += 2) {
+      result.append(index == 0 ? " [" : ", [")
+          .append(_bounds[index])
+          .append(", ")
+          .append(_bounds[index + 1])
+          .append(']');
+    }
+
+    return result.append(" }").toString();
+  }
+}
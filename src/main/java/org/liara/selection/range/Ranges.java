@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.range;
+
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A normalized set of values described as a sorted list of disjoint closed intervals.
+ *
+ * @param <Self> Concrete type of the set.
+ */
+public interface Ranges<Self extends Ranges<Self>> {
+
+  /**
+   * @return The number of disjoint intervals of this set.
+   */
+  @NonNegative int size();
+
+  /**
+   * @return True if this set does not contain any value.
+   */
+  default boolean isEmpty() {
+    return size() == 0;
+  }
+
+  /**
+   * @return True if this set contains all representable values.
+   */
+  boolean isFull();
+
+  /**
+   * @param other Another set of values.
+   * @return A set that contains the values of this set and the values of the given one.
+   */
+  @NonNull Self union(@NonNull final Self other);
+
+  /**
+   * @param other Another set of values.
+   * @return A set that contains the values that are both in this set and in the given one.
+   */
+  @NonNull Self intersection(@NonNull final Self other);
+
+  /**
+   * @return A set that contains all representable values that are not in this set.
+   */
+  @NonNull Self complement();
+}
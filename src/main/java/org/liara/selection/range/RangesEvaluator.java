@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.range;
+
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.liara.selection.bitmap.CompressedBitmap;
+
+/**
+ * An engine that evaluates compiled sets of values over primitive columns.
+ *
+ * Results are written into bitsets made of 64 bits words, the bit i of the word i / 64 standing for
+ * the i-th row of the column. Evaluators only set the bits of matching rows and leave all other
+ * bits untouched, so results are usually written into zero-initialized bitsets.
+ *
+ * These bitset methods are the primitives of chunked scans, whole columns are selected as
+ * compressed bitmaps with the select methods.
+ */
+public interface RangesEvaluator {
+
+  /**
+   * Mark each row of the given column in [from, to[ whose value is in the given set.
+   *
+   * @param ranges Set of values to search for.
+   * @param column Column to evaluate.
+   * @param from First row to evaluate, included.
+   * @param to Last row to evaluate, excluded.
+   * @param result Bitset to update, of at least (to + 63) / 64 words.
+   */
+  void evaluate(
+      @NonNull final LongRanges ranges,
+      @NonNull final long[] column,
+      @NonNegative final int from,
+      @NonNegative final int to,
+      @NonNull final long[] result
+  );
+
+  /**
+   * @see #evaluate(LongRanges, long[], int, int, long[])
+   */
+  void evaluate(
+      @NonNull final LongRanges ranges,
+      @NonNull final int[] column,
+      @NonNegative final int from,
+      @NonNegative final int to,
+      @NonNull final long[] result
+  );
+
+  /**
+   * @see #evaluate(LongRanges, long[], int, int, long[])
+   */
+  void evaluate(
+      @NonNull final DoubleRanges ranges,
+      @NonNull final double[] column,
+      @NonNegative final int from,
+      @NonNegative final int to,
+      @NonNull final long[] result
+  );
+
+  /**
+   * Mark each row of the given column whose value is in the given set.
+   *
+   * @param ranges Set of values to search for.
+   * @param column Column to evaluate.
+   * @return A bitset of the matching rows.
+   */
+  default @NonNull long[] evaluate(
+      @NonNull final LongRanges ranges,
+      @NonNull final long[] column
+  ) {
+    @NonNull final long[] result = new long[(column.length + 63) >>> 6];
+    evaluate(ranges, column, 0, column.length, result);
+    return result;
+  }
+
+  /**
+   * @see #evaluate(LongRanges, long[])
+   */
+  default @NonNull long[] evaluate(
+      @NonNull final LongRanges ranges,
+      @NonNull final int[] column
+  ) {
+    @NonNull final long[] result = new long[(column.length + 63) >>> 6];
+    evaluate(ranges, column, 0, column.length, result);
+    return result;
+  }
+
+  /**
+   * @see #evaluate(LongRanges, long[])
+   */
+  default @NonNull long[] evaluate(
+      @NonNull final DoubleRanges ranges,
+      @NonNull final double[] column
+  ) {
+    @NonNull final long[] result = new long[(column.length + 63) >>> 6];
+    evaluate(ranges, column, 0, column.length, result);
+    return result;
+  }
+
+  /**
+   * Select each row of the given column whose value is in the given set.
+   *
+   * @param ranges Set of values to search for.
+   * @param column Column to evaluate.
+   * @return A bitmap of the matching rows.
+   */
+  default @NonNull CompressedBitmap select(
+      @NonNull final LongRanges ranges,
+      @NonNull final long[] column
+  ) {
+    return CompressedBitmap.fromBitset(evaluate(ranges, column));
+  }
+
+  /**
+   * @see #select(LongRanges, long[])
+   */
+  default @NonNull CompressedBitmap select(
+      @NonNull final LongRanges ranges,
+      @NonNull final int[] column
+  ) {
+    return CompressedBitmap.fromBitset(evaluate(ranges, column));
+  }
+
+  /**
+   * @see #select(LongRanges, long[])
+   */
+  default @NonNull CompressedBitmap select(
+      @NonNull final DoubleRanges ranges,
+      @NonNull final double[] column
+  ) {
+    return CompressedBitmap.fromBitset(evaluate(ranges, column));
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.range;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+public final class RangesEvaluators {
+
+  @NonNull
+  private static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+  @NonNull
+  private static final String VECTOR_EVALUATOR = (
+      "org.liara.selection.vector.VectorRangesEvaluator"
+  );
+
+  /**
+   * @return An evaluator that checks each row one after the other.
+   */
+  public static @NonNull RangesEvaluator createScalarEvaluator() {
+    return ScalarRangesEvaluator.INSTANCE;
+  }
+
+  /**
+   * Return the fastest evaluator available.
+   *
+   * The vector evaluator is returned if both the jdk.incubator.vector module and the vector
+   * artifact of this library are available, the scalar evaluator is returned otherwise.
+   *
+   * @return The fastest evaluator available.
+   */
+  public static @NonNull RangesEvaluator createEvaluator() {
+    if (!ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) {
+      return createScalarEvaluator();
+    }
+
+    try {
+      return (RangesEvaluator) Class.forName(VECTOR_EVALUATOR).getConstructor().newInstance();
+    } catch (@NonNull final ReflectiveOperationException | LinkageError exception) {
+      return createScalarEvaluator();
+    }
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.range;
+
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A ranges evaluator that checks each row one after the other.
+ */
+public final class ScalarRangesEvaluator
+    implements RangesEvaluator {
+
+  @NonNull
+  public static final ScalarRangesEvaluator INSTANCE = new ScalarRangesEvaluator();
+
+  /**
+   * @see RangesEvaluator#evaluate(LongRanges, long[], int, int, long[])
+   */
+  @Override
+  public void evaluate(
+      @NonNull final LongRanges ranges,
+      @NonNull final long[] column,
+      @NonNegative final int from,
+      @NonNegative final int to,
+      @NonNull final long[] result
+  ) {
+    @NonNegative final int size = ranges.size();
+    @NonNull final long[] lowers = new long[size];
+    @NonNull final long[] uppers = new long[size];
+
+    for (@NonNegative int range = 0; range < size; ++range) {
+      lowers[range] = ranges.getLower(range);
+      uppers[range] = ranges.getUpper(range);
+    }
+
+    for (@NonNegative int index = from; index < to; ++index) {
+      final long value = column[index];
+
+      for (@NonNegative int range = 0; range < size; ++range) {
+        if (value >= lowers[range] && value <= uppers[range]) {
+          result[index >>> 6] |= 1L << index;
+          break;
+        }
+      }
+    }
+  }
+
+  /**
+   * @see RangesEvaluator#evaluate(LongRanges, int[], int, int, long[])
+   */
+  @Override
+  public void evaluate(
+      @NonNull final LongRanges ranges,
+      @NonNull final int[] column,
+      @NonNegative final int from,
+      @NonNegative final int to,
+      @NonNull final long[] result
+  ) {
+    @NonNull final LongRanges clamped = ranges.intersection(
+        LongRanges.closed(Integer.MIN_VALUE, Integer.MAX_VALUE)
+    );
+    @NonNegative final int size = clamped.size();
+    @NonNull final int[] lowers = new int[size];
+    @NonNull final int[] uppers = new int[size];
+
+    for (@NonNegative int range = 0; range < size; ++range) {
+      lowers[range] = (int) clamped.getLower(range);
+      uppers[range] = (int) clamped.getUpper(range);
+    }
+
+    for (@NonNegative int index = from; index < to; ++index) {
+      final int value = column[index];
+
+      for (@NonNegative int range = 0; range < size; ++range) {
+        if (value >= lowers[range] && value <= uppers[range]) {
+          result[index >>> 6] |= 1L << index;
+          break;
+        }
+      }
+    }
+  }
+
+  /**
+   * @see RangesEvaluator#evaluate(DoubleRanges, double[], int, int, long[])
+   */
+  @Override
+  public void evaluate(
+      @NonNull final DoubleRanges ranges,
+      @NonNull final double[] column,
+      @NonNegative final int from,
+      @NonNegative final int to,
+      @NonNull final long[] result
+  ) {
+    @NonNegative final int size = ranges.size();
+    @NonNull final double[] lowers = new double[size];
+    @NonNull final double[] uppers = new double[size];
+
+    for (@NonNegative int range = 0; range < size; ++range) {
+      lowers[range] = ranges.getLower(range);
+      uppers[range] = ranges.getUpper(range);
+    }
+
+    for (@NonNegative int index = from; index < to; ++index) {
+      final double value = column[index];
+
+      for (@NonNegative int range = 0; range < size; ++range) {
+        if (value >= lowers[range] && value <= uppers[range]) {
+          result[index >>> 6] |= 1L << index;
+          break;
+        }
+      }
+    }
+  }
+}
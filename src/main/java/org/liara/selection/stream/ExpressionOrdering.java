@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.stream;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.liara.expression.Expression;
+import org.liara.expression.ExpressionFactory;
+
+/**
+ * Order the clauses of an expression as a RecordFilterBuilder orders its clauses.
+ */
+public final class ExpressionOrdering {
+
+  /**
+   * Return a conjunction of expressions in the evaluation order chosen by a builder.
+   *
+   * @param factory Factory to use in order to build the conjunction.
+   * @param builder A builder, with a clause for each expression.
+   * @param expressions Expressions of each clause of the builder, in addition order.
+   * @return A conjunction of the given expressions in the evaluation order of the given builder.
+   */
+  public static @NonNull Expression<@NonNull Boolean> and(
+      @NonNull final ExpressionFactory factory,
+      @NonNull final RecordFilterBuilder<?> builder,
+      @NonNull final List<@NonNull Expression<@NonNull Boolean>> expressions
+  ) {
+    if (expressions.size() != builder.getClauses().size()) {
+      throw new IllegalArgumentException(
+          "Unable to order " + expressions.size() + " expressions with a builder of " +
+              builder.getClauses().size() + " clauses."
+      );
+    }
+
+    @NonNull final List<@NonNull Expression<@NonNull Boolean>> ordered = new ArrayList<>(
+        expressions.size()
+    );
+
+    for (final int index : builder.getOrder()) {
+      ordered.add(expressions.get(index));
+    }
+
+    return factory.and(ordered);
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.stream;
+
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A spliterator that only reports the elements of another spliterator that satisfy a predicate.
+ *
+ * Splits are delegated to the source spliterator, this spliterator splits as well as its source.
+ *
+ * @param <Element> Type of element to filter.
+ */
+public final class FilteringSpliterator<Element>
+    implements Spliterator<Element>, Consumer<Element> {
+
+  @NonNull
+  private final Spliterator<Element> _source;
+
+  @NonNull
+  private final Predicate<? super Element> _filter;
+
+  @Nullable
+  private Element _current;
+
+  /**
+   * Create a new filtering spliterator.
+   *
+   * @param source Spliterator to filter.
+   * @param filter Predicate that elements must satisfy.
+   */
+  public FilteringSpliterator(
+      @NonNull final Spliterator<Element> source,
+      @NonNull final Predicate<? super Element> filter
+  ) {
+    _source = source;
+    _filter = filter;
+  }
+
+  /**
+   * @see Spliterator#tryAdvance(Consumer)
+   */
+  @Override
+  public boolean tryAdvance(@NonNull final Consumer<? super Element> action) {
+    while (_source.tryAdvance(this)) {
+      @Nullable final Element current = _current;
+      _current = null;
+
+      if (_filter.test(current)) {
+        action.accept(current);
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * @see Spliterator#forEachRemaining(Consumer)
+   */
+  @Override
+  public void forEachRemaining(@NonNull final Consumer<? super Element> action) {
+    _source.forEachRemaining((final Element element) -> {
+      if (_filter.test(element)) {
+        action.accept(element);
+      }
+    });
+  }
+
+  /**
+   * Used by tryAdvance in order to receive the next element of the source.
+   *
+   * @see Consumer#accept(Object)
+   */
+  @Override
+  public void accept(@Nullable final Element element) {
+    _current = element;
+  }
+
+  /**
+   * @see Spliterator#trySplit()
+   */
+  @Override
+  public @Nullable Spliterator<Element> trySplit() {
+    @Nullable final Spliterator<Element> prefix = _source.trySplit();
+    return prefix == null ? null : new FilteringSpliterator<>(prefix, _filter);
+  }
+
+  /**
+   * @return The number of remaining elements of the source, an upper bound of the number of
+   * remaining elements of this spliterator.
+   */
+  @Override
+  public long estimateSize() {
+    return _source.estimateSize();
+  }
+
+  /**
+   * @see Spliterator#characteristics()
+   */
+  @Override
+  public int characteristics() {
+    return _source.characteristics() & ~(Spliterator.SIZED | Spliterator.SUBSIZED);
+  }
+
+  /**
+   * @see Spliterator#getComparator()
+   */
+  @Override
+  public @Nullable Comparator<? super Element> getComparator() {
+    return _source.getComparator();
+  }
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.stream;
+
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.selection.range.DoubleRanges;
+import org.liara.selection.range.LongRanges;
+import org.liara.test.selection.bool.BooleanCondition;
+import org.liara.test.selection.datetime.DateTimeCondition;
+import org.liara.test.selection.datetime.DateTimeConditionVisitor;
+import org.liara.test.selection.datetime.DateTimeConjunction;
+import org.liara.test.selection.datetime.DateTimeDisjunction;
+import org.liara.test.selection.datetime.DateTimeFieldComparison;
+import org.liara.test.selection.datetime.DateTimeNegation;
+import org.liara.test.selection.datetime.LocalDateTimeComparison;
+import org.liara.test.selection.string.StringClause;
+import org.liara.test.selection.string.StringCondition;
+
+/**
+ * A compiled selection applied to a field of a record.
+ *
+ * Each clause has a cost estimated from the kind of its selection : equalities are cheaper than
+ * ranges, that are cheaper than calendar fields, that are cheaper than literal searches, that are
+ * cheaper than regular expressions. A RecordFilterBuilder orders clauses by cost and selectivity. A
+ * clause only holds immutable compiled selections and stateless field extractors, it can be used
+ * by many threads at the same time.
+ *
+ * @param <Record> Type of record to filter.
+ */
+public final class RecordClause<Record>
+    implements Predicate<Record> {
+
+  public static final double EQUALITY_COST = 1;
+
+  public static final double RANGE_COST = 2;
+
+  public static final double CALENDAR_COST = 8;
+
+  public static final double CONTAINS_COST = 16;
+
+  public static final double REGEXP_COST = 64;
+
+  @NonNull
+  private final Predicate<? super Record> _predicate;
+
+  private final double _cost;
+
+  /**
+   * Create a new clause.
+   *
+   * @param predicate Predicate that records must satisfy.
+   * @param cost Estimated cost of the predicate.
+   */
+  public RecordClause(@NonNull final Predicate<? super Record> predicate, final double cost) {
+    _predicate = predicate;
+    _cost = cost;
+  }
+
+  /**
+   * @param field Extractor of the field to filter.
+   * @param ranges Accepted values.
+   * @param <Record> Type of record to filter.
+   * @return A clause that accepts records with a field in the given ranges.
+   */
+  public static <Record> @NonNull RecordClause<Record> longs(
+      @NonNull final ToLongFunction<? super Record> field,
+      @NonNull final LongRanges ranges
+  ) {
+    return new RecordClause<>(
+        (final Record record) -> ranges.contains(field.applyAsLong(record)),
+        getCost(ranges.size(), isEquality(ranges))
+    );
+  }
+
+  /**
+   * @param field Extractor of the field to filter.
+   * @param ranges Accepted values.
+   * @param <Record> Type of record to filter.
+   * @return A clause that accepts records with a field in the given ranges.
+   */
+  public static <Record> @NonNull RecordClause<Record> doubles(
+      @NonNull final ToDoubleFunction<? super Record> field,
+      @NonNull final DoubleRanges ranges
+  ) {
+    return new RecordClause<>(
+        (final Record record) -> ranges.contains(field.applyAsDouble(record)),
+        getCost(ranges.size(), ranges.size() == 1 && ranges.getLower(0) == ranges.getUpper(0))
+    );
+  }
+
+  /**
+   * @param field Extractor of the field to filter, in milliseconds since the epoch.
+   * @param condition Condition that the field must satisfy.
+   * @param <Record> Type of record to filter.
+   * @return A clause that accepts records with a field that satisfies the given condition.
+   */
+  public static <Record> @NonNull RecordClause<Record> datetimes(
+      @NonNull final ToLongFunction<? super Record> field,
+      @NonNull final DateTimeCondition condition
+  ) {
+    return new RecordClause<>(
+        (final Record record) -> condition.test(field.applyAsLong(record)),
+        condition.accept(DateTimeCost.INSTANCE)
+    );
+  }
+
+  /**
+   * @param field Extractor of the field to filter.
+   * @param condition Condition that the field must satisfy.
+   * @param <Record> Type of record to filter.
+   * @return A clause that accepts records with a field that satisfies the given condition.
+   */
+  public static <Record> @NonNull RecordClause<Record> booleans(
+      @NonNull final Function<? super Record, @Nullable Boolean> field,
+      @NonNull final BooleanCondition condition
+  ) {
+    return new RecordClause<>(
+        (final Record record) -> condition.test(field.apply(record)),
+        EQUALITY_COST
+    );
+  }
+
+  /**
+   * @param field Extractor of the field to filter.
+   * @param condition Condition that the field must satisfy.
+   * @param <Record> Type of record to filter.
+   * @return A clause that accepts records with a field that satisfies the given condition.
+   */
+  public static <Record> @NonNull RecordClause<Record> strings(
+      @NonNull final Function<? super Record, @Nullable String> field,
+      @NonNull final StringCondition condition
+  ) {
+    double cost = 0;
+
+    for (@NonNull final Iterable<@NonNull StringClause> filter : condition.getFilters()) {
+      for (@NonNull final StringClause clause : filter) {
+        cost += getCost(clause);
+      }
+    }
+
+    return new RecordClause<>(
+        (final Record record) -> condition.test(field.apply(record)),
+        cost
+    );
+  }
+
+  private static boolean isEquality(@NonNull final LongRanges ranges) {
+    return ranges.size() == 1 && ranges.getLower(0) == ranges.getUpper(0);
+  }
+
+  private static double getCost(@NonNegative final int ranges, final boolean equality) {
+    return equality ? EQUALITY_COST : RANGE_COST * Math.max(1, ranges);
+  }
+
+  private static double getCost(@NonNull final StringClause clause) {
+    switch (clause.getType()) {
+      case StringClause.EQUAL:
+        return EQUALITY_COST;
+      case StringClause.CONTAINS:
+        return CONTAINS_COST;
+      default:
+        return REGEXP_COST;
+    }
+  }
+
+  /**
+   * Estimate the cost of a datetime condition from the comparisons that it contains, local
+   * date-time comparisons being ranges and field comparisons requiring a calendar computation.
+   */
+  private static final class DateTimeCost
+      implements DateTimeConditionVisitor<@NonNull Double> {
+
+    @NonNull
+    private static final DateTimeCost INSTANCE = new DateTimeCost();
+
+    @Override
+    public @NonNull Double visitLocalDateTimeComparison(
+        @NonNull final LocalDateTimeComparison comparison
+    ) {
+      return getCost(comparison.getAccepted().size(), isEquality(comparison.getAccepted()));
+    }
+
+    @Override
+    public @NonNull Double visitFieldComparison(@NonNull final DateTimeFieldComparison comparison) {
+      return CALENDAR_COST + getCost(
+          comparison.getAccepted().size(), isEquality(comparison.getAccepted())
+      );
+    }
+
+    @Override
+    public @NonNull Double visitConjunction(@NonNull final DateTimeConjunction conjunction) {
+      return sum(conjunction.getOperands());
+    }
+
+    @Override
+    public @NonNull Double visitDisjunction(@NonNull final DateTimeDisjunction disjunction) {
+      return sum(disjunction.getOperands());
+    }
+
+    @Override
+    public @NonNull Double visitNegation(@NonNull final DateTimeNegation negation) {
+      return negation.getOperand().accept(this);
+    }
+
+    private double sum(@NonNull final Iterable<@NonNull DateTimeCondition> operands) {
+      double result = 0;
+
+      for (@NonNull final DateTimeCondition operand : operands) {
+        result += operand.accept(this);
+      }
+
+      return result;
+    }
+  }
+
+  /**
+   * @see Predicate#test(Object)
+   */
+  @Override
+  public boolean test(final Record record) {
+    return _predicate.test(record);
+  }
+
+  /**
+   * @return The estimated cost of this clause.
+   */
+  public double getCost() {
+    return _cost;
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.stream;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A conjunction of compiled selections applied to the fields of records.
+ *
+ * Clauses are evaluated in the order chosen by a RecordFilterBuilder, and the evaluation stops at
+ * the first unsatisfied clause. A filter is immutable, records can be filtered by parallel
+ * streams without any synchronization.
+ *
+ * @param <Record> Type of record to filter.
+ */
+public final class RecordFilter<Record>
+    implements Predicate<Record> {
+
+  @NonNull
+  private final List<@NonNull RecordClause<Record>> _clauses;
+
+  /**
+   * Create a new filter.
+   *
+   * @param clauses Clauses of the filter, in evaluation order.
+   */
+  RecordFilter(@NonNull final List<@NonNull RecordClause<Record>> clauses) {
+    _clauses = Collections.unmodifiableList(new ArrayList<>(clauses));
+  }
+
+  /**
+   * @param clauses Clauses that records must satisfy.
+   * @param <Record> Type of record to filter.
+   * @return A filter that accepts records that satisfy all given clauses.
+   */
+  @SafeVarargs
+  public static <Record> @NonNull RecordFilter<Record> all(
+      @NonNull final RecordClause<Record>... clauses
+  ) {
+    @NonNull final RecordFilterBuilder<Record> builder = new RecordFilterBuilder<>();
+
+    for (@NonNull final RecordClause<Record> clause : clauses) {
+      builder.add(clause);
+    }
+
+    return builder.build();
+  }
+
+  /**
+   * @param clauses Clauses that records must satisfy.
+   * @param <Record> Type of record to filter.
+   * @return A filter that accepts records that satisfy all given clauses.
+   */
+  public static <Record> @NonNull RecordFilter<Record> all(
+      @NonNull final List<@NonNull RecordClause<Record>> clauses
+  ) {
+    return new RecordFilterBuilder<Record>().addAll(clauses).build();
+  }
+
+  /**
+   * @see Predicate#test(Object)
+   */
+  @Override
+  public boolean test(final Record record) {
+    for (@NonNegative int index = 0, size = _clauses.size(); index < size; ++index) {
+      if (!_clauses.get(index).test(record)) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Filter a stream, the returned stream is parallel if the given one is.
+   *
+   * @param stream A stream of records.
+   * @return A stream of the records of the given stream that satisfy this filter.
+   */
+  public @NonNull Stream<Record> filter(@NonNull final Stream<Record> stream) {
+    return StreamSupport.stream(
+        new FilteringSpliterator<>(stream.spliterator(), this),
+        stream.isParallel()
+    ).onClose(stream::close);
+  }
+
+  /**
+   * Filter a collection in parallel, by using the common fork-join pool.
+   *
+   * @param records A collection of records.
+   * @return A parallel stream of the records of the given collection that satisfy this filter.
+   */
+  public @NonNull Stream<Record> parallelStream(@NonNull final Collection<Record> records) {
+    return StreamSupport.stream(new FilteringSpliterator<>(records.spliterator(), this), true);
+  }
+
+  /**
+   * @return An unmodifiable view of the clauses of this filter, in evaluation order.
+   */
+  public @NonNull List<@NonNull RecordClause<Record>> getClauses() {
+    return _clauses;
+  }
+}
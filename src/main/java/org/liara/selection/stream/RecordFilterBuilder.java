@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.stream;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A builder of record filters that chooses the evaluation order of their clauses.
+ *
+ * Clauses are sorted by the expected cost of rejecting a record, cost / (1 - selectivity), the
+ * selectivity of a clause being the fraction of records that it accepts. Selectivities are
+ * estimated from a sample of records if one is given, and are equal to DEFAULT_SELECTIVITY
+ * otherwise, in which case clauses are sorted by cost.
+ *
+ * @param <Record> Type of record to filter.
+ */
+public final class RecordFilterBuilder<Record> {
+
+  public static final double DEFAULT_SELECTIVITY = 0.5;
+
+  @NonNull
+  private final List<@NonNull RecordClause<Record>> _clauses;
+
+  @Nullable
+  private Collection<? extends Record> _sample;
+
+  @Nullable
+  private double[] _selectivities;
+
+  public RecordFilterBuilder() {
+    _clauses = new ArrayList<>();
+    _sample = null;
+    _selectivities = null;
+  }
+
+  /**
+   * @param clause A clause that records must satisfy.
+   * @return This builder instance for chaining purposes.
+   */
+  public @NonNull RecordFilterBuilder<Record> add(@NonNull final RecordClause<Record> clause) {
+    _clauses.add(clause);
+    _selectivities = null;
+    return this;
+  }
+
+  /**
+   * @param clauses Clauses that records must satisfy.
+   * @return This builder instance for chaining purposes.
+   */
+  public @NonNull RecordFilterBuilder<Record> addAll(
+      @NonNull final Collection<@NonNull RecordClause<Record>> clauses
+  ) {
+    _clauses.addAll(clauses);
+    _selectivities = null;
+    return this;
+  }
+
+  /**
+   * Use the given records in order to estimate the selectivity of each clause.
+   *
+   * @param sample A sample of the records to filter, null to use the default selectivity.
+   * @return This builder instance for chaining purposes.
+   */
+  public @NonNull RecordFilterBuilder<Record> sample(
+      @Nullable final Collection<? extends Record> sample
+  ) {
+    _sample = sample;
+    _selectivities = null;
+    return this;
+  }
+
+  /**
+   * Return the estimated fraction of records accepted by a clause.
+   *
+   * The estimate is smoothed, a clause that accepts or rejects all sampled records is not assumed
+   * to accept or reject all records.
+   *
+   * @param index Index of a clause, in addition order.
+   * @return The estimated selectivity of the clause, in ]0, 1[.
+   */
+  public double getSelectivity(@NonNegative final int index) {
+    if (_selectivities == null) {
+      _selectivities = estimateSelectivities();
+    }
+
+    return _selectivities[index];
+  }
+
+  private @NonNull double[] estimateSelectivities() {
+    @NonNull final double[] result = new double[_clauses.size()];
+
+    if (_sample == null || _sample.isEmpty()) {
+      Arrays.fill(result, DEFAULT_SELECTIVITY);
+      return result;
+    }
+
+    for (@NonNegative int index = 0, size = _clauses.size(); index < size; ++index) {
+      @NonNull final RecordClause<Record> clause = _clauses.get(index);
+      @NonNegative long accepted = 0;
+
+      for (final Record record : _sample) {
+        if (clause.test(record)) {
+          accepted += 1;
+        }
+      }
+
+      result[index] = (accepted + 1.0) / (_sample.size() + 2.0);
+    }
+
+    return result;
+  }
+
+  /**
+   * @param index Index of a clause, in addition order.
+   * @return The expected cost of rejecting a record with the clause, lower ranks being evaluated
+   * first.
+   */
+  public double getRank(@NonNegative final int index) {
+    return _clauses.get(index).getCost() / (1.0 - getSelectivity(index));
+  }
+
+  /**
+   * @return The indices of the clauses, in addition order, sorted in evaluation order.
+   */
+  public @NonNull int[] getOrder() {
+    @NonNull final List<@NonNull Integer> order = new ArrayList<>(_clauses.size());
+
+    for (@NonNegative int index = 0, size = _clauses.size(); index < size; ++index) {
+      order.add(index);
+    }
+
+    order.sort(Comparator.comparingDouble(this::getRank));
+
+    @NonNull final int[] result = new int[order.size()];
+
+    for (@NonNegative int index = 0; index < result.length; ++index) {
+      result[index] = order.get(index);
+    }
+
+    return result;
+  }
+
+  /**
+   * @return The clauses of this builder, in addition order.
+   */
+  public @NonNull List<@NonNull RecordClause<Record>> getClauses() {
+    return Collections.unmodifiableList(_clauses);
+  }
+
+  /**
+   * @return A filter that evaluates the clauses of this builder in the expected cheapest order.
+   */
+  public @NonNull RecordFilter<Record> build() {
+    @NonNull final List<@NonNull RecordClause<Record>> clauses = new ArrayList<>(_clauses.size());
+
+    for (final int index : getOrder()) {
+      clauses.add(_clauses.get(index));
+    }
+
+    return new RecordFilter<>(clauses);
+  }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.subscription;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.IntConsumer;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * An immutable Aho-Corasick automaton that finds all occurrences of a set of literal patterns in a
+ * text, in one pass over the text.
+ *
+ * Transitions of the root state are stored in a table indexed by character, transitions of other
+ * states in sorted arrays. Each state that ends a pattern is linked to the next state of its
+ * failure chain that ends a pattern, so that finding k distinct patterns in a text of length n
+ * costs O(n + k) transitions.
+ */
+public final class AhoCorasickAutomaton {
+
+  private static final int ROOT = 0;
+
+  private static final int NONE = -1;
+
+  @NonNull
+  private final int[] _rootTransitions;
+
+  /**
+   * Transitions of state s are labels[starts[s]] to labels[starts[s + 1] - 1].
+   */
+  @NonNull
+  private final int[] _starts;
+
+  @NonNull
+  private final char[] _labels;
+
+  @NonNull
+  private final int[] _targets;
+
+  @NonNull
+  private final int[] _failures;
+
+  @NonNull
+  private final int[] _outputs;
+
+  @NonNull
+  private final int[] _dictionary;
+
+  @NonNegative
+  private final int _patterns;
+
+  /**
+   * Build an automaton.
+   *
+   * @param patterns Distinct and non-empty patterns to search, the index of each pattern in the
+   * list being its identifier.
+   */
+  public AhoCorasickAutomaton(@NonNull final List<@NonNull String> patterns) {
+    @NonNull final List<@NonNull TreeMap<Character, Integer>> trie = new ArrayList<>();
+    @NonNull final List<@NonNull Integer> outputs = new ArrayList<>();
+    @NonNull final Set<@NonNull String> distinct = new HashSet<>();
+
+    trie.add(new TreeMap<>());
+    outputs.add(NONE);
+
+    for (@NonNegative int pattern = 0; pattern < patterns.size(); ++pattern) {
+      @NonNull final String content = patterns.get(pattern);
+
+      if (content.isEmpty() || !distinct.add(content)) {
+        throw new IllegalArgumentException("Empty or duplicated pattern : \"" + content + "\"");
+      }
+
+      int state = ROOT;
+
+      for (@NonNegative int index = 0; index < content.length(); ++index) {
+        @NonNull final Map<Character, Integer> transitions = trie.get(state);
+        final Integer next = transitions.get(content.charAt(index));
+
+        if (next == null) {
+          transitions.put(content.charAt(index), trie.size());
+          state = trie.size();
+          trie.add(new TreeMap<>());
+          outputs.add(NONE);
+        } else {
+          state = next;
+        }
+      }
+
+      outputs.set(state, pattern);
+    }
+
+    final int states = trie.size();
+
+    _patterns = patterns.size();
+    _rootTransitions = new int[Character.MAX_VALUE + 1];
+    _starts = new int[states + 1];
+    _failures = new int[states];
+    _outputs = new int[states];
+    _dictionary = new int[states];
+
+    int transitions = 0;
+
+    for (@NonNegative int state = 0; state < states; ++state) {
+      _starts[state] = transitions;
+      _outputs[state] = outputs.get(state);
+      transitions += trie.get(state).size();
+    }
+
+    _starts[states] = transitions;
+    _labels = new char[transitions];
+    _targets = new int[transitions];
+
+    for (@NonNegative int state = 0; state < states; ++state) {
+      int index = _starts[state];
+
+      for (final Map.@NonNull Entry<Character, Integer> entry : trie.get(state).entrySet()) {
+        _labels[index] = entry.getKey();
+        _targets[index] = entry.getValue();
+        index += 1;
+      }
+    }
+
+    for (@NonNegative int index = _starts[ROOT]; index < _starts[ROOT + 1]; ++index) {
+      _rootTransitions[_labels[index]] = _targets[index];
+    }
+
+    link();
+  }
+
+  /**
+   * Compute failure and dictionary links, in breadth-first order.
+   */
+  private void link() {
+    @NonNull final Deque<@NonNull Integer> queue = new ArrayDeque<>();
+
+    _failures[ROOT] = ROOT;
+    _dictionary[ROOT] = NONE;
+    queue.add(ROOT);
+
+    while (!queue.isEmpty()) {
+      final int state = queue.poll();
+
+      for (@NonNegative int index = _starts[state]; index < _starts[state + 1]; ++index) {
+        final int target = _targets[index];
+        final int failure = state == ROOT ? ROOT : next(_failures[state], _labels[index]);
+
+        _failures[target] = failure;
+        _dictionary[target] = _outputs[failure] != NONE ? failure : _dictionary[failure];
+        queue.add(target);
+      }
+    }
+  }
+
+  /**
+   * @return The state reached from a state by reading a character.
+   */
+  private int next(final int from, final char character) {
+    int state = from;
+
+    while (state != ROOT) {
+      final int index = Arrays.binarySearch(
+          _labels, _starts[state], _starts[state + 1], character
+      );
+
+      if (index >= 0) {
+        return _targets[index];
+      }
+
+      state = _failures[state];
+    }
+
+    return _rootTransitions[character];
+  }
+
+  /**
+   * Find the patterns that occur in a text.
+   *
+   * @param text A text to search.
+   * @param found Bitset of at least (getPatternCount() + 63) / 64 words, empty or filled by
+   * previous searches, updated with each newly found pattern.
+   * @param action Action called once with the identifier of each newly found pattern.
+   */
+  public void search(
+      @NonNull final CharSequence text,
+      @NonNull final long[] found,
+      @NonNull final IntConsumer action
+  ) {
+    int state = ROOT;
+
+    for (@NonNegative int index = 0, length = text.length(); index < length; ++index) {
+      state = next(state, text.charAt(index));
+
+      int output = _outputs[state] != NONE ? state : _dictionary[state];
+
+      while (output != NONE) {
+        final int pattern = _outputs[output];
+
+        if ((found[pattern >>> 6] & (1L << pattern)) != 0L) {
+          break;
+        }
+
+        found[pattern >>> 6] |= 1L << pattern;
+        action.accept(pattern);
+        output = _dictionary[output];
+      }
+    }
+  }
+
+  /**
+   * @param text A text to search.
+   * @return A bitset of the patterns that occur in the given text.
+   */
+  public @NonNull long[] search(@NonNull final CharSequence text) {
+    @NonNull final long[] result = new long[(_patterns + 63) >>> 6];
+    search(text, result, (final int pattern) -> { });
+    return result;
+  }
+
+  /**
+   * @return The number of patterns searched by this automaton.
+   */
+  public @NonNegative int getPatternCount() {
+    return _patterns;
+  }
+
+  /**
+   * @return The number of states of this automaton.
+   */
+  public @NonNegative int getStateCount() {
+    return _outputs.length;
+  }
+}
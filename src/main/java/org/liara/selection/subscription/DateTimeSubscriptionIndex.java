@@ -0,0 +1,622 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.subscription;
+
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoField;
+import java.time.temporal.ValueRange;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.selection.range.LongRanges;
+import org.liara.test.selection.datetime.DateTimeCondition;
+import org.liara.test.selection.datetime.DateTimeConjunction;
+import org.liara.test.selection.datetime.DateTimeFieldComparison;
+import org.liara.test.selection.datetime.EpochCalendar;
+import org.liara.test.selection.datetime.LocalDateTimeComparison;
+import org.liara.test.selection.datetime.ZoneOffsetTable;
+
+/**
+ * An index of stored datetime selections, that returns the selections that accept an incoming
+ * instant.
+ *
+ * The operands of the top-level conjunction of each compiled selection are decomposed into :
+ * <ul>
+ *   <li>
+ *     comparisons of small calendar fields, such as the hour of the day, the day of the week or the
+ *     month of the year, stored as one bitmap of subscriptions for each value of each field and
+ *     zone ;
+ *   </li>
+ *   <li>
+ *     a comparison of instants, local date-times or epoch days, stored in an interval tree of
+ *     epoch milliseconds ;
+ *   </li>
+ *   <li>
+ *     any other operand, checked by evaluating the whole selection.
+ *   </li>
+ * </ul>
+ * Matching an instant then costs one bitmap intersection per indexed field and zone, one stabbing
+ * query, and the evaluation of the few candidates that were not fully decided by the index. Local
+ * comparisons in zones that are not at a fixed offset are indexed by an interval widened by the
+ * greatest offset, and are checked as well.
+ *
+ * Matching holds a shared lock, subscriptions are added and removed under an exclusive lock.
+ *
+ * @param <Identifier> Type of the identifiers of the subscriptions.
+ */
+public final class DateTimeSubscriptionIndex<Identifier> {
+
+  /**
+   * Greatest number of values of a field for it to be indexed with bitmaps.
+   */
+  public static final int MAXIMUM_FIELD_WIDTH = 1440;
+
+  private static final long MAXIMUM_OFFSET = ZoneOffset.MAX.getTotalSeconds() * 1000L;
+
+  @NonNull
+  private final ReadWriteLock _lock;
+
+  @NonNull
+  private final Map<Identifier, @NonNull Subscription<Identifier>> _subscriptions;
+
+  @NonNull
+  private final Map<@NonNull FieldKey, @NonNull long[][]> _bitmaps;
+
+  @NonNull
+  private IntervalTree<@NonNull Integer> _tree;
+
+  @NonNull
+  private Subscription<Identifier>[] _slots;
+
+  @NonNull
+  private int[] _freeSlots;
+
+  @NonNegative
+  private int _freeSlotCount;
+
+  @NonNegative
+  private int _slotCount;
+
+  @NonNull
+  private long[] _active;
+
+  @NonNull
+  private long[] _unbounded;
+
+  @SuppressWarnings("unchecked")
+  public DateTimeSubscriptionIndex() {
+    _lock = new ReentrantReadWriteLock();
+    _subscriptions = new HashMap<>();
+    _bitmaps = new LinkedHashMap<>();
+    _tree = IntervalTree.empty();
+    _slots = (Subscription<Identifier>[]) new Subscription<?>[64];
+    _freeSlots = new int[8];
+    _freeSlotCount = 0;
+    _slotCount = 0;
+    _active = new long[1];
+    _unbounded = new long[1];
+  }
+
+  /**
+   * Add or replace a subscription.
+   *
+   * @param identifier Identifier of the subscription.
+   * @param condition A compiled datetime selection.
+   */
+  public void add(
+      @NonNull final Identifier identifier,
+      @NonNull final DateTimeCondition condition
+  ) {
+    _lock.writeLock().lock();
+
+    try {
+      removeSubscription(identifier);
+      addSubscription(identifier, condition);
+    } finally {
+      _lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * @param identifier Identifier of a subscription.
+   * @return True if the subscription was removed, false if it did not exist.
+   */
+  public boolean remove(@NonNull final Identifier identifier) {
+    _lock.writeLock().lock();
+
+    try {
+      return removeSubscription(identifier);
+    } finally {
+      _lock.writeLock().unlock();
+    }
+  }
+
+  private void addSubscription(
+      @NonNull final Identifier identifier,
+      @NonNull final DateTimeCondition condition
+  ) {
+    @NonNull final List<@NonNull DateTimeCondition> operands = (
+        condition instanceof DateTimeConjunction
+            ? ((DateTimeConjunction) condition).getOperands()
+            : Arrays.asList(condition)
+    );
+    @NonNull final Map<@NonNull FieldKey, @NonNull LongRanges> fields = new HashMap<>();
+    @Nullable Interval<@NonNull Integer> interval = null;
+    boolean checked = false;
+    final int slot = allocate();
+
+    for (@NonNull final DateTimeCondition operand : operands) {
+      @Nullable final FieldKey key = getIndexedField(operand);
+
+      if (key != null) {
+        fields.merge(
+            key, ((DateTimeFieldComparison) operand).getAccepted(), LongRanges::intersection
+        );
+      } else if (interval == null && isInterval(operand)) {
+        interval = toInterval(operand, slot);
+        checked |= !isExact(operand);
+      } else {
+        checked = true;
+      }
+    }
+
+    for (@NonNull final FieldKey key : fields.keySet()) {
+      if (!_bitmaps.containsKey(key)) {
+        createBitmaps(key);
+      }
+    }
+
+    for (final Map.@NonNull Entry<@NonNull FieldKey, @NonNull long[][]> entry : _bitmaps
+        .entrySet()) {
+      @Nullable final LongRanges accepted = fields.get(entry.getKey());
+      @NonNull final long[][] bitmaps = entry.getValue();
+      final long minimum = entry.getKey().field.range().getMinimum();
+
+      for (@NonNegative int value = 0; value < bitmaps.length; ++value) {
+        if (accepted == null || accepted.contains(minimum + value)) {
+          set(bitmaps[value], slot);
+        }
+      }
+    }
+
+    if (interval == null) {
+      set(_unbounded, slot);
+    } else {
+      _tree = _tree.add(interval);
+    }
+
+    set(_active, slot);
+
+    @NonNull final Subscription<Identifier> subscription = new Subscription<>(
+        identifier, condition, slot, interval, checked
+    );
+
+    _slots[slot] = subscription;
+    _subscriptions.put(identifier, subscription);
+  }
+
+  private boolean removeSubscription(@NonNull final Identifier identifier) {
+    @Nullable final Subscription<Identifier> subscription = _subscriptions.remove(identifier);
+
+    if (subscription == null) {
+      return false;
+    }
+
+    final int slot = subscription.slot;
+
+    for (@NonNull final long[][] bitmaps : _bitmaps.values()) {
+      for (@NonNull final long[] bitmap : bitmaps) {
+        clear(bitmap, slot);
+      }
+    }
+
+    if (subscription.interval != null) {
+      _tree = _tree.remove(subscription.interval);
+    }
+
+    clear(_active, slot);
+    clear(_unbounded, slot);
+
+    _slots[slot] = null;
+
+    if (_freeSlotCount == _freeSlots.length) {
+      _freeSlots = Arrays.copyOf(_freeSlots, _freeSlots.length * 2);
+    }
+
+    _freeSlots[_freeSlotCount++] = slot;
+
+    return true;
+  }
+
+  /**
+   * @return A free slot, the bitmaps being grown if necessary.
+   */
+  private @NonNegative int allocate() {
+    if (_freeSlotCount > 0) {
+      return _freeSlots[--_freeSlotCount];
+    }
+
+    final int slot = _slotCount++;
+
+    if (slot == _slots.length) {
+      _slots = Arrays.copyOf(_slots, _slots.length * 2);
+    }
+
+    final int words = (slot >>> 6) + 1;
+
+    if (words > _active.length) {
+      final int length = Math.max(words, _active.length * 2);
+
+      _active = Arrays.copyOf(_active, length);
+      _unbounded = Arrays.copyOf(_unbounded, length);
+
+      for (@NonNull final long[][] bitmaps : _bitmaps.values()) {
+        for (@NonNegative int value = 0; value < bitmaps.length; ++value) {
+          bitmaps[value] = Arrays.copyOf(bitmaps[value], length);
+        }
+      }
+    }
+
+    return slot;
+  }
+
+  /**
+   * Create the bitmaps of a new field, in which existing subscriptions accept all values.
+   */
+  private void createBitmaps(@NonNull final FieldKey key) {
+    @NonNull final ValueRange range = key.field.range();
+    final int width = (int) (range.getMaximum() - range.getMinimum() + 1);
+    @NonNull final long[][] bitmaps = new long[width][];
+
+    for (@NonNegative int value = 0; value < bitmaps.length; ++value) {
+      bitmaps[value] = _active.clone();
+    }
+
+    _bitmaps.put(key, bitmaps);
+  }
+
+  /**
+   * @return The field of a comparison if it can be indexed with bitmaps, null otherwise.
+   */
+  private static @Nullable FieldKey getIndexedField(@NonNull final DateTimeCondition operand) {
+    if (!(operand instanceof DateTimeFieldComparison)) {
+      return null;
+    }
+
+    @NonNull final DateTimeFieldComparison comparison = (DateTimeFieldComparison) operand;
+    @NonNull final ChronoField field = comparison.getField();
+    @NonNull final ValueRange range = field.range();
+
+    if (
+        !EpochCalendar.isSupported(field) ||
+            range.getMaximum() - range.getMinimum() >= MAXIMUM_FIELD_WIDTH
+    ) {
+      return null;
+    }
+
+    return new FieldKey(comparison.getZone(), field);
+  }
+
+  private static boolean isInterval(@NonNull final DateTimeCondition operand) {
+    if (operand instanceof LocalDateTimeComparison) {
+      return ((LocalDateTimeComparison) operand).getAccepted().size() == 1;
+    } else if (operand instanceof DateTimeFieldComparison) {
+      @NonNull final DateTimeFieldComparison comparison = (DateTimeFieldComparison) operand;
+
+      return comparison.getAccepted().size() == 1 && (
+          comparison.getField() == ChronoField.EPOCH_DAY ||
+              comparison.getField() == ChronoField.INSTANT_SECONDS
+      );
+    }
+
+    return false;
+  }
+
+  /**
+   * @return True if the interval of an operand accepts exactly the instants that it accepts.
+   */
+  private static boolean isExact(@NonNull final DateTimeCondition operand) {
+    if (
+        operand instanceof DateTimeFieldComparison &&
+            ((DateTimeFieldComparison) operand).getField() == ChronoField.INSTANT_SECONDS
+    ) {
+      return true;
+    }
+
+    @NonNull final ZoneOffsetTable zone = operand instanceof LocalDateTimeComparison
+        ? ((LocalDateTimeComparison) operand).getZone()
+        : ((DateTimeFieldComparison) operand).getZone();
+
+    return zone.getZone().getRules().isFixedOffset();
+  }
+
+  /**
+   * @return The interval of epoch milliseconds that contains the instants accepted by an operand.
+   */
+  private static @NonNull Interval<@NonNull Integer> toInterval(
+      @NonNull final DateTimeCondition operand,
+      final int slot
+  ) {
+    if (operand instanceof LocalDateTimeComparison) {
+      @NonNull final LocalDateTimeComparison comparison = (LocalDateTimeComparison) operand;
+
+      return toInterval(
+          comparison.getZone(),
+          comparison.getAccepted().getLower(0), comparison.getAccepted().getUpper(0), slot
+      );
+    }
+
+    @NonNull final DateTimeFieldComparison comparison = (DateTimeFieldComparison) operand;
+    final long lower = comparison.getAccepted().getLower(0);
+    final long upper = comparison.getAccepted().getUpper(0);
+
+    if (comparison.getField() == ChronoField.INSTANT_SECONDS) {
+      return new Interval<>(
+          shift(toMillis(lower, 1000L, 0L), 0L), shift(toMillis(upper, 1000L, 999L), 0L), slot
+      );
+    }
+
+    return toInterval(
+        comparison.getZone(),
+        toMillis(lower, EpochCalendar.MILLIS_PER_DAY, 0L),
+        toMillis(upper, EpochCalendar.MILLIS_PER_DAY, EpochCalendar.MILLIS_PER_DAY - 1),
+        slot
+    );
+  }
+
+  private static @NonNull Interval<@NonNull Integer> toInterval(
+      @NonNull final ZoneOffsetTable zone,
+      final long lower,
+      final long upper,
+      final int slot
+  ) {
+    if (zone.getZone().getRules().isFixedOffset()) {
+      final long offset = zone.getOffset(0L);
+
+      return new Interval<>(shift(lower, -offset), shift(upper, -offset), slot);
+    }
+
+    return new Interval<>(shift(lower, -MAXIMUM_OFFSET), shift(upper, MAXIMUM_OFFSET), slot);
+  }
+
+  /**
+   * @return value * factor + remainder, saturated to the infinite bounds Long.MIN_VALUE and
+   * Long.MAX_VALUE.
+   */
+  private static long toMillis(final long value, final long factor, final long remainder) {
+    if (value == Long.MIN_VALUE || value == Long.MAX_VALUE) {
+      return value;
+    }
+
+    try {
+      return Math.addExact(Math.multiplyExact(value, factor), remainder);
+    } catch (@NonNull final ArithmeticException exception) {
+      return value < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+    }
+  }
+
+  /**
+   * @return value + offset as a double, infinite if value is an infinite bound.
+   */
+  private static double shift(final long value, final long offset) {
+    if (value == Long.MIN_VALUE) {
+      return Double.NEGATIVE_INFINITY;
+    } else if (value == Long.MAX_VALUE) {
+      return Double.POSITIVE_INFINITY;
+    } else {
+      return (double) value + offset;
+    }
+  }
+
+  private static void set(@NonNull final long[] bitmap, @NonNegative final int slot) {
+    bitmap[slot >>> 6] |= 1L << slot;
+  }
+
+  private static void clear(@NonNull final long[] bitmap, @NonNegative final int slot) {
+    bitmap[slot >>> 6] &= ~(1L << slot);
+  }
+
+  /**
+   * Call an action for each subscription that accepts an instant.
+   *
+   * @param epochMillis An incoming instant, in milliseconds since 1970-01-01T00:00:00Z.
+   * @param action Action to call with the identifier of each matching subscription.
+   */
+  public void match(final long epochMillis, @NonNull final Consumer<? super Identifier> action) {
+    _lock.readLock().lock();
+
+    try {
+      @NonNull final long[] candidates = _active.clone();
+
+      for (final Map.@NonNull Entry<@NonNull FieldKey, @NonNull long[][]> entry : _bitmaps
+        .entrySet()) {
+        @NonNull final FieldKey key = entry.getKey();
+        final long value = EpochCalendar.get(
+            key.field, epochMillis, key.zone.toLocalMillis(epochMillis)
+        ) - key.field.range().getMinimum();
+        @NonNull final long[] bitmap = entry.getValue()[(int) value];
+
+        for (@NonNegative int word = 0; word < candidates.length; ++word) {
+          candidates[word] &= bitmap[word];
+        }
+      }
+
+      if (_tree.size() > 0) {
+        @NonNull final long[] bounded = _unbounded.clone();
+
+        _tree.stab((double) epochMillis, (final Integer slot) -> set(bounded, slot));
+
+        for (@NonNegative int word = 0; word < candidates.length; ++word) {
+          candidates[word] &= bounded[word];
+        }
+      }
+
+      for (@NonNegative int word = 0; word < candidates.length; ++word) {
+        long bits = candidates[word];
+
+        while (bits != 0L) {
+          @NonNull final Subscription<Identifier> subscription = _slots[
+              (word << 6) + Long.numberOfTrailingZeros(bits)
+          ];
+
+          if (!subscription.checked || subscription.condition.test(epochMillis)) {
+            action.accept(subscription.identifier);
+          }
+
+          bits &= bits - 1;
+        }
+      }
+    } finally {
+      _lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * @param epochMillis An incoming instant, in milliseconds since 1970-01-01T00:00:00Z.
+   * @return The identifiers of the subscriptions that accept the given instant.
+   */
+  public @NonNull List<Identifier> match(final long epochMillis) {
+    @NonNull final List<Identifier> result = new ArrayList<>();
+    match(epochMillis, result::add);
+    return result;
+  }
+
+  /**
+   * @param identifier Identifier of a subscription.
+   * @return True if the subscription exists.
+   */
+  public boolean contains(@NonNull final Identifier identifier) {
+    _lock.readLock().lock();
+
+    try {
+      return _subscriptions.containsKey(identifier);
+    } finally {
+      _lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * @return The number of subscriptions.
+   */
+  public @NonNegative int size() {
+    _lock.readLock().lock();
+
+    try {
+      return _subscriptions.size();
+    } finally {
+      _lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * @return The number of fields indexed with bitmaps.
+   */
+  public @NonNegative int getIndexedFieldCount() {
+    _lock.readLock().lock();
+
+    try {
+      return _bitmaps.size();
+    } finally {
+      _lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * A field computed in a given zone.
+   */
+  private static final class FieldKey {
+
+    @NonNull
+    final ZoneOffsetTable zone;
+
+    @NonNull
+    final ChronoField field;
+
+    FieldKey(@NonNull final ZoneOffsetTable zone, @NonNull final ChronoField field) {
+      this.zone = zone;
+      this.field = field;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(zone.getZone(), field);
+    }
+
+    @Override
+    public boolean equals(@Nullable final Object other) {
+      if (other instanceof FieldKey) {
+        @NonNull final FieldKey otherKey = (FieldKey) other;
+        return zone.getZone().equals(otherKey.zone.getZone()) && field == otherKey.field;
+      }
+
+      return false;
+    }
+  }
+
+  /**
+   * A stored selection.
+   */
+  private static final class Subscription<Identifier> {
+
+    @NonNull
+    final Identifier identifier;
+
+    @NonNull
+    final DateTimeCondition condition;
+
+    @NonNegative
+    final int slot;
+
+    @Nullable
+    final Interval<@NonNull Integer> interval;
+
+    /**
+     * True if the index does not fully decide whether the selection accepts an instant.
+     */
+    final boolean checked;
+
+    Subscription(
+        @NonNull final Identifier identifier,
+        @NonNull final DateTimeCondition condition,
+        @NonNegative final int slot,
+        @Nullable final Interval<@NonNull Integer> interval,
+        final boolean checked
+    ) {
+      this.identifier = identifier;
+      this.condition = condition;
+      this.slot = slot;
+      this.interval = interval;
+      this.checked = checked;
+    }
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.subscription;
+
+import java.util.Objects;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * An immutable closed interval labelled by a value.
+ *
+ * @param <Value> Type of the label.
+ */
+public final class Interval<Value> {
+
+  private final double _lower;
+
+  private final double _upper;
+
+  private final Value _value;
+
+  /**
+   * Create a new labelled interval.
+   *
+   * @param lower Lower bound of the interval, included.
+   * @param upper Upper bound of the interval, included.
+   * @param value Label of the interval.
+   */
+  public Interval(final double lower, final double upper, final Value value) {
+    _lower = lower;
+    _upper = upper;
+    _value = value;
+  }
+
+  /**
+   * @return The lower bound of this interval, included.
+   */
+  public double getLower() {
+    return _lower;
+  }
+
+  /**
+   * @return The upper bound of this interval, included.
+   */
+  public double getUpper() {
+    return _upper;
+  }
+
+  /**
+   * @return The label of this interval.
+   */
+  public Value getValue() {
+    return _value;
+  }
+
+  /**
+   * @param point A point.
+   * @return True if this interval contains the given point.
+   */
+  public boolean contains(final double point) {
+    return _lower <= point && point <= _upper;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(_lower, _upper, _value);
+  }
+
+  @Override
+  public boolean equals(@Nullable final Object other) {
+    if (other == this) {
+      return true;
+    }
+
+    if (other instanceof Interval) {
+      @NonNull final Interval<?> otherInterval = (Interval<?>) other;
+
+      return Double.compare(_lower, otherInterval._lower) == 0 &&
+          Double.compare(_upper, otherInterval._upper) == 0 &&
+          Objects.equals(_value, otherInterval._value);
+    }
+
+    return false;
+  }
+
+  @Override
+  public @NonNull String toString() {
+    return "Interval { [" + _lower + ", " + _upper + "] : " + _value + " }";
+  }
+}
@@ -0,0 +1,481 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.subscription;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * An immutable centered interval tree of closed intervals, each of them being labelled by a value.
+ *
+ * Each node holds the intervals that contain its center, sorted by lower bound and by upper bound,
+ * the intervals that end before its center being in its left subtree and the intervals that start
+ * after its center being in its right subtree. Finding the k intervals that contain a point then
+ * costs O(h + k), h being the height of the tree.
+ *
+ * Adding or removing an interval copies the path to the node that holds it, and the tree is
+ * rebuilt around the medians of its bounds when its height exceeds a few times log2(size), so that
+ * h stays in O(log n).
+ *
+ * @param <Value> Type of the labels of the intervals.
+ */
+public final class IntervalTree<Value> {
+
+  @NonNull
+  private static final IntervalTree<?> EMPTY = new IntervalTree<>(null, 0, 0);
+
+  @Nullable
+  private final Node<Value> _root;
+
+  @NonNegative
+  private final int _size;
+
+  @NonNegative
+  private final int _height;
+
+  private IntervalTree(
+      @Nullable final Node<Value> root,
+      @NonNegative final int size,
+      @NonNegative final int height
+  ) {
+    _root = root;
+    _size = size;
+    _height = height;
+  }
+
+  /**
+   * @param <Value> Type of the labels of the intervals.
+   * @return An empty tree.
+   */
+  @SuppressWarnings("unchecked")
+  public static <Value> @NonNull IntervalTree<Value> empty() {
+    return (IntervalTree<Value>) EMPTY;
+  }
+
+  /**
+   * Build a balanced tree.
+   *
+   * @param intervals Labelled intervals to store.
+   * @param <Value> Type of the labels of the intervals.
+   * @return A tree of the given intervals.
+   */
+  public static <Value> @NonNull IntervalTree<Value> of(
+      @NonNull final Collection<@NonNull Interval<Value>> intervals
+  ) {
+    @NonNull final List<@NonNull Interval<Value>> valid = new ArrayList<>(intervals.size());
+
+    for (@NonNull final Interval<Value> interval : intervals) {
+      if (interval.getLower() <= interval.getUpper()) {
+        valid.add(interval);
+      }
+    }
+
+    @NonNull final int[] height = new int[1];
+    @Nullable final Node<Value> root = build(valid, 1, height);
+
+    return new IntervalTree<>(root, valid.size(), height[0]);
+  }
+
+  private static <Value> @Nullable Node<Value> build(
+      @NonNull final List<@NonNull Interval<Value>> intervals,
+      @NonNegative final int depth,
+      @NonNull final int[] height
+  ) {
+    if (intervals.isEmpty()) {
+      return null;
+    }
+
+    @NonNull final double[] bounds = new double[intervals.size() * 2];
+
+    for (@NonNegative int index = 0; index < intervals.size(); ++index) {
+      bounds[2 * index] = intervals.get(index).getLower();
+      bounds[2 * index + 1] = intervals.get(index).getUpper();
+    }
+
+    Arrays.sort(bounds);
+
+    final double center = bounds[intervals.size()];
+    @NonNull final List<@NonNull Interval<Value>> left = new ArrayList<>();
+    @NonNull final List<@NonNull Interval<Value>> right = new ArrayList<>();
+    @NonNull final List<@NonNull Interval<Value>> middle = new ArrayList<>();
+
+    for (@NonNull final Interval<Value> interval : intervals) {
+      if (interval.getUpper() < center) {
+        left.add(interval);
+      } else if (interval.getLower() > center) {
+        right.add(interval);
+      } else {
+        middle.add(interval);
+      }
+    }
+
+    height[0] = Math.max(height[0], depth);
+
+    return new Node<>(
+        center,
+        build(left, depth + 1, height),
+        build(right, depth + 1, height),
+        sortByLower(middle),
+        sortByUpper(middle)
+    );
+  }
+
+  private static <Value> @NonNull Interval<Value>[] sortByLower(
+      @NonNull final List<@NonNull Interval<Value>> intervals
+  ) {
+    @NonNull final Interval<Value>[] result = intervals.toArray(newArray(intervals.size()));
+    Arrays.sort(result, Node.byLower());
+    return result;
+  }
+
+  private static <Value> @NonNull Interval<Value>[] sortByUpper(
+      @NonNull final List<@NonNull Interval<Value>> intervals
+  ) {
+    @NonNull final Interval<Value>[] result = intervals.toArray(newArray(intervals.size()));
+    Arrays.sort(result, Node.byUpper());
+    return result;
+  }
+
+  /**
+   * Create an array of intervals, the cast is safe as the array is created empty.
+   *
+   * @param length Length of the array to create.
+   * @param <Value> Type of value associated with each interval.
+   * @return An empty array of intervals.
+   */
+  @SuppressWarnings("unchecked")
+  private static <Value> @NonNull Interval<Value>[] newArray(@NonNegative final int length) {
+    return (Interval<Value>[]) new Interval<?>[length];
+  }
+
+  /**
+   * @param interval A labelled interval, empty intervals are ignored.
+   * @return A tree that contains the intervals of this tree and the given one.
+   */
+  public @NonNull IntervalTree<Value> add(@NonNull final Interval<Value> interval) {
+    if (interval.getLower() > interval.getUpper()) {
+      return this;
+    }
+
+    @NonNull final int[] depth = new int[1];
+    @NonNull final Node<Value> root = add(_root, interval, 1, depth);
+    final int height = Math.max(_height, depth[0]);
+
+    if (height > getMaximumHeight(_size + 1)) {
+      return of(toList(root, new ArrayList<>(_size + 1)));
+    }
+
+    return new IntervalTree<>(root, _size + 1, height);
+  }
+
+  private static <Value> @NonNull Node<Value> add(
+      @Nullable final Node<Value> node,
+      @NonNull final Interval<Value> interval,
+      @NonNegative final int depth,
+      @NonNull final int[] result
+  ) {
+    if (node == null) {
+      result[0] = depth;
+      return new Node<>(getCenter(interval), interval);
+    } else if (interval.getUpper() < node.center) {
+      return node.setLeft(add(node.left, interval, depth + 1, result));
+    } else if (interval.getLower() > node.center) {
+      return node.setRight(add(node.right, interval, depth + 1, result));
+    } else {
+      result[0] = depth;
+      return node.add(interval);
+    }
+  }
+
+  /**
+   * @param interval A labelled interval.
+   * @return A tree that contains the intervals of this tree without the given one, this tree if it
+   * does not contain the given interval.
+   */
+  public @NonNull IntervalTree<Value> remove(@NonNull final Interval<Value> interval) {
+    @Nullable final Node<Value> root = remove(_root, interval);
+
+    if (root == _root) {
+      return this;
+    }
+
+    return new IntervalTree<>(root, _size - 1, root == null ? 0 : _height);
+  }
+
+  private static <Value> @Nullable Node<Value> remove(
+      @Nullable final Node<Value> node,
+      @NonNull final Interval<Value> interval
+  ) {
+    if (node == null) {
+      return null;
+    } else if (interval.getUpper() < node.center) {
+      @Nullable final Node<Value> left = remove(node.left, interval);
+      return left == node.left ? node : node.setLeft(left).prune();
+    } else if (interval.getLower() > node.center) {
+      @Nullable final Node<Value> right = remove(node.right, interval);
+      return right == node.right ? node : node.setRight(right).prune();
+    } else {
+      @NonNull final Node<Value> result = node.remove(interval);
+      return result == node ? node : result.prune();
+    }
+  }
+
+  /**
+   * Call an action for the label of each interval that contains a point.
+   *
+   * @param point A point, NaN being contained by no interval.
+   * @param action An action to call for each label.
+   */
+  public void stab(final double point, @NonNull final Consumer<? super Value> action) {
+    if (Double.isNaN(point)) {
+      return;
+    }
+
+    @Nullable Node<Value> node = _root;
+
+    while (node != null) {
+      if (point < node.center) {
+        for (@NonNull final Interval<Value> interval : node.byLower) {
+          if (interval.getLower() > point) {
+            break;
+          }
+
+          action.accept(interval.getValue());
+        }
+
+        node = node.left;
+      } else if (point > node.center) {
+        for (@NonNull final Interval<Value> interval : node.byUpper) {
+          if (interval.getUpper() < point) {
+            break;
+          }
+
+          action.accept(interval.getValue());
+        }
+
+        node = node.right;
+      } else {
+        for (@NonNull final Interval<Value> interval : node.byLower) {
+          action.accept(interval.getValue());
+        }
+
+        node = null;
+      }
+    }
+  }
+
+  /**
+   * @param point A point.
+   * @return The labels of the intervals that contain the given point.
+   */
+  public @NonNull List<Value> stab(final double point) {
+    @NonNull final List<Value> result = new ArrayList<>();
+    stab(point, result::add);
+    return result;
+  }
+
+  /**
+   * @return The intervals of this tree.
+   */
+  public @NonNull List<@NonNull Interval<Value>> toList() {
+    return toList(_root, new ArrayList<>(_size));
+  }
+
+  private static <Value> @NonNull List<@NonNull Interval<Value>> toList(
+      @Nullable final Node<Value> node,
+      @NonNull final List<@NonNull Interval<Value>> result
+  ) {
+    if (node != null) {
+      toList(node.left, result);
+      result.addAll(Arrays.asList(node.byLower));
+      toList(node.right, result);
+    }
+
+    return result;
+  }
+
+  /**
+   * @return The number of intervals of this tree.
+   */
+  public @NonNegative int size() {
+    return _size;
+  }
+
+  /**
+   * @return An upper bound of the number of nodes visited by a stabbing query.
+   */
+  public @NonNegative int getHeight() {
+    return _height;
+  }
+
+  private static @NonNegative int getMaximumHeight(@NonNegative final int size) {
+    return 3 * (Integer.SIZE - Integer.numberOfLeadingZeros(size)) + 4;
+  }
+
+  private static double getCenter(@NonNull final Interval<?> interval) {
+    final double lower = interval.getLower();
+    final double upper = interval.getUpper();
+
+    if (Double.isInfinite(lower) && Double.isInfinite(upper)) {
+      return 0;
+    } else if (Double.isInfinite(lower)) {
+      return upper;
+    } else if (Double.isInfinite(upper)) {
+      return lower;
+    } else {
+      return lower / 2 + upper / 2;
+    }
+  }
+
+  /**
+   * An immutable node of the tree.
+   */
+  private static final class Node<Value> {
+
+    final double center;
+
+    @Nullable
+    final Node<Value> left;
+
+    @Nullable
+    final Node<Value> right;
+
+    @NonNull
+    final Interval<Value>[] byLower;
+
+    @NonNull
+    final Interval<Value>[] byUpper;
+
+    Node(
+        final double center,
+        @Nullable final Node<Value> left,
+        @Nullable final Node<Value> right,
+        @NonNull final Interval<Value>[] byLower,
+        @NonNull final Interval<Value>[] byUpper
+    ) {
+      this.center = center;
+      this.left = left;
+      this.right = right;
+      this.byLower = byLower;
+      this.byUpper = byUpper;
+    }
+
+    Node(final double center, @NonNull final Interval<Value> interval) {
+      this(center, null, null, singleton(interval), singleton(interval));
+    }
+
+    private static <Value> @NonNull Interval<Value>[] singleton(
+        @NonNull final Interval<Value> interval
+    ) {
+      @NonNull final Interval<Value>[] result = newArray(1);
+      result[0] = interval;
+      return result;
+    }
+
+    static <Value> @NonNull Comparator<@NonNull Interval<Value>> byLower() {
+      return Comparator.comparingDouble(Interval::getLower);
+    }
+
+    static <Value> @NonNull Comparator<@NonNull Interval<Value>> byUpper() {
+      return (left, right) -> Double.compare(right.getUpper(), left.getUpper());
+    }
+
+    @NonNull Node<Value> setLeft(@Nullable final Node<Value> left) {
+      return new Node<>(center, left, right, byLower, byUpper);
+    }
+
+    @NonNull Node<Value> setRight(@Nullable final Node<Value> right) {
+      return new Node<>(center, left, right, byLower, byUpper);
+    }
+
+    @NonNull Node<Value> add(@NonNull final Interval<Value> interval) {
+      return new Node<>(
+          center, left, right,
+          insert(byLower, interval, byLower()),
+          insert(byUpper, interval, byUpper())
+      );
+    }
+
+    @NonNull Node<Value> remove(@NonNull final Interval<Value> interval) {
+      for (@NonNegative int index = 0; index < byLower.length; ++index) {
+        if (byLower[index].equals(interval)) {
+          return new Node<>(
+              center, left, right, delete(byLower, interval), delete(byUpper, interval)
+          );
+        }
+      }
+
+      return this;
+    }
+
+    /**
+     * @return This node, its only child if it does not hold any interval, or null if it does not
+     * hold any interval and has no child.
+     */
+    @Nullable Node<Value> prune() {
+      if (byLower.length > 0 || (left != null && right != null)) {
+        return this;
+      }
+
+      return left == null ? right : left;
+    }
+
+    private static <Value> @NonNull Interval<Value>[] insert(
+        @NonNull final Interval<Value>[] intervals,
+        @NonNull final Interval<Value> interval,
+        @NonNull final Comparator<Interval<Value>> order
+    ) {
+      int index = Arrays.binarySearch(intervals, interval, order);
+      index = index < 0 ? -index - 1 : index;
+
+      @NonNull final Interval<Value>[] result = Arrays.copyOf(intervals, intervals.length + 1);
+      System.arraycopy(intervals, index, result, index + 1, intervals.length - index);
+      result[index] = interval;
+
+      return result;
+    }
+
+    private static <Value> @NonNull Interval<Value>[] delete(
+        @NonNull final Interval<Value>[] intervals,
+        @NonNull final Interval<Value> interval
+    ) {
+      int index = 0;
+
+      while (!intervals[index].equals(interval)) {
+        index += 1;
+      }
+
+      @NonNull final Interval<Value>[] result = Arrays.copyOf(intervals, intervals.length - 1);
+      System.arraycopy(intervals, index + 1, result, index, intervals.length - index - 1);
+
+      return result;
+    }
+  }
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.subscription;
+
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Extract from a regular expression a literal that each of its matches contains.
+ *
+ * The extraction is conservative : groups, character classes, escaped classes and quantified
+ * characters end a literal, and expressions with a top-level alternation, inline flags or quoted
+ * sections have no literal.
+ */
+public final class RegexLiterals {
+
+  /**
+   * @param expression A regular expression.
+   * @return The longest literal that any match of the expression contains, null if none was found.
+   */
+  public static @Nullable String getRequiredLiteral(@NonNull final String expression) {
+    @NonNull final StringBuilder current = new StringBuilder();
+    @NonNull String best = "";
+    @NonNegative int index = 0;
+
+    while (index < expression.length()) {
+      final char character = expression.charAt(index);
+
+      switch (character) {
+        case '\\':
+          if (index + 1 >= expression.length()) {
+            return null;
+          }
+
+          final char escaped = expression.charAt(index + 1);
+
+          if (escaped == 'Q' || escaped == 'E') {
+            return null;
+          }
+
+          if (Character.isLetterOrDigit(escaped)) {
+            best = longest(best, current);
+            current.setLength(0);
+          } else {
+            current.append(escaped);
+          }
+
+          index += 2;
+          break;
+        case '[':
+          best = longest(best, current);
+          current.setLength(0);
+          index = skipClass(expression, index);
+          break;
+        case '(':
+          if (
+              expression.startsWith("(?", index) && index + 2 < expression.length() &&
+                  "idmsuxU-".indexOf(expression.charAt(index + 2)) >= 0
+          ) {
+            return null;
+          }
+
+          best = longest(best, current);
+          current.setLength(0);
+          index = skipGroup(expression, index);
+          break;
+        case '|':
+          return null;
+        case '*':
+        case '?':
+        case '{':
+          if (current.length() > 0 && !isQuantifierMinimumPositive(expression, index)) {
+            current.setLength(current.length() - 1);
+          }
+
+          best = longest(best, current);
+          current.setLength(0);
+          index = skipQuantifier(expression, index);
+          break;
+        case '+':
+          best = longest(best, current);
+          current.setLength(0);
+          index = skipQuantifier(expression, index);
+          break;
+        case '.':
+        case '^':
+        case '$':
+          best = longest(best, current);
+          current.setLength(0);
+          index += 1;
+          break;
+        default:
+          current.append(character);
+          index += 1;
+      }
+    }
+
+    best = longest(best, current);
+
+    return best.isEmpty() ? null : best;
+  }
+
+  private static @NonNull String longest(
+      @NonNull final String best,
+      @NonNull final StringBuilder candidate
+  ) {
+    return candidate.length() > best.length() ? candidate.toString() : best;
+  }
+
+  /**
+   * @return True if the quantifier at the given index requires at least one occurrence.
+   */
+  private static boolean isQuantifierMinimumPositive(
+      @NonNull final String expression,
+      @NonNegative final int index
+  ) {
+    if (expression.charAt(index) != '{') {
+      return false;
+    }
+
+    @NonNegative int end = index + 1;
+
+    while (end < expression.length() && Character.isDigit(expression.charAt(end))) {
+      end += 1;
+    }
+
+    return end > index + 1 && Integer.parseInt(expression.substring(index + 1, end)) > 0;
+  }
+
+  /**
+   * @return The index that follows a quantifier and its lazy or possessive suffix.
+   */
+  private static @NonNegative int skipQuantifier(
+      @NonNull final String expression,
+      @NonNegative final int index
+  ) {
+    @NonNegative int result = index + 1;
+
+    if (expression.charAt(index) == '{') {
+      final int end = expression.indexOf('}', index);
+      result = end < 0 ? expression.length() : end + 1;
+    }
+
+    if (
+        result < expression.length() &&
+            (expression.charAt(result) == '?' || expression.charAt(result) == '+')
+    ) {
+      result += 1;
+    }
+
+    return result;
+  }
+
+  /**
+   * @return The index that follows a character class.
+   */
+  private static @NonNegative int skipClass(
+      @NonNull final String expression,
+      @NonNegative final int index
+  ) {
+    @NonNegative int depth = 0;
+    @NonNegative int result = index;
+
+    while (result < expression.length()) {
+      final char character = expression.charAt(result);
+
+      if (character == '\\') {
+        result += 2;
+        continue;
+      }
+
+      if (character == '[') {
+        depth += 1;
+
+        if (expression.startsWith("^]", result + 1)) {
+          result += 2;
+        } else if (expression.startsWith("]", result + 1)) {
+          result += 1;
+        }
+      } else if (character == ']') {
+        depth -= 1;
+
+        if (depth == 0) {
+          return result + 1;
+        }
+      }
+
+      result += 1;
+    }
+
+    return result;
+  }
+
+  /**
+   * @return The index that follows a group and its quantifier.
+   */
+  private static @NonNegative int skipGroup(
+      @NonNull final String expression,
+      @NonNegative final int index
+  ) {
+    @NonNegative int depth = 0;
+    @NonNegative int result = index;
+
+    while (result < expression.length()) {
+      final char character = expression.charAt(result);
+
+      if (character == '\\') {
+        result += 2;
+        continue;
+      }
+
+      if (character == '[') {
+        result = skipClass(expression, result);
+        continue;
+      }
+
+      if (character == '(') {
+        depth += 1;
+      } else if (character == ')') {
+        depth -= 1;
+
+        if (depth == 0) {
+          result += 1;
+
+          if (result < expression.length() && "*+?{".indexOf(expression.charAt(result)) >= 0) {
+            result = skipQuantifier(expression, result);
+          }
+
+          return result;
+        }
+      }
+
+      result += 1;
+    }
+
+    return result;
+  }
+}
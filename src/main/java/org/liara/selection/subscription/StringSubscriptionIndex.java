@@ -0,0 +1,279 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.subscription;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.regex.Pattern;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.test.selection.string.StringClause;
+
+/**
+ * An immutable index of stored string selections, that returns the selections that accept an
+ * incoming value in one pass over the value.
+ *
+ * Each filter of a selection is triggered by one of its positive clauses : an equality is looked up
+ * in a hash index, a token or a quoted string is searched by an Aho-Corasick automaton, and a
+ * regular expression is prefiltered by a literal that each of its matches contains. Tokens of all
+ * clauses and literals of all regular expressions are searched by the automaton, so that checking
+ * the other clauses of a triggered filter never scans the value again, excepted to run the regular
+ * expressions whose literal was found. Filters without any positive clause to index are checked
+ * for each value.
+ *
+ * Indices are built by a StringSubscriptionIndexBuilder and can be shared by many threads.
+ *
+ * @param <Identifier> Type of the identifiers of the subscriptions.
+ */
+public final class StringSubscriptionIndex<Identifier> {
+
+  static final int NO_PATTERN = -1;
+
+  @NonNull
+  private final List<Identifier> _identifiers;
+
+  @NonNull
+  private final IndexedFilter[] _filters;
+
+  @NonNull
+  private final AhoCorasickAutomaton _automaton;
+
+  /**
+   * Filters triggered by each pattern of the automaton.
+   */
+  @NonNull
+  private final int[][] _patternTriggers;
+
+  /**
+   * Filters triggered by each value.
+   */
+  @NonNull
+  private final Map<@NonNull String, @NonNull int[]> _equalityTriggers;
+
+  /**
+   * Filters checked for each value.
+   */
+  @NonNull
+  private final int[] _unconditional;
+
+  StringSubscriptionIndex(
+      @NonNull final List<Identifier> identifiers,
+      @NonNull final IndexedFilter[] filters,
+      @NonNull final AhoCorasickAutomaton automaton,
+      @NonNull final int[][] patternTriggers,
+      @NonNull final Map<@NonNull String, @NonNull int[]> equalityTriggers,
+      @NonNull final int[] unconditional
+  ) {
+    _identifiers = identifiers;
+    _filters = filters;
+    _automaton = automaton;
+    _patternTriggers = patternTriggers;
+    _equalityTriggers = equalityTriggers;
+    _unconditional = unconditional;
+  }
+
+  /**
+   * Call an action for each subscription that accepts a value.
+   *
+   * @param value An incoming value, null values are never accepted.
+   * @param action Action called once with the identifier of each matching subscription.
+   */
+  public void match(
+      @Nullable final String value,
+      @NonNull final Consumer<? super Identifier> action
+  ) {
+    if (value == null) {
+      return;
+    }
+
+    @NonNull final long[] found = new long[(_automaton.getPatternCount() + 63) >>> 6];
+    @NonNull final long[] matched = new long[(_identifiers.size() + 63) >>> 6];
+    @NonNull final FoundPatterns patterns = new FoundPatterns();
+
+    _automaton.search(value, found, patterns);
+
+    for (@NonNegative int index = 0; index < patterns.size; ++index) {
+      check(_patternTriggers[patterns.values[index]], value, found, matched, action);
+    }
+
+    @Nullable final int[] equalities = _equalityTriggers.get(value);
+
+    if (equalities != null) {
+      check(equalities, value, found, matched, action);
+    }
+
+    check(_unconditional, value, found, matched, action);
+  }
+
+  /**
+   * Check triggered filters, once the automaton has searched the whole value.
+   */
+  private void check(
+      @NonNull final int[] filters,
+      @NonNull final String value,
+      @NonNull final long[] found,
+      @NonNull final long[] matched,
+      @NonNull final Consumer<? super Identifier> action
+  ) {
+    for (final int index : filters) {
+      @NonNull final IndexedFilter filter = _filters[index];
+      final int subscription = filter.subscription;
+      final long bit = 1L << subscription;
+
+      if ((matched[subscription >>> 6] & bit) == 0L && filter.test(value, found)) {
+        matched[subscription >>> 6] |= bit;
+        action.accept(_identifiers.get(subscription));
+      }
+    }
+  }
+
+  /**
+   * @param value An incoming value.
+   * @return The identifiers of the subscriptions that accept the given value.
+   */
+  public @NonNull List<Identifier> match(@Nullable final String value) {
+    @NonNull final List<Identifier> result = new ArrayList<>();
+    match(value, result::add);
+    return result;
+  }
+
+  /**
+   * @return The identifiers of the indexed subscriptions.
+   */
+  public @NonNull List<Identifier> getIdentifiers() {
+    return Collections.unmodifiableList(_identifiers);
+  }
+
+  /**
+   * @return The number of literals searched for each value.
+   */
+  public @NonNegative int getPatternCount() {
+    return _automaton.getPatternCount();
+  }
+
+  /**
+   * @return The number of filters checked for each value whatever its content.
+   */
+  public @NonNegative int getUnconditionalFilterCount() {
+    return _unconditional.length;
+  }
+
+  /**
+   * The patterns found in a value, in order of discovery.
+   */
+  private static final class FoundPatterns
+      implements IntConsumer {
+
+    @NonNull
+    int[] values = new int[16];
+
+    @NonNegative
+    int size = 0;
+
+    @Override
+    public void accept(final int pattern) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+
+      values[size++] = pattern;
+    }
+  }
+
+  /**
+   * A filter of a stored selection, with the pattern of the automaton of each of its clauses.
+   */
+  static final class IndexedFilter {
+
+    @NonNegative
+    final int subscription;
+
+    @NonNull
+    final StringClause[] clauses;
+
+    /**
+     * Pattern of each clause in the automaton, NO_PATTERN for equalities, empty tokens and regular
+     * expressions without literal.
+     */
+    @NonNull
+    final int[] patterns;
+
+    @NonNull
+    final Pattern[] expressions;
+
+    IndexedFilter(
+        @NonNegative final int subscription,
+        @NonNull final StringClause[] clauses,
+        @NonNull final int[] patterns
+    ) {
+      this.subscription = subscription;
+      this.clauses = clauses;
+      this.patterns = patterns;
+      this.expressions = new Pattern[clauses.length];
+
+      for (@NonNegative int index = 0; index < clauses.length; ++index) {
+        if (clauses[index].getType() == StringClause.REGEXP) {
+          expressions[index] = Pattern.compile(clauses[index].getContent());
+        }
+      }
+    }
+
+    /**
+     * @param value A non-null value.
+     * @param found Patterns found in the value by the automaton.
+     * @return True if the value satisfies all clauses of this filter.
+     */
+    boolean test(@NonNull final String value, @NonNull final long[] found) {
+      for (@NonNegative int index = 0; index < clauses.length; ++index) {
+        @NonNull final StringClause clause = clauses[index];
+        final int pattern = patterns[index];
+        final boolean matches;
+
+        switch (clause.getType()) {
+          case StringClause.EQUAL:
+            matches = clause.getContent().equals(value);
+            break;
+          case StringClause.CONTAINS:
+            matches = pattern == NO_PATTERN || (found[pattern >>> 6] & (1L << pattern)) != 0L;
+            break;
+          default:
+            matches = (
+                pattern == NO_PATTERN || (found[pattern >>> 6] & (1L << pattern)) != 0L
+            ) && expressions[index].matcher(value).find();
+        }
+
+        if (matches == clause.isNegated()) {
+          return false;
+        }
+      }
+
+      return true;
+    }
+  }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.subscription;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.selection.subscription.StringSubscriptionIndex.IndexedFilter;
+import org.liara.test.selection.string.StringClause;
+import org.liara.test.selection.string.StringCondition;
+
+/**
+ * A builder of string subscription indices.
+ *
+ * The clause that triggers a filter is chosen in the following order : an equality, the longest
+ * token or quoted string, the regular expression with the longest literal. Longer literals occur in
+ * fewer values, and thus trigger fewer useless checks.
+ *
+ * @param <Identifier> Type of the identifiers of the subscriptions.
+ */
+public final class StringSubscriptionIndexBuilder<Identifier> {
+
+  @NonNull
+  private final Map<Identifier, @NonNull StringCondition> _subscriptions;
+
+  public StringSubscriptionIndexBuilder() {
+    _subscriptions = new LinkedHashMap<>();
+  }
+
+  /**
+   * Add or replace a subscription.
+   *
+   * @param identifier Identifier of the subscription.
+   * @param condition A compiled string selection.
+   * @return This builder instance for chaining purposes.
+   */
+  public @NonNull StringSubscriptionIndexBuilder<Identifier> add(
+      @NonNull final Identifier identifier,
+      @NonNull final StringCondition condition
+  ) {
+    _subscriptions.put(identifier, condition);
+    return this;
+  }
+
+  /**
+   * @param identifier Identifier of a subscription.
+   * @return This builder instance for chaining purposes.
+   */
+  public @NonNull StringSubscriptionIndexBuilder<Identifier> remove(
+      @NonNull final Identifier identifier
+  ) {
+    _subscriptions.remove(identifier);
+    return this;
+  }
+
+  /**
+   * @return An index of the subscriptions of this builder.
+   */
+  public @NonNull StringSubscriptionIndex<Identifier> build() {
+    @NonNull final List<Identifier> identifiers = new ArrayList<>(_subscriptions.size());
+    @NonNull final List<@NonNull IndexedFilter> filters = new ArrayList<>();
+    @NonNull final Map<@NonNull String, @NonNull Integer> patterns = new HashMap<>();
+    @NonNull final List<@NonNull List<@NonNull Integer>> patternTriggers = new ArrayList<>();
+    @NonNull final Map<@NonNull String, @NonNull List<@NonNull Integer>> equalityTriggers = (
+        new HashMap<>()
+    );
+    @NonNull final List<@NonNull Integer> unconditional = new ArrayList<>();
+
+    for (final Map.@NonNull Entry<Identifier, @NonNull StringCondition> entry : _subscriptions
+        .entrySet()) {
+      final int subscription = identifiers.size();
+      identifiers.add(entry.getKey());
+
+      for (@NonNull final List<@NonNull StringClause> clauses : entry.getValue().getFilters()) {
+        @NonNull final int[] clausePatterns = new int[clauses.size()];
+        @Nullable String trigger = null;
+        int triggerType = -1;
+        int triggerPattern = StringSubscriptionIndex.NO_PATTERN;
+
+        for (@NonNegative int index = 0; index < clauses.size(); ++index) {
+          @NonNull final StringClause clause = clauses.get(index);
+          @Nullable final String literal = getLiteral(clause);
+
+          clausePatterns[index] = literal == null || literal.isEmpty()
+              ? StringSubscriptionIndex.NO_PATTERN
+              : patterns.computeIfAbsent(literal, (final String key) -> {
+                patternTriggers.add(new ArrayList<>());
+                return patterns.size();
+              });
+
+          if (clause.isNegated()) {
+            continue;
+          }
+
+          if (clause.getType() == StringClause.EQUAL) {
+            if (triggerType != StringClause.EQUAL) {
+              trigger = clause.getContent();
+              triggerType = StringClause.EQUAL;
+            }
+          } else if (
+              clausePatterns[index] != StringSubscriptionIndex.NO_PATTERN &&
+                  triggerType != StringClause.EQUAL && (
+                  trigger == null ||
+                      isBetterTrigger(clause.getType(), literal, triggerType, trigger)
+              )
+          ) {
+            trigger = literal;
+            triggerType = clause.getType();
+            triggerPattern = clausePatterns[index];
+          }
+        }
+
+        final int filter = filters.size();
+
+        filters.add(
+            new IndexedFilter(subscription, clauses.toArray(new StringClause[0]), clausePatterns)
+        );
+
+        if (triggerType == StringClause.EQUAL) {
+          equalityTriggers.computeIfAbsent(trigger, (final String key) -> new ArrayList<>())
+              .add(filter);
+        } else if (trigger != null) {
+          patternTriggers.get(triggerPattern).add(filter);
+        } else {
+          unconditional.add(filter);
+        }
+      }
+    }
+
+    @NonNull final String[] literals = new String[patterns.size()];
+
+    for (final Map.@NonNull Entry<@NonNull String, @NonNull Integer> entry : patterns.entrySet()) {
+      literals[entry.getValue()] = entry.getKey();
+    }
+
+    @NonNull final int[][] triggers = new int[patternTriggers.size()][];
+
+    for (@NonNegative int index = 0; index < triggers.length; ++index) {
+      triggers[index] = toArray(patternTriggers.get(index));
+    }
+
+    @NonNull final Map<@NonNull String, @NonNull int[]> equalities = new HashMap<>();
+
+    for (
+        final Map.@NonNull Entry<@NonNull String, @NonNull List<@NonNull Integer>> entry :
+        equalityTriggers.entrySet()
+    ) {
+      equalities.put(entry.getKey(), toArray(entry.getValue()));
+    }
+
+    return new StringSubscriptionIndex<>(
+        identifiers,
+        filters.toArray(new IndexedFilter[0]),
+        new AhoCorasickAutomaton(Arrays.asList(literals)),
+        triggers,
+        equalities,
+        toArray(unconditional)
+    );
+  }
+
+  /**
+   * @return The literal that a value must contain to satisfy a positive clause, null if none.
+   */
+  private static @Nullable String getLiteral(@NonNull final StringClause clause) {
+    switch (clause.getType()) {
+      case StringClause.CONTAINS:
+        return clause.getContent();
+      case StringClause.REGEXP:
+        return RegexLiterals.getRequiredLiteral(clause.getContent());
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Tokens are preferred to regular expressions, as they do not require to run an expression
+   * once triggered, and longer literals are preferred to shorter ones.
+   */
+  private static boolean isBetterTrigger(
+      final int type,
+      @NonNull final String literal,
+      final int currentType,
+      @NonNull final String current
+  ) {
+    if (type != currentType) {
+      return type == StringClause.CONTAINS;
+    }
+
+    return literal.length() > current.length();
+  }
+
+  private static @NonNull int[] toArray(@NonNull final List<@NonNull Integer> values) {
+    @NonNull final int[] result = new int[values.size()];
+
+    for (@NonNegative int index = 0; index < result.length; ++index) {
+      result[index] = values.get(index);
+    }
+
+    return result;
+  }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.subscription;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.liara.selection.range.DoubleRanges;
+import org.liara.selection.range.LongRanges;
+
+/**
+ * An index of stored number or duration selections, that returns the selections that accept an
+ * incoming value.
+ *
+ * Each subscription is a compiled selection decomposed into the disjoint intervals of its ranges,
+ * and all intervals are stored in an interval tree, a value is then matched against n
+ * subscriptions in O(log n + k), k being the number of matching subscriptions. Integral bounds are
+ * converted into doubles, and are exact up to 2^53.
+ *
+ * Matching never blocks : it reads an immutable snapshot of the tree, while subscriptions are added
+ * and removed one at a time by copying the updated path of the tree.
+ *
+ * @param <Identifier> Type of the identifiers of the subscriptions.
+ */
+public final class SubscriptionIndex<Identifier> {
+
+  @NonNull
+  private final Map<Identifier, @NonNull List<@NonNull Interval<Identifier>>> _subscriptions;
+
+  @NonNull
+  private volatile IntervalTree<Identifier> _tree;
+
+  public SubscriptionIndex() {
+    _subscriptions = new ConcurrentHashMap<>();
+    _tree = IntervalTree.empty();
+  }
+
+  /**
+   * Add or replace a subscription.
+   *
+   * @param identifier Identifier of the subscription.
+   * @param ranges A compiled number or duration selection.
+   */
+  public void add(@NonNull final Identifier identifier, @NonNull final LongRanges ranges) {
+    @NonNull final List<@NonNull Interval<Identifier>> intervals = new ArrayList<>(ranges.size());
+
+    for (@NonNegative int index = 0, size = ranges.size(); index < size; ++index) {
+      intervals.add(
+          new Interval<>(
+              toDouble(ranges.getLower(index)), toDouble(ranges.getUpper(index)), identifier
+          )
+      );
+    }
+
+    add(identifier, intervals);
+  }
+
+  /**
+   * Add or replace a subscription.
+   *
+   * @param identifier Identifier of the subscription.
+   * @param ranges A compiled number selection.
+   */
+  public void add(@NonNull final Identifier identifier, @NonNull final DoubleRanges ranges) {
+    @NonNull final List<@NonNull Interval<Identifier>> intervals = new ArrayList<>(ranges.size());
+
+    for (@NonNegative int index = 0, size = ranges.size(); index < size; ++index) {
+      intervals.add(new Interval<>(ranges.getLower(index), ranges.getUpper(index), identifier));
+    }
+
+    add(identifier, intervals);
+  }
+
+  private synchronized void add(
+      @NonNull final Identifier identifier,
+      @NonNull final List<@NonNull Interval<Identifier>> intervals
+  ) {
+    @NonNull IntervalTree<Identifier> tree = without(identifier);
+
+    for (@NonNull final Interval<Identifier> interval : intervals) {
+      tree = tree.add(interval);
+    }
+
+    _subscriptions.put(identifier, intervals);
+    _tree = tree;
+  }
+
+  /**
+   * @param identifier Identifier of a subscription.
+   * @return True if the subscription was removed, false if it did not exist.
+   */
+  public synchronized boolean remove(@NonNull final Identifier identifier) {
+    if (!_subscriptions.containsKey(identifier)) {
+      return false;
+    }
+
+    _tree = without(identifier);
+    _subscriptions.remove(identifier);
+
+    return true;
+  }
+
+  private @NonNull IntervalTree<Identifier> without(@NonNull final Identifier identifier) {
+    @NonNull IntervalTree<Identifier> result = _tree;
+
+    for (@NonNull final Interval<Identifier> interval : _subscriptions.getOrDefault(
+        identifier, new ArrayList<>()
+    )) {
+      result = result.remove(interval);
+    }
+
+    return result;
+  }
+
+  /**
+   * Call an action for each subscription that accepts a value.
+   *
+   * @param value An incoming value.
+   * @param action Action to call with the identifier of each matching subscription.
+   */
+  public void match(final double value, @NonNull final Consumer<? super Identifier> action) {
+    _tree.stab(value, action);
+  }
+
+  /**
+   * @param value An incoming value.
+   * @return The identifiers of the subscriptions that accept the given value.
+   */
+  public @NonNull List<Identifier> match(final double value) {
+    return _tree.stab(value);
+  }
+
+  /**
+   * @param value An incoming integral value or duration in milliseconds.
+   * @return The identifiers of the subscriptions that accept the given value.
+   */
+  public @NonNull List<Identifier> match(final long value) {
+    return _tree.stab(toDouble(value));
+  }
+
+  /**
+   * @param identifier Identifier of a subscription.
+   * @return True if the subscription exists.
+   */
+  public boolean contains(@NonNull final Identifier identifier) {
+    return _subscriptions.containsKey(identifier);
+  }
+
+  /**
+   * @return The number of subscriptions.
+   */
+  public @NonNegative int size() {
+    return _subscriptions.size();
+  }
+
+  private static double toDouble(final long value) {
+    if (value == Long.MIN_VALUE) {
+      return Double.NEGATIVE_INFINITY;
+    } else if (value == Long.MAX_VALUE) {
+      return Double.POSITIVE_INFINITY;
+    } else {
+      return value;
+    }
+  }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.bool;
+
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.selection.bitmap.CompressedBitmap;
+import org.liara.selection.bitmap.CompressedBitmapBuilder;
+
+/**
+ * The set of states of a nullable boolean that are accepted by a boolean selection.
+ *
+ * A nullable boolean column is evaluated as a pair of bitmaps : a value bitmap and a null bitmap,
+ * bit i of word i / 64 describing the row i. The value bit of a null row is ignored.
+ */
+public final class BooleanCondition {
+
+  public static final int TRUE = 0b001;
+
+  public static final int FALSE = 0b010;
+
+  public static final int NULL = 0b100;
+
+  public static final int ALL = TRUE | FALSE | NULL;
+
+  /**
+   * Number of words of a partition of a compressed bitmap.
+   */
+  private static final int PARTITION_WORDS = 1024;
+
+  @NonNull
+  private static final BooleanCondition[] CONDITIONS = new BooleanCondition[ALL + 1];
+
+  static {
+    for (int states = 0; states <= ALL; ++states) {
+      CONDITIONS[states] = new BooleanCondition(states);
+    }
+  }
+
+  @NonNegative
+  private final int _states;
+
+  private final long _whenTrue;
+
+  private final long _whenFalse;
+
+  private final long _whenNull;
+
+  private BooleanCondition(@NonNegative final int states) {
+    _states = states;
+    _whenTrue = (states & TRUE) == 0 ? 0L : -1L;
+    _whenFalse = (states & FALSE) == 0 ? 0L : -1L;
+    _whenNull = (states & NULL) == 0 ? 0L : -1L;
+  }
+
+  /**
+   * @param states A combination of TRUE, FALSE and NULL.
+   * @return The condition that accepts the given states.
+   */
+  public static @NonNull BooleanCondition of(@NonNegative final int states) {
+    if (states < 0 || states > ALL) {
+      throw new IllegalArgumentException("Invalid boolean states : " + states);
+    }
+
+    return CONDITIONS[states];
+  }
+
+  /**
+   * @return The accepted states, as a combination of TRUE, FALSE and NULL.
+   */
+  public @NonNegative int getStates() {
+    return _states;
+  }
+
+  /**
+   * @param value A nullable boolean.
+   * @return True if the given value is accepted by this condition.
+   */
+  public boolean test(@Nullable final Boolean value) {
+    if (value == null) {
+      return _whenNull != 0L;
+    } else {
+      return (value ? _whenTrue : _whenFalse) != 0L;
+    }
+  }
+
+  /**
+   * Evaluate a word of 64 rows.
+   *
+   * @param values Value bits of the rows.
+   * @param nulls Null bits of the rows.
+   * @return A word in which each bit is set if the related row is accepted.
+   */
+  public long evaluate(final long values, final long nulls) {
+    return (values & ~nulls & _whenTrue) | (~values & ~nulls & _whenFalse) | (nulls & _whenNull);
+  }
+
+  /**
+   * Mark each row in [from, to[ that is accepted by this condition.
+   *
+   * @param values Value bitmap of the column.
+   * @param nulls Null bitmap of the column.
+   * @param from First row to evaluate, included.
+   * @param to Last row to evaluate, excluded.
+   * @param result Bitset to update, of at least (to + 63) / 64 words.
+   */
+  public void evaluate(
+      @NonNull final long[] values,
+      @NonNull final long[] nulls,
+      @NonNegative final int from,
+      @NonNegative final int to,
+      @NonNull final long[] result
+  ) {
+    if (from >= to) {
+      return;
+    }
+
+    final int first = from >>> 6;
+    final int last = (to - 1) >>> 6;
+
+    if (first == last) {
+      result[first] |= evaluate(values[first], nulls[first]) & (-1L << from) & (-1L >>> -to);
+      return;
+    }
+
+    result[first] |= evaluate(values[first], nulls[first]) & (-1L << from);
+
+    for (int word = first + 1; word < last; ++word) {
+      result[word] |= evaluate(values[word], nulls[word]);
+    }
+
+    result[last] |= evaluate(values[last], nulls[last]) & (-1L >>> -to);
+  }
+
+  /**
+   * Evaluate all rows of a column.
+   *
+   * @param values Value bitmap of the column.
+   * @param nulls Null bitmap of the column.
+   * @param size Number of rows of the column.
+   * @return A bitset of the accepted rows.
+   */
+  public @NonNull long[] evaluate(
+      @NonNull final long[] values,
+      @NonNull final long[] nulls,
+      @NonNegative final int size
+  ) {
+    @NonNull final long[] result = new long[(size + 63) >>> 6];
+    evaluate(values, nulls, 0, size, result);
+    return result;
+  }
+
+  /**
+   * Select all rows of a column, partition by partition, without allocating a bitset of the whole
+   * column.
+   *
+   * @param values Value bitmap of the column.
+   * @param nulls Null bitmap of the column.
+   * @param size Number of rows of the column.
+   * @return A bitmap of the accepted rows.
+   */
+  public @NonNull CompressedBitmap select(
+      @NonNull final long[] values,
+      @NonNull final long[] nulls,
+      @NonNegative final int size
+  ) {
+    @NonNull final CompressedBitmapBuilder builder = new CompressedBitmapBuilder();
+    @NonNull final long[] words = new long[PARTITION_WORDS];
+    final int count = (size + 63) >>> 6;
+
+    for (@NonNegative int from = 0; from < count; from += PARTITION_WORDS) {
+      final int to = Math.min(count, from + PARTITION_WORDS);
+
+      for (@NonNegative int word = from; word < to; ++word) {
+        words[word - from] = evaluate(values[word], nulls[word]);
+      }
+
+      if (to == count && (size & 63) != 0) {
+        words[to - from - 1] &= -1L >>> -size;
+      }
+
+      builder.addBitset(from << 6, words, 0, to - from);
+    }
+
+    return builder.build();
+  }
+
+  @Override
+  public int hashCode() {
+    return _states;
+  }
+
+  @Override
+  public boolean equals(@Nullable final Object object) {
+    return object == this;
+  }
+
+  @Override
+  public @NonNull String toString() {
+    return "BooleanCondition { true: " + (_whenTrue != 0L) + ", false: " + (_whenFalse != 0L) +
+        ", null: " + (_whenNull != 0L) + " }";
+  }
+}
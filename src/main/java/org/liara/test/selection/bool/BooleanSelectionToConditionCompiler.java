@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.bool;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.liara.selection.CompilationException;
+import org.liara.selection.SelectionToConditionCompiler;
+import org.liara.selection.ThrowingErrorListener;
+import org.liara.selection.antlr.BooleanSelectionBaseListener;
+import org.liara.selection.antlr.BooleanSelectionLexer;
+import org.liara.selection.antlr.BooleanSelectionParser;
+import org.liara.selection.antlr.BooleanSelectionParser.FilterContext;
+import org.liara.selection.antlr.BooleanSelectionParser.NegationContext;
+import org.liara.selection.antlr.BooleanSelectionParser.OperationContext;
+import org.liara.selection.antlr.BooleanSelectionParser.SelectionContext;
+
+/**
+ * A compiler that transforms boolean selections into the set of states that they accept.
+ *
+ * Clauses are evaluated with the three-valued logic of SQL, a clause over a null value being
+ * unknown, excepted the null clause that accepts null values only. A row is accepted if the
+ * selection is true for it.
+ */
+public class BooleanSelectionToConditionCompiler
+    extends BooleanSelectionBaseListener
+    implements SelectionToConditionCompiler<@NonNull BooleanCondition> {
+
+  /**
+   * Clauses are stored as the states for which they are true in the lower bits, and the states for
+   * which they are false in the upper bits. A state in neither of them is unknown.
+   */
+  private static final int FALSE_SHIFT = 3;
+
+  @NonNull
+  private final List<@NonNull Integer> _stack;
+  @NonNull
+  private final BooleanSelectionLexer _lexer;
+  @NonNull
+  private final BooleanSelectionParser _parser;
+  @NonNegative
+  private int _offset;
+
+  /**
+   * Create a new instance of a boolean selection to condition compiler.
+   */
+  public BooleanSelectionToConditionCompiler() {
+    _stack = new ArrayList<>(20);
+    _offset = 0;
+    _lexer = new BooleanSelectionLexer(CharStreams.fromString(""));
+    _parser = new BooleanSelectionParser(new CommonTokenStream(_lexer));
+  }
+
+  /**
+   * @see BooleanSelectionBaseListener#enterSelection(SelectionContext)
+   */
+  @Override
+  public void enterSelection(final BooleanSelectionParser.@NonNull SelectionContext context) {
+    _stack.clear();
+    _offset = 0;
+  }
+
+  /**
+   * @see BooleanSelectionBaseListener#exitSelection(SelectionContext)
+   */
+  @Override
+  public void exitSelection(final BooleanSelectionParser.@NonNull SelectionContext context) {
+    int whenTrue = 0;
+    int whenFalse = BooleanCondition.ALL;
+
+    for (final int filter : _stack) {
+      whenTrue |= whenTrue(filter);
+      whenFalse &= whenFalse(filter);
+    }
+
+    _stack.clear();
+    _stack.add(clause(whenTrue, whenFalse));
+  }
+
+  /**
+   * @see BooleanSelectionBaseListener#exitFilter(FilterContext)
+   */
+  @Override
+  public void exitFilter(final BooleanSelectionParser.@NonNull FilterContext context) {
+    @NonNull final List<@NonNull Integer> clauses = _stack.subList(_offset, _stack.size());
+    int whenTrue = BooleanCondition.ALL;
+    int whenFalse = 0;
+
+    for (final int clause : clauses) {
+      whenTrue &= whenTrue(clause);
+      whenFalse |= whenFalse(clause);
+    }
+
+    clauses.clear();
+
+    _stack.add(clause(whenTrue, whenFalse));
+    _offset += 1;
+  }
+
+  /**
+   * @see BooleanSelectionBaseListener#exitNegation(NegationContext)
+   */
+  @Override
+  public void exitNegation(final BooleanSelectionParser.@NonNull NegationContext context) {
+    final int clause = _stack.get(_stack.size() - 1);
+    _stack.set(_stack.size() - 1, clause(whenFalse(clause), whenTrue(clause)));
+  }
+
+  /**
+   * @see BooleanSelectionBaseListener#exitOperation(OperationContext)
+   */
+  @Override
+  public void exitOperation(final BooleanSelectionParser.@NonNull OperationContext context) {
+    _stack.add(parse(context.target));
+  }
+
+  /**
+   * Parse a value token.
+   *
+   * @param target A value token.
+   * @return The clause that accepts the given value.
+   */
+  private int parse(@NonNull final Token target) {
+    switch (target.getType()) {
+      case BooleanSelectionLexer.NULL:
+        return clause(BooleanCondition.NULL, BooleanCondition.TRUE | BooleanCondition.FALSE);
+      case BooleanSelectionLexer.FALSE:
+        return clause(BooleanCondition.FALSE, BooleanCondition.TRUE);
+      default:
+        return clause(BooleanCondition.TRUE, BooleanCondition.FALSE);
+    }
+  }
+
+  private static int clause(final int whenTrue, final int whenFalse) {
+    return whenTrue | (whenFalse << FALSE_SHIFT);
+  }
+
+  private static int whenTrue(final int clause) {
+    return clause & BooleanCondition.ALL;
+  }
+
+  private static int whenFalse(final int clause) {
+    return clause >>> FALSE_SHIFT;
+  }
+
+  /**
+   * @see SelectionToConditionCompiler#compile(CharSequence)
+   */
+  @Override
+  public @NonNull BooleanCondition compile(@NonNull final CharSequence selection) {
+    if (selection.toString().trim().equalsIgnoreCase("")) {
+      return BooleanCondition.of(BooleanCondition.TRUE);
+    }
+
+    _lexer.setInputStream(CharStreams.fromString(selection.toString()));
+    _lexer.reset();
+
+    _parser.setTokenStream(new CommonTokenStream(_lexer));
+    _parser.reset();
+
+    ParseTreeWalker.DEFAULT.walk(this, _parser.selection());
+
+    return BooleanCondition.of(whenTrue(_stack.get(0)));
+  }
+
+  /**
+   * @see SelectionToConditionCompiler#tryToCompile(CharSequence)
+   */
+  @Override
+  public @NonNull BooleanCondition tryToCompile(@NonNull final CharSequence selection)
+      throws CompilationException {
+    if (selection.toString().trim().equalsIgnoreCase("")) {
+      return BooleanCondition.of(BooleanCondition.TRUE);
+    }
+
+    _lexer.setInputStream(CharStreams.fromString(selection.toString()));
+    _lexer.reset();
+
+    _parser.setTokenStream(new CommonTokenStream(_lexer));
+    _parser.reset();
+
+    _lexer.addErrorListener(ThrowingErrorListener.INSTANCE);
+    _parser.addErrorListener(ThrowingErrorListener.INSTANCE);
+
+    ParseTreeWalker.DEFAULT.walk(this, _parser.selection());
+
+    return BooleanCondition.of(whenTrue(_stack.get(0)));
+  }
+}
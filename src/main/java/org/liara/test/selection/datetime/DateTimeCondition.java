@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.datetime;
+
+import java.util.function.LongPredicate;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * An in-memory form of a datetime selection that is evaluated over epoch milliseconds.
+ *
+ * Conditions are immutable and evaluating them does not allocate anything, so a condition can be
+ * shared by many threads.
+ */
+public abstract class DateTimeCondition
+    implements LongPredicate {
+
+  /**
+   * @param epochMillis An instant, in milliseconds since 1970-01-01T00:00:00Z.
+   * @return True if the given instant satisfies this condition.
+   */
+  @Override
+  public abstract boolean test(final long epochMillis);
+
+  /**
+   * Mark each row of the given column in [from, to[ that satisfies this condition.
+   *
+   * @param column A column of epoch milliseconds.
+   * @param from First row to evaluate, included.
+   * @param to Last row to evaluate, excluded.
+   * @param result Bitset to update, of at least (to + 63) / 64 words.
+   */
+  public void evaluate(
+      @NonNull final long[] column,
+      @NonNegative final int from,
+      @NonNegative final int to,
+      @NonNull final long[] result
+  ) {
+    for (@NonNegative int index = from; index < to; ++index) {
+      if (test(column[index])) {
+        result[index >>> 6] |= 1L << index;
+      }
+    }
+  }
+
+  /**
+   * Call the method of the given visitor that is related to the type of this condition.
+   *
+   * @param visitor A visitor.
+   * @param <Result> Type of result returned by the visitor.
+   * @return The result of the visitor.
+   */
+  public abstract <Result> Result accept(
+      @NonNull final DateTimeConditionVisitor<Result> visitor
+  );
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.datetime;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A condition that is satisfied if at least one of its operands is satisfied.
+ */
+public final class DateTimeDisjunction
+    extends DateTimeCondition {
+
+  @NonNull
+  private final DateTimeCondition[] _operands;
+
+  /**
+   * Create a new disjunction of the given conditions.
+   *
+   * @param operands Conditions to combine.
+   */
+  public DateTimeDisjunction(@NonNull final List<@NonNull DateTimeCondition> operands) {
+    _operands = operands.toArray(new DateTimeCondition[0]);
+  }
+
+  /**
+   * @see DateTimeCondition#test(long)
+   */
+  @Override
+  public boolean test(final long epochMillis) {
+    for (@NonNegative int index = 0; index < _operands.length; ++index) {
+      if (_operands[index].test(epochMillis)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * @see DateTimeCondition#accept(DateTimeConditionVisitor)
+   */
+  @Override
+  public <Result> Result accept(@NonNull final DateTimeConditionVisitor<Result> visitor) {
+    return visitor.visitDisjunction(this);
+  }
+
+  /**
+   * @return An unmodifiable view of the operands of this disjunction.
+   */
+  public @NonNull List<@NonNull DateTimeCondition> getOperands() {
+    return Collections.unmodifiableList(Arrays.asList(_operands));
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(_operands);
+  }
+
+  @Override
+  public boolean equals(@Nullable final Object object) {
+    if (object == null) {
+      return false;
+    }
+    if (object == this) {
+      return true;
+    }
+
+    if (object instanceof DateTimeDisjunction) {
+      return getOperands().equals(((DateTimeDisjunction) object).getOperands());
+    }
+
+    return false;
+  }
+
+  @Override
+  public @NonNull String toString() {
+    return "or" + getOperands();
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.datetime;
+
+import java.time.temporal.ChronoField;
+import java.util.Objects;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.selection.range.LongRanges;
+
+/**
+ * A condition over a calendar field of an instant in a given zone.
+ *
+ * Date and time comparisons are respectively made over the EPOCH_DAY and the MILLI_OF_DAY fields.
+ */
+public final class DateTimeFieldComparison
+    extends DateTimeCondition {
+
+  @NonNull
+  private final ChronoField _field;
+
+  @NonNull
+  private final ZoneOffsetTable _zone;
+
+  @NonNull
+  private final LongRanges _accepted;
+
+  /**
+   * Create a new comparison.
+   *
+   * @param field Compared field.
+   * @param zone Zone in which the field is computed.
+   * @param accepted Accepted values of the field.
+   */
+  public DateTimeFieldComparison(
+      @NonNull final ChronoField field,
+      @NonNull final ZoneOffsetTable zone,
+      @NonNull final LongRanges accepted
+  ) {
+    _field = field;
+    _zone = zone;
+    _accepted = accepted;
+  }
+
+  /**
+   * @see DateTimeCondition#test(long)
+   */
+  @Override
+  public boolean test(final long epochMillis) {
+    return _accepted.contains(
+        EpochCalendar.get(_field, epochMillis, _zone.toLocalMillis(epochMillis))
+    );
+  }
+
+  /**
+   * @see DateTimeCondition#accept(DateTimeConditionVisitor)
+   */
+  @Override
+  public <Result> Result accept(@NonNull final DateTimeConditionVisitor<Result> visitor) {
+    return visitor.visitFieldComparison(this);
+  }
+
+  public @NonNull ChronoField getField() {
+    return _field;
+  }
+
+  public @NonNull ZoneOffsetTable getZone() {
+    return _zone;
+  }
+
+  public @NonNull LongRanges getAccepted() {
+    return _accepted;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(_field, _zone.getZone(), _accepted);
+  }
+
+  @Override
+  public boolean equals(@Nullable final Object object) {
+    if (object == null) {
+      return false;
+    }
+    if (object == this) {
+      return true;
+    }
+
+    if (object instanceof DateTimeFieldComparison) {
+      @NonNull final DateTimeFieldComparison other = (DateTimeFieldComparison) object;
+
+      return Objects.equals(_field, other.getField()) &&
+          Objects.equals(_zone.getZone(), other.getZone().getZone()) &&
+          Objects.equals(_accepted, other.getAccepted());
+    }
+
+    return false;
+  }
+
+  @Override
+  public @NonNull String toString() {
+    return _field + " in " + _zone.getZone() + " in " + _accepted;
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.datetime;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A condition that is satisfied if its operand is not.
+ */
+public final class DateTimeNegation
+    extends DateTimeCondition {
+
+  @NonNull
+  private final DateTimeCondition _operand;
+
+  /**
+   * Create a new negation of the given condition.
+   *
+   * @param operand Condition to negate.
+   */
+  public DateTimeNegation(@NonNull final DateTimeCondition operand) {
+    _operand = operand;
+  }
+
+  /**
+   * @see DateTimeCondition#test(long)
+   */
+  @Override
+  public boolean test(final long epochMillis) {
+    return !_operand.test(epochMillis);
+  }
+
+  /**
+   * @see DateTimeCondition#accept(DateTimeConditionVisitor)
+   */
+  @Override
+  public <Result> Result accept(@NonNull final DateTimeConditionVisitor<Result> visitor) {
+    return visitor.visitNegation(this);
+  }
+
+  /**
+   * @return The negated condition.
+   */
+  public @NonNull DateTimeCondition getOperand() {
+    return _operand;
+  }
+
+  @Override
+  public int hashCode() {
+    return ~_operand.hashCode();
+  }
+
+  @Override
+  public boolean equals(@Nullable final Object object) {
+    if (object == null) {
+      return false;
+    }
+    if (object == this) {
+      return true;
+    }
+
+    if (object instanceof DateTimeNegation) {
+      return _operand.equals(((DateTimeNegation) object).getOperand());
+    }
+
+    return false;
+  }
+
+  @Override
+  public @NonNull String toString() {
+    return "not " + _operand;
+  }
+}
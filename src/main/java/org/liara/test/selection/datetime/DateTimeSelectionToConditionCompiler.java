@@ -0,0 +1,513 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.datetime;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.ChronoField;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.selection.CompilationException;
+import org.liara.selection.SelectionToConditionCompiler;
+import org.liara.selection.ThrowingErrorListener;
+import org.liara.selection.antlr.DateSelectionBaseListener;
+import org.liara.selection.antlr.DateSelectionLexer;
+import org.liara.selection.antlr.DateSelectionParser;
+import org.liara.selection.antlr.DateSelectionParser.DefaultConfigurationContext;
+import org.liara.selection.antlr.DateSelectionParser.FilterContext;
+import org.liara.selection.antlr.DateSelectionParser.NegationContext;
+import org.liara.selection.antlr.DateSelectionParser.OperationContext;
+import org.liara.selection.antlr.DateSelectionParser.RangeContext;
+import org.liara.selection.antlr.DateSelectionParser.SelectionContext;
+import org.liara.selection.range.LongRanges;
+
+/**
+ * A compiler that transforms datetime selections into conditions over epoch milliseconds.
+ *
+ * The resulting condition accepts the same instants as the expression built by a
+ * DateTimeSelectionToExpressionCompiler for the same selection, calendar fields being computed in
+ * the ISO calendar as java.time does.
+ */
+public class DateTimeSelectionToConditionCompiler
+    extends DateSelectionBaseListener
+    implements SelectionToConditionCompiler<@NonNull DateTimeCondition> {
+
+  private static final long NANOS_PER_MILLI = 1_000_000L;
+
+  @NonNull
+  private final List<@NonNull DateTimeCondition> _stack;
+  @NonNull
+  private final DateSelectionLexer _lexer;
+  @NonNull
+  private final DateSelectionParser _parser;
+  @NonNull
+  private Locale _defaultLocale;
+  @NonNull
+  private DateTimeFormatter _defaultFormat;
+  @NonNegative
+  private int _offset;
+
+  public DateTimeSelectionToConditionCompiler() {
+    _defaultLocale = Locale.getDefault();
+    _defaultFormat = DateTimeFormatter.ISO_ZONED_DATE_TIME;
+    _stack = new ArrayList<>(20);
+    _lexer = new DateSelectionLexer(CharStreams.fromString(""));
+    _parser = new DateSelectionParser(new CommonTokenStream(_lexer));
+  }
+
+  /**
+   * @see DateSelectionBaseListener#enterSelection(SelectionContext)
+   */
+  @Override
+  public void enterSelection(final DateSelectionParser.@NonNull SelectionContext context) {
+    _defaultLocale = Locale.getDefault();
+    _defaultFormat = DateTimeFormatter.ISO_ZONED_DATE_TIME;
+    _stack.clear();
+    _offset = 0;
+  }
+
+  /**
+   * @see DateSelectionBaseListener#exitSelection(SelectionContext)
+   */
+  @Override
+  public void exitSelection(final DateSelectionParser.@NonNull SelectionContext context) {
+    @NonNull final DateTimeCondition selection = or(_stack);
+    _stack.clear();
+    _stack.add(selection);
+  }
+
+  /**
+   * @see DateSelectionBaseListener#exitFilter(FilterContext)
+   */
+  @Override
+  public void exitFilter(final DateSelectionParser.@NonNull FilterContext context) {
+    @NonNull final List<@NonNull DateTimeCondition> clauses = _stack.subList(
+        _offset, _stack.size()
+    );
+
+    @NonNull final DateTimeCondition filter = and(clauses);
+
+    clauses.clear();
+    _stack.add(filter);
+    _offset += 1;
+  }
+
+  /**
+   * @see DateSelectionBaseListener#exitDefaultConfiguration(DefaultConfigurationContext)
+   */
+  @Override
+  public void exitDefaultConfiguration(
+      final DateSelectionParser.@NonNull DefaultConfigurationContext context
+  ) {
+    _defaultLocale = getLocaleFrom(context.locale());
+    _defaultFormat = getFormatFrom(context.format(), _defaultLocale);
+  }
+
+  /**
+   * @see DateSelectionBaseListener#exitNegation(NegationContext)
+   */
+  @Override
+  public void exitNegation(final DateSelectionParser.@NonNull NegationContext context) {
+    _stack.set(_stack.size() - 1, not(_stack.get(_stack.size() - 1)));
+  }
+
+  /**
+   * @see DateSelectionBaseListener#exitOperation(OperationContext)
+   */
+  @Override
+  public void exitOperation(final DateSelectionParser.@NonNull OperationContext context) {
+    _stack.add(
+        compare(
+            context.name == null ? DateSelectionParser.EQUAL : context.name.getType(),
+            parseDate(context.date())
+        )
+    );
+  }
+
+  /**
+   * @see DateSelectionBaseListener#exitRange(RangeContext)
+   */
+  @Override
+  public void exitRange(final DateSelectionParser.@NonNull RangeContext context) {
+    @NonNull final DateTimeFormatter format = (
+        getFormatFrom(context.format(), getLocaleFrom(context.locale()))
+    );
+
+    @NonNull final PartialDate left = PartialDate.from(format, getTokenContent(context.left));
+    @NonNull final PartialDate right = PartialDate.from(format, getTokenContent(context.right));
+
+    _stack.add(
+        and(
+            Arrays.asList(
+                compare(DateSelectionParser.GREATHER_THAN_OR_EQUAL, left),
+                compare(DateSelectionParser.LESS_THAN_OR_EQUAL, right)
+            )
+        )
+    );
+  }
+
+  private @NonNull DateTimeCondition compare(
+      @NonNegative final int operator,
+      @NonNull final PartialDate value
+  ) {
+    @NonNull final ZoneOffsetTable zone = ZoneOffsetTable.of(value.getZone());
+
+    if (value.supportsDateTime()) {
+      @NonNull final LocalDateTime dateTime = LocalDateTime.from(value);
+
+      return new LocalDateTimeComparison(
+          zone,
+          compare(
+              operator,
+              dateTime.toEpochSecond(ZoneOffset.UTC) * 1000L +
+                  dateTime.getNano() / NANOS_PER_MILLI,
+              dateTime.getNano() % NANOS_PER_MILLI == 0
+          )
+      );
+    } else {
+      @NonNull final List<@NonNull DateTimeCondition> conditions = new ArrayList<>(3);
+
+      if (value.supportsDate()) {
+        conditions.add(
+            new DateTimeFieldComparison(
+                ChronoField.EPOCH_DAY,
+                zone,
+                compare(operator, LocalDate.from(value).toEpochDay(), true)
+            )
+        );
+      }
+
+      if (value.supportsTime()) {
+        final long nanoOfDay = LocalTime.from(value).toNanoOfDay();
+
+        conditions.add(
+            new DateTimeFieldComparison(
+                ChronoField.MILLI_OF_DAY,
+                zone,
+                compare(operator, nanoOfDay / NANOS_PER_MILLI, nanoOfDay % NANOS_PER_MILLI == 0)
+            )
+        );
+      }
+
+      if (value.supportsPartials()) {
+        conditions.add(partiallyCompare(operator, value, zone));
+      }
+
+      return and(conditions);
+    }
+  }
+
+  private @NonNull DateTimeCondition partiallyCompare(
+      @NonNegative final int operator,
+      @NonNull final PartialDate value,
+      @NonNull final ZoneOffsetTable zone
+  ) {
+    @NonNull final Iterator<@NonNull ChronoField> fields = value.partialFields();
+    @Nullable ChronoField previousField = null;
+    @NonNull final List<@NonNull DateTimeCondition> result = new ArrayList<>();
+
+    while (fields.hasNext()) {
+      @NonNull final ChronoField currentField = fields.next();
+      @NonNull final DateTimeCondition comparison = compareField(
+          operator, currentField, value, zone
+      );
+
+      if (previousField == null || operator == DateSelectionParser.EQUAL) {
+        result.add(comparison);
+      } else if (isStrict(operator)) {
+        result.add(
+            and(
+                Arrays.asList(
+                    compareField(DateSelectionParser.EQUAL, previousField, value, zone),
+                    comparison
+                )
+            )
+        );
+      } else {
+        result.add(
+            or(
+                Arrays.asList(
+                    not(compareField(DateSelectionParser.EQUAL, previousField, value, zone)),
+                    comparison
+                )
+            )
+        );
+      }
+
+      previousField = currentField;
+    }
+
+    if (result.isEmpty()) {
+      return new DateTimeConjunction(Collections.emptyList());
+    }
+
+    return isStrict(operator) ? or(result) : and(result);
+  }
+
+  private static boolean isStrict(@NonNegative final int operator) {
+    return operator == DateSelectionParser.GREATHER_THAN ||
+        operator == DateSelectionParser.LESS_THAN;
+  }
+
+  private @NonNull DateTimeCondition compareField(
+      @NonNegative final int operator,
+      @NonNull final ChronoField field,
+      @NonNull final PartialDate value,
+      @NonNull final ZoneOffsetTable zone
+  ) {
+    if (!EpochCalendar.isSupported(field)) {
+      throw new Error("Unable to compare the field " + field + " of epoch milliseconds.");
+    }
+
+    return new DateTimeFieldComparison(field, zone, compare(operator, value.getLong(field), true));
+  }
+
+  /**
+   * Return the values that satisfy a comparison with a value truncated to the millisecond.
+   *
+   * @param operator Kind of comparison to do.
+   * @param value Floor of the value to compare to.
+   * @param exact False if the value to compare to is strictly greater than the given floor.
+   * @return The values that satisfy the comparison.
+   */
+  private static @NonNull LongRanges compare(
+      @NonNegative final int operator,
+      final long value,
+      final boolean exact
+  ) {
+    switch (operator) {
+      case DateSelectionParser.GREATHER_THAN:
+        return LongRanges.greaterThan(value);
+      case DateSelectionParser.GREATHER_THAN_OR_EQUAL:
+        return exact ? LongRanges.greaterThanOrEqualTo(value) : LongRanges.greaterThan(value);
+      case DateSelectionParser.LESS_THAN:
+        return exact ? LongRanges.lessThan(value) : LongRanges.lessThanOrEqualTo(value);
+      case DateSelectionParser.LESS_THAN_OR_EQUAL:
+        return LongRanges.lessThanOrEqualTo(value);
+      default:
+        return exact ? LongRanges.equalTo(value) : LongRanges.empty();
+    }
+  }
+
+  /**
+   * Return a conjunction of the given conditions, comparisons of the same field in the same zone
+   * being merged into one comparison.
+   */
+  private static @NonNull DateTimeCondition and(
+      @NonNull final List<@NonNull DateTimeCondition> conditions
+  ) {
+    @NonNull final List<@NonNull DateTimeCondition> result = new ArrayList<>(conditions.size());
+
+    for (@NonNull final DateTimeCondition condition : conditions) {
+      if (condition instanceof DateTimeConjunction) {
+        for (@NonNull final DateTimeCondition operand : (
+            ((DateTimeConjunction) condition).getOperands()
+        )) {
+          merge(result, operand);
+        }
+      } else {
+        merge(result, condition);
+      }
+    }
+
+    return result.size() == 1 ? result.get(0) : new DateTimeConjunction(result);
+  }
+
+  private static void merge(
+      @NonNull final List<@NonNull DateTimeCondition> conjunction,
+      @NonNull final DateTimeCondition condition
+  ) {
+    for (@NonNegative int index = 0, size = conjunction.size(); index < size; ++index) {
+      @Nullable final DateTimeCondition merged = intersection(conjunction.get(index), condition);
+
+      if (merged != null) {
+        conjunction.set(index, merged);
+        return;
+      }
+    }
+
+    conjunction.add(condition);
+  }
+
+  private static @Nullable DateTimeCondition intersection(
+      @NonNull final DateTimeCondition left,
+      @NonNull final DateTimeCondition right
+  ) {
+    if (left instanceof LocalDateTimeComparison && right instanceof LocalDateTimeComparison) {
+      @NonNull final LocalDateTimeComparison first = (LocalDateTimeComparison) left;
+      @NonNull final LocalDateTimeComparison second = (LocalDateTimeComparison) right;
+
+      if (first.getZone() == second.getZone()) {
+        return new LocalDateTimeComparison(
+            first.getZone(), first.getAccepted().intersection(second.getAccepted())
+        );
+      }
+    } else if (left instanceof DateTimeFieldComparison &&
+        right instanceof DateTimeFieldComparison) {
+      @NonNull final DateTimeFieldComparison first = (DateTimeFieldComparison) left;
+      @NonNull final DateTimeFieldComparison second = (DateTimeFieldComparison) right;
+
+      if (first.getField() == second.getField() && first.getZone() == second.getZone()) {
+        return new DateTimeFieldComparison(
+            first.getField(),
+            first.getZone(),
+            first.getAccepted().intersection(second.getAccepted())
+        );
+      }
+    }
+
+    return null;
+  }
+
+  private static @NonNull DateTimeCondition or(
+      @NonNull final List<@NonNull DateTimeCondition> conditions
+  ) {
+    return conditions.size() == 1 ? conditions.get(0) : new DateTimeDisjunction(conditions);
+  }
+
+  /**
+   * Return the negation of the given condition, comparisons being negated by complementing the
+   * values that they accept.
+   */
+  private static @NonNull DateTimeCondition not(@NonNull final DateTimeCondition condition) {
+    if (condition instanceof LocalDateTimeComparison) {
+      @NonNull final LocalDateTimeComparison comparison = (LocalDateTimeComparison) condition;
+      return new LocalDateTimeComparison(
+          comparison.getZone(), comparison.getAccepted().complement()
+      );
+    } else if (condition instanceof DateTimeFieldComparison) {
+      @NonNull final DateTimeFieldComparison comparison = (DateTimeFieldComparison) condition;
+      return new DateTimeFieldComparison(
+          comparison.getField(), comparison.getZone(), comparison.getAccepted().complement()
+      );
+    } else if (condition instanceof DateTimeNegation) {
+      return ((DateTimeNegation) condition).getOperand();
+    } else {
+      return new DateTimeNegation(condition);
+    }
+  }
+
+  /**
+   * Extract a partial date from a given date context.
+   *
+   * @param date A context to evaluate.
+   * @return A partial date extracted from the given context.
+   */
+  private @NonNull PartialDate parseDate(final DateSelectionParser.@NonNull DateContext date) {
+    try {
+      return PartialDate.from(
+          getFormatFrom(date.format(), getLocaleFrom(date.locale())),
+          getTokenContent(date.value)
+      );
+    } catch (@NonNull final Throwable exception) {
+      @NonNull final DateTimeFormatter format = getFormatFrom(
+          date.format(),
+          getLocaleFrom(date.locale())
+      );
+
+      throw new Error(
+          "Invalid date at line " + date.getStart().getLine() + " and index " +
+              date.getStart().getCharPositionInLine() + " : \"" + getTokenContent(date.value)
+              + "\". A date of " + format.toString() +
+              " format was expected, and the parser raised : " + exception.getMessage(),
+          exception
+      );
+    }
+  }
+
+  private @NonNull DateTimeFormatter getFormatFrom(
+      final DateSelectionParser.@Nullable FormatContext format,
+      @NonNull final Locale locale
+  ) {
+    return format == null ? _defaultFormat.withLocale(locale) : (
+        new DateTimeFormatterBuilder().parseStrict()
+            .appendPattern(getTokenContent(format.TOKEN()))
+            .toFormatter(locale)
+    );
+  }
+
+  private @NonNull Locale getLocaleFrom(final DateSelectionParser.@Nullable LocaleContext locale) {
+    return locale == null ? _defaultLocale : Locale.forLanguageTag(getTokenContent(locale.TOKEN()));
+  }
+
+  private @NonNull String getTokenContent(@NonNull final TerminalNode node) {
+    return getTokenContent(node.getSymbol());
+  }
+
+  private @NonNull String getTokenContent(@NonNull final Token node) {
+    @NonNull final String text = node.getText();
+    return text.substring(1, text.length() - 1).replaceAll("\\\\\\(", "(");
+  }
+
+  /**
+   * @see SelectionToConditionCompiler#compile(CharSequence)
+   */
+  @Override
+  public @NonNull DateTimeCondition compile(@NonNull final CharSequence selection) {
+    _lexer.setInputStream(CharStreams.fromString(selection.toString()));
+    _lexer.reset();
+
+    _parser.setTokenStream(new CommonTokenStream(_lexer));
+    _parser.reset();
+
+    ParseTreeWalker.DEFAULT.walk(this, _parser.selection());
+
+    return _stack.get(0);
+  }
+
+  /**
+   * @see SelectionToConditionCompiler#tryToCompile(CharSequence)
+   */
+  @Override
+  public @NonNull DateTimeCondition tryToCompile(@NonNull final CharSequence selection)
+      throws CompilationException {
+    _lexer.setInputStream(CharStreams.fromString(selection.toString()));
+    _lexer.reset();
+
+    _parser.setTokenStream(new CommonTokenStream(_lexer));
+    _parser.reset();
+
+    _lexer.addErrorListener(ThrowingErrorListener.INSTANCE);
+    _parser.addErrorListener(ThrowingErrorListener.INSTANCE);
+
+    ParseTreeWalker.DEFAULT.walk(this, _parser.selection());
+
+    return _stack.get(0);
+  }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.datetime;
+
+import java.security.InvalidParameterException;
+import java.time.temporal.ChronoField;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * Arithmetic extraction of ISO calendar fields from epoch milliseconds.
+ *
+ * Values returned are the ones that java.time returns for the same field, but they are computed
+ * without any allocation.
+ */
+public final class EpochCalendar {
+
+  public static final long MILLIS_PER_DAY = 86400000L;
+
+  private static final int[] DAYS_BEFORE_MONTH = {
+      0, 31, 59, 90, 120, 151, 181, 212, 243, 273, 304, 334
+  };
+
+  /**
+   * @param field A field.
+   * @return True if the given field can be extracted by this calendar.
+   */
+  public static boolean isSupported(@NonNull final ChronoField field) {
+    return field != ChronoField.OFFSET_SECONDS;
+  }
+
+  /**
+   * Extract a field from an instant.
+   *
+   * @param field Field to extract.
+   * @param epochMillis The instant, in milliseconds since 1970-01-01T00:00:00Z.
+   * @param localMillis The same instant in the zone to use, in milliseconds since
+   * 1970-01-01T00:00:00 local time.
+   * @return The value of the requested field.
+   */
+  public static long get(
+      @NonNull final ChronoField field,
+      final long epochMillis,
+      final long localMillis
+  ) {
+    final long millisOfDay = Math.floorMod(localMillis, MILLIS_PER_DAY);
+
+    switch (field) {
+      case NANO_OF_SECOND:
+        return (millisOfDay % 1000L) * 1000000L;
+      case NANO_OF_DAY:
+        return millisOfDay * 1000000L;
+      case MICRO_OF_SECOND:
+        return (millisOfDay % 1000L) * 1000L;
+      case MICRO_OF_DAY:
+        return millisOfDay * 1000L;
+      case MILLI_OF_SECOND:
+        return millisOfDay % 1000L;
+      case MILLI_OF_DAY:
+        return millisOfDay;
+      case SECOND_OF_MINUTE:
+        return (millisOfDay / 1000L) % 60L;
+      case SECOND_OF_DAY:
+        return millisOfDay / 1000L;
+      case MINUTE_OF_HOUR:
+        return (millisOfDay / 60000L) % 60L;
+      case MINUTE_OF_DAY:
+        return millisOfDay / 60000L;
+      case HOUR_OF_AMPM:
+        return (millisOfDay / 3600000L) % 12L;
+      case CLOCK_HOUR_OF_AMPM:
+        return ((millisOfDay / 3600000L) + 11L) % 12L + 1L;
+      case HOUR_OF_DAY:
+        return millisOfDay / 3600000L;
+      case CLOCK_HOUR_OF_DAY:
+        return ((millisOfDay / 3600000L) + 23L) % 24L + 1L;
+      case AMPM_OF_DAY:
+        return millisOfDay / 43200000L;
+      case INSTANT_SECONDS:
+        return Math.floorDiv(epochMillis, 1000L);
+      default:
+        return getDateField(field, Math.floorDiv(localMillis, MILLIS_PER_DAY));
+    }
+  }
+
+  /**
+   * Extract a date field from an epoch day.
+   *
+   * @param field Field to extract.
+   * @param epochDay Days since 1970-01-01.
+   * @return The value of the requested field.
+   */
+  public static long getDateField(@NonNull final ChronoField field, final long epochDay) {
+    switch (field) {
+      case EPOCH_DAY:
+        return epochDay;
+      case DAY_OF_WEEK:
+        return Math.floorMod(epochDay + 3L, 7L) + 1L;
+      default:
+        break;
+    }
+
+    // Civil from days, by Howard Hinnant.
+    final long shifted = epochDay + 719468L;
+    final long era = Math.floorDiv(shifted, 146097L);
+    final long dayOfEra = shifted - era * 146097L;
+    final long yearOfEra = (
+        dayOfEra - dayOfEra / 1460L + dayOfEra / 36524L - dayOfEra / 146096L
+    ) / 365L;
+    final long dayOfShiftedYear = (
+        dayOfEra - (365L * yearOfEra + yearOfEra / 4L - yearOfEra / 100L)
+    );
+    final long shiftedMonth = (5L * dayOfShiftedYear + 2L) / 153L;
+    final long dayOfMonth = dayOfShiftedYear - (153L * shiftedMonth + 2L) / 5L + 1L;
+    final long month = shiftedMonth < 10L ? shiftedMonth + 3L : shiftedMonth - 9L;
+    final long year = yearOfEra + era * 400L + (month <= 2L ? 1L : 0L);
+
+    switch (field) {
+      case DAY_OF_MONTH:
+        return dayOfMonth;
+      case MONTH_OF_YEAR:
+        return month;
+      case YEAR:
+        return year;
+      case YEAR_OF_ERA:
+        return year >= 1L ? year : 1L - year;
+      case ERA:
+        return year >= 1L ? 1L : 0L;
+      case PROLEPTIC_MONTH:
+        return year * 12L + month - 1L;
+      case ALIGNED_WEEK_OF_MONTH:
+        return (dayOfMonth - 1L) / 7L + 1L;
+      case ALIGNED_DAY_OF_WEEK_IN_MONTH:
+        return (dayOfMonth - 1L) % 7L + 1L;
+      default:
+        break;
+    }
+
+    final long dayOfYear = DAYS_BEFORE_MONTH[(int) month - 1] + dayOfMonth + (
+        month > 2L && isLeap(year) ? 1L : 0L
+    );
+
+    switch (field) {
+      case DAY_OF_YEAR:
+        return dayOfYear;
+      case ALIGNED_WEEK_OF_YEAR:
+        return (dayOfYear - 1L) / 7L + 1L;
+      case ALIGNED_DAY_OF_WEEK_IN_YEAR:
+        return (dayOfYear - 1L) % 7L + 1L;
+      default:
+        throw new InvalidParameterException("Unhandled field type : " + field);
+    }
+  }
+
+  /**
+   * @param year A proleptic year.
+   * @return True if the given year is a leap year.
+   */
+  public static boolean isLeap(final long year) {
+    return (year & 3L) == 0L && (year % 100L != 0L || year % 400L == 0L);
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.datetime;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A precomputed table of the offset transitions of a timezone.
+ *
+ * Transitions are computed once up to LAST_YEAR and stored into primitive arrays, the offset of an
+ * epoch millisecond is then found by a binary search without any allocation. Offsets of instants
+ * after LAST_YEAR are delegated to the zone rules if the zone still have transitions after it.
+ */
+public final class ZoneOffsetTable {
+
+  @NonNegative
+  public static final int LAST_YEAR = 2200;
+
+  private static final long FIRST_RULE_SECOND = -2208988800L; // 1900-01-01T00:00:00Z
+
+  private static final long LAST_SECOND = 7258118400L; // 2200-01-01T00:00:00Z
+
+  @NonNull
+  private static final Map<@NonNull ZoneId, @NonNull ZoneOffsetTable> TABLES = (
+      new ConcurrentHashMap<>()
+  );
+
+  @NonNull
+  private final ZoneId _zone;
+
+  @NonNull
+  private final ZoneRules _rules;
+
+  /**
+   * Epoch milliseconds of each transition, in ascending order.
+   */
+  @NonNull
+  private final long[] _transitions;
+
+  /**
+   * Offsets in milliseconds, the offset at index i + 1 being the one after the i-th transition.
+   */
+  @NonNull
+  private final int[] _offsets;
+
+  /**
+   * Epoch millisecond after which the offsets are delegated to the zone rules.
+   */
+  private final long _limit;
+
+  private ZoneOffsetTable(@NonNull final ZoneId zone) {
+    _zone = zone;
+    _rules = zone.getRules();
+
+    @NonNull final List<@NonNull ZoneOffsetTransition> transitions = new ArrayList<>(
+        _rules.getTransitions()
+    );
+    @Nullable ZoneOffsetTransition next = _rules.nextTransition(
+        transitions.isEmpty() ? Instant.ofEpochSecond(FIRST_RULE_SECOND)
+            : transitions.get(transitions.size() - 1).getInstant()
+    );
+
+    while (next != null && next.toEpochSecond() < LAST_SECOND) {
+      transitions.add(next);
+      next = _rules.nextTransition(next.getInstant());
+    }
+
+    _transitions = new long[transitions.size()];
+    _offsets = new int[transitions.size() + 1];
+    _offsets[0] = 1000 * (
+        transitions.isEmpty() ? _rules.getOffset(Instant.EPOCH).getTotalSeconds()
+            : transitions.get(0).getOffsetBefore().getTotalSeconds()
+    );
+
+    for (@NonNegative int index = 0; index < _transitions.length; ++index) {
+      @NonNull final ZoneOffsetTransition transition = transitions.get(index);
+      _transitions[index] = transition.toEpochSecond() * 1000L;
+      _offsets[index + 1] = 1000 * transition.getOffsetAfter().getTotalSeconds();
+    }
+
+    _limit = next == null ? Long.MAX_VALUE : LAST_SECOND * 1000L;
+  }
+
+  /**
+   * Return the offset table of the given zone, tables are computed once and then shared.
+   *
+   * @param zone A timezone.
+   * @return The offset table of the given zone.
+   */
+  public static @NonNull ZoneOffsetTable of(@NonNull final ZoneId zone) {
+    return TABLES.computeIfAbsent(zone, ZoneOffsetTable::new);
+  }
+
+  /**
+   * @param epochMillis Milliseconds since 1970-01-01T00:00:00Z.
+   * @return The offset of this zone at the given instant, in milliseconds.
+   */
+  public int getOffset(final long epochMillis) {
+    if (epochMillis >= _limit) {
+      return 1000 * _rules.getOffset(Instant.ofEpochMilli(epochMillis)).getTotalSeconds();
+    }
+
+    @NonNegative int lower = 0;
+    @NonNegative int upper = _transitions.length;
+
+    while (lower < upper) {
+      @NonNegative final int middle = (lower + upper) >>> 1;
+
+      if (_transitions[middle] <= epochMillis) {
+        lower = middle + 1;
+      } else {
+        upper = middle;
+      }
+    }
+
+    return _offsets[lower];
+  }
+
+  /**
+   * @param epochMillis Milliseconds since 1970-01-01T00:00:00Z.
+   * @return The local date-time of the given instant in this zone, as milliseconds since
+   * 1970-01-01T00:00:00 local time.
+   */
+  public long toLocalMillis(final long epochMillis) {
+    return epochMillis + getOffset(epochMillis);
+  }
+
+  /**
+   * @return The zone described by this table.
+   */
+  public @NonNull ZoneId getZone() {
+    return _zone;
+  }
+}
@@ -101,8 +101,8 @@ public class DurationSelectionToExpressionCompiler
 
   @Override
   public void exitNear(final DurationSelectionParser.@NonNull NearContext context) {
-    @NonNull final Duration delta = parseDuration(context.delta);
-    @NonNull final Duration target = parseDuration(context.target);
+    @NonNull final Duration delta = DurationSelections.parseDuration(context.delta);
+    @NonNull final Duration target = DurationSelections.parseDuration(context.target);
 
     _stack.add(
         _expressionFactory.between(
@@ -117,7 +117,7 @@ public class DurationSelectionToExpressionCompiler
   public void exitOperation(final DurationSelectionParser.@NonNull OperationContext context) {
     @NonNull final Expression<@NonNull Boolean> expression;
     @NonNull final Expression<@NonNull Long> duration = _expressionFactory.nonnull(
-        toMilliseconds(parseDuration(context.duration()))
+        toMilliseconds(DurationSelections.parseDuration(context.duration()))
     );
 
     switch (context.name == null ? DurationSelectionLexer.EQUAL : context.name.getType()) {
@@ -143,8 +143,8 @@ public class DurationSelectionToExpressionCompiler
 
   @Override
   public void exitRange(final DurationSelectionParser.@NonNull RangeContext context) {
-    @NonNull final Duration left = parseDuration(context.left);
-    @NonNull final Duration right = parseDuration(context.right);
+    @NonNull final Duration left = DurationSelections.parseDuration(context.left);
+    @NonNull final Duration right = DurationSelections.parseDuration(context.right);
 
     _stack.add(
         _expressionFactory.between(
@@ -159,67 +159,8 @@ public class DurationSelectionToExpressionCompiler
     return duration.toMillis();
   }
 
-  private @NonNull Duration parseDuration(
-      final DurationSelectionParser.@NonNull DurationContext duration
-  ) {
-    @NonNull Duration result =
-        Duration.ofMillis(
-            0);
-    @NonNull final List<DurationSelectionParser.@NonNull DurationEntryContext> entries =
-        duration.durationEntry();
-
-    for (final DurationSelectionParser.@NonNull DurationEntryContext entry : entries) {
-      final long quantity = parse(entry.value);
-      switch (entry.unit.getType()) {
-        case DurationSelectionLexer.YEAR:
-          result = result.plusDays(quantity * 365);
-          break;
-        case DurationSelectionLexer.MONTH:
-          result = result.plusDays(quantity * 30);
-          break;
-        case DurationSelectionLexer.WEEK:
-          result = result.plusDays(quantity * 7);
-          break;
-        case DurationSelectionLexer.DAY:
-          result = result.plusDays(
-              quantity
-          );
-          break;
-        case DurationSelectionLexer.HOUR:
-          result = result.plusHours(
-              quantity
-          );
-          break;
-        case DurationSelectionLexer.MINUTE:
-          result = result.plusMinutes(
-              quantity
-          );
-          break;
-        case DurationSelectionLexer.SECOND:
-          result = result.plusSeconds(
-              quantity
-          );
-          break;
-        case DurationSelectionLexer.MILLISECOND:
-          result = result.plusMillis(
-              quantity
-          );
-          break;
-      }
-    }
-
-    return result;
-  }
-
   protected @NonNull Long parse(@NonNull final Token token) {
-    try {
-      return Long.parseLong(token.getText());
-    } catch (@NonNull final NumberFormatException exception) {
-      throw new Error(
-          "Invalid number format at line " + token.getLine() + " and index " +
-              token.getCharPositionInLine() + " : \"" + token.getText() + "\"", exception
-      );
-    }
+    return DurationSelections.parseQuantity(token);
   }
 
   @Override
@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.duration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.liara.selection.CompilationException;
+import org.liara.selection.SelectionToRangesCompiler;
+import org.liara.selection.ThrowingErrorListener;
+import org.liara.selection.Utils;
+import org.liara.selection.antlr.DurationSelectionBaseListener;
+import org.liara.selection.antlr.DurationSelectionLexer;
+import org.liara.selection.antlr.DurationSelectionParser;
+import org.liara.selection.range.LongRanges;
+
+/**
+ * A compiler that transforms duration selections into the set of durations, in milliseconds, that
+ * they accept.
+ */
+public class DurationSelectionToRangesCompiler
+    extends DurationSelectionBaseListener
+    implements SelectionToRangesCompiler<LongRanges> {
+
+  @NonNull
+  private final List<@NonNull LongRanges> _stack;
+  @NonNull
+  private final DurationSelectionLexer _lexer;
+  @NonNull
+  private final DurationSelectionParser _parser;
+  @NonNegative
+  private int _offset;
+
+  public DurationSelectionToRangesCompiler() {
+    _stack = new ArrayList<>(20);
+    _offset = 0;
+    _lexer = new DurationSelectionLexer(CharStreams.fromString(""));
+    _parser = new DurationSelectionParser(new CommonTokenStream(_lexer));
+  }
+
+  @Override
+  public void enterSelection(final DurationSelectionParser.@NonNull SelectionContext context) {
+    _stack.clear();
+    _offset = 0;
+  }
+
+  @Override
+  public void exitSelection(final DurationSelectionParser.@NonNull SelectionContext context) {
+    @NonNull LongRanges selection = LongRanges.empty();
+
+    for (@NonNull final LongRanges filter : _stack) {
+      selection = selection.union(filter);
+    }
+
+    _stack.clear();
+    _stack.add(selection);
+  }
+
+  @Override
+  public void exitFilter(final DurationSelectionParser.@NonNull FilterContext context) {
+    @NonNull final List<@NonNull LongRanges> clauses = _stack.subList(_offset, _stack.size());
+    @NonNull LongRanges filter = clauses.get(0);
+
+    for (@NonNegative int index = 1, size = clauses.size(); index < size; ++index) {
+      filter = filter.intersection(clauses.get(index));
+    }
+
+    clauses.clear();
+
+    _stack.add(filter);
+    _offset += 1;
+  }
+
+  @Override
+  public void exitNegation(final DurationSelectionParser.@NonNull NegationContext context) {
+    _stack.set(_stack.size() - 1, _stack.get(_stack.size() - 1).complement());
+  }
+
+  @Override
+  public void exitNear(final DurationSelectionParser.@NonNull NearContext context) {
+    @NonNull final Duration delta = DurationSelections.parseDuration(context.delta);
+    @NonNull final Duration target = DurationSelections.parseDuration(context.target);
+
+    _stack.add(
+        LongRanges.closed(
+            toMilliseconds(target.minus(delta)),
+            toMilliseconds(target.plus(delta))
+        )
+    );
+  }
+
+  @Override
+  public void exitOperation(final DurationSelectionParser.@NonNull OperationContext context) {
+    final long duration = toMilliseconds(DurationSelections.parseDuration(context.duration()));
+
+    switch (context.name == null ? DurationSelectionLexer.EQUAL : context.name.getType()) {
+      case DurationSelectionLexer.GREATHER_THAN:
+        _stack.add(LongRanges.greaterThan(duration));
+        break;
+      case DurationSelectionLexer.GREATHER_THAN_OR_EQUAL:
+        _stack.add(LongRanges.greaterThanOrEqualTo(duration));
+        break;
+      case DurationSelectionLexer.LESS_THAN:
+        _stack.add(LongRanges.lessThan(duration));
+        break;
+      case DurationSelectionLexer.LESS_THAN_OR_EQUAL:
+        _stack.add(LongRanges.lessThanOrEqualTo(duration));
+        break;
+      default:
+        _stack.add(LongRanges.equalTo(duration));
+        break;
+    }
+  }
+
+  @Override
+  public void exitRange(final DurationSelectionParser.@NonNull RangeContext context) {
+    @NonNull final Duration left = DurationSelections.parseDuration(context.left);
+    @NonNull final Duration right = DurationSelections.parseDuration(context.right);
+
+    _stack.add(
+        LongRanges.closed(
+            toMilliseconds(Utils.min(left, right)),
+            toMilliseconds(Utils.max(left, right))
+        )
+    );
+  }
+
+  private long toMilliseconds(@NonNull final Duration duration) {
+    return duration.toMillis();
+  }
+
+  @Override
+  public @NonNull LongRanges compile(@NonNull final CharSequence selection) {
+    _lexer.setInputStream(CharStreams.fromString(selection.toString()));
+    _lexer.reset();
+
+    _parser.setTokenStream(new CommonTokenStream(_lexer));
+    _parser.reset();
+
+    ParseTreeWalker.DEFAULT.walk(this, _parser.selection());
+
+    return _stack.get(0);
+  }
+
+  @Override
+  public @NonNull LongRanges tryToCompile(@NonNull final CharSequence selection)
+      throws CompilationException {
+    _lexer.setInputStream(CharStreams.fromString(selection.toString()));
+    _lexer.reset();
+
+    _parser.setTokenStream(new CommonTokenStream(_lexer));
+    _parser.reset();
+
+    _lexer.addErrorListener(ThrowingErrorListener.INSTANCE);
+    _parser.addErrorListener(ThrowingErrorListener.INSTANCE);
+
+    ParseTreeWalker.DEFAULT.walk(this, _parser.selection());
+
+    return _stack.get(0);
+  }
+}
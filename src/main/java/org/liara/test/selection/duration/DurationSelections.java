@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.duration;
+
+import java.time.Duration;
+import org.antlr.v4.runtime.Token;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.liara.selection.antlr.DurationSelectionLexer;
+import org.liara.selection.antlr.DurationSelectionParser;
+
+/**
+ * Parsing utilities shared by the compilers of duration selections.
+ */
+final class DurationSelections {
+  private DurationSelections() {
+  }
+
+  /**
+   * Sum all entries of a parsed duration, a year counts as 365 days and a month as 30 days.
+   *
+   * @param duration A parsed duration.
+   * @return The duration described by the given context.
+   */
+  static @NonNull Duration parseDuration(
+      final DurationSelectionParser.@NonNull DurationContext duration
+  ) {
+    @NonNull Duration result = Duration.ZERO;
+
+    for (
+        final DurationSelectionParser.@NonNull DurationEntryContext entry : duration.durationEntry()
+    ) {
+      final long quantity = parseQuantity(entry.value);
+
+      switch (entry.unit.getType()) {
+        case DurationSelectionLexer.YEAR:
+          result = result.plusDays(quantity * 365);
+          break;
+        case DurationSelectionLexer.MONTH:
+          result = result.plusDays(quantity * 30);
+          break;
+        case DurationSelectionLexer.WEEK:
+          result = result.plusDays(quantity * 7);
+          break;
+        case DurationSelectionLexer.DAY:
+          result = result.plusDays(quantity);
+          break;
+        case DurationSelectionLexer.HOUR:
+          result = result.plusHours(quantity);
+          break;
+        case DurationSelectionLexer.MINUTE:
+          result = result.plusMinutes(quantity);
+          break;
+        case DurationSelectionLexer.SECOND:
+          result = result.plusSeconds(quantity);
+          break;
+        case DurationSelectionLexer.MILLISECOND:
+          result = result.plusMillis(quantity);
+          break;
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * @param token A token that contains a quantity.
+   * @return The parsed quantity.
+   */
+  static long parseQuantity(@NonNull final Token token) {
+    try {
+      return Long.parseLong(token.getText());
+    } catch (@NonNull final NumberFormatException exception) {
+      throw new Error(
+          "Invalid number format at line " + token.getLine() + " and index " +
+              token.getCharPositionInLine() + " : \"" + token.getText() + "\"", exception
+      );
+    }
+  }
+}
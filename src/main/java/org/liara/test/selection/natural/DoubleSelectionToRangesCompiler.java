@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.natural;
+
+import org.antlr.v4.runtime.Token;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.liara.selection.antlr.NumberSelectionLexer;
+import org.liara.selection.range.DoubleRanges;
+
+/**
+ * A compiler that transforms number selections over decimal values into sets of double values.
+ */
+public class DoubleSelectionToRangesCompiler
+    extends NumberSelectionToRangesCompiler<DoubleRanges> {
+
+  @Override
+  protected @NonNull DoubleRanges empty() {
+    return DoubleRanges.empty();
+  }
+
+  @Override
+  protected @NonNull DoubleRanges compare(
+      @NonNegative final int operator,
+      @NonNull final Token target
+  ) {
+    final double value = parse(target);
+
+    switch (operator) {
+      case NumberSelectionLexer.GREATHER_THAN:
+        return DoubleRanges.greaterThan(value);
+      case NumberSelectionLexer.GREATHER_THAN_OR_EQUAL:
+        return DoubleRanges.greaterThanOrEqualTo(value);
+      case NumberSelectionLexer.LESS_THAN:
+        return DoubleRanges.lessThan(value);
+      case NumberSelectionLexer.LESS_THAN_OR_EQUAL:
+        return DoubleRanges.lessThanOrEqualTo(value);
+      default:
+        return DoubleRanges.equalTo(value);
+    }
+  }
+
+  @Override
+  protected @NonNull DoubleRanges between(
+      @NonNull final Token left,
+      @NonNull final Token right
+  ) {
+    final double first = parse(left);
+    final double second = parse(right);
+
+    return DoubleRanges.closed(Math.min(first, second), Math.max(first, second));
+  }
+
+  @Override
+  protected @NonNull DoubleRanges near(
+      @NonNull final Token target,
+      @NonNull final Token delta
+  ) {
+    final double center = parse(target);
+    final double width = parse(delta);
+
+    return DoubleRanges.closed(center - width, center + width);
+  }
+
+  protected double parse(@NonNull final Token token) {
+    try {
+      return Double.parseDouble(token.getText());
+    } catch (@NonNull final NumberFormatException exception) {
+      throw new Error(
+          String.join("",
+              "Invalid number format at line ", String.valueOf(token.getLine()), " and index ",
+              String.valueOf(token.getCharPositionInLine()), " : \"", token.getText(), "\""
+          ),
+          exception
+      );
+    }
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.natural;
+
+import org.antlr.v4.runtime.Token;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.liara.selection.antlr.NumberSelectionLexer;
+import org.liara.selection.range.LongRanges;
+
+/**
+ * A compiler that transforms number selections over integral values into sets of long values.
+ *
+ * As for integral expression compilers, decimal parts of the selection values are truncated.
+ */
+public class LongSelectionToRangesCompiler
+    extends NumberSelectionToRangesCompiler<LongRanges> {
+
+  @Override
+  protected @NonNull LongRanges empty() {
+    return LongRanges.empty();
+  }
+
+  @Override
+  protected @NonNull LongRanges compare(
+      @NonNegative final int operator,
+      @NonNull final Token target
+  ) {
+    final long value = parse(target);
+
+    switch (operator) {
+      case NumberSelectionLexer.GREATHER_THAN:
+        return LongRanges.greaterThan(value);
+      case NumberSelectionLexer.GREATHER_THAN_OR_EQUAL:
+        return LongRanges.greaterThanOrEqualTo(value);
+      case NumberSelectionLexer.LESS_THAN:
+        return LongRanges.lessThan(value);
+      case NumberSelectionLexer.LESS_THAN_OR_EQUAL:
+        return LongRanges.lessThanOrEqualTo(value);
+      default:
+        return LongRanges.equalTo(value);
+    }
+  }
+
+  @Override
+  protected @NonNull LongRanges between(
+      @NonNull final Token left,
+      @NonNull final Token right
+  ) {
+    final long first = parse(left);
+    final long second = parse(right);
+
+    return LongRanges.closed(Math.min(first, second), Math.max(first, second));
+  }
+
+  @Override
+  protected @NonNull LongRanges near(
+      @NonNull final Token target,
+      @NonNull final Token delta
+  ) {
+    final long center = parse(target);
+    final long width = parse(delta);
+
+    return LongRanges.closed(center - width, center + width);
+  }
+
+  protected long parse(@NonNull final Token token) {
+    try {
+      return Long.parseLong(token.getText().replaceFirst("\\.[0-9]+", ""));
+    } catch (@NonNull final NumberFormatException exception) {
+      throw new Error(
+          String.join("",
+              "Invalid number format at line ", String.valueOf(token.getLine()), " and index ",
+              String.valueOf(token.getCharPositionInLine()), " : \"", token.getText(), "\""
+          ),
+          exception
+      );
+    }
+  }
+}
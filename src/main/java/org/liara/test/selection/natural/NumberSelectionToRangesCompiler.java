@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.natural;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.liara.selection.CompilationException;
+import org.liara.selection.SelectionToRangesCompiler;
+import org.liara.selection.ThrowingErrorListener;
+import org.liara.selection.antlr.NumberSelectionBaseListener;
+import org.liara.selection.antlr.NumberSelectionLexer;
+import org.liara.selection.antlr.NumberSelectionParser;
+import org.liara.selection.range.Ranges;
+
+/**
+ * A compiler that transforms number selections into the set of values that they accept.
+ *
+ * The resulting set is the normalized form of the expression built by a
+ * NumberSelectionToExpressionCompiler for the same selection.
+ *
+ * @param <Result> Type of set produced.
+ */
+public abstract class NumberSelectionToRangesCompiler<Result extends Ranges<Result>>
+    extends NumberSelectionBaseListener
+    implements SelectionToRangesCompiler<Result> {
+
+  @NonNull
+  private final List<@NonNull Result> _stack;
+  @NonNull
+  private final NumberSelectionLexer _lexer;
+  @NonNull
+  private final NumberSelectionParser _parser;
+  @NonNegative
+  private int _offset;
+
+  public NumberSelectionToRangesCompiler() {
+    _stack = new ArrayList<>(20);
+    _offset = 0;
+    _lexer = new NumberSelectionLexer(CharStreams.fromString(""));
+    _parser = new NumberSelectionParser(new CommonTokenStream(_lexer));
+  }
+
+  @Override
+  public void enterSelection(final NumberSelectionParser.@NonNull SelectionContext context) {
+    _stack.clear();
+    _offset = 0;
+  }
+
+  @Override
+  public void exitSelection(final NumberSelectionParser.@NonNull SelectionContext context) {
+    @NonNull Result selection = empty();
+
+    for (@NonNull final Result filter : _stack) {
+      selection = selection.union(filter);
+    }
+
+    _stack.clear();
+    _stack.add(selection);
+  }
+
+  @Override
+  public void exitFilter(final NumberSelectionParser.@NonNull FilterContext context) {
+    @NonNull final List<@NonNull Result> clauses = _stack.subList(_offset, _stack.size());
+    @NonNull Result filter = clauses.get(0);
+
+    for (@NonNegative int index = 1, size = clauses.size(); index < size; ++index) {
+      filter = filter.intersection(clauses.get(index));
+    }
+
+    clauses.clear();
+
+    _stack.add(filter);
+    _offset += 1;
+  }
+
+  @Override
+  public void exitNegation(final NumberSelectionParser.@NonNull NegationContext context) {
+    _stack.set(_stack.size() - 1, _stack.get(_stack.size() - 1).complement());
+  }
+
+  @Override
+  public void exitNear(final NumberSelectionParser.@NonNull NearContext context) {
+    _stack.add(near(context.target, context.delta));
+  }
+
+  @Override
+  public void exitOperation(final NumberSelectionParser.@NonNull OperationContext context) {
+    _stack.add(
+        compare(
+            context.name == null ? NumberSelectionLexer.EQUAL : context.name.getType(),
+            context.target
+        )
+    );
+  }
+
+  @Override
+  public void exitRange(final NumberSelectionParser.@NonNull RangeContext context) {
+    _stack.add(between(context.left, context.right));
+  }
+
+  /**
+   * @see SelectionToRangesCompiler#compile(CharSequence)
+   */
+  @Override
+  public @NonNull Result compile(@NonNull final CharSequence selection) {
+    _lexer.setInputStream(CharStreams.fromString(selection.toString()));
+    _lexer.reset();
+
+    _parser.setTokenStream(new CommonTokenStream(_lexer));
+    _parser.reset();
+
+    ParseTreeWalker.DEFAULT.walk(this, _parser.selection());
+
+    return _stack.get(0);
+  }
+
+  /**
+   * @see SelectionToRangesCompiler#tryToCompile(CharSequence)
+   */
+  @Override
+  public @NonNull Result tryToCompile(@NonNull final CharSequence selection)
+      throws CompilationException {
+    _lexer.setInputStream(CharStreams.fromString(selection.toString()));
+    _lexer.reset();
+
+    _parser.setTokenStream(new CommonTokenStream(_lexer));
+    _parser.reset();
+
+    _lexer.addErrorListener(ThrowingErrorListener.INSTANCE);
+    _parser.addErrorListener(ThrowingErrorListener.INSTANCE);
+
+    ParseTreeWalker.DEFAULT.walk(this, _parser.selection());
+
+    return _stack.get(0);
+  }
+
+  /**
+   * @return An empty set.
+   */
+  protected abstract @NonNull Result empty();
+
+  /**
+   * Return the set of values that satisfies a comparison.
+   *
+   * @param operator Type of the comparison token, EQUAL if the comparison is implicit.
+   * @param target Value to compare to.
+   * @return The set of values that satisfies the comparison.
+   */
+  protected abstract @NonNull Result compare(
+      @NonNegative final int operator,
+      @NonNull final Token target
+  );
+
+  /**
+   * Return the set of values between two bounds, regardless of their order.
+   *
+   * @param left First bound, included.
+   * @param right Second bound, included.
+   * @return The set of values between the given bounds.
+   */
+  protected abstract @NonNull Result between(
+      @NonNull final Token left,
+      @NonNull final Token right
+  );
+
+  /**
+   * Return the set of values in [target - delta, target + delta].
+   *
+   * @param target Center of the interval.
+   * @param delta Half width of the interval.
+   * @return The set of values near the given target.
+   */
+  protected abstract @NonNull Result near(
+      @NonNull final Token target,
+      @NonNull final Token delta
+  );
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.string;
+
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A clause of a string selection evaluated in memory.
+ *
+ * Tokens and quoted strings are searched as literals, as a like "%content%" expression would do
+ * with a content free of wildcards, regular expressions are searched anywhere in the value.
+ */
+public final class StringClause
+    implements Predicate<@Nullable String> {
+
+  /**
+   * The value must be equal to the content of the clause.
+   */
+  public static final int EQUAL = 0;
+
+  /**
+   * The value must contain the content of the clause.
+   */
+  public static final int CONTAINS = 1;
+
+  /**
+   * The value must contain a match of the regular expression of the clause.
+   */
+  public static final int REGEXP = 2;
+
+  @NonNegative
+  private final int _type;
+
+  @NonNull
+  private final String _content;
+
+  private final boolean _negated;
+
+  @Nullable
+  private final Pattern _pattern;
+
+  /**
+   * Create a new clause.
+   *
+   * @param type EQUAL, CONTAINS or REGEXP.
+   * @param content Content of the clause.
+   * @param negated True if the clause accepts the values that does not match its content.
+   */
+  public StringClause(
+      @NonNegative final int type,
+      @NonNull final String content,
+      final boolean negated
+  ) {
+    if (type < EQUAL || type > REGEXP) {
+      throw new IllegalArgumentException("Invalid clause type : " + type);
+    }
+
+    _type = type;
+    _content = content;
+    _negated = negated;
+    _pattern = type == REGEXP ? Pattern.compile(content) : null;
+  }
+
+  /**
+   * @param value A value to test, null values never match a clause.
+   * @return True if the given value satisfies this clause.
+   */
+  @Override
+  public boolean test(@Nullable final String value) {
+    if (value == null) {
+      return false;
+    }
+
+    return matches(value) != _negated;
+  }
+
+  private boolean matches(@NonNull final String value) {
+    switch (_type) {
+      case EQUAL:
+        return _content.equals(value);
+      case CONTAINS:
+        return value.contains(_content);
+      default:
+        return _pattern.matcher(value).find();
+    }
+  }
+
+  /**
+   * @return A clause that accepts the values that this clause rejects.
+   */
+  public @NonNull StringClause negate() {
+    return new StringClause(_type, _content, !_negated);
+  }
+
+  /**
+   * @return EQUAL, CONTAINS or REGEXP.
+   */
+  public @NonNegative int getType() {
+    return _type;
+  }
+
+  public @NonNull String getContent() {
+    return _content;
+  }
+
+  public boolean isNegated() {
+    return _negated;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(_type, _content, _negated);
+  }
+
+  @Override
+  public boolean equals(@Nullable final Object object) {
+    if (object == null) {
+      return false;
+    }
+    if (object == this) {
+      return true;
+    }
+
+    if (object instanceof StringClause) {
+      @NonNull final StringClause other = (StringClause) object;
+
+      return _type == other.getType() &&
+          _negated == other.isNegated() &&
+          Objects.equals(_content, other.getContent());
+    }
+
+    return false;
+  }
+
+  @Override
+  public @NonNull String toString() {
+    return (_negated ? "not " : "") + (
+        _type == EQUAL ? "equal to " : _type == CONTAINS ? "contains " : "matches "
+    ) + "\"" + _content + "\"";
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.string;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A string selection evaluated in memory.
+ *
+ * The condition is kept in the shape of the selection : a disjunction of filters, each filter
+ * being a conjunction of clauses. It is immutable and can be shared by many threads.
+ */
+public final class StringCondition
+    implements Predicate<@Nullable String> {
+
+  @NonNull
+  private final StringClause[][] _filters;
+
+  /**
+   * Create a new condition.
+   *
+   * @param filters Filters of the condition, each filter being a conjunction of clauses.
+   */
+  public StringCondition(@NonNull final List<@NonNull List<@NonNull StringClause>> filters) {
+    _filters = new StringClause[filters.size()][];
+
+    for (@NonNegative int index = 0, size = filters.size(); index < size; ++index) {
+      _filters[index] = filters.get(index).toArray(new StringClause[0]);
+    }
+  }
+
+  /**
+   * @see Predicate#test(Object)
+   */
+  @Override
+  public boolean test(@Nullable final String value) {
+    for (@NonNull final StringClause[] filter : _filters) {
+      if (test(filter, value)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  private static boolean test(
+      @NonNull final StringClause[] filter,
+      @Nullable final String value
+  ) {
+    for (@NonNull final StringClause clause : filter) {
+      if (!clause.test(value)) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * @return An unmodifiable view of the filters of this condition.
+   */
+  public @NonNull List<@NonNull List<@NonNull StringClause>> getFilters() {
+    @NonNull final List<@NonNull List<@NonNull StringClause>> result = new ArrayList<>(
+        _filters.length
+    );
+
+    for (@NonNull final StringClause[] filter : _filters) {
+      result.add(Collections.unmodifiableList(Arrays.asList(filter)));
+    }
+
+    return Collections.unmodifiableList(result);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.deepHashCode(_filters);
+  }
+
+  @Override
+  public boolean equals(@Nullable final Object object) {
+    if (object == null) {
+      return false;
+    }
+    if (object == this) {
+      return true;
+    }
+
+    if (object instanceof StringCondition) {
+      return getFilters().equals(((StringCondition) object).getFilters());
+    }
+
+    return false;
+  }
+
+  @Override
+  public @NonNull String toString() {
+    return "StringCondition " + getFilters();
+  }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.string;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.liara.selection.CompilationException;
+import org.liara.selection.SelectionToConditionCompiler;
+import org.liara.selection.ThrowingErrorListener;
+import org.liara.selection.antlr.StringSelectionBaseListener;
+import org.liara.selection.antlr.StringSelectionLexer;
+import org.liara.selection.antlr.StringSelectionParser;
+
+/**
+ * A compiler that transforms string selections into conditions evaluated in memory.
+ */
+public class StringSelectionToConditionCompiler
+    extends StringSelectionBaseListener
+    implements SelectionToConditionCompiler<@NonNull StringCondition> {
+
+  @NonNull
+  private final List<@NonNull List<@NonNull StringClause>> _filters;
+  @NonNull
+  private final List<@NonNull StringClause> _clauses;
+  @NonNull
+  private final StringSelectionLexer _lexer;
+  @NonNull
+  private final StringSelectionParser _parser;
+
+  public StringSelectionToConditionCompiler() {
+    _filters = new ArrayList<>(4);
+    _clauses = new ArrayList<>(20);
+    _lexer = new StringSelectionLexer(CharStreams.fromString(""));
+    _parser = new StringSelectionParser(new CommonTokenStream(_lexer));
+  }
+
+  /**
+   * @see StringSelectionBaseListener#enterSelection(StringSelectionParser.SelectionContext)
+   */
+  @Override
+  public void enterSelection(final StringSelectionParser.@NonNull SelectionContext context) {
+    _filters.clear();
+    _clauses.clear();
+  }
+
+  /**
+   * @see StringSelectionBaseListener#exitFilter(StringSelectionParser.FilterContext)
+   */
+  @Override
+  public void exitFilter(final StringSelectionParser.@NonNull FilterContext context) {
+    _filters.add(new ArrayList<>(_clauses));
+    _clauses.clear();
+  }
+
+  /**
+   * @see StringSelectionBaseListener#exitNegation(StringSelectionParser.NegationContext)
+   */
+  @Override
+  public void exitNegation(final StringSelectionParser.@NonNull NegationContext context) {
+    _clauses.set(_clauses.size() - 1, _clauses.get(_clauses.size() - 1).negate());
+  }
+
+  /**
+   * @see StringSelectionBaseListener#exitOperation(StringSelectionParser.OperationContext)
+   */
+  @Override
+  public void exitOperation(final StringSelectionParser.@NonNull OperationContext context) {
+    if (context.STRING() != null) {
+      exitString(context.STRING().getText());
+    } else if (context.REGEXP() != null) {
+      exitRegexp(context.REGEXP().getText());
+    } else if (context.TOKEN() != null) {
+      exitToken(context.TOKEN().getText());
+    }
+  }
+
+  private void exitToken(@NonNull final String text) {
+    @NonNull String content = text;
+    boolean exact = false;
+    int negations = 0;
+
+    while (content.startsWith("not:") || content.startsWith("eq:")) {
+      if (content.startsWith("not:")) {
+        content = content.substring(4);
+        negations += 1;
+      } else {
+        exact = true;
+        content = content.substring(3);
+      }
+    }
+
+    _clauses.add(
+        new StringClause(
+            exact ? StringClause.EQUAL : StringClause.CONTAINS,
+            content,
+            negations % 2 == 1
+        )
+    );
+  }
+
+  private void exitRegexp(@NonNull final String expression) {
+    @NonNull final String content = (
+        expression.substring(1, expression.length() - 1).replaceAll("\\\\/", "/")
+    );
+
+    _clauses.add(new StringClause(StringClause.REGEXP, content, false));
+  }
+
+  private void exitString(@NonNull final String expression) {
+    @NonNull final String content = (
+        expression.substring(1, expression.length() - 1).replaceAll("\\\\\"", "\"")
+    );
+
+    _clauses.add(new StringClause(StringClause.CONTAINS, content, false));
+  }
+
+  /**
+   * @see SelectionToConditionCompiler#compile(CharSequence)
+   */
+  @Override
+  public @NonNull StringCondition compile(@NonNull final CharSequence selection) {
+    _lexer.setInputStream(CharStreams.fromString(selection.toString()));
+    _lexer.reset();
+
+    _parser.setTokenStream(new CommonTokenStream(_lexer));
+    _parser.reset();
+
+    ParseTreeWalker.DEFAULT.walk(this, _parser.selection());
+
+    return new StringCondition(_filters);
+  }
+
+  /**
+   * @see SelectionToConditionCompiler#tryToCompile(CharSequence)
+   */
+  @Override
+  public @NonNull StringCondition tryToCompile(@NonNull final CharSequence selection)
+      throws CompilationException {
+    _lexer.setInputStream(CharStreams.fromString(selection.toString()));
+    _lexer.reset();
+
+    _parser.setTokenStream(new CommonTokenStream(_lexer));
+    _parser.reset();
+
+    _lexer.addErrorListener(ThrowingErrorListener.INSTANCE);
+    _parser.addErrorListener(ThrowingErrorListener.INSTANCE);
+
+    ParseTreeWalker.DEFAULT.walk(this, _parser.selection());
+
+    return new StringCondition(_filters);
+  }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.bitmap
+
+import org.liara.selection.bitmap.CompressedBitmap
+import org.liara.selection.bitmap.CompressedBitmapBuilder
+import spock.lang.Specification
+
+class CompressedBitmapSpecification extends Specification {
+    def "#and, #or, #andNot and #complement agree with BitSet on random sets"() {
+        given: "two random sets of sparse and dense partitions"
+        final Random random = new Random(seed)
+        final int size = 10 * 65536 + 123
+        final BitSet left = randomSet(random, size)
+        final BitSet right = randomSet(random, size)
+        final CompressedBitmap leftBitmap = CompressedBitmap.fromBitset(left.toLongArray())
+        final CompressedBitmap rightBitmap = CompressedBitmap.fromBitset(right.toLongArray())
+
+        and: "the expected results"
+        final BitSet intersection = left & right
+        final BitSet union = left | right
+        final BitSet difference = left.clone() as BitSet
+        difference.andNot(right)
+        final BitSet complement = left.clone() as BitSet
+        complement.flip(0, size)
+
+        expect: "each operation to return the expected rows"
+        leftBitmap.toArray() == left.stream().toArray()
+        leftBitmap.getCardinality() == left.cardinality()
+        leftBitmap.and(rightBitmap).toArray() == intersection.stream().toArray()
+        leftBitmap.or(rightBitmap).toArray() == union.stream().toArray()
+        leftBitmap.andNot(rightBitmap).toArray() == difference.stream().toArray()
+        leftBitmap.complement(size).toArray() == complement.stream().toArray()
+        leftBitmap.and(rightBitmap).getCardinality() == intersection.cardinality()
+        leftBitmap.toBitset() == left.toLongArray()
+        (0..<2000).every {
+            final int row = random.nextInt(size)
+            leftBitmap.contains(row) == left.get(row)
+        }
+
+        where:
+        seed << [1L, 2L, 3L, 4L]
+    }
+
+    def "#union merges many bitmaps at once"() {
+        given: "random sets of sparse and dense partitions"
+        final Random random = new Random(42)
+        final List<BitSet> sets = (0..<count).collect { randomSet(random, 3 * 65536 + 17) }
+        final List<CompressedBitmap> bitmaps = sets.collect {
+            CompressedBitmap.fromBitset(it.toLongArray())
+        }
+
+        and: "the expected union"
+        final BitSet union = sets.inject(new BitSet()) {
+            final BitSet result, final BitSet set -> result | set
+        }
+
+        expect: "the union to contain the rows of all bitmaps"
+        CompressedBitmap.union(bitmaps).toArray() == union.stream().toArray()
+        CompressedBitmap.union(bitmaps) == bitmaps.inject(CompressedBitmap.empty()) {
+            final CompressedBitmap result, final CompressedBitmap bitmap -> result.or(bitmap)
+        }
+
+        where:
+        count << [0, 1, 2, 12]
+    }
+
+    def "#union merges sparse bitmaps of 100M rows"() {
+        given: "sparse bitmaps that share some partitions"
+        final List<CompressedBitmap> bitmaps = (0..<8).collect { final int offset ->
+            final CompressedBitmapBuilder builder = new CompressedBitmapBuilder()
+
+            for (int row = offset * 100; row < 100000000; row += 100000 * (offset + 1)) {
+                builder.add(row)
+            }
+
+            builder.build()
+        }
+
+        expect: "the union to be the rows of all bitmaps"
+        CompressedBitmap.union(bitmaps) == bitmaps.inject(CompressedBitmap.empty()) {
+            final CompressedBitmap result, final CompressedBitmap bitmap -> result.or(bitmap)
+        }
+        CompressedBitmap.union(bitmaps).getSizeInBytes() < 100000000 / 8 / 20
+    }
+
+    def "#getSizeInBytes is smaller than a bitset for sparse sets"() {
+        given: "a sparse bitmap of 100M rows"
+        final CompressedBitmapBuilder builder = new CompressedBitmapBuilder()
+
+        for (int row = 0; row < 100000000; row += 1000) {
+            builder.add(row)
+        }
+
+        final CompressedBitmap bitmap = builder.build()
+
+        expect: "the bitmap to be smaller than a bitset"
+        bitmap.getCardinality() == 100000
+        bitmap.getSizeInBytes() < 100000000 / 8 / 20
+    }
+
+    def "#range and #of return the expected rows"() {
+        expect: "the expected rows"
+        CompressedBitmap.range(from, to).toArray() == (from..<to).toList() as int[]
+        CompressedBitmap.of(5, 3, 70000, 3).toArray() == [3, 5, 70000] as int[]
+        CompressedBitmap.of(5, 3) == CompressedBitmap.fromBitset([0b101000L] as long[])
+        CompressedBitmap.empty().isEmpty()
+
+        where:
+        from   | to
+        0      | 0
+        10     | 70
+        60     | 131080
+        65535  | 65537
+    }
+
+    def "#forEach and #iterator return the rows in ascending order"() {
+        given: "a bitmap"
+        final CompressedBitmap bitmap = CompressedBitmap.of(1, 64, 65536, 65537, 200000)
+        final List<Integer> rows = []
+
+        when: "the bitmap is iterated"
+        bitmap.forEach({ rows.add(it) })
+
+        then: "the rows to be returned in ascending order"
+        rows == [1, 64, 65536, 65537, 200000]
+        bitmap.iterator().toList() == rows
+    }
+
+    def "#add rejects rows of a previous partition"() {
+        given: "a builder"
+        final CompressedBitmapBuilder builder = new CompressedBitmapBuilder().add(70000).add(65536)
+
+        when: "a row of a previous partition is added"
+        builder.add(10)
+
+        then: "an exception to be thrown"
+        thrown(IllegalArgumentException)
+    }
+
+    private static BitSet randomSet(final Random random, final int size) {
+        final BitSet result = new BitSet(size)
+
+        for (int partition = 0; partition * 65536 < size; ++partition) {
+            final double density = [0d, 0.001d, 0.05d, 0.5d, 1d][random.nextInt(5)]
+            final int end = Math.min(size, (partition + 1) * 65536)
+
+            for (int row = partition * 65536; row < end; ++row) {
+                if (random.nextDouble() < density) {
+                    result.set(row)
+                }
+            }
+        }
+
+        return result
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.bool
+
+import spock.lang.Specification
+
+import static org.liara.test.selection.bool.BooleanCondition.*
+
+class BooleanSelectionToConditionCompilerSpecification extends Specification {
+    def "#compile returns the states accepted by a selection"() {
+        given: "a compiler"
+        final BooleanSelectionToConditionCompiler compiler = (
+                new BooleanSelectionToConditionCompiler()
+        )
+
+        expect: "it to return the states accepted by each selection"
+        compiler.compile(selection).getStates() == states
+
+        where:
+        selection               | states
+        "    "                  | TRUE
+        "true"                  | TRUE
+        "eq:1"                  | TRUE
+        "false"                 | FALSE
+        "null"                  | NULL
+        "not:null"              | TRUE.or(FALSE)
+        "not:true"              | FALSE
+        "not:not:true"          | TRUE
+        "false;null"            | FALSE.or(NULL)
+        "true;false;null"       | ALL
+        "true,false"            | 0
+        "not:true,not:null"     | FALSE
+        "not:false;null"        | TRUE.or(NULL)
+    }
+
+    def "#evaluate marks the rows of a bitmap column that are accepted by a selection"() {
+        given: "a compiler"
+        final BooleanSelectionToConditionCompiler compiler = (
+                new BooleanSelectionToConditionCompiler()
+        )
+
+        and: "a random column"
+        final Random random = new Random(28)
+        final int size = 1000
+        final long[] values = new long[(size + 63) >>> 6]
+        final long[] nulls = new long[(size + 63) >>> 6]
+
+        for (int index = 0; index < values.length; ++index) {
+            values[index] = random.nextLong()
+            nulls[index] = random.nextLong() & random.nextLong()
+        }
+
+        expect: "each evaluated row to be accepted if its value is accepted"
+        for (final String selection : ["true", "not:null", "false;null", "not:true"]) {
+            final BooleanCondition condition = compiler.compile(selection)
+
+            for (int test = 0; test < 50; ++test) {
+                final int from = random.nextInt(size)
+                final int to = from + random.nextInt(size - from + 1)
+                final long[] result = new long[values.length]
+
+                condition.evaluate(values, nulls, from, to, result)
+
+                for (int index = 0; index < size; ++index) {
+                    final Boolean value = ((nulls[index >>> 6] >>> index) & 1L) == 1L ? null : (
+                            ((values[index >>> 6] >>> index) & 1L) == 1L
+                    )
+                    final boolean expected = index >= from && index < to && condition.test(value)
+
+                    assert (((result[index >>> 6] >>> index) & 1L) == 1L) == expected
+                }
+            }
+        }
+    }
+}
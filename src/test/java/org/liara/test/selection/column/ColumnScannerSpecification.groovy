@@ -0,0 +1,210 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.column
+
+import org.liara.selection.bitmap.CompressedBitmap
+import org.liara.selection.column.ColumnScanner
+import org.liara.selection.column.ColumnStore
+import org.liara.selection.column.ColumnStoreWriter
+import org.liara.selection.range.DoubleRanges
+import org.liara.selection.range.LongRanges
+import org.liara.test.selection.bool.BooleanCondition
+import org.liara.test.selection.bool.BooleanSelectionToConditionCompiler
+import org.liara.test.selection.datetime.DateTimeCondition
+import org.liara.test.selection.datetime.DateTimeSelectionToConditionCompiler
+import org.liara.test.selection.natural.DoubleSelectionToRangesCompiler
+import org.liara.test.selection.natural.LongSelectionToRangesCompiler
+import org.liara.test.selection.string.StringCondition
+import org.liara.test.selection.string.StringSelectionToConditionCompiler
+import spock.lang.Shared
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+class ColumnScannerSpecification extends Specification {
+    @Shared
+    Path path
+
+    @Shared
+    ColumnStore store
+
+    @Shared
+    long[] starts
+
+    @Shared
+    int[] rooms
+
+    @Shared
+    double[] temperatures
+
+    @Shared
+    Boolean[] presences
+
+    @Shared
+    String[] labels
+
+    def setupSpec() {
+        final Random random = new Random(17L)
+        final int rows = 1000
+        final List<String> activities = ["sleep", "walk", "cook", "wash", "side walk"]
+
+        starts = (0..<rows).collect { 1546300800000L + random.nextInt(365 * 24) * 3600000L }
+        rooms = (0..<rows).collect { random.nextInt(10) - 2 }
+        temperatures = (0..<rows).collect { 15d + random.nextInt(100) / 10d }
+        presences = (0..<rows).collect { random.nextInt(3) == 0 ? null : random.nextBoolean() }
+        labels = (0..<rows).collect {
+            random.nextInt(8) == 0 ? null : activities[random.nextInt(activities.size())]
+        }
+
+        path = Files.createTempFile("column-scanner", ".bin")
+
+        new ColumnStoreWriter(path, rows).withCloseable { final ColumnStoreWriter writer ->
+            writer.writeLongs("start", { starts[it] })
+                    .writeInts("room", { rooms[it] })
+                    .writeDoubles("temperature", { temperatures[it] })
+                    .writeBooleans("present", { presences[it] })
+                    .writeStrings("label", { labels[it] })
+        }
+
+        store = ColumnStore.open(path)
+    }
+
+    def cleanupSpec() {
+        store.close()
+        Files.deleteIfExists(path)
+    }
+
+    def "#scan evaluates number selections over int columns"() {
+        given: "a compiled selection"
+        final LongRanges ranges = new LongSelectionToRangesCompiler().compile(selection)
+
+        expect: "the scan to return the rows accepted by the selection"
+        ColumnScanner.scan(store, "room", ranges).toArray() ==
+                (0..<rooms.length).findAll { ranges.contains(rooms[it]) } as int[]
+
+        where:
+        selection << ["gt:3", "0:2;7", "not:1", "lt:-10"]
+    }
+
+    def "#scan evaluates number selections over double columns"() {
+        given: "a compiled selection"
+        final DoubleRanges ranges = new DoubleSelectionToRangesCompiler().compile(selection)
+
+        expect: "the scan to return the rows accepted by the selection"
+        ColumnScanner.scan(store, "temperature", ranges).toArray() ==
+                (0..<temperatures.length).findAll { ranges.contains(temperatures[it]) } as int[]
+
+        where:
+        selection << ["gte:20.5", "16:18;near:22+-0.5", "not:15:25"]
+    }
+
+    def "#scan evaluates datetime selections over long columns"() {
+        given: "a compiled selection"
+        final DateTimeCondition condition = new DateTimeSelectionToConditionCompiler().compile(
+                selection
+        )
+
+        expect: "the scan to return the rows accepted by the selection"
+        ColumnScanner.scan(store, "start", condition).toArray() ==
+                (0..<starts.length).findAll { condition.test(starts[it]) } as int[]
+
+        where:
+        selection << [
+                "format:(HH)(10):(14)",
+                "(2019-01-01T00:00:00Z):(2019-06-30T00:00:00Z)",
+                "locale:(en)format:(EEEE)(Monday):(Friday)"
+        ]
+    }
+
+    def "#scan evaluates boolean selections over bitmaps"() {
+        given: "a compiled selection"
+        final BooleanCondition condition = new BooleanSelectionToConditionCompiler().compile(
+                selection
+        )
+
+        expect: "the scan to return the rows accepted by the selection"
+        ColumnScanner.scan(store, "present", condition).toArray() ==
+                (0..<presences.length).findAll { condition.test(presences[it]) } as int[]
+
+        where:
+        selection << ["true", "false", "not:true", "eq:1"]
+    }
+
+    def "#select of a boolean condition returns the rows of its bitset evaluation"() {
+        given: "random value and null bitmaps"
+        final Random random = new Random(42)
+        final int size = 3 * 65536 + 17
+        final long[] values = new long[(size + 63) >>> 6]
+        final long[] nulls = new long[(size + 63) >>> 6]
+
+        for (int word = 0; word < values.length; ++word) {
+            values[word] = random.nextLong()
+            nulls[word] = random.nextLong() & random.nextLong()
+        }
+
+        and: "a condition"
+        final BooleanCondition condition = BooleanCondition.of(states)
+
+        expect: "the bitmap to contain the rows of the bitset evaluation"
+        condition.select(values, nulls, size) == CompressedBitmap.fromBitset(
+                condition.evaluate(values, nulls, size)
+        )
+        condition.select(values, nulls, size).toArray().every { it < size }
+
+        where:
+        states << (0..BooleanCondition.ALL)
+    }
+
+    def "#scan evaluates string selections over dictionary-encoded columns"() {
+        given: "a compiled selection"
+        final StringCondition condition = new StringSelectionToConditionCompiler().compile(
+                selection
+        )
+
+        expect: "the scan to return the rows accepted by the selection"
+        ColumnScanner.scan(store, "label", condition).toArray() ==
+                (0..<labels.length).findAll { condition.test(labels[it]) } as int[]
+
+        where:
+        selection << ["walk", "eq:walk", '"side walk"', "not:walk", "/^(sl|co)/"]
+    }
+
+    def "#scan only marks the rows of the given interval"() {
+        given: "a compiled selection that accepts all rows"
+        final long[] result = new long[(rooms.length + 63) >>> 6]
+
+        when: "a part of the column is scanned"
+        ColumnScanner.scan(
+                BooleanCondition.of(BooleanCondition.ALL),
+                store.getBooleanValues("present"),
+                store.getBooleanNulls("present"),
+                70,
+                200,
+                result
+        )
+
+        then: "only the rows of the interval to be marked"
+        ColumnScanner.getRowIds(result) == (70..<200) as int[]
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.column
+
+import org.liara.selection.column.ColumnStore
+import org.liara.selection.column.ColumnStoreWriter
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+class ColumnStoreSpecification extends Specification {
+    Path path
+
+    def setup() {
+        path = Files.createTempFile("column-store", ".bin")
+    }
+
+    def cleanup() {
+        Files.deleteIfExists(path)
+    }
+
+    def "#open reads the columns written by a ColumnStoreWriter"() {
+        given: "a store of 130 rows"
+        final List<Boolean> booleans = (0..<130).collect { it % 3 == 0 ? null : it % 2 == 0 }
+        final List<String> strings = (0..<130).collect { it % 7 == 0 ? null : "activity-" + (it % 5) }
+
+        new ColumnStoreWriter(path, 130).withCloseable { final ColumnStoreWriter writer ->
+            writer.writeLongs("start", { it * 1000L })
+                    .writeInts("room", { it % 4 })
+                    .writeDoubles("temperature", { it / 2d })
+                    .writeBooleans("present", { booleans[it] })
+                    .writeStrings("label", { strings[it] })
+        }
+
+        when: "the store is opened"
+        final ColumnStore store = ColumnStore.open(path)
+
+        then: "each column to contain the written values"
+        store.getRowCount() == 130
+        store.getColumnNames() == ["start", "room", "temperature", "present", "label"]
+        store.getType("present") == ColumnStore.BOOLEAN
+        (0..<130).every { store.getLongs("start").get(it) == it * 1000L }
+        (0..<130).every { store.getInts("room").get(it) == it % 4 }
+        (0..<130).every { store.getDoubles("temperature").get(it) == it / 2d }
+        (0..<130).every {
+            final boolean value = (store.getBooleanValues("present").get(it >>> 6) & (1L << it)) != 0L
+            final boolean empty = (store.getBooleanNulls("present").get(it >>> 6) & (1L << it)) != 0L
+            empty ? booleans[it] == null : booleans[it] == value
+        }
+        (0..<130).every {
+            final int code = store.getCodes("label").get(it)
+            code == ColumnStore.NULL_CODE ? strings[it] == null :
+                    store.getDictionary("label")[code] == strings[it]
+        }
+        store.getDictionary("label").size() == 5
+
+        cleanup:
+        store?.close()
+    }
+
+    def "#getLongs rejects unknown columns and columns of another type"() {
+        given: "a store"
+        new ColumnStoreWriter(path, 3).withCloseable { it.writeInts("room", { it }) }
+        final ColumnStore store = ColumnStore.open(path)
+
+        when: "a column is read with another type"
+        store.getLongs(column)
+
+        then: "an exception to be thrown"
+        thrown(IllegalArgumentException)
+
+        cleanup:
+        store.close()
+
+        where:
+        column << ["room", "unknown"]
+    }
+
+    def "#open rejects files that are not column stores"() {
+        given: "an invalid file"
+        Files.write(path, content as byte[])
+
+        when: "the file is opened"
+        ColumnStore.open(path)
+
+        then: "an exception to be thrown"
+        thrown(IOException)
+
+        where:
+        content << [[], (0..<32).collect { (byte) it }]
+    }
+
+    def "#ColumnStoreWriter rejects duplicated columns"() {
+        given: "a writer"
+        final ColumnStoreWriter writer = new ColumnStoreWriter(path, 1)
+        writer.writeLongs("start", { 0L })
+
+        when: "a column is written twice"
+        writer.writeLongs("start", { 0L })
+
+        then: "an exception to be thrown"
+        thrown(IllegalArgumentException)
+
+        cleanup:
+        writer.close()
+    }
+}
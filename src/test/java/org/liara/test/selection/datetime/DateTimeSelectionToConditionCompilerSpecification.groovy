@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.datetime
+
+import spock.lang.Specification
+
+import java.time.*
+import java.time.temporal.ChronoField
+
+class DateTimeSelectionToConditionCompilerSpecification
+        extends Specification {
+
+    static final long FIRST_MILLIS = -2208988800000L // 1900-01-01T00:00:00Z
+
+    static final long LAST_MILLIS = 4102444800000L // 2100-01-01T00:00:00Z
+
+    static final List<String> ZONES = [
+            "UTC", "Europe/Paris", "America/New_York", "Asia/Kolkata", "Australia/Lord_Howe"
+    ]
+
+    def setup() {
+        TimeZone.setDefault(TimeZone.getTimeZone("UTC"))
+    }
+
+    static long[] randomMillis(final int count) {
+        final Random random = new Random(count)
+        final long[] result = new long[count]
+
+        for (int index = 0; index < count; ++index) {
+            result[index] = FIRST_MILLIS + (long) (random.nextDouble() * (LAST_MILLIS - FIRST_MILLIS))
+        }
+
+        return result
+    }
+
+    def "ZoneOffsetTable#toLocalMillis returns the local date-time computed by java.time"() {
+        given: "random instants"
+        final long[] instants = randomMillis(20000)
+
+        expect: "each local date-time to be the one of java.time"
+        for (final String zone : ZONES) {
+            final ZoneOffsetTable table = ZoneOffsetTable.of(ZoneId.of(zone))
+
+            for (final long instant : instants) {
+                final LocalDateTime expected = Instant.ofEpochMilli(instant).atZone(ZoneId.of(zone)).toLocalDateTime()
+                assert table.toLocalMillis(instant) == expected.toInstant(ZoneOffset.UTC).toEpochMilli()
+            }
+        }
+    }
+
+    def "EpochCalendar#get returns the fields computed by java.time"() {
+        given: "random instants"
+        final long[] instants = randomMillis(5000)
+
+        expect: "each supported field to be equal to the one of java.time"
+        for (final String zone : ZONES) {
+            final ZoneOffsetTable table = ZoneOffsetTable.of(ZoneId.of(zone))
+
+            for (final long instant : instants) {
+                final ZonedDateTime expected = Instant.ofEpochMilli(instant).atZone(ZoneId.of(zone))
+
+                for (final ChronoField field : ChronoField.values()) {
+                    if (EpochCalendar.isSupported(field)) {
+                        assert EpochCalendar.get(field, instant, table.toLocalMillis(instant)) == expected.getLong(field)
+                    }
+                }
+            }
+        }
+    }
+
+    def "#compile returns conditions that accept the same instants as java.time"() {
+        given: "a compiler"
+        final DateTimeSelectionToConditionCompiler compiler = new DateTimeSelectionToConditionCompiler()
+
+        and: "random instants"
+        final long[] instants = randomMillis(20000)
+
+        and: "selections with their expected behavior in java.time"
+        final ZoneId paris = ZoneId.of("Europe/Paris")
+        final ZoneId utc = ZoneId.of("UTC")
+        final Map<String, Closure<Boolean>> selections = [
+                "gte:format:(HH)(08)": { it.hour >= 8 },
+                "locale:(en)format:(EEEE)(Monday)": { it.dayOfWeek == DayOfWeek.MONDAY },
+                "not:locale:(en)format:(EEEE)(Sunday)": { it.dayOfWeek != DayOfWeek.SUNDAY },
+                "lt:format:(HH:mm)(12:30)": { it.toLocalTime() < LocalTime.of(12, 30) },
+                "gte:format:(MM-dd)(03-15)": { MonthDay.from(it) >= MonthDay.of(3, 15) },
+                "gt:format:(MM-dd)(03-15)": { MonthDay.from(it) > MonthDay.of(3, 15) },
+                "format:(yyyy-MM-dd)(2012-02-29);lt:format:(yyyy)(1950)": {
+                    it.toLocalDate() == LocalDate.of(2012, 2, 29) || it.year < 1950
+                },
+                "format:(HH)(10):(14),locale:(en)format:(EEEE)(Friday)": {
+                    it.hour >= 10 && it.hour <= 14 && it.dayOfWeek == DayOfWeek.FRIDAY
+                },
+                "gt:(2010-05-03T10:15:30+02:00[Europe/Paris])": {
+                    it.withZoneSameInstant(paris).toLocalDateTime() > LocalDateTime.of(2010, 5, 3, 10, 15, 30)
+                },
+                "lte:(1999-12-31T23:59:59.9995Z[UTC])": {
+                    it.withZoneSameInstant(utc).toLocalDateTime() <= LocalDateTime.of(1999, 12, 31, 23, 59, 59, 999500000)
+                }
+        ]
+
+        expect: "each condition to accept the instants accepted by its reference"
+        for (final Map.Entry<String, Closure<Boolean>> selection : selections.entrySet()) {
+            final DateTimeCondition condition = compiler.compile(selection.key)
+            final long[] result = new long[(instants.length + 63) >>> 6]
+
+            condition.evaluate(instants, 0, instants.length, result)
+
+            for (int index = 0; index < instants.length; ++index) {
+                final boolean expected = selection.value.call(Instant.ofEpochMilli(instants[index]).atZone(utc))
+
+                assert condition.test(instants[index]) == expected: selection.key
+                assert ((result[index >>> 6] >>> index) & 1L) == (expected ? 1L : 0L): selection.key
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.duration
+
+import org.liara.selection.range.LongRanges
+import spock.lang.Specification
+
+import java.time.Duration
+
+class DurationSelectionToRangesCompilerSpecification
+        extends Specification {
+    def "it can compile duration selections"() {
+        given: "a compiler"
+        final DurationSelectionToRangesCompiler compiler = new DurationSelectionToRangesCompiler()
+
+        expect: "it to be able to compile duration selections"
+        compiler.compile("gt:1h") == LongRanges.greaterThan(Duration.ofHours(1).toMillis())
+        compiler.compile("1h30m") == LongRanges.equalTo(Duration.ofMinutes(90).toMillis())
+        compiler.compile("2h:1h") == LongRanges.closed(
+                Duration.ofHours(1).toMillis(),
+                Duration.ofHours(2).toMillis()
+        )
+        compiler.compile("near:1h+-10m") == LongRanges.closed(
+                Duration.ofMinutes(50).toMillis(),
+                Duration.ofMinutes(70).toMillis()
+        )
+        compiler.compile("lt:10m;gt:1d") == LongRanges.lessThan(Duration.ofMinutes(10).toMillis())
+                .union(LongRanges.greaterThan(Duration.ofDays(1).toMillis()))
+    }
+}
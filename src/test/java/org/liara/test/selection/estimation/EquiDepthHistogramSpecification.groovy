@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.estimation
+
+import org.liara.selection.estimation.EquiDepthHistogram
+import spock.lang.Specification
+
+class EquiDepthHistogramSpecification extends Specification {
+    def "#fromSample builds buckets of about the same depth"() {
+        given: "a sample of values"
+        final long[] sample = (0..<1000).collect { (long) it } as long[]
+
+        when: "a histogram of ten buckets is built from the sample"
+        final EquiDepthHistogram histogram = EquiDepthHistogram.fromSample(sample, 0, 10)
+
+        then: "each bucket holds a tenth of the values"
+        histogram.getBuckets() == 10
+        (0..<10).every {
+            histogram.getFraction(it) == 0.1d &&
+                    histogram.getLower(it) == it * 100 &&
+                    histogram.getUpper(it) == it * 100 + 99 &&
+                    histogram.getDistinct(it) == 100
+        }
+    }
+
+    def "#fromSample never splits a value between two buckets"() {
+        given: "a sample with a frequent value"
+        final long[] sample = ((0..<100).collect { 5L } + (0..<100).collect { (long) it }) as long[]
+
+        when: "a histogram is built from the sample"
+        final EquiDepthHistogram histogram = EquiDepthHistogram.fromSample(sample, 50, 8)
+
+        then: "the frequent value is in one bucket only"
+        (0..<histogram.getBuckets()).count {
+            histogram.getLower(it) <= 5 && histogram.getUpper(it) >= 5
+        } == 1
+
+        and: "the null fraction to be the one of the sample"
+        histogram.getNullFraction() == 0.2d
+
+        and: "an equality with the frequent value to be estimated from its bucket"
+        histogram.estimate(5, 5) > 0.4
+    }
+
+    def "#estimate returns the fraction of values in an interval"() {
+        given: "a histogram of a uniform sample"
+        final Random random = new Random(31)
+        final double[] sample = (0..<10000).collect { random.nextDouble() * 1000 } as double[]
+        final EquiDepthHistogram histogram = EquiDepthHistogram.fromSample(sample, 0, 32)
+
+        expect: "estimates to be close to the real fractions"
+        Math.abs(histogram.estimate(lower, upper) - expected) < 0.02
+
+        where:
+        lower                    | upper                    | expected
+        Double.NEGATIVE_INFINITY | Double.POSITIVE_INFINITY | 1
+        300                      | Double.POSITIVE_INFINITY | 0.7
+        100                      | 150                      | 0.05
+        -50                      | -10                      | 0
+        42                       | 42                       | 0
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.estimation
+
+import org.liara.selection.estimation.KllSketch
+import spock.lang.Specification
+
+import java.util.stream.DoubleStream
+
+class KllSketchSpecification extends Specification {
+    def "#getCount approximates the number of values in an interval"() {
+        given: "a sketch of a skewed stream of values"
+        final Random random = new Random(32)
+        final double[] values = (0..<200000).collect { Math.exp(random.nextGaussian() * 2) } as double[]
+        final KllSketch sketch = new KllSketch()
+        values.each { sketch.update(it) }
+
+        expect: "the sketch to retain a small number of values"
+        sketch.getCount() == values.length
+        sketch.getRetained() < 1000
+
+        and: "counts to be within the rank error of the real counts"
+        final double error = sketch.getRankError() * values.length
+        [[0d, 1d], [0.5d, 2d], [10d, 100d], [1000d, Double.POSITIVE_INFINITY]].every {
+            final long expected = values.toList().count { value -> value >= it[0] && value <= it[1] }
+            Math.abs(sketch.getCount(it[0], it[1]) - expected) <= error
+        }
+    }
+
+    def "#getQuantile approximates quantiles"() {
+        given: "a sketch of uniform values"
+        final Random random = new Random(32)
+        final KllSketch sketch = new KllSketch()
+        (0..<100000).each { sketch.update(random.nextDouble()) }
+
+        expect: "quantiles to be within the rank error"
+        [0.01d, 0.25d, 0.5d, 0.9d].every {
+            Math.abs(sketch.getQuantile(it) - it) <= sketch.getRankError()
+        }
+        sketch.getQuantile(1) == sketch.getMaximum()
+    }
+
+    def "#merge summarizes the values of both sketches"() {
+        given: "sketches of the parts of a stream"
+        final Random random = new Random(32)
+        final double[] values = (0..<100000).collect { random.nextGaussian() } as double[]
+        final List<KllSketch> parts = (0..<8).collect { new KllSketch() }
+        values.eachWithIndex { double value, int index -> parts[index % 8].update(value) }
+        parts[3].updateNull()
+
+        when: "the sketches are merged"
+        final KllSketch merged = new KllSketch()
+        parts.each { merged.merge(it) }
+
+        then: "the merged sketch summarizes the whole stream"
+        merged.getCount() == values.length
+        merged.getNullCount() == 1
+        merged.getMinimum() == values.toList().min()
+        merged.getMaximum() == values.toList().max()
+        Math.abs(merged.getCount(-1, 1) - values.toList().count { it >= -1 && it <= 1 }) <=
+                merged.getRankError() * values.length
+    }
+
+    def "#merge rejects sketches of another size"() {
+        when: "a sketch is merged into a sketch of another size"
+        new KllSketch(100).merge(new KllSketch(200))
+
+        then: "an exception is thrown"
+        thrown(IllegalArgumentException)
+    }
+
+    def "it can be built from a stream"() {
+        when: "a sketch is collected from a parallel stream"
+        final KllSketch sketch = DoubleStream.iterate(0, { it + 1 }).limit(10000).parallel().collect(
+                { new KllSketch() }, { KllSketch result, double value -> result.update(value) },
+                { KllSketch left, KllSketch right -> left.merge(right) }
+        )
+
+        then: "it summarizes all values of the stream"
+        sketch.getCount() == 10000
+        sketch.getMinimum() == 0
+        sketch.getMaximum() == 9999
+    }
+
+    def "#fromByteArray restores a serialized sketch"() {
+        given: "a sketch"
+        final Random random = new Random(32)
+        final KllSketch sketch = new KllSketch(64)
+        (0..<50000).each { sketch.update(random.nextDouble()) }
+        (0..<10).each { sketch.updateNull() }
+
+        when: "the sketch is serialized and deserialized"
+        final KllSketch restored = KllSketch.fromByteArray(sketch.toByteArray())
+
+        then: "the restored sketch is the same as the original one"
+        restored.getSize() == 64
+        restored.getCount() == sketch.getCount()
+        restored.getNullCount() == 10
+        restored.getRetained() == sketch.getRetained()
+        restored.getCount(0.2, 0.3) == sketch.getCount(0.2, 0.3)
+        restored.toByteArray() == sketch.toByteArray()
+    }
+
+    def "#fromByteArray rejects invalid representations"() {
+        given: "a serialized sketch"
+        final KllSketch sketch = new KllSketch()
+        (0..<1000).each { sketch.update(it) }
+        final byte[] bytes = sketch.toByteArray()
+
+        when: "a truncated representation is deserialized"
+        KllSketch.fromByteArray(Arrays.copyOf(bytes, bytes.length - 8))
+
+        then: "an exception is thrown"
+        thrown(IllegalArgumentException)
+    }
+}
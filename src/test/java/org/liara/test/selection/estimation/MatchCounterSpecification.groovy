@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.estimation
+
+import org.liara.selection.estimation.ApproximateCount
+import org.liara.selection.estimation.KllSketch
+import org.liara.selection.estimation.MatchCounter
+import org.liara.test.selection.datetime.DateTimeCondition
+import org.liara.test.selection.datetime.DateTimeSelectionToConditionCompiler
+import org.liara.test.selection.duration.DurationSelectionToRangesCompiler
+import org.liara.test.selection.natural.LongSelectionToRangesCompiler
+import spock.lang.Specification
+
+class MatchCounterSpecification extends Specification {
+    def setup() {
+        TimeZone.setDefault(TimeZone.getTimeZone("UTC"))
+    }
+
+    def "#count bounds the number of rows accepted by a number selection"() {
+        given: "a sketch of a column of integers"
+        final Random random = new Random(32)
+        final long[] values = (0..<100000).collect { (long) random.nextInt(10000) } as long[]
+        final KllSketch sketch = new KllSketch()
+        values.each { sketch.update(it) }
+        (0..<500).each { sketch.updateNull() }
+
+        when: "the rows accepted by a selection are counted"
+        final ApproximateCount count = MatchCounter.count(
+                sketch, new LongSelectionToRangesCompiler().compile(selection)
+        )
+        final long expected = values.toList().count {
+            new LongSelectionToRangesCompiler().compile(selection).contains(it)
+        }
+
+        then: "the real count is in the bounds of the approximate count"
+        count.getLowerBound() <= expected
+        expected <= count.getUpperBound()
+        count.getUpperBound() - count.getLowerBound() <= 2 * 0.02 * values.length * 2
+
+        where:
+        selection << ["gt:3000", "100:999;5000:5999", "not:4000:4999", "lt:0"]
+    }
+
+    def "#count bounds the number of rows accepted by a duration selection"() {
+        given: "a sketch of a column of durations"
+        final Random random = new Random(32)
+        final long[] values = (0..<50000).collect { (long) (random.nextDouble() * 7200000) } as long[]
+        final KllSketch sketch = new KllSketch()
+        values.each { sketch.update(it) }
+
+        when: "the rows accepted by a selection are counted"
+        final ApproximateCount count = MatchCounter.count(
+                sketch, new DurationSelectionToRangesCompiler().compile("gte:1hour")
+        )
+        final long expected = values.toList().count { it >= 3600000 }
+
+        then: "the real count is in the bounds of the approximate count"
+        count.getLowerBound() <= expected
+        expected <= count.getUpperBound()
+    }
+
+    def "#count approximates the number of rows accepted by a datetime selection"() {
+        given: "a sketch of a column of instants over 2019"
+        final Random random = new Random(32)
+        final long from = 1546300800000L
+        final long[] values = (0..<50000).collect {
+            from + (long) (random.nextDouble() * 365 * 86400000L)
+        } as long[]
+        final KllSketch sketch = new KllSketch()
+        values.each { sketch.update(it) }
+
+        when: "the rows accepted by a selection are counted"
+        final DateTimeCondition condition = new DateTimeSelectionToConditionCompiler().compile(
+                selection
+        )
+        final ApproximateCount count = MatchCounter.count(sketch, condition)
+        final long expected = values.toList().count { condition.test(it) }
+
+        then: "the real count is in the bounds of the approximate count"
+        count.getLowerBound() <= expected
+        expected <= count.getUpperBound()
+
+        and: "the estimate to be close to the real count"
+        Math.abs(count.getEstimate() - expected) <= 0.03 * values.length
+
+        where:
+        selection << [
+                "gt:(2019-10-01T00:00:00+02:00[Europe/Paris])",
+                "(2019-02-01T00:00:00Z):(2019-03-01T00:00:00Z)",
+                "format:(yyyy-MM)(2019-06)",
+                "gte:format:(HH)(08)"
+        ]
+    }
+}
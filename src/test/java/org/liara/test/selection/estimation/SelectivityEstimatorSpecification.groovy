@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.estimation
+
+import org.liara.selection.estimation.EquiDepthHistogram
+import org.liara.selection.estimation.SelectivityEstimator
+import org.liara.test.selection.bool.BooleanSelectionToConditionCompiler
+import org.liara.test.selection.datetime.DateTimeCondition
+import org.liara.test.selection.datetime.DateTimeSelectionToConditionCompiler
+import org.liara.test.selection.duration.DurationSelectionToRangesCompiler
+import org.liara.test.selection.natural.DoubleSelectionToRangesCompiler
+import org.liara.test.selection.natural.LongSelectionToRangesCompiler
+import spock.lang.Specification
+
+import java.time.LocalDateTime
+import java.time.ZoneOffset
+
+class SelectivityEstimatorSpecification extends Specification {
+    def setup() {
+        TimeZone.setDefault(TimeZone.getTimeZone("UTC"))
+    }
+
+    def "#estimate estimates the selectivity of number selections"() {
+        given: "a histogram of uniform integers in [0, 1000[ with 10% of nulls"
+        final Random random = new Random(31)
+        final long[] sample = (0..<9000).collect { (long) random.nextInt(1000) } as long[]
+        final EquiDepthHistogram histogram = EquiDepthHistogram.fromSample(sample, 1000, 64)
+
+        expect: "estimates to be close to the real fractions"
+        Math.abs(SelectivityEstimator.estimate(
+                histogram, new LongSelectionToRangesCompiler().compile(selection)
+        ) - expected) < 0.02
+
+        where:
+        selection            | expected
+        "gt:300"             | 0.9 * 0.699
+        "100:199;500:549"    | 0.9 * 0.15
+        "not:100:199"        | 0.9 * 0.9
+        "near:500+-50"       | 0.9 * 0.101
+        "42"                 | 0.9 * 0.001
+        "lt:0"               | 0
+    }
+
+    def "#estimate estimates the selectivity of real and duration selections"() {
+        given: "a histogram of uniform durations in [0, 1 hour["
+        final Random random = new Random(31)
+        final double[] sample = (0..<10000).collect { random.nextDouble() * 3600000 } as double[]
+        final EquiDepthHistogram histogram = EquiDepthHistogram.fromSample(sample, 0, 64)
+
+        expect: "estimates to be close to the real fractions"
+        Math.abs(SelectivityEstimator.estimate(
+                histogram, new DurationSelectionToRangesCompiler().compile("gte:30minute")
+        ) - 0.5) < 0.02
+        Math.abs(SelectivityEstimator.estimate(
+                histogram, new DoubleSelectionToRangesCompiler().compile("lt:360000")
+        ) - 0.1) < 0.02
+    }
+
+    def "#estimate estimates the selectivity of boolean selections"() {
+        given: "a histogram of a boolean column with 60% of true, 30% of false and 10% of nulls"
+        final long[] sample = ((0..<600).collect { 1L } + (0..<300).collect { 0L }) as long[]
+        final EquiDepthHistogram histogram = EquiDepthHistogram.fromSample(sample, 100, 16)
+        final BooleanSelectionToConditionCompiler compiler = new BooleanSelectionToConditionCompiler()
+
+        expect: "estimates to be equal to the real fractions"
+        Math.abs(SelectivityEstimator.estimate(histogram, compiler.compile(selection)) - expected) < 1e-9
+
+        where:
+        selection     | expected
+        "true"        | 0.6
+        "false;null"  | 0.4
+        "not:null"    | 0.9
+        "not:true"    | 0.3
+    }
+
+    def "#estimate estimates the selectivity of datetime selections"() {
+        given: "uniform instants over 2019"
+        final Random random = new Random(31)
+        final long from = LocalDateTime.of(2019, 1, 1, 0, 0).toInstant(ZoneOffset.UTC).toEpochMilli()
+        final long to = LocalDateTime.of(2020, 1, 1, 0, 0).toInstant(ZoneOffset.UTC).toEpochMilli()
+        final long[] instants = (0..<20000).collect { from + (long) (random.nextDouble() * (to - from)) } as long[]
+
+        and: "a histogram of half of them"
+        final EquiDepthHistogram histogram = EquiDepthHistogram.fromSample(
+                Arrays.copyOf(instants, 10000), 0, 64
+        )
+
+        expect: "estimates to be close to the fraction of the other instants that are accepted"
+        final DateTimeCondition condition = new DateTimeSelectionToConditionCompiler().compile(selection)
+        final double expected = (10000..<20000).count { condition.test(instants[it]) } / 10000d
+
+        Math.abs(SelectivityEstimator.estimate(histogram, condition) - expected) < 0.03
+
+        where:
+        selection << [
+                "format:(yyyy-MM-dd)(2019-01-01):(2019-02-01)",
+                "gt:(2019-10-01T00:00:00+02:00[Europe/Paris])",
+                "gte:format:(HH)(08)",
+                "gte:format:(HH)(08),lt:format:(HH)(18)",
+                "locale:(en)format:(EEEE)(Monday)",
+                "not:format:(yyyy-MM)(2019-03)"
+        ]
+    }
+}
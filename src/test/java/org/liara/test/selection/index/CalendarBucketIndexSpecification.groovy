@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.index
+
+import org.liara.selection.index.CalendarBucketIndex
+import org.liara.test.selection.datetime.DateTimeCondition
+import org.liara.test.selection.datetime.DateTimeSelectionToConditionCompiler
+import spock.lang.Shared
+import spock.lang.Specification
+
+import java.time.ZoneId
+import java.time.temporal.ChronoField
+
+class CalendarBucketIndexSpecification extends Specification {
+    @Shared
+    long[] column
+
+    def setupSpec() {
+        final Random random = new Random(11L)
+        column = (0..<20000).collect {
+            1514764800000L + (long) (random.nextDouble() * 3L * 365L * 86400000L)
+        } as long[]
+    }
+
+    def "#select returns the rows accepted by a selection"() {
+        given: "an index in the zone of the partial dates of the selections"
+        final CalendarBucketIndex index = CalendarBucketIndex.of(
+                column, ZoneId.systemDefault(), CalendarBucketIndex.DEFAULT_FIELDS
+        )
+        final DateTimeCondition condition = new DateTimeSelectionToConditionCompiler().compile(
+                selection
+        )
+
+        expect: "the index to return the rows accepted by the selection"
+        index.select(condition).toArray() ==
+                (0..<column.length).findAll { condition.test(column[it]) } as int[]
+
+        where:
+        selection << [
+                "format:(HH)(10):(14)",
+                "gte:format:(HH)(08)",
+                "locale:(en)format:(EEEE)(Monday):(Friday)",
+                "format:(MM)(12)",
+                "not:format:(HH)(08):(10)",
+                "format:(MM-dd)(12-24):(12-31)",
+                "format:(w)(1):(3);format:(dd)(15)",
+                "format:(HH)(10),locale:(en)format:(EEEE)(Sunday)",
+                "format:(mm)(00):(15)",
+                "(2019-01-01T00:00:00Z):(2019-06-30T00:00:00Z)",
+                "gt:(2019-05-03T10:15:30+02:00[Europe/Paris]),format:(HH)(09)"
+        ]
+    }
+
+    def "#select scans the column for comparisons in another zone"() {
+        given: "an index in another zone"
+        final ZoneId zone = ZoneId.systemDefault() == ZoneId.of("Asia/Tokyo")
+                ? ZoneId.of("America/New_York") : ZoneId.of("Asia/Tokyo")
+        final CalendarBucketIndex index = CalendarBucketIndex.of(
+                column, zone, [ChronoField.HOUR_OF_DAY]
+        )
+        final DateTimeCondition condition = new DateTimeSelectionToConditionCompiler().compile(
+                "format:(HH)(10):(14)"
+        )
+
+        expect: "the index to return the rows accepted by the selection"
+        index.select(condition).toArray() ==
+                (0..<column.length).findAll { condition.test(column[it]) } as int[]
+    }
+
+    def "#get returns the rows of a value of a field"() {
+        given: "an index in UTC"
+        final CalendarBucketIndex index = CalendarBucketIndex.of(
+                [0L, 3600000L, 86400000L + 3600000L] as long[],
+                ZoneId.of("UTC"),
+                CalendarBucketIndex.DEFAULT_FIELDS
+        )
+
+        expect: "the rows of each value"
+        index.get(ChronoField.HOUR_OF_DAY, 1).toArray() == [1, 2] as int[]
+        index.get(ChronoField.DAY_OF_MONTH, 2).toArray() == [2] as int[]
+        index.get(ChronoField.DAY_OF_WEEK, 4).toArray() == [0, 1] as int[]
+        index.get(ChronoField.HOUR_OF_DAY, 99).isEmpty()
+        index.getRowCount() == 3
+    }
+
+    def "#of rejects fields with too many values"() {
+        when: "a field of many values is indexed"
+        CalendarBucketIndex.of([0L] as long[], ZoneId.of("UTC"), [ChronoField.DAY_OF_YEAR, field])
+
+        then: "an exception to be thrown"
+        thrown(IllegalArgumentException)
+
+        where:
+        field << [ChronoField.SECOND_OF_DAY, ChronoField.OFFSET_SECONDS]
+    }
+}
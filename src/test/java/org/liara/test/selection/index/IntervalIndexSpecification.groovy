@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.index
+
+import org.liara.selection.column.ColumnStore
+import org.liara.selection.column.ColumnStoreWriter
+import org.liara.selection.index.IntervalIndex
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+class IntervalIndexSpecification extends Specification {
+    def "#select returns the intervals that overlap a range"() {
+        given: "random intervals, nested, overlapping and disjoint, and their index"
+        final Random random = new Random(intervals)
+        final long[] starts = new long[intervals]
+        final long[] ends = new long[intervals]
+
+        for (int row = 0; row < intervals; ++row) {
+            starts[row] = random.nextInt(10000) - 5000
+            ends[row] = starts[row] + (random.nextInt(10) == 0 ? random.nextInt(5000)
+                    : random.nextInt(50))
+        }
+
+        final IntervalIndex index = IntervalIndex.of(starts, ends)
+
+        expect: "the index to return the intervals that overlap each range"
+        (0..<200).every {
+            final long lower = random.nextInt(12000) - 6000
+            final long upper = lower + (it % 4 == 0 ? 0 : random.nextInt(it % 4 == 1 ? 20 : 3000))
+
+            index.select(lower, upper).toArray() == (0..<intervals).findAll {
+                starts[it] <= upper && ends[it] >= lower
+            } as int[]
+        }
+        index.size() == intervals
+        index.getHeight() <= 2 + 32 - Integer.numberOfLeadingZeros(intervals)
+
+        where:
+        intervals << [0, 1, 64, 65, 1000, 20000]
+    }
+
+    def "#search returns each overlapping interval once"() {
+        given: "intervals that share their bounds"
+        final IntervalIndex index = IntervalIndex.of(
+                (0..<500).collect { (long) (it % 7) } as long[],
+                (0..<500).collect { (long) (it % 7 + it % 3) } as long[]
+        )
+
+        expect: "each matching row to be returned once"
+        final int[] rows = index.search(2L, 4L)
+        rows.length == rows.toList().unique().size()
+        rows.toList().sort() == (0..<500).findAll { it % 7 <= 4 && it % 7 + it % 3 >= 2 }
+    }
+
+    def "#select answers the operators of the in-range compiler"() {
+        given: "activities of the first hours of a day"
+        final IntervalIndex index = IntervalIndex.of(
+                [0L, 3600000L, 1800000L, 7200000L, 0L] as long[],
+                [3600000L, 7200000L, 5400000L, 7200000L, 10800000L] as long[]
+        )
+
+        expect: "each operator to be the overlap of a range of instants"
+        index.select(lower, upper).toArray() == expected as int[]
+
+        where:
+        operator         | lower          | upper          | expected
+        "eq:1h"          | 3600000L       | 3600000L       | [0, 1, 2, 4]
+        "gt:2h"          | 7200001L       | Long.MAX_VALUE | [4]
+        "gte:2h"         | 7200000L       | Long.MAX_VALUE | [1, 3, 4]
+        "lt:1h"          | Long.MIN_VALUE | 3599999L       | [0, 2, 4]
+        "lte:1h"         | Long.MIN_VALUE | 3600000L       | [0, 1, 2, 4]
+        "1h30:2h30"      | 5400000L       | 9000000L       | [1, 2, 3, 4]
+        "empty range"    | 2L             | 1L             | []
+    }
+
+    def "#of indexes the intervals of a store"() {
+        given: "a store of activities"
+        final Path path = Files.createTempFile("interval-index-store", ".bin")
+        new ColumnStoreWriter(path, 1000).withCloseable {
+            it.writeLongs("start", { it * 10L }).writeLongs("end", { it * 10L + 15L })
+        }
+        final ColumnStore store = ColumnStore.open(path)
+
+        expect: "the index to return the overlapping activities"
+        IntervalIndex.of(store, "start", "end").select(100L, 120L).toArray() == [9, 10, 11, 12] as int[]
+
+        cleanup:
+        store.close()
+        Files.deleteIfExists(path)
+    }
+
+    def "#of rejects invalid intervals"() {
+        when: "intervals are indexed"
+        IntervalIndex.of(starts as long[], ends as long[])
+
+        then: "an exception to be thrown"
+        thrown(IllegalArgumentException)
+
+        where:
+        starts   | ends
+        [1L, 5L] | [2L, 4L]
+        [1L, 2L] | [2L]
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.index
+
+import org.liara.selection.column.ColumnStore
+import org.liara.selection.column.ColumnStoreWriter
+import org.liara.selection.index.SortedRangeIndex
+import org.liara.selection.range.DoubleRanges
+import org.liara.selection.range.LongRanges
+import org.liara.test.selection.duration.DurationSelectionToRangesCompiler
+import org.liara.test.selection.natural.DoubleSelectionToRangesCompiler
+import org.liara.test.selection.natural.LongSelectionToRangesCompiler
+import spock.lang.Specification
+
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+import java.nio.file.Files
+import java.nio.file.Path
+
+class SortedRangeIndexSpecification extends Specification {
+    def "#search returns the rows of a long column accepted by a selection"() {
+        given: "a random column and its index"
+        final Random random = new Random(selection.hashCode())
+        final long[] column = (0..<5000).collect { (long) (random.nextInt(2000) - 1000) } as long[]
+        final SortedRangeIndex index = SortedRangeIndex.of(column)
+        final LongRanges ranges = new LongSelectionToRangesCompiler().compile(selection)
+        final List<Integer> expected = (0..<column.length).findAll { ranges.contains(column[it]) }
+
+        expect: "the index to return the matching rows"
+        index.search(ranges).toList().sort() == expected
+        index.select(ranges).toArray() == expected as int[]
+        index.count(ranges) == expected.size()
+
+        where:
+        selection << ["100:200", "-5", "gt:900;lt:-900", "not:-500:500", "2000:3000", "gte:-1000"]
+    }
+
+    def "#search returns the rows in order of value and then of row"() {
+        given: "an index"
+        final SortedRangeIndex index = SortedRangeIndex.of([5L, 3L, 5L, Long.MIN_VALUE, 4L] as long[])
+        final List<Integer> rows = []
+
+        when: "all rows are searched"
+        index.search(LongRanges.full(), { rows.add(it) })
+
+        then: "the rows to be returned by value and then by row"
+        rows == [3, 1, 4, 0, 2]
+    }
+
+    def "#search returns the rows of a duration column accepted by a selection"() {
+        given: "a column of durations"
+        final long[] column = [60000L, 3600000L, 5400000L, 300000L, 7200000L] as long[]
+        final SortedRangeIndex index = SortedRangeIndex.of(column)
+
+        expect: "the index to return the matching rows"
+        index.select(new DurationSelectionToRangesCompiler().compile(selection)).toArray() ==
+                expected as int[]
+
+        where:
+        selection              | expected
+        "gte:1hour"            | [1, 2, 4]
+        "lt:30minute"          | [0, 3]
+        "not:10minute:2hour"   | [0, 3]
+    }
+
+    def "#search returns the rows of a double column accepted by a selection"() {
+        given: "a column with special values"
+        final double[] column = [
+                -0.0d, 0.0d, Double.NaN, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY,
+                -1.5d, 1.5d, Double.MIN_VALUE, -Double.MIN_VALUE, 42d
+        ] as double[]
+        final SortedRangeIndex index = SortedRangeIndex.of(column)
+        final DoubleRanges ranges = new DoubleSelectionToRangesCompiler().compile(selection)
+
+        expect: "the index to return the rows accepted by the selection, NaN being never accepted"
+        index.select(ranges).toArray() == (0..<column.length).findAll { final int row ->
+            (0..<ranges.size()).any {
+                column[row] >= ranges.getLower(it) && column[row] <= ranges.getUpper(it)
+            }
+        } as int[]
+
+        where:
+        selection << ["0", "gt:0", "lt:0", "gte:-1.5", "not:-1:1", "near:42+-0.5"]
+    }
+
+    def "#write and #open persist an index"() {
+        given: "an index written into a file"
+        final Path path = Files.createTempFile("range-index", ".bin")
+        final Random random = new Random(3L)
+        final double[] column = (0..<1000).collect { random.nextGaussian() } as double[]
+        SortedRangeIndex.of(column).write(path)
+
+        when: "the file is opened"
+        final SortedRangeIndex index = SortedRangeIndex.open(path)
+        final DoubleRanges ranges = DoubleRanges.closed(-0.5d, 0.25d)
+
+        then: "the mapped index to return the same rows"
+        index.getType() == SortedRangeIndex.DOUBLE
+        index.size() == 1000
+        index.select(ranges).toArray() ==
+                (0..<column.length).findAll { ranges.contains(column[it]) } as int[]
+
+        cleanup:
+        Files.deleteIfExists(path)
+    }
+
+    def "#open rejects files of more rows than a mapped index can hold"() {
+        given: "a file whose header declares too many rows"
+        final Path path = Files.createTempFile("range-index", ".bin")
+        final ByteBuffer header = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN)
+        header.putInt(0x4C535249).putInt(SortedRangeIndex.LONG)
+                .putInt(SortedRangeIndex.MAXIMUM_MAPPED_SIZE + 1).putInt(0)
+        Files.write(path, header.array())
+
+        when: "the file is opened"
+        SortedRangeIndex.open(path)
+
+        then: "an exception to be thrown that reports the limit"
+        final IOException exception = thrown(IOException)
+        exception.message.contains(String.valueOf(SortedRangeIndex.MAXIMUM_MAPPED_SIZE))
+        SortedRangeIndex.MAXIMUM_MAPPED_SIZE == (1 << 28) - 1
+
+        cleanup:
+        Files.deleteIfExists(path)
+    }
+
+    def "#of indexes a column of a store"() {
+        given: "a store"
+        final Path path = Files.createTempFile("range-index-store", ".bin")
+        new ColumnStoreWriter(path, 100).withCloseable {
+            it.writeInts("room", { 99 - it }).writeLongs("start", { it * 10L })
+        }
+        final ColumnStore store = ColumnStore.open(path)
+
+        expect: "the index to return the matching rows"
+        SortedRangeIndex.of(store, "room").search(LongRanges.closed(10, 12)) == [89, 88, 87] as int[]
+        SortedRangeIndex.of(store, "start").search(LongRanges.closed(15, 40)) == [2, 3, 4] as int[]
+
+        cleanup:
+        store.close()
+        Files.deleteIfExists(path)
+    }
+
+    def "#search rejects ranges of another type"() {
+        when: "double ranges are searched in an index of longs"
+        SortedRangeIndex.of([1L] as long[]).search(DoubleRanges.full())
+
+        then: "an exception to be thrown"
+        thrown(IllegalArgumentException)
+    }
+}
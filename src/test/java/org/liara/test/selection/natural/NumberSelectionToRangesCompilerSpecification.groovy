@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.natural
+
+import org.liara.selection.range.DoubleRanges
+import org.liara.selection.range.LongRanges
+import spock.lang.Specification
+
+class NumberSelectionToRangesCompilerSpecification
+        extends Specification {
+    def "it can compile comparison clauses"() {
+        given: "a compiler"
+        final LongSelectionToRangesCompiler compiler = new LongSelectionToRangesCompiler()
+
+        expect: "it to be able to compile comparison clauses"
+        compiler.compile("gt:5") == LongRanges.greaterThan(5)
+        compiler.compile("gte:5") == LongRanges.greaterThanOrEqualTo(5)
+        compiler.compile("lt:5") == LongRanges.lessThan(5)
+        compiler.compile("lte:5") == LongRanges.lessThanOrEqualTo(5)
+        compiler.compile("eq:5") == LongRanges.equalTo(5)
+        compiler.compile("5.689") == LongRanges.equalTo(5)
+    }
+
+    def "it can compile range and near clauses"() {
+        given: "a compiler"
+        final LongSelectionToRangesCompiler compiler = new LongSelectionToRangesCompiler()
+
+        expect: "it to be able to compile range and near clauses"
+        compiler.compile("5:62") == LongRanges.closed(5, 62)
+        compiler.compile("62:5") == LongRanges.closed(5, 62)
+        compiler.compile("near:50+-3") == LongRanges.closed(47, 53)
+        compiler.compile("near:50:dt:3") == LongRanges.closed(47, 53)
+    }
+
+    def "it can compile negated clauses"() {
+        given: "a compiler"
+        final LongSelectionToRangesCompiler compiler = new LongSelectionToRangesCompiler()
+
+        expect: "it to be able to compile negated clauses"
+        compiler.compile("not:5:10") == compiler.compile("5:10").complement()
+    }
+
+    def "it can compile conjunctions and disjunctions of clauses"() {
+        given: "a compiler"
+        final LongSelectionToRangesCompiler compiler = new LongSelectionToRangesCompiler()
+
+        expect: "it to be able to compile conjunctions and disjunctions of clauses"
+        compiler.compile("gt:100,lt:200") == LongRanges.closed(101, 199)
+        compiler.compile("0:10;gt:100,lt:200;near:50+-3") == LongRanges.closed(0, 10)
+                .union(LongRanges.closed(47, 53))
+                .union(LongRanges.closed(101, 199))
+        compiler.compile("0:10;5:20,not:8") == LongRanges.closed(0, 20)
+    }
+
+    def "it can compile decimal selections"() {
+        given: "a compiler"
+        final DoubleSelectionToRangesCompiler compiler = new DoubleSelectionToRangesCompiler()
+
+        expect: "it to be able to compile decimal selections"
+        compiler.compile("gte:5.5,lt:10") == DoubleRanges.closed(5.5d, Math.nextDown(10d))
+        compiler.compile("near:5.5+-0.5") == DoubleRanges.closed(5d, 6d)
+        compiler.compile("gt:5.5").contains(5.500001d)
+        !compiler.compile("gt:5.5").contains(5.5d)
+        !compiler.compile("not:gt:5.5").contains(5.500001d)
+    }
+}
@@ -0,0 +1,294 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.processor
+
+import org.liara.selection.processor.AsyncProcessorExecutor
+import org.liara.selection.processor.Processor
+import org.liara.selection.processor.ProcessorCall
+import org.liara.selection.processor.ProcessorExecutor
+import spock.lang.Specification
+
+import java.util.concurrent.CancellationException
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executor
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+import java.util.concurrent.atomic.AtomicInteger
+
+class AsyncProcessorExecutorSpecification extends Specification {
+    /**
+     * Static methods of interfaces are called through method closures, that Groovy 2.4 invokes by
+     * reflection.
+     */
+    static final Closure<AsyncProcessorExecutor<String>> execute = AsyncProcessorExecutor.&execute
+    static final Closure<AsyncProcessorExecutor<String>> from = AsyncProcessorExecutor.&from
+    static final Closure<AsyncProcessorExecutor<String>> executeIf = AsyncProcessorExecutor.&executeIf
+    static final Closure<AsyncProcessorExecutor<String>> field = AsyncProcessorExecutor.&field
+    static final Closure<AsyncProcessorExecutor<String>> fields = AsyncProcessorExecutor.&fields
+    static final Closure<AsyncProcessorExecutor<String>> all = AsyncProcessorExecutor.&all
+
+    /**
+     * A processor that sleeps the number of milliseconds of its first parameter, as a processor
+     * that waits for a store, and that records its calls and its interruptions.
+     */
+    static class SlowProcessor implements Processor<String> {
+        final String name
+        final AtomicInteger calls = new AtomicInteger()
+        final AtomicInteger interruptions = new AtomicInteger()
+        final CountDownLatch started = new CountDownLatch(1)
+        final CountDownLatch stopped = new CountDownLatch(1)
+
+        SlowProcessor(final String name) {
+            this.name = name
+        }
+
+        @Override
+        String execute(final List<Object> parameters) {
+            calls.incrementAndGet()
+            started.countDown()
+
+            try {
+                Thread.sleep((long) parameters[0])
+            } catch (final InterruptedException exception) {
+                interruptions.incrementAndGet()
+                throw new IllegalStateException("Interrupted", exception)
+            } finally {
+                stopped.countDown()
+            }
+
+            if (name == "fail") {
+                throw new IllegalArgumentException("Failure of " + parameters)
+            }
+
+            return name + parameters
+        }
+    }
+
+    /**
+     * A processor that interrupts the thread that runs it, as a processor that restores the
+     * interruption status after catching an InterruptedException.
+     */
+    static class InterruptingProcessor implements Processor<String> {
+        @Override
+        String execute(final List<Object> parameters) {
+            Thread.currentThread().interrupt()
+            return "interrupted"
+        }
+    }
+
+    static ProcessorCall slowCall(final String identifier, final long duration) {
+        return new ProcessorCall(identifier, [], [duration])
+    }
+
+    ExecutorService pool = Executors.newCachedThreadPool()
+
+    def cleanup() {
+        pool.shutdownNow()
+    }
+
+    def "#execute routes calls as the synchronous combinators do"() {
+        given: "an asynchronous executor graph"
+        final SlowProcessor unused = new SlowProcessor("unused")
+        final AsyncProcessorExecutor<String> executor = all([
+                field("sensors", fields([
+                        "kitchen": execute(new SlowProcessor("kitchen"), pool),
+                        "garage" : executeIf(execute(new SlowProcessor("garage"), pool), {
+                            it.getIdentifierLength() > 0
+                        })
+                ])),
+                field("sensors", field("garage", execute(new SlowProcessor("fallback"), pool))),
+                field("count", execute(new SlowProcessor("count"), pool)).mapNonNull {
+                    it.toUpperCase()
+                },
+                field("count", execute(unused, pool))
+        ])
+
+        expect: "each call to complete with the first result of the graph"
+        executor.execute(slowCall(identifier, 5)).get(5, TimeUnit.SECONDS).orElse(null) == expected
+
+        and: "executors after a result not to be called"
+        unused.calls.get() == 0
+
+        where:
+        identifier              | expected
+        "sensors.kitchen"       | "kitchen[5]"
+        "sensors.garage.door"   | "garage[5]"
+        "sensors.garage"        | "fallback[5]"
+        "count"                 | "COUNT[5]"
+        "min"                   | null
+    }
+
+    def "#all completes with the failure of the first failed executor"() {
+        given: "an executor whose first alternative fails"
+        final SlowProcessor next = new SlowProcessor("next")
+        final AsyncProcessorExecutor<String> executor = all([
+                execute(new SlowProcessor("fail"), pool), execute(next, pool)
+        ])
+
+        when: "a call is executed"
+        executor.execute(slowCall("mean", 1)).get(5, TimeUnit.SECONDS)
+
+        then: "the failure to be returned and the next alternative not to be called"
+        final ExecutionException exception = thrown(ExecutionException)
+        exception.getCause() instanceof IllegalArgumentException
+        next.calls.get() == 0
+    }
+
+    def "#withTimeout fails the calls that last too long and interrupts their processor"() {
+        given: "a slow processor behind a timeout"
+        final SlowProcessor slow = new SlowProcessor("slow")
+        final AsyncProcessorExecutor<String> executor = field("sensors", all([
+                execute(slow, pool).mapNonNull { it.toUpperCase() }
+        ])).withTimeout(50, TimeUnit.MILLISECONDS)
+
+        when: "a call longer than the timeout is executed"
+        final long start = System.nanoTime()
+        executor.execute(slowCall("sensors.temperature", 10000)).get(5, TimeUnit.SECONDS)
+
+        then: "the call to time out and the processor to be interrupted"
+        final ExecutionException exception = thrown(ExecutionException)
+        exception.getCause() instanceof TimeoutException
+        (System.nanoTime() - start) / 1000000L < 5000
+        slow.stopped.await(5, TimeUnit.SECONDS)
+        slow.interruptions.get() == 1
+    }
+
+    def "#withTimeout returns the results of the calls that complete in time"() {
+        given: "a processor behind a timeout"
+        final AsyncProcessorExecutor<String> executor = execute(
+                new SlowProcessor("fast"), pool
+        ).withTimeout(5, TimeUnit.SECONDS)
+
+        expect: "the result to be returned"
+        executor.execute(slowCall("mean", 1)).get().get() == "fast[1]"
+    }
+
+    def "cancelling a future interrupts its processor"() {
+        given: "a running call"
+        final SlowProcessor slow = new SlowProcessor("slow")
+        final CompletableFuture<Optional<String>> future = field(
+                "sensors", execute(slow, pool).mapNonNull { it }
+        ).execute(slowCall("sensors.temperature", 10000))
+        slow.started.await(5, TimeUnit.SECONDS)
+
+        when: "the future is cancelled"
+        future.cancel(true)
+
+        then: "the processor to be interrupted"
+        slow.stopped.await(5, TimeUnit.SECONDS)
+        slow.interruptions.get() == 1
+        future.isCancelled()
+    }
+
+    def "#toSynchronous and #from adapt the synchronous and asynchronous forms"() {
+        given: "a synchronous executor made asynchronous and back"
+        final ProcessorExecutor<String> executor = from(
+                ProcessorExecutor.&execute(new SlowProcessor(name)), pool
+        ).toSynchronous()
+
+        when: "a call is executed"
+        final Optional<String> result = executor.execute(slowCall("mean", 2))
+
+        then: "the result or the failure of the processor to be returned as is"
+        result.get() == "ok[2]"
+
+        when: "a call fails"
+        from(ProcessorExecutor.&execute(new SlowProcessor("fail")), pool).toSynchronous().execute(
+                slowCall("mean", 1)
+        )
+
+        then: "its failure to be thrown unchanged"
+        thrown(IllegalArgumentException)
+
+        where:
+        name = "ok"
+    }
+
+    def "#execute runs calls concurrently and returns their results in order"() {
+        given: "slow processors"
+        final AsyncProcessorExecutor<String> executor = fields([
+                "mean": execute(new SlowProcessor("mean"), pool),
+                "none": executeIf(execute(new SlowProcessor("none"), pool), { false })
+        ])
+        final ProcessorCall[] calls = (0..<20).collect {
+            slowCall(it % 5 == 0 ? "none" : "mean", 100 - it)
+        } as ProcessorCall[]
+
+        when: "the calls are executed"
+        final long start = System.nanoTime()
+        final List<String> results = executor.execute(calls).get(10, TimeUnit.SECONDS)
+
+        then: "present results to be returned in order, faster than one call after the other"
+        results == (0..<20).findAll { it % 5 != 0 }.collect { "mean[" + (100 - it) + "]" }
+        (System.nanoTime() - start) / 1000000L < 1000
+    }
+
+    def "#execute fails the calls whose task is rejected"() {
+        when: "a call is executed by a saturated executor"
+        execute(new SlowProcessor("mean"), { throw new RejectedExecutionException() } as Executor)
+                .execute(slowCall("mean", 1)).get()
+
+        then: "the future to fail"
+        final ExecutionException exception = thrown(ExecutionException)
+        exception.getCause() instanceof RejectedExecutionException
+    }
+
+    def "#toSynchronous cancels the call when the waiting thread is interrupted"() {
+        given: "a slow processor"
+        final SlowProcessor slow = new SlowProcessor("slow")
+        final ProcessorExecutor<String> executor = execute(slow, pool).toSynchronous()
+        final Thread waiting = Thread.currentThread()
+        pool.execute({
+            slow.started.await(5, TimeUnit.SECONDS)
+            waiting.interrupt()
+        })
+
+        when: "the waiting thread is interrupted once the processor started"
+        executor.execute(slowCall("mean", 10000))
+
+        then: "the call to be cancelled and its processor to be interrupted"
+        thrown(CancellationException)
+        Thread.interrupted()
+        slow.stopped.await(5, TimeUnit.SECONDS)
+        slow.interruptions.get() == 1
+    }
+
+    def "#execute keeps the interruption status set by the processor itself"() {
+        given: "a processor that interrupts its own thread, run by the calling thread"
+        final AsyncProcessorExecutor<String> executor = execute(
+                new InterruptingProcessor(), { final Runnable task -> task.run() } as Executor
+        )
+
+        when: "a call is executed"
+        final Optional<String> result = executor.execute(slowCall("mean", 1)).get()
+
+        then: "the interruption status of the thread to be kept"
+        result.get() == "interrupted"
+        Thread.interrupted()
+    }
+}
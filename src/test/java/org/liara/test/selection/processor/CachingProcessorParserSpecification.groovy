@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.processor
+
+import org.liara.selection.CompilationException
+import org.liara.selection.processor.CachingProcessorParser
+import org.liara.selection.processor.ProcessorCall
+import org.liara.selection.processor.ProcessorParser
+import spock.lang.Specification
+
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.TimeUnit
+
+class CachingProcessorParserSpecification extends Specification {
+    static List<String> describe(final ProcessorCall[] calls) {
+        return calls.collect {
+            it.getFullIdentifier() + it.getConfigurationParameters() + it.getExecutionParameters()
+        }
+    }
+
+    def "#tryToTranspile returns the calls of an expression"() {
+        given: "a caching parser"
+        final CachingProcessorParser parser = new CachingProcessorParser()
+
+        expect: "expressions to be parsed as done by a parser"
+        describe(parser.tryToTranspile(expression)) == describe(
+                new ProcessorParser().tryToTranspile(expression)
+        )
+        describe(parser.tryToTranspile(expression)) == expected
+
+        where:
+        expression                                | expected
+        "count"                                   | ["count[][]"]
+        'sensors.mean(2.5,"a",MAX):3'             | ["sensors.mean[2.5, a, max][3]"]
+        'first:"kitchen";last(MAX);count'         | ["first[][kitchen]", "last[max][]", "count[][]"]
+    }
+
+    def "#tryToTranspile returns cached calls in a new array"() {
+        given: "a caching parser"
+        final CachingProcessorParser parser = new CachingProcessorParser()
+
+        when: "an expression is parsed twice"
+        final ProcessorCall[] first = parser.tryToTranspile("mean:1;count")
+        first[1] = null
+        final ProcessorCall[] second = parser.tryToTranspile("mean:1;count")
+
+        then: "the same calls to be returned in another array"
+        !second.is(first)
+        second[0].is(first[0])
+        second[1] != null
+        parser.getMissCount() == 1L
+        parser.getHitCount() == 1L
+        parser.size() == 1L
+    }
+
+    def "#tryToTranspile throws and never caches invalid expressions"() {
+        given: "a caching parser"
+        final CachingProcessorParser parser = new CachingProcessorParser()
+
+        when: "an invalid expression is parsed"
+        parser.tryToTranspile("mean(1")
+
+        then: "a compilation exception to be thrown"
+        thrown(CompilationException)
+        parser.size() == 0L
+
+        when: "a valid expression is parsed by the same thread"
+        final ProcessorCall[] calls = parser.tryToTranspile("count")
+
+        then: "it to be parsed"
+        describe(calls) == ["count[][]"]
+    }
+
+    def "#tryToTranspile parses valid expressions after a failure on the same thread"() {
+        given: "a caching parser"
+        final CachingProcessorParser parser = new CachingProcessorParser()
+
+        when: "an invalid expression is parsed"
+        parser.tryToTranspile(invalid)
+
+        then: "a compilation error to be thrown"
+        thrown(CompilationException)
+
+        when: "a valid expression is parsed by the same thread"
+        final ProcessorCall[] calls = parser.tryToTranspile('bc(2)')
+
+        then: "nothing of the invalid expression to leak into its calls"
+        describe(calls) == ["bc[2][]"]
+        describe(parser.tryToTranspile('bc(2)')) == ["bc[2][]"]
+
+        where:
+        invalid << ['ab("x",+99999999999999999999999)', 'ab("x",3', 'ab(1,,2)']
+    }
+
+    def "#transpile parses invalid expressions as a lenient parser"() {
+        given: "a caching parser"
+        final CachingProcessorParser parser = new CachingProcessorParser()
+
+        expect: "invalid expressions to be parsed as done by a parser"
+        describe(parser.transpile("mean(1:2")) == describe(
+                new ProcessorParser().transpile("mean(1:2")
+        )
+        parser.size() == 0L
+        describe(parser.transpile("count")) == ["count[][]"]
+    }
+
+    def "#warmUp remembers valid expressions"() {
+        given: "a caching parser"
+        final CachingProcessorParser parser = new CachingProcessorParser()
+
+        when: "the parser is warmed up"
+        parser.warmUp(["mean:1", "count", "mean(1"])
+        parser.tryToTranspile("count")
+
+        then: "valid expressions to be remembered"
+        parser.size() == 2L
+        parser.getHitCount() == 1L
+    }
+
+    def "it evicts expressions over its maximum size"() {
+        given: "a small caching parser"
+        final CachingProcessorParser parser = new CachingProcessorParser(4)
+
+        when: "many expressions are parsed"
+        (0..<20).each { parser.tryToTranspile("mean:" + it) }
+
+        then: "at most the maximum number of expressions to be remembered"
+        parser.size() <= 4L
+    }
+
+    def "it can be shared by many threads"() {
+        given: "a caching parser and many threads"
+        final CachingProcessorParser parser = new CachingProcessorParser(16)
+        final ExecutorService pool = Executors.newFixedThreadPool(8)
+
+        when: "many expressions are parsed concurrently"
+        final List<Future<Boolean>> futures = (0..<2000).collect { final int index ->
+            pool.submit({
+                final int value = index % 64
+                describe(parser.tryToTranspile("mean(" + value + "):" + value + ";count")) == [
+                        "mean[" + value + "][" + value + "]", "count[][]"
+                ]
+            } as Callable<Boolean>)
+        }
+
+        then: "each expression to be parsed correctly"
+        futures.every { it.get(30, TimeUnit.SECONDS) }
+
+        cleanup:
+        pool.shutdownNow()
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.processor
+
+import org.liara.selection.processor.InstrumentingProcessorExecutor
+import org.liara.selection.processor.InstrumentingProcessorExecutorBuilder
+import org.liara.selection.processor.ProcessorCall
+import org.liara.selection.processor.ProcessorExecutor
+import org.liara.selection.processor.ProcessorMetrics
+import spock.lang.Specification
+
+import java.util.concurrent.CompletionException
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+import java.util.function.Consumer
+
+class InstrumentingProcessorExecutorSpecification extends Specification {
+    /**
+     * An executor that sleeps the number of milliseconds of its first parameter, fails for the
+     * calls of "fail", and busy waits without checking interruptions for the calls of "stubborn".
+     */
+    static class SlowExecutor implements ProcessorExecutor<Long> {
+        final CountDownLatch interrupted = new CountDownLatch(1)
+        final CountDownLatch finished = new CountDownLatch(1)
+
+        @Override
+        Optional<Long> execute(final ProcessorCall call) {
+            final long duration = (long) call.getExecutionParameters()[0]
+
+            switch (call.getFullIdentifier()) {
+                case "fail":
+                    throw new IllegalStateException("Failure")
+                case "stubborn":
+                    final long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(duration)
+
+                    while (System.nanoTime() < end) {
+                        Thread.onSpinWait()
+                    }
+
+                    finished.countDown()
+                    return Optional.of(duration)
+                default:
+                    try {
+                        Thread.sleep(duration)
+                    } catch (final InterruptedException exception) {
+                        interrupted.countDown()
+                        throw exception
+                    }
+
+                    return Optional.of(duration)
+            }
+        }
+    }
+
+    static ProcessorCall slowCall(final String identifier, final long duration) {
+        return new ProcessorCall(identifier, [], [duration])
+    }
+
+    ExecutorService pool = Executors.newCachedThreadPool()
+
+    def cleanup() {
+        pool.shutdownNow()
+    }
+
+    def "#execute records the calls, failures and latencies of each identifier"() {
+        given: "an instrumented executor"
+        final InstrumentingProcessorExecutor<Long> executor = (
+                new InstrumentingProcessorExecutor<>(new SlowExecutor())
+        )
+
+        when: "calls of many identifiers are executed"
+        executor.execute(slowCall("sensors.mean", 20L))
+        executor.execute(slowCall("sensors.mean", 0L))
+        executor.execute(slowCall("count", 0L))
+
+        try {
+            executor.execute(slowCall("fail", 0L))
+        } catch (final IllegalStateException ignored) {
+        }
+
+        final SortedMap<String, ProcessorMetrics> metrics = executor.getMetrics()
+
+        then: "the metrics of each identifier to be returned by identifier"
+        metrics.keySet() as List == ["count", "fail", "sensors.mean"]
+        metrics*.value*.getCallCount() == [1L, 1L, 2L]
+        metrics*.value*.getErrorCount() == [0L, 1L, 0L]
+        metrics*.value*.getOverrunCount() == [0L, 0L, 0L]
+
+        and: "the latencies of the calls to be recorded"
+        final ProcessorMetrics mean = executor.getMetrics("sensors.mean").get()
+        mean.getLatency().getCount() == 2L
+        mean.getLatency().getMaximum() >= TimeUnit.MILLISECONDS.toNanos(20L)
+        mean.getLatency().getValueAtQuantile(0.5d) < TimeUnit.MILLISECONDS.toNanos(20L)
+        !executor.getMetrics("unknown").isPresent()
+    }
+
+    def "#execute returns results within the budget"() {
+        given: "an instrumented executor with a time budget"
+        final InstrumentingProcessorExecutor<Long> executor = (
+                new InstrumentingProcessorExecutorBuilder<Long>()
+                        .setTimeBudget(2, TimeUnit.SECONDS, pool)
+                        .build(new SlowExecutor())
+        )
+
+        expect: "calls within the budget to return their results and failures"
+        executor.execute(slowCall("mean", 10L)) == Optional.of(10L)
+        executor.getTimeBudget() == TimeUnit.SECONDS.toNanos(2L)
+
+        when: "a call fails"
+        executor.execute(slowCall("fail", 0L))
+
+        then: "its failure to be thrown as is and to be counted"
+        thrown(IllegalStateException)
+        executor.getMetrics("fail").get().getErrorCount() == 1L
+    }
+
+    def "#execute cancels and reports the calls that exceed their budget"() {
+        given: "an instrumented executor with a short time budget"
+        final SlowExecutor slow = new SlowExecutor()
+        final List<ProcessorCall> overruns = []
+        final InstrumentingProcessorExecutor<Long> executor = (
+                new InstrumentingProcessorExecutorBuilder<Long>()
+                        .setTimeBudget(50, TimeUnit.MILLISECONDS, pool)
+                        .setOverrunListener({ overruns.add(it) } as Consumer)
+                        .build(slow)
+        )
+        final ProcessorCall call = slowCall("mean", 10000L)
+
+        when: "a call exceeds its budget"
+        final long start = System.nanoTime()
+        executor.execute(call)
+
+        then: "the call to fail with a timeout once its budget is exceeded"
+        final CompletionException exception = thrown(CompletionException)
+        exception.getCause() instanceof TimeoutException
+        System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5L)
+
+        and: "the call to be interrupted and reported"
+        slow.interrupted.await(5, TimeUnit.SECONDS)
+        overruns == [call]
+        executor.getMetrics("mean").get().getOverrunCount() == 1L
+        executor.getMetrics("mean").get().getErrorCount() == 0L
+        executor.getMetrics("mean").get().getCallCount() == 1L
+    }
+
+    def "#execute abandons the calls that ignore their cancellation"() {
+        given: "an instrumented executor with a short time budget"
+        final SlowExecutor slow = new SlowExecutor()
+        final InstrumentingProcessorExecutor<Long> executor = (
+                new InstrumentingProcessorExecutorBuilder<Long>()
+                        .setTimeBudget(20, TimeUnit.MILLISECONDS, pool)
+                        .build(slow)
+        )
+
+        when: "a call that ignores interruptions exceeds its budget"
+        executor.execute(slowCall("stubborn", 300L))
+
+        then: "the caller to stop waiting before the call ends"
+        thrown(CompletionException)
+        slow.finished.getCount() == 1L
+
+        and: "the call to end later on its worker"
+        slow.finished.await(5, TimeUnit.SECONDS)
+        executor.getMetrics("stubborn").get().getOverrunCount() == 1L
+    }
+
+    def "it rejects negative time budgets"() {
+        when: "a negative time budget is set"
+        new InstrumentingProcessorExecutorBuilder<Long>().setTimeBudget(-1, TimeUnit.SECONDS, pool)
+
+        then: "an exception to be thrown"
+        thrown(IllegalArgumentException)
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.processor
+
+import org.liara.selection.processor.LatencyHistogram
+import org.liara.selection.processor.LatencySnapshot
+import spock.lang.Specification
+
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.TimeUnit
+
+class LatencyHistogramSpecification extends Specification {
+    def "#snapshot returns quantiles exact to 1/64 of their value"() {
+        given: "a histogram of durations spread over many magnitudes"
+        final LatencyHistogram histogram = new LatencyHistogram()
+        final Random random = new Random(42L)
+        final List<Long> durations = (0..<10000).collect {
+            (long) Math.pow(10d, random.nextDouble() * 12d)
+        }
+        durations.each { histogram.record(it) }
+        final List<Long> sorted = durations.sort(false)
+
+        when: "a snapshot is taken"
+        final LatencySnapshot snapshot = histogram.snapshot()
+
+        then: "its statistics to be exact"
+        snapshot.getCount() == 10000L
+        snapshot.getSum() == durations.sum()
+        snapshot.getMaximum() == sorted.last()
+        Math.abs(snapshot.getMean() - durations.sum() / 10000d) < 1e-3d
+
+        and: "its quantiles to be exact to 1/64 of their value"
+        [0.01d, 0.25d, 0.5d, 0.9d, 0.99d, 0.999d, 1d].every { final double quantile ->
+            final long expected = sorted[(int) Math.ceil(quantile * 10000) - 1]
+            final long actual = snapshot.getValueAtQuantile(quantile)
+            actual >= expected && actual - expected <= expected / 64d
+        }
+    }
+
+    def "#snapshot counts short durations exactly"() {
+        given: "a histogram of short durations"
+        final LatencyHistogram histogram = new LatencyHistogram()
+        (0L..127L).each { histogram.record(it) }
+        histogram.record(-5L)
+
+        when: "a snapshot is taken"
+        final LatencySnapshot snapshot = histogram.snapshot()
+
+        then: "each duration to be counted exactly"
+        snapshot.getValueAtQuantile(0d) == 0L
+        snapshot.getValueAtQuantile(0.5d) == 63L
+        snapshot.getValueAtQuantile(1d) == 127L
+        snapshot.getCountAtMost(-1L) == 0L
+        snapshot.getCountAtMost(0L) == 2L
+        snapshot.getCountAtMost(99L) == 101L
+    }
+
+    def "#snapshot counts durations of any magnitude"() {
+        given: "a histogram of extreme durations"
+        final LatencyHistogram histogram = new LatencyHistogram()
+        histogram.record(Long.MAX_VALUE)
+        histogram.record(1L << 40)
+
+        expect: "each duration to be counted"
+        histogram.snapshot().getValueAtQuantile(1d) == Long.MAX_VALUE
+        histogram.snapshot().getValueAtQuantile(0.5d) >= 1L << 40
+        histogram.snapshot().getValueAtQuantile(0.5d) <= (1L << 40) + (1L << 34)
+        histogram.snapshot().getCountAtMost(Long.MAX_VALUE) == 2L
+    }
+
+    def "#getValueAtQuantile returns 0 for empty histograms and rejects invalid quantiles"() {
+        given: "an empty histogram"
+        final LatencySnapshot snapshot = new LatencyHistogram().snapshot()
+
+        expect: "quantiles of no duration to be 0"
+        snapshot.getValueAtQuantile(0.5d) == 0L
+        snapshot.getMean() == 0d
+
+        when: "an invalid quantile is requested"
+        snapshot.getValueAtQuantile(1.5d)
+
+        then: "an exception to be thrown"
+        thrown(IllegalArgumentException)
+    }
+
+    def "#record can be called by many threads"() {
+        given: "a histogram and many threads"
+        final LatencyHistogram histogram = new LatencyHistogram()
+        final ExecutorService pool = Executors.newFixedThreadPool(8)
+
+        when: "durations are recorded concurrently"
+        final List<Future<?>> futures = (0..<8).collect { final int thread ->
+            pool.submit({
+                for (int index = 0; index < 10000; ++index) {
+                    histogram.record(index * 1000L)
+                }
+            } as Runnable)
+        }
+        futures.each { it.get(30, TimeUnit.SECONDS) }
+
+        then: "each duration to be counted"
+        histogram.getCount() == 80000L
+        histogram.snapshot().getCount() == 80000L
+
+        cleanup:
+        pool.shutdownNow()
+    }
+}
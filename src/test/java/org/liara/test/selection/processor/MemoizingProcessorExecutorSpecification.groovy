@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.processor
+
+import org.liara.selection.processor.MemoizingProcessorExecutor
+import org.liara.selection.processor.MemoizingProcessorExecutorBuilder
+import org.liara.selection.processor.ProcessorCall
+import org.liara.selection.processor.ProcessorCallKey
+import org.liara.selection.processor.ProcessorExecutor
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+import java.util.function.LongSupplier
+
+class MemoizingProcessorExecutorSpecification extends Specification {
+    /**
+     * An executor that counts its executions, sleeps the number of milliseconds of its first
+     * execution parameter and fails for the calls of "fail".
+     */
+    static class CountingExecutor implements ProcessorExecutor<String> {
+        final AtomicInteger executions = new AtomicInteger()
+
+        @Override
+        Optional<String> execute(final ProcessorCall call) {
+            executions.incrementAndGet()
+            Thread.sleep((long) call.getExecutionParameters()[0])
+
+            if (call.getFullIdentifier() == "fail") {
+                throw new IllegalStateException("Failure")
+            }
+
+            return Optional.of(call.getFullIdentifier() + call.getConfigurationParameters() +
+                    call.getExecutionParameters())
+        }
+    }
+
+    static ProcessorCall newCall(
+            final String identifier,
+            final List<Object> configuration = [],
+            final long duration = 0L
+    ) {
+        return new ProcessorCall(identifier, configuration, [duration])
+    }
+
+    def "#execute executes identical calls of opted in identifiers once"() {
+        given: "a memoizing executor of the mean"
+        final CountingExecutor counting = new CountingExecutor()
+        final MemoizingProcessorExecutor<String> executor = (
+                new MemoizingProcessorExecutorBuilder<String>().memoize("mean").build(counting)
+        )
+
+        when: "identical and different calls are executed"
+        final List<String> results = [
+                newCall("mean", [1L]), newCall("mean", [1L]), newCall("mean", [2L]),
+                newCall("mean", [1L]), newCall("count", [1L]), newCall("count", [1L])
+        ].collect { executor.execute(it).get() }
+
+        then: "the results to be returned and each distinct memoized call to be executed once"
+        results == [
+                "mean[1][0]", "mean[1][0]", "mean[2][0]", "mean[1][0]", "count[1][0]",
+                "count[1][0]"
+        ]
+        counting.executions.get() == 4
+        executor.getHitCount() == 2
+        executor.getMissCount() == 2
+        executor.isMemoized(newCall("mean"))
+        !executor.isMemoized(newCall("count"))
+    }
+
+    def "#execute executes the calls again once their results expired"() {
+        given: "a memoizing executor with a time to live and a manual clock"
+        final AtomicLong now = new AtomicLong()
+        final CountingExecutor counting = new CountingExecutor()
+        final MemoizingProcessorExecutor<String> executor = (
+                new MemoizingProcessorExecutorBuilder<String>()
+                        .memoizeAll()
+                        .setTimeToLive(1, TimeUnit.MINUTES)
+                        .setTicker({ now.get() } as LongSupplier)
+                        .build(counting)
+        )
+
+        when: "a call is executed during and after its time to live"
+        executor.execute(newCall("mean"))
+        now.addAndGet(TimeUnit.SECONDS.toNanos(59))
+        executor.execute(newCall("mean"))
+        now.addAndGet(TimeUnit.SECONDS.toNanos(2))
+        executor.execute(newCall("mean"))
+
+        then: "the call to be executed again after its time to live"
+        counting.executions.get() == 2
+    }
+
+    def "#execute evicts results when the cache exceeds its maximum size"() {
+        given: "a small memoizing executor"
+        final CountingExecutor counting = new CountingExecutor()
+        final MemoizingProcessorExecutor<String> executor = (
+                new MemoizingProcessorExecutorBuilder<String>()
+                        .memoizeAll()
+                        .setMaximumSize(10)
+                        .build(counting)
+        )
+
+        when: "many distinct calls are executed"
+        (0..<100).each { executor.execute(newCall("mean", [(long) it])) }
+
+        then: "at most the maximum number of results to be remembered"
+        executor.size() <= 10
+
+        when: "the first call is executed again"
+        executor.execute(newCall("mean", [0L]))
+
+        then: "it to be executed again"
+        counting.executions.get() == 101
+    }
+
+    def "#execute executes concurrent identical calls once"() {
+        given: "a slow memoized executor"
+        final CountingExecutor counting = new CountingExecutor()
+        final MemoizingProcessorExecutor<String> executor = (
+                new MemoizingProcessorExecutorBuilder<String>().memoize("mean").build(counting)
+        )
+        final ExecutorService pool = Executors.newFixedThreadPool(8)
+        final CountDownLatch start = new CountDownLatch(1)
+
+        when: "identical calls are executed at the same time"
+        final List<Future<Optional<String>>> futures = (0..<8).collect {
+            pool.submit({
+                start.await()
+                executor.execute(newCall("mean", [1L], 200L))
+            } as java.util.concurrent.Callable)
+        }
+        start.countDown()
+        final List<String> results = futures.collect { it.get(5, TimeUnit.SECONDS).get() }
+
+        then: "all callers to receive the result of one execution"
+        results.unique() == ["mean[1][200]"]
+        counting.executions.get() == 1
+
+        cleanup:
+        pool.shutdownNow()
+    }
+
+    def "#execute does not remember failures"() {
+        given: "a memoizing executor"
+        final CountingExecutor counting = new CountingExecutor()
+        final MemoizingProcessorExecutor<String> executor = (
+                new MemoizingProcessorExecutorBuilder<String>().memoizeAll().build(counting)
+        )
+
+        when: "a failing call is executed twice"
+        (0..<2).each {
+            try {
+                executor.execute(newCall("fail"))
+            } catch (final IllegalStateException ignored) {
+            }
+        }
+
+        then: "it to be executed twice"
+        counting.executions.get() == 2
+
+        when: "it is executed again"
+        executor.execute(newCall("fail"))
+
+        then: "its failure to be thrown unchanged"
+        thrown(IllegalStateException)
+    }
+
+    def "ProcessorCallKey is equal for calls of the same identifier and parameters"() {
+        expect: "keys to compare calls by identifier and by parameters"
+        (ProcessorCallKey.of(left) == ProcessorCallKey.of(right)) == expected
+        !expected || ProcessorCallKey.of(left).hashCode() == ProcessorCallKey.of(right).hashCode()
+
+        where:
+        left                                        | right                                              | expected
+        newCall("sensors.mean", [1L, "a"])          | newCall("sensors.mean", [1L, "a"])                 | true
+        newCall("sensors.mean", [1L, "a"]).next()   | newCall("mean", [1L, "a"])                         | true
+        newCall("sensors.mean", [1L])               | newCall("sensors.mean", [1.0d])                    | false
+        newCall("sensors.mean", [1L])               | newCall("sensors.max", [1L])                       | false
+        new ProcessorCall("mean", [1L], [])         | new ProcessorCall("mean", [], [1L])                | false
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.processor
+
+import org.liara.selection.processor.ParallelProcessorExecutor
+import org.liara.selection.processor.ProcessorCall
+import org.liara.selection.processor.ProcessorExecutor
+import org.liara.selection.processor.ProcessorOutcome
+import spock.lang.Specification
+
+import java.util.concurrent.CompletionException
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executor
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.atomic.AtomicInteger
+
+class ParallelProcessorExecutorSpecification extends Specification {
+    /**
+     * An executor that sleeps the number of milliseconds of its first parameter, fails for the
+     * calls of "fail" and records the maximum number of concurrent calls.
+     */
+    static class SlowExecutor implements ProcessorExecutor<Long> {
+        final AtomicInteger running = new AtomicInteger()
+        final AtomicInteger maximum = new AtomicInteger()
+
+        @Override
+        Optional<Long> execute(final ProcessorCall call) {
+            final int current = running.incrementAndGet()
+            maximum.accumulateAndGet(current, { left, right -> Math.max(left, right) })
+
+            try {
+                Thread.sleep((long) call.getExecutionParameters()[0])
+
+                if (call.getIdentifier(0) == "fail") {
+                    throw new IllegalStateException("Failure of " + call.getExecutionParameters())
+                }
+
+                return call.getIdentifier(0) == "none" ? Optional.empty()
+                        : Optional.of((long) call.getExecutionParameters()[0])
+            } finally {
+                running.decrementAndGet()
+            }
+        }
+    }
+
+    /**
+     * An executor that records the calls it starts and blocks on the call of the given index until
+     * its thread is interrupted.
+     */
+    static class BlockingExecutor implements ProcessorExecutor<Long> {
+        final List<Long> started = Collections.synchronizedList([])
+        final CountDownLatch blocked = new CountDownLatch(1)
+        final long blocking
+
+        BlockingExecutor(final long blocking) {
+            this.blocking = blocking
+        }
+
+        @Override
+        Optional<Long> execute(final ProcessorCall call) {
+            final long index = (long) call.getExecutionParameters()[0]
+            started.add(index)
+
+            if (index == blocking) {
+                blocked.countDown()
+                Thread.sleep(10000L)
+            }
+
+            return Optional.of(index)
+        }
+    }
+
+    static ProcessorCall slowCall(final String identifier, final long duration) {
+        return new ProcessorCall(identifier, [], [duration])
+    }
+
+    ExecutorService pool = Executors.newFixedThreadPool(16)
+
+    def cleanup() {
+        pool.shutdownNow()
+    }
+
+    def "#execute runs calls concurrently and returns their outcomes in order of call"() {
+        given: "slow calls of decreasing durations"
+        final SlowExecutor slow = new SlowExecutor()
+        final ParallelProcessorExecutor<Long> executor = new ParallelProcessorExecutor<>(
+                slow, pool, 8
+        )
+        final ProcessorCall[] calls = (0..<40).collect { slowCall("mean", 60 - it) } as ProcessorCall[]
+
+        when: "the calls are executed"
+        final long start = System.nanoTime()
+        final List<ProcessorOutcome<Long>> outcomes = executor.execute(calls)
+        final long elapsed = (System.nanoTime() - start) / 1000000L
+
+        then: "the outcomes to follow the order of the calls"
+        outcomes*.getCall() == calls.toList()
+        outcomes.collect { it.getResult().get() } == (0..<40).collect { 60L - it }
+
+        and: "the batch to take less than the sum of the latencies of its calls"
+        slow.maximum.get() > 1
+        elapsed < (0..<40).sum { 60 - it } / 2
+    }
+
+    def "#execute bounds the number of concurrent calls"() {
+        given: "an executor of a parallelism of 3"
+        final SlowExecutor slow = new SlowExecutor()
+        final ParallelProcessorExecutor<Long> executor = new ParallelProcessorExecutor<>(
+                slow, pool, 3
+        )
+
+        when: "many calls are executed"
+        executor.execute((0..<30).collect { slowCall("mean", 5) })
+
+        then: "at most 3 calls to be executed at the same time"
+        slow.maximum.get() <= 3
+    }
+
+    def "#execute reports the failure of each call without stopping the others"() {
+        given: "a batch with failing calls"
+        final ParallelProcessorExecutor<Long> executor = new ParallelProcessorExecutor<>(
+                new SlowExecutor(), pool, 4
+        )
+
+        when: "the batch is executed"
+        final List<ProcessorOutcome<Long>> outcomes = executor.execute(
+                slowCall("mean", 1), slowCall("fail", 2), slowCall("none", 3), slowCall("fail", 4), slowCall("mean", 5)
+        )
+
+        then: "each outcome to report the failure or the result of its call"
+        outcomes*.isFailure() == [false, true, false, true, false]
+        outcomes*.isPresent() == [true, false, false, false, true]
+        outcomes[1].getFailure() instanceof IllegalStateException
+        outcomes[3].getFailure().getMessage() == "Failure of [4]"
+
+        when: "a result of a failed call is requested"
+        outcomes[1].getResult()
+
+        then: "the failure to be thrown"
+        final CompletionException exception = thrown(CompletionException)
+        exception.getCause().is(outcomes[1].getFailure())
+    }
+
+    def "#getResults returns the present results or throws the first failure"() {
+        given: "an executor"
+        final ParallelProcessorExecutor<Long> executor = new ParallelProcessorExecutor<>(
+                new SlowExecutor(), pool, 4
+        )
+
+        expect: "present results to be returned in order"
+        executor.getResults(slowCall("mean", 3), slowCall("none", 1), slowCall("mean", 2)) == [3L, 2L]
+
+        when: "a call fails"
+        executor.getResults(slowCall("mean", 3), slowCall("fail", 1))
+
+        then: "its failure to be thrown"
+        thrown(CompletionException)
+    }
+
+    def "#execute runs the calls in the calling thread when workers are rejected"() {
+        given: "an executor whose workers are always rejected"
+        final ParallelProcessorExecutor<Long> executor = new ParallelProcessorExecutor<>(
+                new SlowExecutor(), { throw new RejectedExecutionException() } as Executor, 4
+        )
+
+        expect: "the batch to complete"
+        executor.execute((0..<10).collect { slowCall("mean", it) }).collect {
+            it.getResult().get()
+        } == (0..<10).collect { (long) it }
+        executor.execute([]).isEmpty()
+    }
+
+    def "#execute skips the remaining calls when the calling thread is interrupted"() {
+        given: "an executor that runs its calls in the calling thread only"
+        final BlockingExecutor blocking = new BlockingExecutor(2L)
+        final ParallelProcessorExecutor<Long> executor = new ParallelProcessorExecutor<>(
+                blocking, pool, 1
+        )
+
+        and: "a thread that interrupts the caller during its third call"
+        final Thread caller = Thread.currentThread()
+        pool.execute({
+            blocking.blocked.await()
+            caller.interrupt()
+        })
+
+        when: "a batch is executed"
+        executor.execute((0..<10).collect { slowCall("mean", it) })
+
+        then: "the batch to be interrupted before its later calls"
+        thrown(InterruptedException)
+        blocking.started == [0L, 1L, 2L]
+        !Thread.interrupted()
+    }
+
+    def "#new rejects a parallelism lower than 1"() {
+        when: "an executor without parallelism is created"
+        new ParallelProcessorExecutor<>(new SlowExecutor(), pool, 0)
+
+        then: "an exception to be thrown"
+        thrown(IllegalArgumentException)
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.processor
+
+import org.liara.selection.processor.PoolingProcessorExecutor
+import org.liara.selection.processor.Processor
+import org.liara.selection.processor.ProcessorCall
+import spock.lang.Specification
+
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.function.Supplier
+
+class PoolingProcessorExecutorSpecification extends Specification {
+    /**
+     * A processor that sums its execution parameters into an accumulator allocated by its
+     * configuration, and that fails for negative parameters.
+     */
+    static class SumProcessor implements Processor<Long> {
+        final AtomicInteger configurations
+        final AtomicInteger resets
+        long[] accumulator
+        long base
+
+        SumProcessor(final AtomicInteger configurations, final AtomicInteger resets) {
+            this.configurations = configurations
+            this.resets = resets
+        }
+
+        @Override
+        void configure(final List<Object> parameters) {
+            configurations.incrementAndGet()
+            accumulator = new long[1]
+            base = parameters.isEmpty() ? 0L : (long) parameters[0]
+        }
+
+        @Override
+        void reset() {
+            resets.incrementAndGet()
+            accumulator[0] = 0L
+        }
+
+        @Override
+        Long execute(final List<Object> parameters) {
+            for (final Object parameter : parameters) {
+                if ((long) parameter < 0L) {
+                    throw new IllegalArgumentException("Negative parameter")
+                }
+
+                accumulator[0] += (long) parameter
+            }
+
+            return base + accumulator[0]
+        }
+    }
+
+    final AtomicInteger configurations = new AtomicInteger()
+    final AtomicInteger resets = new AtomicInteger()
+
+    PoolingProcessorExecutor<Long> newExecutor(final int maximumIdle) {
+        return new PoolingProcessorExecutor<Long>(
+                { new SumProcessor(configurations, resets) } as Supplier,
+                maximumIdle
+        )
+    }
+
+    static ProcessorCall sumCall(
+            final String identifier,
+            final List<Object> configuration,
+            final List<Object> execution
+    ) {
+        return new ProcessorCall(identifier, configuration, execution)
+    }
+
+    def "it rejects pools without idle processors"() {
+        when: "a pool without idle processors is created"
+        newExecutor(0)
+
+        then: "an exception to be thrown"
+        thrown(IllegalArgumentException)
+    }
+
+    def "#execute reuses the processors of equal configurations"() {
+        given: "a pooling executor"
+        final PoolingProcessorExecutor<Long> executor = newExecutor(4)
+
+        when: "calls of the same configuration are executed"
+        final List<Long> results = (1..5).collect {
+            executor.execute(sumCall("sum", [100L], [(long) it, 1L])).get()
+        }
+
+        then: "one processor to be configured once and reset after each execution"
+        results == [102L, 103L, 104L, 105L, 106L]
+        executor.getCreatedCount() == 1L
+        configurations.get() == 1
+        resets.get() == 5
+        executor.getIdleCount("sum") == 1
+
+        when: "calls of other configurations and identifiers are executed"
+        executor.execute(sumCall("sum", [200L], [1L]))
+        executor.execute(sumCall("count", [100L], [1L]))
+        executor.execute(sumCall("sum", [100L], [1L]))
+
+        then: "each configuration of each identifier to have its processor"
+        executor.getCreatedCount() == 3L
+        executor.getIdleCount("sum") == 2
+        executor.getIdleCount("count") == 1
+    }
+
+    def "#execute keeps at most the maximum number of idle processors for each identifier"() {
+        given: "a small pooling executor"
+        final PoolingProcessorExecutor<Long> executor = newExecutor(2)
+
+        when: "calls of many configurations are executed"
+        (0..<10).each { executor.execute(sumCall("sum", [(long) it], [1L])) }
+
+        then: "at most the maximum number of processors to be kept"
+        executor.getIdleCount("sum") == 2
+
+        when: "the most and least recent configurations are executed again"
+        executor.execute(sumCall("sum", [9L], [1L]))
+        executor.execute(sumCall("sum", [0L], [1L]))
+
+        then: "only the processor of the least recent configuration to be created again"
+        executor.getCreatedCount() == 11L
+    }
+
+    def "#execute discards the processors that failed"() {
+        given: "a pooling executor"
+        final PoolingProcessorExecutor<Long> executor = newExecutor(4)
+
+        when: "a call fails"
+        executor.execute(sumCall("sum", [], [-1L]))
+
+        then: "its failure to be thrown and its processor to be discarded"
+        thrown(IllegalArgumentException)
+        executor.getIdleCount("sum") == 0
+
+        when: "the call is executed again with valid parameters"
+        final Optional<Long> result = executor.execute(sumCall("sum", [], [2L]))
+
+        then: "a new processor to be used"
+        result == Optional.of(2L)
+        executor.getCreatedCount() == 2L
+    }
+
+    def "#execute never shares a processor between concurrent calls"() {
+        given: "a pooling executor and many threads"
+        final PoolingProcessorExecutor<Long> executor = newExecutor(8)
+        final ExecutorService pool = Executors.newFixedThreadPool(8)
+
+        when: "many identical calls are executed concurrently"
+        final List<Future<Long>> futures = (0..<1000).collect {
+            pool.submit({
+                executor.execute(sumCall("sum", [0L], [1L, 2L, 3L])).get()
+            } as java.util.concurrent.Callable<Long>)
+        }
+        final List<Long> results = futures.collect { it.get(10, TimeUnit.SECONDS) }
+
+        then: "each call to return its own result"
+        results.every { it == 6L }
+        executor.getCreatedCount() <= 8L
+        executor.getIdleCount("sum") <= 8
+
+        cleanup:
+        pool.shutdownNow()
+    }
+}
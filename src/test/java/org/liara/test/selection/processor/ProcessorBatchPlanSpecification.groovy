@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.processor
+
+import org.liara.selection.processor.DeduplicatingProcessorExecutor
+import org.liara.selection.processor.ParallelProcessorExecutor
+import org.liara.selection.processor.ProcessorBatchPlan
+import org.liara.selection.processor.ProcessorCall
+import org.liara.selection.processor.ProcessorExecutor
+import org.liara.selection.processor.ProcessorOutcome
+import spock.lang.Specification
+
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+
+class ProcessorBatchPlanSpecification extends Specification {
+    /**
+     * An executor that records its calls, returns nothing for the calls of "none" and fails for
+     * the calls of "fail".
+     */
+    static class RecordingExecutor implements ProcessorExecutor<String> {
+        final List<String> calls = Collections.synchronizedList([])
+
+        @Override
+        Optional<String> execute(final ProcessorCall call) {
+            final String identifier = call.getFullIdentifier()
+            calls.add(identifier + call.getConfigurationParameters())
+
+            if (identifier == "fail") {
+                throw new IllegalStateException("Failure")
+            }
+
+            return identifier == "none" ? Optional.empty()
+                    : Optional.of(identifier + call.getConfigurationParameters())
+        }
+    }
+
+    static ProcessorCall newCall(final String identifier, final List<Object> configuration = []) {
+        return new ProcessorCall(identifier, configuration, [])
+    }
+
+    def "#of groups structurally equal calls"() {
+        when: "a batch with repeated calls is planned"
+        final ProcessorBatchPlan plan = ProcessorBatchPlan.of(
+                newCall("mean", ["a"]), newCall("count"), newCall("mean", ["a"]),
+                newCall("mean", ["b"]), newCall("count")
+        )
+
+        then: "each distinct call to be executed once"
+        plan.getCallCount() == 5
+        plan.getDistinctCallCount() == 3
+        plan.getDistinctCalls()*.getFullIdentifier() == ["mean", "count", "mean"]
+        (0..<5).collect { plan.getAssignment(it) } == [0, 1, 0, 2, 1]
+        plan.getDedupeRatio() == 0.4d
+    }
+
+    def "#getDedupeRatio returns 0 for empty batches"() {
+        expect: "empty batches to not save any execution"
+        ProcessorBatchPlan.of().getDedupeRatio() == 0d
+        ProcessorBatchPlan.of().getDistinctCallCount() == 0
+    }
+
+    def "#execute executes each distinct call once and fans the results out in order"() {
+        given: "a batch with repeated calls"
+        final RecordingExecutor recording = new RecordingExecutor()
+        final ProcessorBatchPlan plan = ProcessorBatchPlan.of(
+                newCall("mean", ["a"]), newCall("none"), newCall("count"),
+                newCall("mean", ["a"]), newCall("none"), newCall("count")
+        )
+
+        when: "the batch is executed"
+        final List<String> results = plan.execute(recording)
+
+        then: "the results of each call to be returned in order of call"
+        results == ["mean[a]", "count[]", "mean[a]", "count[]"]
+        recording.calls == ["mean[a]", "none[]", "count[]"]
+        results == recording.execute(plan.getCalls())
+    }
+
+    def "#execute fans the outcomes of concurrent calls out in order"() {
+        given: "a batch with repeated and failing calls"
+        final RecordingExecutor recording = new RecordingExecutor()
+        final ExecutorService pool = Executors.newFixedThreadPool(4)
+        final ParallelProcessorExecutor<String> parallel = new ParallelProcessorExecutor<>(
+                recording, pool, 4
+        )
+        final ProcessorBatchPlan plan = ProcessorBatchPlan.of(
+                newCall("fail"), newCall("mean"), newCall("fail"), newCall("mean")
+        )
+
+        when: "the batch is executed concurrently"
+        final List<ProcessorOutcome<String>> outcomes = plan.execute(parallel)
+
+        then: "each distinct call to be executed once"
+        recording.calls.sort() == ["fail[]", "mean[]"]
+
+        and: "each outcome to refer to its own call"
+        outcomes*.isFailure() == [true, false, true, false]
+        (0..<4).every { outcomes[it].getCall().is(plan.getCalls()[it]) }
+        outcomes[3].getResult() == Optional.of("mean[]")
+
+        cleanup:
+        pool.shutdownNow()
+    }
+
+    def "#fanOut rejects values that do not match the distinct calls"() {
+        given: "a plan of two distinct calls"
+        final ProcessorBatchPlan plan = ProcessorBatchPlan.of(
+                newCall("mean"), newCall("count"), newCall("mean")
+        )
+
+        expect: "values to be fanned out in order of call"
+        plan.fanOut([1, 2]) == [1, 2, 1]
+
+        when: "values of another batch are fanned out"
+        plan.fanOut([1, 2, 3])
+
+        then: "an exception to be thrown"
+        thrown(IllegalArgumentException)
+    }
+
+    def "DeduplicatingProcessorExecutor reports the executions saved over its batches"() {
+        given: "a deduplicating executor"
+        final RecordingExecutor recording = new RecordingExecutor()
+        final DeduplicatingProcessorExecutor<String> executor = (
+                new DeduplicatingProcessorExecutor<>(recording)
+        )
+
+        when: "batches with repeated calls are executed"
+        final List<String> first = executor.execute(newCall("mean"), newCall("mean"))
+        final List<String> second = executor.execute(
+                [newCall("mean"), newCall("count"), newCall("none"), newCall("count")]
+        )
+
+        then: "the results to be returned in order and the saved executions to be reported"
+        first == ["mean[]", "mean[]"]
+        second == ["mean[]", "count[]", "count[]"]
+        recording.calls.size() == 4
+        executor.getCallCount() == 6L
+        executor.getDistinctCallCount() == 4L
+        Math.abs(executor.getDedupeRatio() - 1d / 3d) < 1e-9d
+    }
+}
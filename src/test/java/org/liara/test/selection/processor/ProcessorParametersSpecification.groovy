@@ -0,0 +1,213 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.processor
+
+import org.liara.selection.CompilationException
+import org.liara.selection.processor.ProcessorCall
+import org.liara.selection.processor.ProcessorParameters
+import org.liara.selection.processor.ProcessorParametersBuilder
+import org.liara.selection.processor.ProcessorParser
+import org.liara.selection.processor.TypedProcessor
+import spock.lang.Specification
+
+class ProcessorParametersSpecification extends Specification {
+    /**
+     * A typed processor that records the vectors it received and sums its numeric parameters.
+     */
+    static class SumProcessor implements TypedProcessor<Double> {
+        ProcessorParameters configuration
+        ProcessorParameters execution
+
+        @Override
+        void configure(final ProcessorParameters parameters) {
+            configuration = parameters
+        }
+
+        @Override
+        Double execute(final ProcessorParameters parameters) {
+            execution = parameters
+            double result = 0d
+
+            for (int index = 0; index < parameters.size(); ++index) {
+                if (parameters.isNumber(index)) {
+                    result += parameters.getDouble(index)
+                }
+            }
+
+            return result
+        }
+    }
+
+    def "it stores each parameter with its type"() {
+        given: "a vector of each type of parameter"
+        final ProcessorParameters parameters = new ProcessorParametersBuilder()
+                .addLong(12L)
+                .addDouble(2.5d)
+                .addString("kitchen")
+                .addConstant("max")
+                .build()
+
+        expect: "each parameter to be read with its type"
+        parameters.size() == 4
+        (0..<4).collect { parameters.getType(it) } == [
+                ProcessorParameters.LONG, ProcessorParameters.DOUBLE,
+                ProcessorParameters.STRING, ProcessorParameters.CONSTANT
+        ]
+        parameters.getLong(0) == 12L
+        parameters.getDouble(0) == 12d
+        parameters.getDouble(1) == 2.5d
+        parameters.getString(2) == "kitchen"
+        parameters.getString(3) == "max"
+        parameters.asList() == [12L, 2.5d, "kitchen", "max"]
+        parameters.asList()[0] instanceof Long
+    }
+
+    def "it rejects reads of parameters of another type"() {
+        given: "a vector of each type of parameter"
+        final ProcessorParameters parameters = new ProcessorParametersBuilder()
+                .addLong(12L)
+                .addDouble(2.5d)
+                .addString("kitchen")
+                .build()
+
+        when: "a parameter is read with another type"
+        read.call(parameters)
+
+        then: "an exception to be thrown"
+        thrown(IllegalArgumentException)
+
+        where:
+        read << [
+                { ProcessorParameters vector -> vector.getLong(1) },
+                { ProcessorParameters vector -> vector.getDouble(2) },
+                { ProcessorParameters vector -> vector.getString(0) }
+        ]
+    }
+
+    def "#asList returns an immutable view"() {
+        when: "the list of a vector is modified"
+        new ProcessorParametersBuilder().addLong(1L).build().asList().add(2L)
+
+        then: "an exception to be thrown"
+        thrown(UnsupportedOperationException)
+    }
+
+    def "#of converts lists of boxed parameters"() {
+        given: "a vector of a list"
+        final ProcessorParameters parameters = ProcessorParameters.of([1, 2L, 1.5f, "a"])
+
+        expect: "the vector to be equal to a vector of the same parameters"
+        parameters == new ProcessorParametersBuilder()
+                .addLong(1L).addLong(2L).addDouble(1.5d).addString("a").build()
+        parameters.hashCode() == ProcessorParameters.of([1L, 2L, 1.5d, "a"]).hashCode()
+        ProcessorParameters.of(parameters.asList()).is(parameters)
+        ProcessorParameters.of([]).is(ProcessorParameters.EMPTY)
+    }
+
+    def "#of rejects unsupported parameters"() {
+        when: "a list with an unsupported parameter is converted"
+        ProcessorParameters.of([new Object()])
+
+        then: "an exception to be thrown"
+        thrown(IllegalArgumentException)
+    }
+
+    def "ProcessorCall passes its vectors to typed processors without copying them"() {
+        given: "a call created from vectors"
+        final ProcessorParameters configuration = new ProcessorParametersBuilder()
+                .addConstant("max").build()
+        final ProcessorParameters execution = new ProcessorParametersBuilder()
+                .addLong(1L).addDouble(2.5d).build()
+        final ProcessorCall call = new ProcessorCall("mean", configuration, execution)
+        final SumProcessor processor = new SumProcessor()
+
+        when: "a typed processor is called"
+        final Double result = call.call(processor)
+
+        then: "the vectors of the call to be passed to the processor"
+        result == 3.5d
+        processor.configuration.is(configuration)
+        processor.execution.is(execution)
+        call.getExecutionParameters() == [1L, 2.5d]
+        call.next(1).getTypedExecutionParameters().is(execution)
+    }
+
+    def "ProcessorCall converts its lists once for typed processors"() {
+        given: "a call created from lists and a view of it"
+        final ProcessorCall call = new ProcessorCall("mean", [], [1L, 2L])
+        final ProcessorCall view = call.next(1)
+        final SumProcessor processor = new SumProcessor()
+
+        when: "a typed processor is called twice"
+        call.call(processor)
+        final ProcessorParameters first = processor.execution
+        call.call(processor)
+
+        then: "the same vector to be passed each time"
+        processor.execution.is(first)
+        first.asList() == [1L, 2L]
+        view.getTypedExecutionParameters().is(first)
+    }
+
+    def "ProcessorParser creates calls with vectors of parameters"() {
+        when: "an expression is parsed"
+        final ProcessorCall[] calls = new ProcessorParser().transpile(
+                'mean(12, 2.5, "kitchen", MAX):3;count'
+        )
+
+        then: "each parameter to be stored with its type"
+        calls.length == 2
+        calls[0].getConfigurationParameters() == [12L, 2.5d, "kitchen", "max"]
+        calls[0].getTypedConfigurationParameters().getType(3) == ProcessorParameters.CONSTANT
+        calls[0].getTypedExecutionParameters().getLong(0) == 3L
+        calls[1].getConfigurationParameters() == []
+        calls[1].getTypedExecutionParameters().is(ProcessorParameters.EMPTY)
+    }
+
+    def "ProcessorParser rejects numbers out of range without leaking their parameters"() {
+        given: "a parser"
+        final ProcessorParser parser = new ProcessorParser()
+
+        when: "an expression with an integer out of range is parsed"
+        parser.transpile('ab("x",+99999999999999999999999)')
+
+        then: "a compilation error to be thrown"
+        final CompilationException exception = thrown(CompilationException)
+        exception.getCharacter() == 7
+
+        when: "another expression is parsed by the same parser"
+        final ProcessorCall[] calls = parser.transpile('bc(2)')
+
+        then: "its parameters to be the only ones of its call"
+        calls.length == 1
+        calls[0].getConfigurationParameters() == [2L]
+    }
+
+    def "ProcessorParser rejects doubles out of range"() {
+        when: "an expression with a double out of range is parsed"
+        new ProcessorParser().transpile('ab(' + '9' * 400 + '.5)')
+
+        then: "a compilation error to be thrown"
+        thrown(CompilationException)
+    }
+}
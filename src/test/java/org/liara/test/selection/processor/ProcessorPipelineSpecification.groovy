@@ -0,0 +1,270 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.processor
+
+import org.liara.selection.processor.ProcessorCall
+import org.liara.selection.processor.ProcessorExecutor
+import org.liara.selection.processor.ProcessorParser
+import org.liara.selection.processor.ProcessorPipeline
+import org.liara.selection.processor.StreamProcessor
+import spock.lang.Specification
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+import java.util.function.Consumer
+
+class ProcessorPipelineSpecification extends Specification {
+    /**
+     * A moving average over a window of the given number of values.
+     */
+    static class Smooth implements StreamProcessor<Double, Double> {
+        final double[] window
+        long count = 0L
+        double sum = 0d
+
+        Smooth(final int size) {
+            window = new double[size]
+        }
+
+        @Override
+        void process(final List<Double> chunk, final Consumer<? super Double> output) {
+            for (final Double value : chunk) {
+                final int index = (int) (count % window.length)
+                sum += value - window[index]
+                window[index] = value
+                count += 1
+
+                if (count >= window.length) {
+                    output.accept(sum / window.length)
+                }
+            }
+        }
+    }
+
+    /**
+     * Keep one value of each given number of values.
+     */
+    static class Resample implements StreamProcessor<Double, Double> {
+        final long period
+        long count = 0L
+
+        Resample(final long period) {
+            this.period = period
+        }
+
+        @Override
+        void process(final List<Double> chunk, final Consumer<? super Double> output) {
+            for (final Double value : chunk) {
+                if (count++ % period == 0L) {
+                    output.accept(value)
+                }
+            }
+        }
+    }
+
+    /**
+     * Sum a series into one value, failing for negative values.
+     */
+    static class Sum implements StreamProcessor<Double, Double> {
+        double sum = 0d
+
+        @Override
+        void process(final List<Double> chunk, final Consumer<? super Double> output) {
+            for (final Double value : chunk) {
+                if (value < 0d) {
+                    throw new IllegalArgumentException("Negative value " + value)
+                }
+
+                sum += value
+            }
+        }
+
+        @Override
+        void complete(final Consumer<? super Double> output) {
+            output.accept(sum)
+        }
+    }
+
+    /**
+     * Emit each value unchanged.
+     */
+    static class Identity implements StreamProcessor<Double, Double> {
+        @Override
+        void process(final List<Double> chunk, final Consumer<? super Double> output) {
+            chunk.forEach(output)
+        }
+    }
+
+    /**
+     * An executor that creates the stream processor of each call.
+     */
+    static class Factory implements ProcessorExecutor<StreamProcessor<Double, Double>> {
+        @Override
+        Optional<StreamProcessor<Double, Double>> execute(final ProcessorCall call) {
+            switch (call.getFullIdentifier()) {
+                case "smooth":
+                    return Optional.of(new Smooth(
+                            (int) call.getTypedConfigurationParameters().getLong(0)
+                    ))
+                case "resample":
+                    return Optional.of(new Resample(
+                            call.getTypedConfigurationParameters().getLong(0)
+                    ))
+                case "sum":
+                    return Optional.of(new Sum())
+                case "identity":
+                    return Optional.of(new Identity())
+                default:
+                    return Optional.empty()
+            }
+        }
+    }
+
+    ExecutorService pool = Executors.newCachedThreadPool()
+
+    def cleanup() {
+        pool.shutdownNow()
+    }
+
+    ProcessorPipeline<Double, Double> newPipeline(
+            final String expression,
+            final int bufferCapacity = 4,
+            final int chunkSize = 16
+    ) {
+        return ProcessorPipeline.of(
+                new ProcessorParser().transpile(expression),
+                new Factory(),
+                pool,
+                bufferCapacity,
+                chunkSize
+        )
+    }
+
+    def "#run applies each stage of a chain to the series in order"() {
+        given: "a pipeline of three stages"
+        final ProcessorPipeline<Double, Double> pipeline = newPipeline(
+                "smooth(4);resample(3);sum"
+        )
+        final List<Double> series = (0..<1000).collect { (double) (it % 17) }
+        final List<Double> results = []
+
+        when: "a series is transformed"
+        pipeline.run(series, { results.add(it) } as Consumer).get(10, TimeUnit.SECONDS)
+
+        then: "the result to be equal to the result of each stage applied to the whole series"
+        final List<Double> smoothed = (3..<1000).collect { final int index ->
+            series.subList(index - 3, index + 1).sum() / 4d
+        }
+        final List<Double> resampled = (0..<smoothed.size()).findAll { it % 3 == 0 }.collect {
+            smoothed[it]
+        }
+        pipeline.getStageCount() == 3
+        results.size() == 1
+        Math.abs(results[0] - resampled.sum()) < 1e-6d
+    }
+
+    def "#run returns values of the last stage in order and in chunks"() {
+        given: "a pipeline of one stage"
+        final ProcessorPipeline<Double, Double> pipeline = newPipeline("identity", 2, 7)
+        final List<Double> results = []
+
+        when: "a series is transformed"
+        pipeline.run((0..<100).collect { (double) it }, { results.add(it) } as Consumer)
+                .get(10, TimeUnit.SECONDS)
+
+        then: "each value to be received in order"
+        results == (0..<100).collect { (double) it }
+    }
+
+    def "#run reads the series while the stages have room for it"() {
+        given: "a slow pipeline and a long series"
+        final ProcessorPipeline<Double, Double> pipeline = newPipeline(
+                "identity;identity;identity", 4, 8
+        )
+        final AtomicLong read = new AtomicLong()
+        final AtomicLong received = new AtomicLong()
+        final AtomicLong maximum = new AtomicLong()
+        final Iterator<Double> series = new Iterator<Double>() {
+            @Override
+            boolean hasNext() {
+                return read.get() < 20000L
+            }
+
+            @Override
+            Double next() {
+                return (double) read.incrementAndGet()
+            }
+        }
+
+        when: "the series is transformed"
+        pipeline.run(series, {
+            received.incrementAndGet()
+            maximum.accumulateAndGet(read.get() - received.get(), { a, b -> Math.max(a, b) })
+
+            if (received.get() % 512L == 0L) {
+                Thread.sleep(1L)
+            }
+        } as Consumer).get(60, TimeUnit.SECONDS)
+
+        then: "each value to be received"
+        received.get() == 20000L
+
+        and: "the values in flight to be bounded by the buffers of the stages"
+        maximum.get() <= 4L * (4L + 2L) * 8L
+    }
+
+    def "#run completes exceptionally when a stage fails"() {
+        given: "a pipeline that fails on negative values"
+        final ProcessorPipeline<Double, Double> pipeline = newPipeline("identity;sum")
+
+        when: "a series with a negative value is transformed"
+        final CompletableFuture<Void> result = pipeline.run(
+                (0..<1000).collect { it == 500 ? -1d : (double) it }, { } as Consumer
+        )
+        result.get(10, TimeUnit.SECONDS)
+
+        then: "the failure of the stage to be reported"
+        final ExecutionException exception = thrown(ExecutionException)
+        exception.getCause() instanceof IllegalArgumentException
+    }
+
+    def "#of rejects calls without stream processor"() {
+        when: "a pipeline of an unknown processor is created"
+        newPipeline("smooth(2);median")
+
+        then: "an exception to be thrown"
+        thrown(IllegalArgumentException)
+    }
+
+    def "#of rejects invalid chunk sizes"() {
+        when: "a pipeline with empty chunks is created"
+        newPipeline("sum", 4, 0)
+
+        then: "an exception to be thrown"
+        thrown(IllegalArgumentException)
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.processor
+
+import org.liara.selection.processor.Processor
+import org.liara.selection.processor.ProcessorCall
+import org.liara.selection.processor.ProcessorExecutor
+import org.liara.selection.processor.ProcessorTrie
+import spock.lang.Specification
+
+class ProcessorTrieSpecification extends Specification {
+    /**
+     * Static methods of interfaces are called through method closures, that Groovy 2.4 invokes by
+     * reflection.
+     */
+    static final Closure<ProcessorExecutor<String>> execute = ProcessorExecutor.&execute
+    static final Closure<ProcessorExecutor<String>> executeIf = ProcessorExecutor.&executeIf
+    static final Closure<ProcessorExecutor<String>> field = ProcessorExecutor.&field
+    static final Closure<ProcessorExecutor<String>> fields = ProcessorExecutor.&fields
+    static final Closure<ProcessorExecutor<String>> all = ProcessorExecutor.&all
+
+    static ProcessorExecutor<String> named(final String name) {
+        return execute(new Processor<String>() {
+            @Override
+            String execute(final List<Object> parameters) {
+                return name + parameters
+            }
+        })
+    }
+
+    static ProcessorExecutor<String> graph() {
+        return all([
+                field("sensors", fields([
+                        "kitchen": fields([
+                                "temperature": fields(["mean": named("mean")])
+                        ]),
+                        "garage" : executeIf(named("garage"), { it.getIdentifierLength() == 0 })
+                ])),
+                field("sensors", fields([
+                        "kitchen": fields(["light": named("light")]),
+                        "garage" : named("fallback")
+                ])),
+                field("count", named("count")).mapNonNull { it.toUpperCase() },
+                fields(["count": named("unreachable"), "sum": named("sum")]),
+                all([field("max", named("max"))])
+        ])
+    }
+
+    def "#execute returns the results of the compiled executor graph"() {
+        given: "an executor graph and its trie"
+        final ProcessorExecutor<String> executor = graph()
+        final ProcessorExecutor<String> trie = ProcessorTrie.compile(executor)
+        final ProcessorCall call = new ProcessorCall(identifier, [], [1L])
+
+        expect: "the trie to return the same result as the graph"
+        trie.execute(call) == executor.execute(call)
+        trie.execute(call).orElse(null) == expected
+
+        where:
+        identifier                          | expected
+        "sensors.kitchen.temperature.mean"  | "mean[1]"
+        "sensors.kitchen.light"             | "light[1]"
+        "sensors.garage"                    | "garage[1]"
+        "sensors.garage.door"               | "fallback[1]"
+        "sensors.kitchen.humidity"          | null
+        "count"                             | "COUNT[1]"
+        "sum"                               | "sum[1]"
+        "max"                               | "max[1]"
+        "min"                               | null
+    }
+
+    def "#compile returns the same trie when it is compiled twice"() {
+        given: "a trie"
+        final ProcessorTrie<String> trie = ProcessorTrie.compile(graph())
+
+        expect: "a trie to be returned as is"
+        ProcessorTrie.compile(trie).is(trie)
+        ProcessorTrie.compile(field("data", trie)).execute(
+                new ProcessorCall("data.sum", [], [])
+        ).get() == "sum[]"
+    }
+
+    def "#execute ignores the calls whose identifier has no segment left"() {
+        given: "a trie that expects a field"
+        final ProcessorExecutor<String> trie = ProcessorTrie.compile(
+                field("count", field("rows", named("rows")))
+        )
+
+        expect: "a call that stops before the field to be ignored"
+        !trie.execute(new ProcessorCall("count", [], [])).isPresent()
+    }
+
+    def "#next returns a view of a call without its first segments"() {
+        given: "a call"
+        final ProcessorCall call = new ProcessorCall("sensors.kitchen.temperature", [2L], [3L])
+
+        expect: "views to skip segments and to keep parameters"
+        call.next().getFullIdentifier() == "kitchen.temperature"
+        call.next().next().getIdentifier() == ["temperature"] as String[]
+        call.next(2).getIdentifier(0) == "temperature"
+        call.next(3).getIdentifierLength() == 0
+        call.next(0).is(call)
+        call.next(2).getConfigurationParameters() == [2L]
+        call.next(2).getExecutionParameters() == [3L]
+    }
+
+    def "#next rejects skipping more segments than the identifier has"() {
+        when: "too many segments are skipped"
+        new ProcessorCall("sensors.kitchen", [], []).next(3)
+
+        then: "an exception to be thrown"
+        thrown(IllegalArgumentException)
+    }
+}
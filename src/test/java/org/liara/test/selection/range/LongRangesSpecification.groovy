@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.range
+
+import org.liara.selection.range.LongRanges
+import spock.lang.Specification
+
+class LongRangesSpecification
+        extends Specification {
+    def "#union merges overlapping and adjacent intervals"() {
+        expect: "the union of two sets to be normalized"
+        LongRanges.closed(0, 10).union(LongRanges.closed(5, 20)) == LongRanges.closed(0, 20)
+        LongRanges.closed(0, 10).union(LongRanges.closed(11, 20)) == LongRanges.closed(0, 20)
+        LongRanges.closed(0, 10).union(LongRanges.closed(12, 20)).size() == 2
+        LongRanges.lessThan(0).union(LongRanges.greaterThanOrEqualTo(0)) == LongRanges.full()
+        LongRanges.empty().union(LongRanges.equalTo(5)) == LongRanges.equalTo(5)
+    }
+
+    def "#intersection keeps the common values of two sets"() {
+        given: "two sets of values"
+        final LongRanges left = LongRanges.closed(0, 10).union(LongRanges.closed(20, 30))
+        final LongRanges right = LongRanges.closed(5, 25)
+
+        expect: "their intersection to contain their common values"
+        left.intersection(right) == LongRanges.closed(5, 10).union(LongRanges.closed(20, 25))
+        left.intersection(LongRanges.closed(11, 19)) == LongRanges.empty()
+        left.intersection(LongRanges.full()) == left
+    }
+
+    def "#complement returns the values that are not in the set"() {
+        expect: "the complement of a set to contain all other values"
+        LongRanges.closed(0, 10).complement() == LongRanges.lessThan(0).union(
+                LongRanges.greaterThan(10)
+        )
+        LongRanges.full().complement() == LongRanges.empty()
+        LongRanges.empty().complement() == LongRanges.full()
+        LongRanges.lessThanOrEqualTo(Long.MAX_VALUE).complement() == LongRanges.empty()
+        LongRanges.greaterThan(Long.MAX_VALUE) == LongRanges.empty()
+    }
+
+    def "#contains checks if a value is in one of the intervals of the set"() {
+        given: "a set of values"
+        final LongRanges ranges = LongRanges.closed(0, 10)
+                .union(LongRanges.closed(20, 30))
+                .union(LongRanges.greaterThan(100))
+
+        expect: "it to contain the values of its intervals"
+        ranges.contains(0)
+        ranges.contains(10)
+        ranges.contains(25)
+        ranges.contains(Long.MAX_VALUE)
+        !ranges.contains(-1)
+        !ranges.contains(15)
+        !ranges.contains(100)
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.range
+
+import org.liara.selection.bitmap.CompressedBitmap
+import org.liara.selection.range.DoubleRanges
+import org.liara.selection.range.LongRanges
+import org.liara.selection.range.RangesEvaluator
+import org.liara.selection.range.RangesEvaluators
+import org.liara.test.selection.natural.DoubleSelectionToRangesCompiler
+import org.liara.test.selection.natural.LongSelectionToRangesCompiler
+import spock.lang.Specification
+
+class RangesEvaluatorSpecification
+        extends Specification {
+    def "#evaluate marks the rows whose value is in the given set"() {
+        given: "a compiled selection"
+        final String selection = "0:10;gt:100,lt:200;near:50+-3"
+        final LongRanges longRanges = new LongSelectionToRangesCompiler().compile(selection)
+        final DoubleRanges doubleRanges = new DoubleSelectionToRangesCompiler().compile(selection)
+
+        and: "random columns"
+        final Random random = new Random(42)
+        final int size = 1000
+        final long[] longs = new long[size]
+        final int[] integers = new int[size]
+        final double[] doubles = new double[size]
+
+        for (int index = 0; index < size; ++index) {
+            integers[index] = random.nextInt(300) - 50
+            longs[index] = integers[index]
+            doubles[index] = index % 17 == 0 ? Double.NaN : integers[index] + random.nextDouble()
+        }
+
+        when: "we evaluate the selection over a part of each column"
+        final long[] longResult = new long[(size + 63) >>> 6]
+        final long[] integerResult = new long[(size + 63) >>> 6]
+        final long[] doubleResult = new long[(size + 63) >>> 6]
+
+        evaluator.evaluate(longRanges, longs, 3, 997, longResult)
+        evaluator.evaluate(longRanges, integers, 3, 997, integerResult)
+        evaluator.evaluate(doubleRanges, doubles, 3, 997, doubleResult)
+
+        then: "we expect each matching row of the evaluated part to be marked"
+        for (int index = 0; index < size; ++index) {
+            final boolean inside = index >= 3 && index < 997
+            assert isSet(longResult, index) == (inside && longRanges.contains(longs[index]))
+            assert isSet(integerResult, index) == (inside && longRanges.contains(integers[index]))
+            assert isSet(doubleResult, index) == (inside && doubleRanges.contains(doubles[index]))
+        }
+
+        where:
+        evaluator << [
+                RangesEvaluators.createScalarEvaluator(),
+                RangesEvaluators.createEvaluator()
+        ]
+    }
+
+    def "#select returns the matching rows of a whole column as a bitmap"() {
+        given: "a compiled selection"
+        final String selection = "0:10;gt:100,lt:200;near:50+-3"
+        final LongRanges longRanges = new LongSelectionToRangesCompiler().compile(selection)
+        final DoubleRanges doubleRanges = new DoubleSelectionToRangesCompiler().compile(selection)
+
+        and: "random columns"
+        final Random random = new Random(42)
+        final int size = 3 * 65536 + 17
+        final long[] longs = new long[size]
+        final int[] integers = new int[size]
+        final double[] doubles = new double[size]
+
+        for (int index = 0; index < size; ++index) {
+            integers[index] = random.nextInt(300) - 50
+            longs[index] = integers[index]
+            doubles[index] = index % 17 == 0 ? Double.NaN : integers[index] + random.nextDouble()
+        }
+
+        expect: "the bitmaps to contain the rows marked by the bitset evaluation"
+        evaluator.select(longRanges, longs) == CompressedBitmap.fromBitset(evaluator.evaluate(longRanges, longs))
+        evaluator.select(longRanges, integers) == CompressedBitmap.fromBitset(evaluator.evaluate(longRanges, integers))
+        evaluator.select(doubleRanges, doubles) == CompressedBitmap.fromBitset(evaluator.evaluate(doubleRanges, doubles))
+        evaluator.select(longRanges, longs).toArray() == (0..<size).findAll { longRanges.contains(longs[it]) } as int[]
+
+        where:
+        evaluator << [
+                RangesEvaluators.createScalarEvaluator(),
+                RangesEvaluators.createEvaluator()
+        ]
+    }
+
+    def "#contains never accepts NaN"() {
+        expect: "NaN to be rejected by any set of double values"
+        !DoubleRanges.closed(-10, 10).contains(Double.NaN)
+        !DoubleRanges.full().contains(Double.NaN)
+        !DoubleRanges.empty().contains(Double.NaN)
+        !DoubleRanges.full().test(Double.NaN)
+        DoubleRanges.full().contains(Double.POSITIVE_INFINITY)
+    }
+
+    private static boolean isSet(final long[] bitset, final int index) {
+        return (bitset[index >>> 6] & (1L << index)) != 0
+    }
+}
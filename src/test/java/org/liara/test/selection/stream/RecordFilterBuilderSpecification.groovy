@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.stream
+
+import org.liara.expression.Expression
+import org.liara.expression.ExpressionFactory
+import org.liara.selection.range.LongRanges
+import org.liara.selection.stream.ExpressionOrdering
+import org.liara.selection.stream.RecordClause
+import org.liara.selection.stream.RecordFilterBuilder
+import org.liara.test.selection.datetime.DateTimeSelectionToConditionCompiler
+import org.liara.test.selection.natural.LongSelectionToExpressionCompiler
+import org.liara.test.selection.string.StringSelectionToConditionCompiler
+import org.liara.test.selection.string.StringSelectionToExpressionCompiler
+import spock.lang.Specification
+
+class RecordFilterBuilderSpecification extends Specification {
+    static final class Activity {
+        final long duration
+        final String name
+
+        Activity(final long duration, final String name) {
+            this.duration = duration
+            this.name = name
+        }
+    }
+
+    static List<Activity> sample() {
+        final List<Activity> result = new ArrayList<>()
+
+        for (int index = 0; index < 1000; ++index) {
+            result.add(new Activity(index, index < 10 ? "walk" : "run"))
+        }
+
+        return result
+    }
+
+    def "#getOrder orders clauses by cost when no sample is given"() {
+        given: "a builder with clauses of different costs"
+        final RecordFilterBuilder<Activity> builder = new RecordFilterBuilder<Activity>()
+                .add(RecordClause.strings({ it.name }, new StringSelectionToConditionCompiler().compile("/^w/")))
+                .add(RecordClause.strings({ it.name }, new StringSelectionToConditionCompiler().compile("walk")))
+                .add(RecordClause.longs({ it.duration }, LongRanges.greaterThan(5)))
+                .add(RecordClause.longs({ it.duration }, LongRanges.equalTo(5)))
+
+        expect: "equalities to be evaluated before ranges, literals and regular expressions"
+        builder.getOrder() == [3, 2, 1, 0] as int[]
+    }
+
+    def "#getOrder evaluates first the clauses that reject records at the lowest cost"() {
+        given: "a cheap clause that accepts almost all records and a costly one that rejects them"
+        final RecordFilterBuilder<Activity> builder = new RecordFilterBuilder<Activity>()
+                .add(RecordClause.strings({ it.name }, new StringSelectionToConditionCompiler().compile("/^w/")))
+                .add(RecordClause.longs({ it.duration }, LongRanges.greaterThan(5)))
+
+        when: "the selectivity of each clause is estimated from a sample"
+        builder.sample(sample())
+
+        then: "the selectivity of each clause to be close to the sampled one"
+        Math.abs(builder.getSelectivity(0) - 0.01) < 0.01
+        Math.abs(builder.getSelectivity(1) - 0.994) < 0.01
+
+        and: "the costly clause to be evaluated first"
+        builder.getOrder() == [0, 1] as int[]
+        builder.build().getClauses() == [builder.getClauses()[0], builder.getClauses()[1]]
+    }
+
+    def "#getOrder accounts for the cost of each datetime comparison"() {
+        given: "a builder with datetime clauses"
+        final DateTimeSelectionToConditionCompiler compiler = new DateTimeSelectionToConditionCompiler()
+        final RecordFilterBuilder<Activity> builder = new RecordFilterBuilder<Activity>()
+                .add(RecordClause.datetimes({ it.duration }, compiler.compile("gte:format:(MM-dd)(03-15)")))
+                .add(RecordClause.datetimes({ it.duration }, compiler.compile("gt:(2010-05-03T10:15:30Z[UTC])")))
+
+        expect: "full date-time comparisons to be evaluated before partial ones"
+        builder.getOrder() == [1, 0] as int[]
+    }
+
+    def "#and orders expressions as the builder orders its clauses"() {
+        given: "a builder and the expressions of each of its clauses"
+        final ExpressionFactory factory = new ExpressionFactory()
+        final Expression<Boolean> regexp = new StringSelectionToExpressionCompiler().compile("/^w/")
+        final Expression<Boolean> range = new LongSelectionToExpressionCompiler().compile("gt:5")
+        final RecordFilterBuilder<Activity> builder = new RecordFilterBuilder<Activity>()
+                .add(RecordClause.strings({ it.name }, new StringSelectionToConditionCompiler().compile("/^w/")))
+                .add(RecordClause.longs({ it.duration }, LongRanges.greaterThan(5)))
+
+        expect: "the conjunction to follow the order of the builder"
+        ExpressionOrdering.and(factory, builder, [regexp, range]) == factory.and([range, regexp])
+        ExpressionOrdering.and(factory, builder.sample(sample()), [regexp, range]) == factory.and([regexp, range])
+    }
+}
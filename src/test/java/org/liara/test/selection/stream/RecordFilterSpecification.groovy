@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.stream
+
+import org.liara.selection.range.LongRanges
+import org.liara.selection.stream.RecordClause
+import org.liara.selection.stream.RecordFilter
+import org.liara.test.selection.bool.BooleanSelectionToConditionCompiler
+import org.liara.test.selection.natural.LongSelectionToRangesCompiler
+import org.liara.test.selection.string.StringSelectionToConditionCompiler
+import spock.lang.Specification
+
+import java.util.stream.Collectors
+
+class RecordFilterSpecification extends Specification {
+    static final class Activity {
+        final long duration
+        final String name
+        final Boolean validated
+
+        Activity(final long duration, final String name, final Boolean validated) {
+            this.duration = duration
+            this.name = name
+            this.validated = validated
+        }
+    }
+
+    static List<Activity> randomActivities(final int count) {
+        final Random random = new Random(count)
+        final List<String> names = ["walk", "run", "sleep", "eat", null]
+        final List<Boolean> validations = [true, false, null]
+        final List<Activity> result = new ArrayList<>(count)
+
+        for (int index = 0; index < count; ++index) {
+            result.add(new Activity(
+                    random.nextInt(1000),
+                    names[random.nextInt(names.size())],
+                    validations[random.nextInt(validations.size())]
+            ))
+        }
+
+        return result
+    }
+
+    def "#all evaluates the cheapest clauses first"() {
+        given: "clauses of different costs"
+        final RecordClause<Activity> regexp = RecordClause.strings(
+                { it.name }, new StringSelectionToConditionCompiler().compile("/^w/")
+        )
+        final RecordClause<Activity> range = RecordClause.longs(
+                { it.duration }, LongRanges.closed(10, 20)
+        )
+        final RecordClause<Activity> equality = RecordClause.longs(
+                { it.duration }, LongRanges.equalTo(10)
+        )
+
+        expect: "the filter to order them by cost"
+        RecordFilter.all(regexp, range, equality).getClauses() == [equality, range, regexp]
+    }
+
+    def "#parallelStream returns the records accepted by each clause"() {
+        given: "random activities"
+        final List<Activity> activities = randomActivities(100000)
+
+        and: "a filter"
+        final RecordFilter<Activity> filter = RecordFilter.all(
+                RecordClause.longs(
+                        { it.duration }, new LongSelectionToRangesCompiler().compile("gt:100,lt:500;900:950")
+                ),
+                RecordClause.strings(
+                        { it.name }, new StringSelectionToConditionCompiler().compile("walk;/^r/")
+                ),
+                RecordClause.booleans(
+                        { it.validated }, new BooleanSelectionToConditionCompiler().compile("not:false")
+                )
+        )
+
+        expect: "a parallel filtering to return the same records as a sequential filtering"
+        final List<Activity> expected = activities.findAll {
+            ((it.duration > 100 && it.duration < 500) || (it.duration >= 900 && it.duration <= 950)) &&
+                    it.name != null && (it.name.contains("walk") || it.name.startsWith("r")) &&
+                    it.validated == true
+        }
+
+        !expected.isEmpty()
+        filter.parallelStream(activities).collect(Collectors.toList()) == expected
+        filter.filter(activities.parallelStream()).collect(Collectors.toList()) == expected
+        filter.filter(activities.stream()).collect(Collectors.toList()) == expected
+        filter.filter(activities.stream()).iterator().toList() == expected
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.string
+
+import spock.lang.Specification
+
+class StringSelectionToConditionCompilerSpecification extends Specification {
+    def "#compile returns conditions that accept the values accepted by a selection"() {
+        given: "a compiler"
+        final StringSelectionToConditionCompiler compiler = new StringSelectionToConditionCompiler()
+
+        expect: "the compiled condition to accept the expected values"
+        compiler.compile(selection).test(value) == expected
+
+        where:
+        selection                  | value            | expected
+        "walk"                     | "sidewalk"       | true
+        "walk"                     | "run"            | false
+        "eq:walk"                  | "sidewalk"       | false
+        "eq:walk"                  | "walk"           | true
+        "not:walk"                 | "run"            | true
+        "not:not:walk"             | "walking"        | true
+        "not:eq:walk"              | "walking"        | true
+        '"side walk"'              | "a side walk"    | true
+        'not:"side walk"'          | "a side walk"    | false
+        "/^ru?n+\$/"               | "runn"           | true
+        "/^ru?n+\$/"               | "rerun"          | false
+        "not:/^r/"                 | "rerun"          | false
+        "walk,side"                | "sidewalk"       | true
+        "walk side"                | "walker"         | false
+        "walk;run"                 | "runner"         | true
+        "walk"                     | null             | false
+        "not:walk"                 | null             | false
+    }
+
+    def "#compile keeps the shape of the selection"() {
+        given: "a compiler"
+        final StringSelectionToConditionCompiler compiler = new StringSelectionToConditionCompiler()
+
+        expect: "the compiled condition to be a disjunction of conjunctions of clauses"
+        compiler.compile("eq:walk,not:/^r/;run").getFilters() == [
+                [
+                        new StringClause(StringClause.EQUAL, "walk", false),
+                        new StringClause(StringClause.REGEXP, "^r", true)
+                ],
+                [new StringClause(StringClause.CONTAINS, "run", false)]
+        ]
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.subscription
+
+import org.liara.selection.subscription.AhoCorasickAutomaton
+import spock.lang.Specification
+
+class AhoCorasickAutomatonSpecification extends Specification {
+    def "#search finds the patterns that occur in a text"() {
+        given: "an automaton"
+        final List<String> patterns = ["he", "she", "his", "hers", "walk", "a"]
+        final AhoCorasickAutomaton automaton = new AhoCorasickAutomaton(patterns)
+
+        expect: "the automaton to find the patterns contained by the text"
+        final long[] found = automaton.search(text)
+        patterns.findAll { (found[0] & (1L << patterns.indexOf(it))) != 0L } == expected
+
+        where:
+        text            | expected
+        ""              | []
+        "ushers"        | ["he", "she", "hers"]
+        "this"          | ["his"]
+        "sidewalk"      | ["walk", "a"]
+        "héhé"          | []
+    }
+
+    def "#search agrees with String#contains on random patterns and texts"() {
+        given: "random patterns over a small alphabet"
+        final Random random = new Random(seed)
+        final Set<String> distinct = new LinkedHashSet<>()
+
+        while (distinct.size() < 150) {
+            distinct.add(randomString(random, 1 + random.nextInt(5)))
+        }
+
+        final List<String> patterns = new ArrayList<>(distinct)
+        final AhoCorasickAutomaton automaton = new AhoCorasickAutomaton(patterns)
+
+        expect: "each text to contain exactly the patterns found"
+        (0..<200).every {
+            final String text = randomString(random, random.nextInt(40))
+            final long[] found = automaton.search(text)
+
+            (0..<patterns.size()).every { final int pattern ->
+                ((found[pattern >>> 6] & (1L << pattern)) != 0L) == text.contains(patterns[pattern])
+            }
+        }
+
+        where:
+        seed << [1L, 7L, 42L]
+    }
+
+    def "#search reports each pattern once"() {
+        given: "an automaton"
+        final AhoCorasickAutomaton automaton = new AhoCorasickAutomaton(["a", "aa", "b"])
+        final long[] found = new long[1]
+        final List<Integer> reported = []
+
+        when: "two texts are searched with the same bitset"
+        automaton.search("aaaa", found, { reported.add(it) })
+        automaton.search("aab", found, { reported.add(it) })
+
+        then: "each pattern to be reported once"
+        reported == [0, 1, 2]
+    }
+
+    def "#AhoCorasickAutomaton rejects empty and duplicated patterns"() {
+        when: "an automaton is built from invalid patterns"
+        new AhoCorasickAutomaton(patterns)
+
+        then: "an exception to be thrown"
+        thrown(IllegalArgumentException)
+
+        where:
+        patterns << [["a", ""], ["a", "b", "a"]]
+    }
+
+    private static String randomString(final Random random, final int length) {
+        final StringBuilder result = new StringBuilder()
+
+        for (int index = 0; index < length; ++index) {
+            result.append((char) (97 + random.nextInt(3)))
+        }
+
+        return result.toString()
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.subscription
+
+import org.liara.selection.subscription.DateTimeSubscriptionIndex
+import org.liara.test.selection.datetime.DateTimeCondition
+import org.liara.test.selection.datetime.DateTimeSelectionToConditionCompiler
+import spock.lang.Specification
+
+import java.time.LocalDateTime
+import java.time.ZoneOffset
+
+class DateTimeSubscriptionIndexSpecification extends Specification {
+    static final List<String> RULES = [
+            "format:(HH)(08):(09),locale:(en)format:(EEEE)(Monday):(Friday)",
+            "format:(MM)(12)",
+            "gte:format:(HH)(08)",
+            "not:locale:(en)format:(EEEE)(Sunday)",
+            "lt:format:(HH:mm)(12:30)",
+            "gte:format:(MM-dd)(03-15)",
+            "format:(HH)(10):(14),locale:(en)format:(EEEE)(Friday)",
+            "gt:(2019-05-03T10:15:30+02:00[Europe/Paris])",
+            "(2019-01-01T00:00:00Z):(2019-06-30T00:00:00Z)",
+            "format:(yyyy-MM-dd)(2019-03-10):(2019-03-20),format:(HH)(12)",
+            "format:(yyyy-MM)(2019-02);format:(yyyy-MM)(2019-11)",
+            "format:(dd)(01)"
+    ]
+
+    def setup() {
+        TimeZone.setDefault(TimeZone.getTimeZone("Europe/Paris"))
+    }
+
+    def "#match returns the subscriptions that accept an instant"() {
+        given: "an index of scheduled rules"
+        final DateTimeSelectionToConditionCompiler compiler = new DateTimeSelectionToConditionCompiler()
+        final Map<Integer, DateTimeCondition> conditions = [:]
+        final DateTimeSubscriptionIndex<Integer> index = new DateTimeSubscriptionIndex<>()
+        RULES.eachWithIndex { String rule, int identifier ->
+            conditions[identifier] = compiler.compile(rule)
+            index.add(identifier, conditions[identifier])
+        }
+
+        and: "random instants of 2019"
+        final Random random = new Random(34)
+        final long from = LocalDateTime.of(2019, 1, 1, 0, 0).toInstant(ZoneOffset.UTC).toEpochMilli()
+        final List<Long> instants = (0..<5000).collect { from + (long) (random.nextDouble() * 365 * 86400000L) }
+
+        expect: "each instant to match the rules that accept it"
+        index.size() == RULES.size()
+        index.getIndexedFieldCount() > 0
+        instants.every { final long instant ->
+            index.match(instant).sort() == conditions.findAll { it.value.test(instant) }.keySet().sort()
+        }
+    }
+
+    def "#match agrees with a linear evaluation of many subscriptions"() {
+        given: "many subscriptions"
+        final Random random = new Random(34)
+        final DateTimeSelectionToConditionCompiler compiler = new DateTimeSelectionToConditionCompiler()
+        final Map<Integer, DateTimeCondition> conditions = (0..<3000).collectEntries {
+            final int hour = random.nextInt(20)
+            final int month = random.nextInt(12) + 1
+            final String selection = [
+                    "format:(HH)(${String.format('%02d', hour)}):(${String.format('%02d', hour + 3)})",
+                    "format:(MM)(${String.format('%02d', month)})",
+                    "format:(HH)(${String.format('%02d', hour)}),format:(MM)(${String.format('%02d', month)})",
+                    "gt:(2019-${String.format('%02d', month)}-01T00:00:00Z)"
+            ][it % 4]
+            [(it): compiler.compile(selection)]
+        }
+        final DateTimeSubscriptionIndex<Integer> index = new DateTimeSubscriptionIndex<>()
+        conditions.each { index.add(it.key, it.value) }
+
+        and: "a third of them removed"
+        conditions.keySet().findAll { it % 3 == 0 }.each { index.remove(it) }
+        conditions.keySet().removeIf { it % 3 == 0 }
+
+        expect: "matches to be the subscriptions that accept each instant"
+        final long from = LocalDateTime.of(2019, 1, 1, 0, 0).toInstant(ZoneOffset.UTC).toEpochMilli()
+        (0..<500).every {
+            final long instant = from + (long) (random.nextDouble() * 365 * 86400000L)
+            index.match(instant).sort() == conditions.findAll { it.value.test(instant) }.keySet().sort()
+        }
+    }
+
+    def "#add replaces a subscription and #remove removes it"() {
+        given: "an index with a subscription"
+        final DateTimeSelectionToConditionCompiler compiler = new DateTimeSelectionToConditionCompiler()
+        final DateTimeSubscriptionIndex<String> index = new DateTimeSubscriptionIndex<>()
+        final long instant = LocalDateTime.of(2019, 12, 24, 9, 0).toInstant(ZoneOffset.UTC).toEpochMilli()
+        index.add("rule", compiler.compile("format:(MM)(12)"))
+
+        expect: "the subscription to be matched"
+        index.match(instant) == ["rule"]
+
+        when: "the subscription is replaced"
+        index.add("rule", compiler.compile("format:(MM)(11)"))
+
+        then: "the new selection is matched"
+        index.size() == 1
+        index.match(instant) == []
+
+        when: "the subscription is removed"
+        final boolean removed = index.remove("rule")
+
+        then: "it does not exist anymore"
+        removed
+        !index.contains("rule")
+        !index.remove("rule")
+    }
+}
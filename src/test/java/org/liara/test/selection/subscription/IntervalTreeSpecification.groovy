@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.subscription
+
+import org.liara.selection.subscription.Interval
+import org.liara.selection.subscription.IntervalTree
+import spock.lang.Specification
+
+class IntervalTreeSpecification extends Specification {
+    def "#stab returns the labels of the intervals that contain a point"() {
+        given: "random intervals"
+        final Random random = new Random(33)
+        final List<Interval<Integer>> intervals = (0..<2000).collect {
+            final double lower = random.nextInt(1000)
+            final double upper = random.nextInt(10) == 0 ? Double.POSITIVE_INFINITY : lower + random.nextInt(50)
+            new Interval<Integer>(random.nextInt(10) == 0 ? Double.NEGATIVE_INFINITY : lower, upper, it)
+        }
+
+        and: "trees built from them at once and one interval at a time"
+        final IntervalTree<Integer> built = IntervalTree.of(intervals)
+        IntervalTree<Integer> added = IntervalTree.empty()
+        intervals.each { added = added.add(it) }
+
+        expect: "both trees to return the labels of the intervals that contain each point"
+        built.size() == intervals.size()
+        added.size() == intervals.size()
+        (-10..1060).every { final int point ->
+            final List<Integer> expected = intervals.findAll { it.contains(point) }*.getValue().sort()
+            built.stab(point).sort() == expected && added.stab(point).sort() == expected
+        }
+        built.stab(Double.NaN).isEmpty()
+        added.stab(Double.NaN).isEmpty()
+        IntervalTree.of([new Interval<Integer>(0d, 0d, 1)]).stab(Double.NaN).isEmpty()
+    }
+
+    def "#remove returns a tree without an interval"() {
+        given: "a tree of random intervals"
+        final Random random = new Random(33)
+        final List<Interval<Integer>> intervals = (0..<1000).collect {
+            final double lower = random.nextDouble() * 100
+            new Interval<Integer>(lower, lower + random.nextDouble() * 10, it)
+        }
+        final IntervalTree<Integer> tree = IntervalTree.of(intervals)
+
+        when: "half of the intervals are removed"
+        IntervalTree<Integer> result = tree
+        intervals.eachWithIndex { Interval<Integer> interval, int index ->
+            if (index % 2 == 0) result = result.remove(interval)
+        }
+
+        then: "the resulting tree contains the other half only"
+        result.size() == 500
+        result.toList()*.getValue().sort() == (0..<1000).findAll { it % 2 == 1 }
+
+        and: "the original tree is not modified"
+        tree.size() == 1000
+        tree.stab(50).sort() == intervals.findAll { it.contains(50) }*.getValue().sort()
+
+        and: "removing a missing interval does not change the tree"
+        result.remove(new Interval<Integer>(0, 1, -1)).is(result)
+    }
+
+    def "#add keeps the tree balanced"() {
+        given: "disjoint intervals added in ascending order"
+        IntervalTree<Integer> tree = IntervalTree.empty()
+        (0..<10000).each { tree = tree.add(new Interval<Integer>(it, it + 0.5, it)) }
+
+        expect: "the height of the tree to be logarithmic"
+        tree.getHeight() <= 3 * 14 + 4
+        tree.stab(5000.25) == [5000]
+        tree.stab(5000.75) == []
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.subscription
+
+import org.liara.selection.subscription.RegexLiterals
+import spock.lang.Specification
+
+import java.util.regex.Pattern
+
+class RegexLiteralsSpecification extends Specification {
+    def "#getRequiredLiteral returns the longest literal that each match contains"() {
+        expect: "the expected literal"
+        RegexLiterals.getRequiredLiteral(expression) == expected
+
+        where:
+        expression           | expected
+        "walk"               | "walk"
+        "^walk(ing)?\$"      | "walk"
+        "side.*walk"         | "side"
+        "ru?n+"              | "r"
+        "runs?"              | "run"
+        "[a-z]+ing"          | "ing"
+        "x{0,3}yz"           | "yz"
+        "ab{2}c"             | "ab"
+        "walk|run"           | null
+        "(?i)walk"           | null
+        "\\Qa.b\\E"          | null
+        "\\d+"               | null
+        "a\\.b"              | "a.b"
+    }
+
+    def "#getRequiredLiteral returns literals contained by each match of random expressions"() {
+        given: "random expressions and values"
+        final Random random = new Random(seed)
+        final List<String> atoms = ["a", "b", "ab", "a?", "b*", "[ab]", "(ab)?", "a+", "b{2}", "."]
+
+        expect: "each value matched by an expression to contain its literal"
+        (0..<300).every {
+            final StringBuilder expression = new StringBuilder()
+            (0..random.nextInt(5)).each { expression.append(atoms[random.nextInt(atoms.size())]) }
+
+            final Pattern pattern = Pattern.compile(expression.toString())
+            final String literal = RegexLiterals.getRequiredLiteral(expression.toString())
+
+            (0..<20).every {
+                final StringBuilder value = new StringBuilder()
+                (0..<random.nextInt(8)).each { value.append((char) (97 + random.nextInt(3))) }
+
+                !pattern.matcher(value).find() || literal == null || value.contains(literal)
+            }
+        }
+
+        where:
+        seed << [3L, 11L]
+    }
+}
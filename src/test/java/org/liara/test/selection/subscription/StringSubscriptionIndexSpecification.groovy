@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.subscription
+
+import org.liara.selection.subscription.StringSubscriptionIndex
+import org.liara.selection.subscription.StringSubscriptionIndexBuilder
+import org.liara.test.selection.string.StringCondition
+import org.liara.test.selection.string.StringSelectionToConditionCompiler
+import spock.lang.Specification
+
+class StringSubscriptionIndexSpecification extends Specification {
+    def "#match returns the subscriptions that accept a value"() {
+        given: "an index of string selections"
+        final StringSelectionToConditionCompiler compiler = new StringSelectionToConditionCompiler()
+        final StringSubscriptionIndex<String> index = new StringSubscriptionIndexBuilder<String>()
+                .add("walk", compiler.compile("walk"))
+                .add("exact", compiler.compile("eq:run;eq:jump"))
+                .add("quoted", compiler.compile('"side walk"'))
+                .add("expression", compiler.compile("/^ru?n+ing\$/"))
+                .add("negated", compiler.compile("not:walk,not:run"))
+                .add("both", compiler.compile("walk,side"))
+                .build()
+
+        expect: "each value to match the subscriptions that accept it"
+        index.match(value).sort() == expected.sort()
+
+        where:
+        value         | expected
+        "sidewalk"    | ["walk", "both"]
+        "a side walk" | ["walk", "quoted", "both"]
+        "run"         | ["exact"]
+        "running"     | ["expression"]
+        "rnning"      | ["expression", "negated"]
+        "jump"        | ["exact", "negated"]
+        ""            | ["negated"]
+        null          | []
+    }
+
+    def "#match agrees with StringCondition#test on random selections"() {
+        given: "random selections"
+        final Random random = new Random(seed)
+        final StringSelectionToConditionCompiler compiler = new StringSelectionToConditionCompiler()
+        final StringSubscriptionIndexBuilder<Integer> builder = new StringSubscriptionIndexBuilder<>()
+        final List<StringCondition> conditions = []
+
+        for (int subscription = 0; subscription < 300; ++subscription) {
+            final StringCondition condition = compiler.compile(randomSelection(random))
+            conditions.add(condition)
+            builder.add(subscription, condition)
+        }
+
+        final StringSubscriptionIndex<Integer> index = builder.build()
+
+        expect: "the index to return the subscriptions that accept each value"
+        (0..<300).every {
+            final String value = randomWord(random, random.nextInt(12))
+            index.match(value).sort() == (0..<300).findAll { conditions[it].test(value) }
+        }
+
+        where:
+        seed << [5L, 13L, 21L]
+    }
+
+    def "#add replaces a subscription"() {
+        given: "a builder with a replaced subscription"
+        final StringSelectionToConditionCompiler compiler = new StringSelectionToConditionCompiler()
+        final StringSubscriptionIndex<String> index = new StringSubscriptionIndexBuilder<String>()
+                .add("rule", compiler.compile("walk"))
+                .add("rule", compiler.compile("run"))
+                .build()
+
+        expect: "only the last selection to be indexed"
+        index.match("walk") == []
+        index.match("run") == ["rule"]
+        index.getIdentifiers() == ["rule"]
+    }
+
+    private static String randomSelection(final Random random) {
+        final List<String> filters = []
+
+        (0..random.nextInt(2)).each {
+            final List<String> clauses = []
+
+            (0..random.nextInt(3)).each {
+                final String prefix = random.nextInt(4) == 0 ? "not:" : ""
+
+                switch (random.nextInt(4)) {
+                    case 0:
+                        clauses.add(prefix + "eq:" + randomWord(random, 1 + random.nextInt(3)))
+                        break
+                    case 1:
+                        clauses.add(prefix + '"' + randomWord(random, random.nextInt(4)) + '"')
+                        break
+                    case 2:
+                        clauses.add(prefix + "/" + randomWord(random, 1 + random.nextInt(2)) +
+                                ["", "?", "+", "*"][random.nextInt(4)] + randomWord(random, 1) + "/")
+                        break
+                    default:
+                        clauses.add(prefix + randomWord(random, 1 + random.nextInt(3)))
+                }
+            }
+
+            filters.add(clauses.join(","))
+        }
+
+        return filters.join(";")
+    }
+
+    private static String randomWord(final Random random, final int length) {
+        final StringBuilder result = new StringBuilder()
+
+        for (int index = 0; index < length; ++index) {
+            result.append((char) (97 + random.nextInt(3)))
+        }
+
+        return result.toString()
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.subscription
+
+import org.liara.selection.range.LongRanges
+import org.liara.selection.subscription.SubscriptionIndex
+import org.liara.test.selection.duration.DurationSelectionToRangesCompiler
+import org.liara.test.selection.natural.DoubleSelectionToRangesCompiler
+import org.liara.test.selection.natural.LongSelectionToRangesCompiler
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.atomic.AtomicBoolean
+
+class SubscriptionIndexSpecification extends Specification {
+    def "#match returns the subscriptions that accept a value"() {
+        given: "an index of number selections"
+        final SubscriptionIndex<String> index = new SubscriptionIndex<>()
+        final DoubleSelectionToRangesCompiler compiler = new DoubleSelectionToRangesCompiler()
+        index.add("tachycardia", compiler.compile("gt:120"))
+        index.add("bradycardia", compiler.compile("lt:40"))
+        index.add("bands", compiler.compile("40:50;near:180+-5"))
+        index.add("normal", compiler.compile("60:100"))
+
+        expect: "each value to match the subscriptions that accept it"
+        index.match(value).sort() == expected.sort()
+
+        where:
+        value      | expected
+        30d        | ["bradycardia"]
+        40d        | ["bands"]
+        45.5d      | ["bands"]
+        55d        | []
+        80d        | ["normal"]
+        130d       | ["tachycardia"]
+        177d       | ["tachycardia", "bands"]
+        Double.NaN | []
+    }
+
+    def "#match returns the subscriptions that accept a duration"() {
+        given: "an index of duration selections"
+        final SubscriptionIndex<Integer> index = new SubscriptionIndex<>()
+        final DurationSelectionToRangesCompiler compiler = new DurationSelectionToRangesCompiler()
+        index.add(1, compiler.compile("gte:1hour"))
+        index.add(2, compiler.compile("lt:30minute"))
+        index.add(3, compiler.compile("not:10minute:2hour"))
+
+        expect: "each duration to match the subscriptions that accept it"
+        index.match(5L * 60000).sort() == [2, 3]
+        index.match(45L * 60000) == []
+        index.match(90L * 60000) == [1]
+        index.match(3L * 3600000).sort() == [1, 3]
+    }
+
+    def "#add replaces a subscription and #remove removes it"() {
+        given: "an index with a subscription"
+        final SubscriptionIndex<String> index = new SubscriptionIndex<>()
+        index.add("rule", new LongSelectionToRangesCompiler().compile("gt:10"))
+
+        when: "the subscription is replaced"
+        index.add("rule", new LongSelectionToRangesCompiler().compile("lt:0"))
+
+        then: "only the new selection is matched"
+        index.size() == 1
+        index.match(20L) == []
+        index.match(-5L) == ["rule"]
+
+        when: "the subscription is removed"
+        final boolean removed = index.remove("rule")
+
+        then: "it is not matched anymore"
+        removed
+        !index.remove("rule")
+        !index.contains("rule")
+        index.match(-5L) == []
+    }
+
+    def "#match agrees with a linear evaluation of the subscriptions"() {
+        given: "many random subscriptions"
+        final Random random = new Random(33)
+        final LongSelectionToRangesCompiler compiler = new LongSelectionToRangesCompiler()
+        final Map<Integer, LongRanges> subscriptions = (0..<2000).collectEntries {
+            final int lower = random.nextInt(1000)
+            [(it): compiler.compile("${lower}:${lower + random.nextInt(100)};gt:${random.nextInt(5000)}")]
+        }
+        final SubscriptionIndex<Integer> index = new SubscriptionIndex<>()
+        subscriptions.each { index.add(it.key, it.value) }
+
+        expect: "matches to be the subscriptions that contain each value"
+        (0..<1200).step(7).every { final int value ->
+            index.match((long) value).sort() ==
+                    subscriptions.findAll { it.value.contains(value) }.keySet().sort()
+        }
+    }
+
+    def "subscriptions can be added and removed while values are matched"() {
+        given: "an index with a permanent subscription"
+        final SubscriptionIndex<Integer> index = new SubscriptionIndex<>()
+        final LongSelectionToRangesCompiler compiler = new LongSelectionToRangesCompiler()
+        index.add(-1, compiler.compile("0:100"))
+
+        and: "readers that match values concurrently"
+        final AtomicBoolean running = new AtomicBoolean(true)
+        final AtomicBoolean failed = new AtomicBoolean(false)
+        final CountDownLatch done = new CountDownLatch(2)
+        final List<Thread> readers = (0..<2).collect {
+            Thread.start {
+                while (running.get()) {
+                    if (!index.match(50L).contains(-1)) failed.set(true)
+                }
+                done.countDown()
+            }
+        }
+
+        when: "subscriptions are added and removed"
+        (0..<2000).each {
+            index.add(it, compiler.compile("${it % 200}:${it % 200 + 10}"))
+            if (it % 3 == 0) index.remove(it)
+        }
+        running.set(false)
+        done.await()
+
+        then: "readers always saw the permanent subscription"
+        !failed.get()
+        index.size() == 1 + 2000 - 667
+        index.match(205L).sort() == (0..<2000).findAll { it % 3 != 0 && it % 200 >= 195 }.sort()
+    }
+}
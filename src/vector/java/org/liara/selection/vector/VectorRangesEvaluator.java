@@ -0,0 +1,217 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.selection.vector;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.liara.selection.range.DoubleRanges;
+import org.liara.selection.range.LongRanges;
+import org.liara.selection.range.RangesEvaluator;
+import org.liara.selection.range.ScalarRangesEvaluator;
+
+/**
+ * A ranges evaluator that compares many rows at once by using the vector API.
+ *
+ * Each interval of a set is checked with at most two lane-wise comparisons, and the masks of all
+ * intervals are merged before being written into the result. Rows that do not fill a complete
+ * vector are delegated to the scalar evaluator.
+ */
+public final class VectorRangesEvaluator
+    implements RangesEvaluator {
+
+  @NonNull
+  private final VectorSpecies<Long> _longSpecies;
+
+  @NonNull
+  private final VectorSpecies<Integer> _intSpecies;
+
+  @NonNull
+  private final VectorSpecies<Double> _doubleSpecies;
+
+  /**
+   * Create an evaluator that uses the preferred vector width of the current platform.
+   */
+  public VectorRangesEvaluator() {
+    _longSpecies = LongVector.SPECIES_PREFERRED;
+    _intSpecies = IntVector.SPECIES_PREFERRED;
+    _doubleSpecies = DoubleVector.SPECIES_PREFERRED;
+  }
+
+  /**
+   * Create an evaluator that uses vectors of the given width.
+   *
+   * @param bitSize Width of the vectors to use, in bits (64, 128, 256 or 512).
+   */
+  public VectorRangesEvaluator(@NonNegative final int bitSize) {
+    @NonNull final VectorShape shape = VectorShape.forBitSize(bitSize);
+
+    _longSpecies = VectorSpecies.of(long.class, shape);
+    _intSpecies = VectorSpecies.of(int.class, shape);
+    _doubleSpecies = VectorSpecies.of(double.class, shape);
+  }
+
+  /**
+   * @see RangesEvaluator#evaluate(LongRanges, long[], int, int, long[])
+   */
+  @Override
+  public void evaluate(
+      @NonNull final LongRanges ranges,
+      @NonNull final long[] column,
+      @NonNegative final int from,
+      @NonNegative final int to,
+      @NonNull final long[] result
+  ) {
+    @NonNegative final int start = Math.min(to, (from + 63) & ~63);
+    @NonNegative final int lanes = _longSpecies.length();
+    @NonNegative final int end = start + (to - start) / lanes * lanes;
+    @NonNegative final int size = ranges.size();
+
+    ScalarRangesEvaluator.INSTANCE.evaluate(ranges, column, from, start, result);
+
+    for (@NonNegative int index = start; index < end; index += lanes) {
+      @NonNull final LongVector values = LongVector.fromArray(_longSpecies, column, index);
+      @NonNull VectorMask<Long> matches = _longSpecies.maskAll(false);
+
+      for (@NonNegative int range = 0; range < size; ++range) {
+        final long lower = ranges.getLower(range);
+        final long upper = ranges.getUpper(range);
+
+        if (lower == Long.MIN_VALUE) {
+          matches = matches.or(values.compare(VectorOperators.LE, upper));
+        } else if (upper == Long.MAX_VALUE) {
+          matches = matches.or(values.compare(VectorOperators.GE, lower));
+        } else {
+          matches = matches.or(
+              values.compare(VectorOperators.GE, lower).and(
+                  values.compare(VectorOperators.LE, upper)
+              )
+          );
+        }
+      }
+
+      result[index >>> 6] |= matches.toLong() << index;
+    }
+
+    ScalarRangesEvaluator.INSTANCE.evaluate(ranges, column, end, to, result);
+  }
+
+  /**
+   * @see RangesEvaluator#evaluate(LongRanges, int[], int, int, long[])
+   */
+  @Override
+  public void evaluate(
+      @NonNull final LongRanges ranges,
+      @NonNull final int[] column,
+      @NonNegative final int from,
+      @NonNegative final int to,
+      @NonNull final long[] result
+  ) {
+    @NonNull final LongRanges clamped = ranges.intersection(
+        LongRanges.closed(Integer.MIN_VALUE, Integer.MAX_VALUE)
+    );
+    @NonNegative final int start = Math.min(to, (from + 63) & ~63);
+    @NonNegative final int lanes = _intSpecies.length();
+    @NonNegative final int end = start + (to - start) / lanes * lanes;
+    @NonNegative final int size = clamped.size();
+
+    ScalarRangesEvaluator.INSTANCE.evaluate(clamped, column, from, start, result);
+
+    for (@NonNegative int index = start; index < end; index += lanes) {
+      @NonNull final IntVector values = IntVector.fromArray(_intSpecies, column, index);
+      @NonNull VectorMask<Integer> matches = _intSpecies.maskAll(false);
+
+      for (@NonNegative int range = 0; range < size; ++range) {
+        final int lower = (int) clamped.getLower(range);
+        final int upper = (int) clamped.getUpper(range);
+
+        if (lower == Integer.MIN_VALUE) {
+          matches = matches.or(values.compare(VectorOperators.LE, upper));
+        } else if (upper == Integer.MAX_VALUE) {
+          matches = matches.or(values.compare(VectorOperators.GE, lower));
+        } else {
+          matches = matches.or(
+              values.compare(VectorOperators.GE, lower).and(
+                  values.compare(VectorOperators.LE, upper)
+              )
+          );
+        }
+      }
+
+      result[index >>> 6] |= matches.toLong() << index;
+    }
+
+    ScalarRangesEvaluator.INSTANCE.evaluate(clamped, column, end, to, result);
+  }
+
+  /**
+   * @see RangesEvaluator#evaluate(DoubleRanges, double[], int, int, long[])
+   */
+  @Override
+  public void evaluate(
+      @NonNull final DoubleRanges ranges,
+      @NonNull final double[] column,
+      @NonNegative final int from,
+      @NonNegative final int to,
+      @NonNull final long[] result
+  ) {
+    @NonNegative final int start = Math.min(to, (from + 63) & ~63);
+    @NonNegative final int lanes = _doubleSpecies.length();
+    @NonNegative final int end = start + (to - start) / lanes * lanes;
+    @NonNegative final int size = ranges.size();
+
+    ScalarRangesEvaluator.INSTANCE.evaluate(ranges, column, from, start, result);
+
+    for (@NonNegative int index = start; index < end; index += lanes) {
+      @NonNull final DoubleVector values = DoubleVector.fromArray(_doubleSpecies, column, index);
+      @NonNull VectorMask<Double> matches = _doubleSpecies.maskAll(false);
+
+      for (@NonNegative int range = 0; range < size; ++range) {
+        final double lower = ranges.getLower(range);
+        final double upper = ranges.getUpper(range);
+
+        if (lower == Double.NEGATIVE_INFINITY) {
+          matches = matches.or(values.compare(VectorOperators.LE, upper));
+        } else if (upper == Double.POSITIVE_INFINITY) {
+          matches = matches.or(values.compare(VectorOperators.GE, lower));
+        } else {
+          matches = matches.or(
+              values.compare(VectorOperators.GE, lower).and(
+                  values.compare(VectorOperators.LE, upper)
+              )
+          );
+        }
+      }
+
+      result[index >>> 6] |= matches.toLong() << index;
+    }
+
+    ScalarRangesEvaluator.INSTANCE.evaluate(ranges, column, end, to, result);
+  }
+}
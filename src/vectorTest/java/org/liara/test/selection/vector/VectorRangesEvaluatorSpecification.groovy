@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.test.selection.vector
+
+import org.liara.selection.range.DoubleRanges
+import org.liara.selection.range.LongRanges
+import org.liara.selection.range.RangesEvaluator
+import org.liara.selection.range.RangesEvaluators
+import org.liara.selection.vector.VectorRangesEvaluator
+import spock.lang.Specification
+
+class VectorRangesEvaluatorSpecification
+        extends Specification {
+    def "#evaluate marks the same rows as the scalar evaluator"() {
+        given: "the scalar evaluator"
+        final RangesEvaluator scalar = RangesEvaluators.createScalarEvaluator()
+
+        and: "some sets of values"
+        final LongRanges longRanges = LongRanges.closed(0, 10)
+                .union(LongRanges.closed(101, 199))
+                .union(LongRanges.greaterThanOrEqualTo(240))
+        final DoubleRanges doubleRanges = DoubleRanges.closed(0, 10)
+                .union(DoubleRanges.closed(100.5, 199.5))
+                .union(DoubleRanges.greaterThanOrEqualTo(240))
+
+        and: "random columns"
+        final Random random = new Random(42)
+        final int size = 1000
+        final long[] longs = new long[size]
+        final int[] integers = new int[size]
+        final double[] doubles = new double[size]
+
+        for (int index = 0; index < size; ++index) {
+            integers[index] = random.nextInt(300) - 50
+            longs[index] = integers[index]
+            doubles[index] = index % 17 == 0 ? Double.NaN : integers[index] + random.nextDouble()
+        }
+
+        when: "we evaluate the sets over a part of each column with both evaluators"
+        final long[] expectedLongs = new long[(size + 63) >>> 6]
+        final long[] expectedIntegers = new long[(size + 63) >>> 6]
+        final long[] expectedDoubles = new long[(size + 63) >>> 6]
+        final long[] longResult = new long[(size + 63) >>> 6]
+        final long[] integerResult = new long[(size + 63) >>> 6]
+        final long[] doubleResult = new long[(size + 63) >>> 6]
+
+        scalar.evaluate(longRanges, longs, from, to, expectedLongs)
+        scalar.evaluate(longRanges, integers, from, to, expectedIntegers)
+        scalar.evaluate(doubleRanges, doubles, from, to, expectedDoubles)
+        evaluator.evaluate(longRanges, longs, from, to, longResult)
+        evaluator.evaluate(longRanges, integers, from, to, integerResult)
+        evaluator.evaluate(doubleRanges, doubles, from, to, doubleResult)
+
+        then: "we expect both evaluators to mark the same rows"
+        longResult == expectedLongs
+        integerResult == expectedIntegers
+        doubleResult == expectedDoubles
+
+        where:
+        [evaluator, from, to] << [
+                [new VectorRangesEvaluator(), new VectorRangesEvaluator(128)],
+                [0, 3],
+                [997, 1000]
+        ].combinations()
+    }
+}